@@ -0,0 +1,130 @@
+package com.example.gateway.avro;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поиск неизвестной схемы по fingerprint'у в Schema Registry через REST API.
+ * <p>
+ * Registry не индексирует схемы по Avro fingerprint'у, поэтому поиск ограничен subject'ом
+ * топика {@code <топик>-value} (TopicNameStrategy, по которой регистрирует схемы {@code KafkaAvroSerializer}).
+ * Запрашивается список версий subject'а, и загружаются только ещё не просмотренные версии, начиная
+ * с новейшей, до первого совпадения: при появлении новой версии схемы это обычно два запроса.
+ * Поиски по разным subject'ам не блокируют друг друга; отсутствующий fingerprint повторно
+ * ищется не чаще раза в {@link #MISS_RETRY_INTERVAL}.
+ * </p>
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SchemaRegistryFallback {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(5);
+    static final Duration MISS_RETRY_INTERVAL = Duration.ofMinutes(1);
+    static final String VALUE_SUBJECT_SUFFIX = "-value";
+
+    String baseUrl;
+    HttpClient httpClient = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    ObjectMapper objectMapper = new ObjectMapper();
+    Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+    Map<String, Set<Integer>> loadedVersions = new ConcurrentHashMap<>();
+    Map<String, Long> misses = new ConcurrentHashMap<>();
+
+    public SchemaRegistryFallback(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * @param topic       топик, из которого прочитано значение
+     * @param fingerprint fingerprint схемы писателя
+     * @return схема или {@code null}, если в subject'е топика её нет
+     */
+    public Schema findByFingerprint(String topic, long fingerprint) {
+        Schema schema = schemas.get(fingerprint);
+        if (schema != null) {
+            return schema;
+        }
+        String subject = topic + VALUE_SUBJECT_SUFFIX;
+        Set<Integer> loaded = loadedVersions.computeIfAbsent(subject, key -> ConcurrentHashMap.newKeySet());
+        synchronized (loaded) {
+            schema = schemas.get(fingerprint);
+            if (schema != null) {
+                return schema;
+            }
+            String missKey = subject + "/" + fingerprint;
+            Long missedAt = misses.get(missKey);
+            if (missedAt != null && System.currentTimeMillis() - missedAt < MISS_RETRY_INTERVAL.toMillis()) {
+                return null;
+            }
+            try {
+                schema = loadNewVersions(subject, loaded, fingerprint);
+            } catch (Exception ex) {
+                log.warn("Не удалось загрузить схемы {} из Schema Registry {}: {}", subject, baseUrl, ex.getMessage());
+            }
+            if (schema == null) {
+                misses.put(missKey, System.currentTimeMillis());
+            } else {
+                misses.remove(missKey);
+                log.info("Схема {} с fingerprint'ом {} получена из Schema Registry ({})",
+                    schema.getFullName(), Long.toHexString(fingerprint), subject);
+            }
+            return schema;
+        }
+    }
+
+    private Schema loadNewVersions(String subject, Set<Integer> loaded, long fingerprint) throws Exception {
+        String encodedSubject = URLEncoder.encode(subject, StandardCharsets.UTF_8);
+        List<Integer> versions = new ArrayList<>();
+        for (JsonNode version : get("/subjects/" + encodedSubject + "/versions")) {
+            versions.add(version.asInt());
+        }
+        for (int i = versions.size() - 1; i >= 0; i--) {
+            int version = versions.get(i);
+            if (loaded.contains(version)) {
+                continue;
+            }
+            JsonNode schemaNode = get("/subjects/" + encodedSubject + "/versions/" + version);
+            loaded.add(version);
+            if (!schemaNode.path("schemaType").asText("AVRO").equals("AVRO")) {
+                continue;
+            }
+            Schema parsed = new Schema.Parser().parse(schemaNode.get("schema").asText());
+            long parsedFingerprint = SchemaNormalization.parsingFingerprint64(parsed);
+            schemas.putIfAbsent(parsedFingerprint, parsed);
+            if (parsedFingerprint == fingerprint) {
+                return parsed;
+            }
+        }
+        return null;
+    }
+
+    private JsonNode get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(TIMEOUT)
+            .header("Accept", "application/vnd.schemaregistry.v1+json, application/json")
+            .GET()
+            .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " для " + path);
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
\ No newline at end of file
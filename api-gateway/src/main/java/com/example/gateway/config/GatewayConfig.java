@@ -8,7 +8,7 @@ import org.springframework.web.reactive.function.client.WebClient;
 public class GatewayConfig {
 
     @Bean
-    public WebClient webClient() {
-        return WebClient.builder().build();
+    public WebClient webClient(WebClient.Builder builder) {
+        return builder.build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.example.gateway.config;
+
+import com.example.auth.event.TokenRevokedEvent;
+import com.example.gateway.avro.AvroSingleObjectDeserializer;
+import com.example.gateway.avro.ClasspathSchemaStore;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import reactor.kafka.receiver.ReceiverOptions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Конфигурация реактивного консьюмера топика отзыва токенов.
+ * <p>
+ * Каждый экземпляр шлюза должен видеть все отзывы, поэтому консьюмер не входит в группу:
+ * {@code TokenRevocationListener} назначает себе все партиции топика и при каждом подключении
+ * перечитывает их с начала. Смещения не фиксируются, и одноразовые группы на брокере не копятся.
+ * </p>
+ * <p>
+ * Значения читаются {@link AvroSingleObjectDeserializer}: он понимает и single-object encoding,
+ * и формат Confluent, поэтому шлюз готов к переключению продюсеров ({@code app.kafka.avro-codec}
+ * в auth-service и user-service) в любом порядке и отдельной настройки кодека не имеет.
+ * Он обёрнут в {@link ErrorHandlingDeserializer}: запись, которую не удалось прочитать, приходит
+ * с {@code value == null} и пропускается, а не останавливает применение следующих отзывов.
+ * </p>
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    String bootstrapServers;
+
+    @Value("${spring.kafka.properties.schema.registry.url}")
+    String schemaRegistryUrl;
+
+    @Bean
+    public ReceiverOptions<String, Object> tokenRevocationReceiverOptions() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, AvroSingleObjectDeserializer.class);
+        props.put(ClasspathSchemaStore.CLASSES_CONFIG, List.of(TokenRevokedEvent.class));
+        props.put("schema.registry.url", schemaRegistryUrl);
+        props.put("specific.avro.reader", true);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return ReceiverOptions.create(props);
+    }
+}
\ No newline at end of file
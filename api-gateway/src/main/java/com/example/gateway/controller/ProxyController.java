@@ -1,11 +1,14 @@
 package com.example.gateway.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -13,13 +16,27 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
 
+/**
+ * Проксирование запросов к auth-service.
+ * <p>
+ * Тело клиента читается в дерево Jackson в том формате, который он прислал (JSON, CBOR или Smile),
+ * и передаётся в auth-service в CBOR; ответ auth-service тоже запрашивается в CBOR и отдаётся
+ * клиенту в формате по его {@code Accept}, по умолчанию в JSON.
+ * </p>
+ */
 @RestController
 @RequestMapping("/api")
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ProxyController {
 
+    /**
+     * Заголовки, которые задаёт сам шлюз: формат внутреннего вызова и длина перекодированного тела.
+     */
+    static final List<String> HOP_HEADERS = List.of(
+        HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.ACCEPT);
+
     final WebClient webClient;
 
     @Value("${app.services.auth-url}")
@@ -30,34 +47,44 @@ public class ProxyController {
     }
 
     @PostMapping("/auth/login")
-    public Mono<ResponseEntity<String>> login(ServerWebExchange exchange) {
-        return proxyPost(exchange, authServiceUrl + "/api/auth/login");
+    public Mono<ResponseEntity<JsonNode>> login(@RequestBody(required = false) JsonNode body, ServerWebExchange exchange) {
+        return proxyPost(exchange, body, authServiceUrl + "/api/auth/login");
     }
 
     @PostMapping("/auth/register")
-    public Mono<ResponseEntity<String>> register(ServerWebExchange exchange) {
-        return proxyPost(exchange, authServiceUrl + "/api/auth/register");
+    public Mono<ResponseEntity<JsonNode>> register(@RequestBody(required = false) JsonNode body, ServerWebExchange exchange) {
+        return proxyPost(exchange, body, authServiceUrl + "/api/auth/register");
     }
 
     @PostMapping("/auth/refresh")
-    public Mono<ResponseEntity<String>> refresh(ServerWebExchange exchange) {
-        return proxyPost(exchange, authServiceUrl + "/api/auth/refresh");
+    public Mono<ResponseEntity<JsonNode>> refresh(@RequestBody(required = false) JsonNode body, ServerWebExchange exchange) {
+        return proxyPost(exchange, body, authServiceUrl + "/api/auth/refresh");
+    }
+
+    @PostMapping("/auth/logout")
+    public Mono<ResponseEntity<JsonNode>> logout(@RequestBody(required = false) JsonNode body, ServerWebExchange exchange) {
+        return proxyPost(exchange, body, authServiceUrl + "/api/auth/logout");
     }
 
-    private Mono<ResponseEntity<String>> proxyPost(ServerWebExchange exchange, String url) {
-        return DataBufferUtils.join(exchange.getRequest().getBody())
-            .map(dataBuffer -> {
-                byte[] bytes = new byte[dataBuffer.readableByteCount()];
-                dataBuffer.read(bytes);
-                DataBufferUtils.release(dataBuffer);
-                return new String(bytes, StandardCharsets.UTF_8);
+    private Mono<ResponseEntity<JsonNode>> proxyPost(ServerWebExchange exchange, JsonNode body, String url) {
+        WebClient.RequestBodySpec request = webClient.post()
+            .uri(URI.create(url))
+            .headers(headers -> {
+                headers.addAll(exchange.getRequest().getHeaders());
+                HOP_HEADERS.forEach(headers::remove);
             })
-            .defaultIfEmpty("")
-            .flatMap(body -> webClient.post()
-                .uri(URI.create(url))
-                .headers(headers -> headers.addAll(exchange.getRequest().getHeaders()))
-                .bodyValue(body)
-                .retrieve()
-                .toEntity(String.class));
+            .accept(MediaType.APPLICATION_CBOR);
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_CBOR).bodyValue(body);
+        }
+        return request
+            .retrieve()
+            .toEntity(JsonNode.class)
+            .map(response -> ResponseEntity.status(response.getStatusCode())
+                .headers(headers -> {
+                    headers.addAll(response.getHeaders());
+                    HOP_HEADERS.forEach(headers::remove);
+                })
+                .body(response.getBody()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.example.gateway.security;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Валидатор JWT, отклоняющий отозванные токены по локальному {@link TokenRevocationRegistry}.
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RevokedTokenValidator implements OAuth2TokenValidator<Jwt> {
+
+    static final OAuth2Error REVOKED = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "Токен отозван", null);
+
+    TokenRevocationRegistry registry;
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        Object userId = jwt.getClaims().get("userId");
+        boolean revoked = registry.isRevoked(
+            jwt.getId(),
+            userId instanceof Number number ? number.longValue() : null,
+            jwt.getIssuedAt());
+        return revoked ? OAuth2TokenValidatorResult.failure(REVOKED) : OAuth2TokenValidatorResult.success();
+    }
+}
\ No newline at end of file
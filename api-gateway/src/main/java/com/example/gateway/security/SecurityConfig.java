@@ -4,7 +4,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
@@ -17,6 +18,10 @@ import reactor.core.publisher.Mono;
  * {@code http://localhost:8081/.well-known/jwks.json}, обёрнутый в реактивный декодер
  * через лямбду, без использования устаревших классов.
  * </p>
+ * <p>
+ * Помимо подписи и срока действия, каждый токен проверяется по локальному набору отозванных
+ * токенов ({@link TokenRevocationRegistry}), который наполняется из Kafka.
+ * </p>
  */
 @Configuration
 @EnableWebFluxSecurity
@@ -33,17 +38,18 @@ public class SecurityConfig {
      * </p>
      *
      * @param http объект настройки HTTP-безопасности
+     * @param reactiveJwtDecoder декодер JWT с проверкой отзыва
      * @return настроенная цепочка фильтров
      */
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ReactiveJwtDecoder reactiveJwtDecoder) {
         http
             .authorizeExchange(exchanges -> exchanges
                 .pathMatchers("/actuator/**").permitAll()
-                .pathMatchers("/api/auth/register", "/api/auth/login", "/api/auth/refresh").permitAll()
+                .pathMatchers("/api/auth/register", "/api/auth/login", "/api/auth/refresh", "/api/auth/logout").permitAll()
                 .anyExchange().authenticated())
             .oauth2ResourceServer(oauth2 -> oauth2
-                .jwt(jwt -> jwt.jwtDecoder(reactiveJwtDecoder())))
+                .jwt(jwt -> jwt.jwtDecoder(reactiveJwtDecoder)))
             .csrf(ServerHttpSecurity.CsrfSpec::disable)
             .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
             .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable);
@@ -57,12 +63,20 @@ public class SecurityConfig {
      * Прямая загрузка JWK Set: {@code http://localhost:8081/.well-known/jwks.json}
      * Не требует OpenID Connect Discovery.
      * </p>
+     * <p>
+     * К стандартным проверкам добавлен {@link RevokedTokenValidator}: отозванный токен
+     * отклоняется так же, как просроченный.
+     * </p>
      *
+     * @param tokenRevocationRegistry локальный набор отозванных токенов
      * @return реактивный декодер, работающий напрямую с JWKS
      */
     @Bean
-    public ReactiveJwtDecoder reactiveJwtDecoder() {
-        JwtDecoder delegate = NimbusJwtDecoder.withJwkSetUri("http://localhost:8081/.well-known/jwks.json").build();
+    public ReactiveJwtDecoder reactiveJwtDecoder(TokenRevocationRegistry tokenRevocationRegistry) {
+        NimbusJwtDecoder delegate = NimbusJwtDecoder.withJwkSetUri("http://localhost:8081/.well-known/jwks.json").build();
+        delegate.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+            JwtValidators.createDefault(),
+            new RevokedTokenValidator(tokenRevocationRegistry)));
 
         return token -> Mono.fromCallable(() -> delegate.decode(token));
     }
@@ -0,0 +1,111 @@
+package com.example.gateway.security;
+
+import com.example.auth.event.TokenRevokedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverPartition;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Читает топик отзыва токенов и применяет события к {@link TokenRevocationRegistry}.
+ * <p>
+ * Партиции топика назначаются вручную и читаются с начала при каждом подключении, без группы
+ * потребителей; партиции, добавленные в топик позже, подхватываются при следующем переподключении
+ * или перезапуске. Запись, которую не удалось десериализовать, пропускается с предупреждением.
+ * </p>
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TokenRevocationListener {
+
+    ReceiverOptions<String, Object> receiverOptions;
+    TokenRevocationRegistry registry;
+    String topic;
+    @NonFinal
+    Disposable subscription;
+
+    public TokenRevocationListener(ReceiverOptions<String, Object> tokenRevocationReceiverOptions,
+                                   TokenRevocationRegistry registry,
+                                   @Value("${app.security.token-revocation.topic}") String topic) {
+        this.receiverOptions = tokenRevocationReceiverOptions;
+        this.registry = registry;
+        this.topic = topic;
+    }
+
+    @PostConstruct
+    public void consumeRevocations() {
+        subscription = Mono.fromCallable(this::partitions)
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMapMany(partitions -> KafkaReceiver.create(receiverOptions
+                    .assignment(partitions)
+                    .addAssignListener(assigned -> assigned.forEach(ReceiverPartition::seekToBeginning)))
+                .receive())
+            .doOnNext(this::apply)
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                .doBeforeRetry(signal -> log.warn("Стрим отзыва токенов прерван, переподключение: {}",
+                    signal.failure().toString())))
+            .subscribe(
+                null,
+                error -> log.error("Неожиданная ошибка в стриме отзыва токенов", error),
+                () -> log.info("Стрим отзыва токенов завершён")
+            );
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Применяет одну запись топика; нераспознанные записи пропускаются.
+     */
+    void apply(ConsumerRecord<String, Object> record) {
+        if (record.value() instanceof TokenRevokedEvent event) {
+            registry.revoke(event);
+            log.debug("Применён отзыв токенов: jti={}, userId={}", event.getJti(), event.getUserId());
+        } else {
+            log.warn("Пропущена нераспознанная запись в топике отзыва токенов: partition={}, offset={}",
+                record.partition(), record.offset());
+        }
+    }
+
+    private List<TopicPartition> partitions() {
+        Map<String, Object> props = new HashMap<>(receiverOptions.consumerProperties());
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(props)) {
+            List<PartitionInfo> infos = consumer.partitionsFor(topic);
+            if (infos == null || infos.isEmpty()) {
+                throw new IllegalStateException("Топик отзыва токенов не найден: " + topic);
+            }
+            return infos.stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.example.gateway.security;
+
+import com.example.auth.event.TokenRevokedEvent;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Локальный набор отозванных access-токенов.
+ * <p>
+ * Наполняется событиями {@link TokenRevokedEvent} из Kafka и проверяется при валидации каждого JWT,
+ * поэтому проверка не требует обращений к БД или к {@code auth-service}:
+ * <ul>
+ *   <li>отзыв по {@code jti} — сначала {@link BloomFilter}, который для подавляющего большинства
+ *       действительных токенов сразу отвечает «нет», затем точный набор для исключения ложных срабатываний</li>
+ *   <li>отзыв по {@code userId} — сравнение {@code iat} токена с моментом отзыва</li>
+ * </ul>
+ * {@code iat} в JWT хранится с точностью до секунды, поэтому момент отзыва по пользователю тоже
+ * усекается до секунды: токен, выпущенный в ту же секунду сразу после отзыва (например, при новом входе
+ * после смены роли), принимается. Токены, выпущенные в эту секунду до отзыва, принимаются тоже —
+ * окно меньше секунды.
+ * Записи хранятся до истечения срока действия затронутых токенов и периодически удаляются,
+ * фильтр Блума при этом пересоздаётся из оставшихся записей.
+ * </p>
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TokenRevocationRegistry {
+
+    Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    Map<Long, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+    long expectedRevocations;
+    double falsePositiveProbability;
+
+    @NonFinal
+    volatile BloomFilter tokenFilter;
+
+    public TokenRevocationRegistry(
+            @Value("${app.security.token-revocation.expected-revocations}") long expectedRevocations,
+            @Value("${app.security.token-revocation.false-positive-probability}") double falsePositiveProbability) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.tokenFilter = new BloomFilter(expectedRevocations, falsePositiveProbability);
+    }
+
+    /**
+     * Применяет событие отзыва.
+     *
+     * @param event событие из топика отзыва токенов
+     */
+    public void revoke(TokenRevokedEvent event) {
+        long expiresAt = event.getExpiresAt().toEpochMilli();
+        if (event.getJti() != null) {
+            revokedTokens.merge(event.getJti(), expiresAt, Math::max);
+            tokenFilter.put(event.getJti());
+        } else if (event.getUserId() != null) {
+            revokedUsers.merge(event.getUserId(),
+                new UserRevocation(event.getIssuedBefore().getEpochSecond(), expiresAt),
+                UserRevocation::merge);
+        }
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param jti      идентификатор токена (может быть {@code null})
+     * @param userId   идентификатор пользователя (может быть {@code null})
+     * @param issuedAt момент выпуска токена (может быть {@code null})
+     * @return {@code true}, если токен отозван
+     */
+    public boolean isRevoked(String jti, Long userId, Instant issuedAt) {
+        if (jti != null && tokenFilter.mightContain(jti) && revokedTokens.containsKey(jti)) {
+            return true;
+        }
+        if (userId == null || revokedUsers.isEmpty()) {
+            return false;
+        }
+        UserRevocation revocation = revokedUsers.get(userId);
+        return revocation != null && (issuedAt == null || issuedAt.getEpochSecond() < revocation.issuedBeforeSecond());
+    }
+
+    /**
+     * Удаляет записи, все затронутые токены которых уже истекли, и пересоздаёт фильтр Блума.
+     */
+    @Scheduled(fixedDelayString = "${app.security.token-revocation.purge-interval}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+        revokedUsers.values().removeIf(revocation -> revocation.expiresAt() < now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revokedTokens.size() * 2L), falsePositiveProbability);
+        revokedTokens.keySet().forEach(rebuilt::put);
+        tokenFilter = rebuilt;
+        // jti, добавленные во время пересоздания, могли попасть только в старый фильтр
+        revokedTokens.keySet().forEach(rebuilt::put);
+
+        log.debug("Отозванных токенов: {}, пользователей с отзывом: {}", revokedTokens.size(), revokedUsers.size());
+    }
+
+    /**
+     * @param issuedBeforeSecond момент отзыва в секундах эпохи, как {@code iat}
+     * @param expiresAt          момент истечения последнего затронутого токена в миллисекундах
+     */
+    private record UserRevocation(long issuedBeforeSecond, long expiresAt) {
+
+        UserRevocation merge(UserRevocation other) {
+            return new UserRevocation(Math.max(issuedBeforeSecond, other.issuedBeforeSecond),
+                Math.max(expiresAt, other.expiresAt));
+        }
+    }
+}
\ No newline at end of file
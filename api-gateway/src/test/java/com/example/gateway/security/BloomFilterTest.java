@@ -0,0 +1,38 @@
+package com.example.gateway.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_ShouldNeverMissInsertedKeys() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("jti-" + i));
+
+        assertThat(IntStream.range(0, 10_000)).allMatch(i -> filter.mightContain("jti-" + i));
+    }
+
+    @Test
+    void mightContain_ShouldKeepFalsePositivesNearConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("jti-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("other-" + i)).count();
+
+        // Ожидается около 1%; запас вдвое против случайных колебаний хеша.
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void mightContain_ShouldBeEmptyForFreshFilter() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+
+        assertThat(filter.mightContain("jti")).isFalse();
+        filter.put("jti");
+        assertThat(filter.mightContain("jti")).isTrue();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.gateway.security;
+
+import com.example.auth.event.TokenRevokedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import reactor.kafka.receiver.ReceiverOptions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationListenerTest {
+
+    static final Instant NOW = Instant.parse("2026-10-19T10:00:00Z");
+
+    TokenRevocationRegistry registry = new TokenRevocationRegistry(1_000, 0.01);
+    TokenRevocationListener listener = new TokenRevocationListener(ReceiverOptions.create(Map.of()), registry, "token.revoked");
+
+    @Test
+    void apply_ShouldSkipUndecodableRecordAndApplyFollowingRevocations() {
+        // ErrorHandlingDeserializer отдаёт нечитаемую запись с value == null.
+        listener.apply(new ConsumerRecord<>("token.revoked", 0, 0, "jti-1", null));
+        listener.apply(new ConsumerRecord<>("token.revoked", 0, 1, "jti-2", TokenRevokedEvent.newBuilder()
+            .setJti("jti-2")
+            .setIssuedBefore(NOW)
+            .setExpiresAt(NOW.plus(Duration.ofHours(1)))
+            .build()));
+
+        assertThat(registry.isRevoked("jti-1", null, null)).isFalse();
+        assertThat(registry.isRevoked("jti-2", null, null)).isTrue();
+    }
+}
\ No newline at end of file
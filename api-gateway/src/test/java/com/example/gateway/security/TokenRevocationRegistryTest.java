@@ -0,0 +1,68 @@
+package com.example.gateway.security;
+
+import com.example.auth.event.TokenRevokedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationRegistryTest {
+
+    static final Instant NOW = Instant.parse("2026-10-19T10:00:00.700Z");
+
+    TokenRevocationRegistry registry = new TokenRevocationRegistry(1_000, 0.01);
+
+    @Test
+    void isRevoked_ShouldMatchRevokedJtiOnly() {
+        registry.revoke(event("jti-1", 7L, NOW, NOW.plus(Duration.ofHours(1))));
+
+        assertThat(registry.isRevoked("jti-1", 7L, NOW.minusSeconds(60))).isTrue();
+        assertThat(registry.isRevoked("jti-2", 7L, NOW.minusSeconds(60))).isFalse();
+        assertThat(registry.isRevoked(null, 7L, NOW.minusSeconds(60))).isFalse();
+    }
+
+    @Test
+    void isRevoked_ShouldCompareUserRevocationWithIatInSeconds() {
+        registry.revoke(event(null, 7L, NOW, NOW.plus(Duration.ofHours(1))));
+
+        // iat в JWT — целые секунды: токен нового входа в ту же секунду после отзыва действителен.
+        assertThat(registry.isRevoked("jti-new", 7L, Instant.parse("2026-10-19T10:00:00Z"))).isFalse();
+        assertThat(registry.isRevoked("jti-next", 7L, Instant.parse("2026-10-19T10:00:01Z"))).isFalse();
+        assertThat(registry.isRevoked("jti-old", 7L, Instant.parse("2026-10-19T09:59:59Z"))).isTrue();
+        assertThat(registry.isRevoked("jti-legacy", 7L, null)).isTrue();
+        assertThat(registry.isRevoked("jti-old", 8L, Instant.parse("2026-10-19T09:59:59Z"))).isFalse();
+    }
+
+    @Test
+    void revoke_ShouldKeepLatestUserRevocation() {
+        registry.revoke(event(null, 7L, NOW, NOW.plus(Duration.ofHours(1))));
+        registry.revoke(event(null, 7L, NOW.minusSeconds(600), NOW.plus(Duration.ofHours(1))));
+
+        assertThat(registry.isRevoked(null, 7L, NOW.minusSeconds(60))).isTrue();
+    }
+
+    @Test
+    void purgeExpired_ShouldDropExpiredEntriesAndKeepLiveOnes() {
+        Instant now = Instant.now();
+        registry.revoke(event("expired", null, now, now.minusSeconds(1)));
+        registry.revoke(event("live", null, now, now.plus(Duration.ofHours(1))));
+        registry.revoke(event(null, 7L, now, now.minusSeconds(1)));
+
+        registry.purgeExpired();
+
+        assertThat(registry.isRevoked("expired", null, null)).isFalse();
+        assertThat(registry.isRevoked("live", null, null)).isTrue();
+        assertThat(registry.isRevoked(null, 7L, now.minusSeconds(60))).isFalse();
+    }
+
+    private static TokenRevokedEvent event(String jti, Long userId, Instant issuedBefore, Instant expiresAt) {
+        return TokenRevokedEvent.newBuilder()
+            .setJti(jti)
+            .setUserId(userId)
+            .setIssuedBefore(issuedBefore)
+            .setExpiresAt(expiresAt)
+            .build();
+    }
+}
\ No newline at end of file
@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Главный класс приложения, запускающий сервис аутентификации.
@@ -15,11 +16,15 @@ import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfigurati
  * подключается явно через {@link ImportAutoConfiguration}, чтобы гарантировать корректную
  * инициализацию схемы БД при старте приложения.</p>
  *
+ * <p>{@link EnableScheduling} включает периодические задачи, например очистку истёкших
+ * записей об отзыве токенов.</p>
+ *
  * @see SpringApplication
  * @see LiquibaseAutoConfiguration
  */
 @SpringBootApplication
 @ImportAutoConfiguration(LiquibaseAutoConfiguration.class)
+@EnableScheduling
 public class AuthApplication {
 
     /**
@@ -0,0 +1,70 @@
+package com.example.auth.avro;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кодировщики Avro single-object encoding для сгенерированных классов ({@link #CLASSES_CONFIG}).
+ * <p>
+ * Кодировщик создаётся один раз на класс и переиспользует буферы между вызовами.
+ * auth-service только публикует события и ничего не декодирует, поэтому поиска схем по fingerprint'у и обращения к Schema Registry здесь нет.
+ * </p>
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ClasspathSchemaStore {
+
+    /**
+     * Сгенерированные Avro-классы: список {@link Class} или имён классов через запятую.
+     */
+    public static final String CLASSES_CONFIG = "avro.codec.classes";
+
+    Map<Class<?>, BinaryMessageEncoder<SpecificRecord>> encoders = new ConcurrentHashMap<>();
+
+    public ClasspathSchemaStore(Collection<Class<? extends SpecificRecord>> classes) {
+        for (Class<? extends SpecificRecord> type : classes) {
+            SpecificData model = SpecificData.getForClass(type);
+            encoders.put(type, new BinaryMessageEncoder<>(model, model.getSchema(type)));
+        }
+    }
+
+    /**
+     * Создаёт кодировщики по настройкам сериализатора Kafka.
+     */
+    public static ClasspathSchemaStore fromConfigs(Map<String, ?> configs) {
+        return new ClasspathSchemaStore(classes(configs.get(CLASSES_CONFIG)));
+    }
+
+    public BinaryMessageEncoder<SpecificRecord> encoder(Class<?> type) {
+        BinaryMessageEncoder<SpecificRecord> encoder = encoders.get(type);
+        if (encoder == null) {
+            throw new SerializationException("Avro-класс не зарегистрирован в " + CLASSES_CONFIG + ": " + type.getName());
+        }
+        return encoder;
+    }
+
+    private static List<Class<? extends SpecificRecord>> classes(Object value) {
+        if (value == null) {
+            throw new ConfigException(CLASSES_CONFIG, null, "Не заданы Avro-классы");
+        }
+        Collection<?> items = value instanceof Collection<?> collection
+            ? collection
+            : List.of(value.toString().split(","));
+        return items.stream()
+            .map(item -> item instanceof Class<?> type
+                ? type
+                : ClassUtils.resolveClassName(item.toString().trim(), ClasspathSchemaStore.class.getClassLoader()))
+            .<Class<? extends SpecificRecord>>map(type -> type.asSubclass(SpecificRecord.class))
+            .toList();
+    }
+}
\ No newline at end of file
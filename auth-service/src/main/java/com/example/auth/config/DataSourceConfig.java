@@ -5,9 +5,11 @@ import com.zaxxer.hikari.HikariDataSource;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
 
 import javax.sql.DataSource;
 
@@ -24,6 +26,10 @@ import javax.sql.DataSource;
  * с традиционными инструментами миграции, позволяя запускать изменения схемы БД
  * при старте приложения.</p>
  *
+ * <p>После старта приложения JDBC-соединения больше не нужны: вся работа с БД идёт через пул R2DBC.
+ * Поэтому пул HikariCP держится минимальным и закрывается по событию {@link ApplicationReadyEvent},
+ * освобождая соединения PostgreSQL и память каждой реплики.</p>
+ *
  * @see DataSource
  * @see HikariDataSource
  */
@@ -43,6 +49,9 @@ public class DataSourceConfig {
     @Value("${spring.datasource.driver-class-name}")
     String driverClassName;
 
+    @Value("${spring.datasource.hikari.maximum-pool-size:2}")
+    int maximumPoolSize;
+
     /**
      * Создаёт и возвращает основной бин источника данных с использованием HikariCP.
      *
@@ -58,12 +67,23 @@ public class DataSourceConfig {
      */
     @Bean
     @Primary
-    public DataSource dataSource() {
+    public HikariDataSource dataSource() {
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(jdbcUrl);
         config.setUsername(username);
         config.setPassword(password);
         config.setDriverClassName(driverClassName);
+        config.setPoolName("liquibase");
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(0);
         return new HikariDataSource(config);
     }
+
+    /**
+     * Закрывает JDBC-пул после того, как миграции выполнены и приложение готово к работе.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void closeAfterMigrations() {
+        dataSource().close();
+    }
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.example.auth.config;
 
+import com.example.auth.avro.AvroSingleObjectSerializer;
+import com.example.auth.avro.ClasspathSchemaStore;
+import com.example.auth.event.TokenRevokedEvent;
+import com.example.auth.event.UserCreatedEvent;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,10 +13,11 @@ import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderOptions;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Конфигурация реактивного продюсера Kafka с поддержкой Avro и Confluent Schema Registry.
+ * Конфигурация реактивного продюсера Kafka с Avro-сериализацией.
  * <p>
  * Настраивает {@link KafkaSender} для асинхронной и реактивной отправки сообщений в Kafka
  * с использованием Avro-сериализации. Обеспечивает интеграцию с Spring Boot через внешние свойства.
@@ -21,6 +26,13 @@ import java.util.Map;
  * Используется для отправки событий, таких как {@code user.created}, в рамках event-driven взаимодействия
  * между микросервисами (например, из {@code auth-service} в {@code user-service}).
  * </p>
+ * <p>
+ * По умолчанию значения кодируются {@code KafkaAvroSerializer} с регистрацией схем в Schema Registry
+ * ({@code app.kafka.avro-codec: confluent}). Значение {@code single-object} включает Avro single-object
+ * encoding: fingerprint схемы пишется в заголовок значения, и Schema Registry для отправки не нужен.
+ * Переключать его можно только после того, как все консьюмеры {@code user.created} и {@code token.revoked}
+ * читают оба формата.
+ * </p>
  *
  * @see KafkaSender
  * @see SenderOptions
@@ -34,14 +46,18 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.properties.schema.registry.url}")
     String schemaRegistryUrl;
 
+    @Value("${app.kafka.avro-codec:confluent}")
+    String avroCodec;
+
     /**
      * Создаёт и настраивает {@link SenderOptions} для реактивного Kafka-продюсера.
      * <p>
      * Включает:
      * <ul>
      *   <li>Сериализатор ключей — {@link StringSerializer}</li>
-     *   <li>Сериализатор значений — {@link io.confluent.kafka.serializers.KafkaAvroSerializer}</li>
-     *   <li>Подключение к Schema Registry</li>
+     *   <li>Сериализатор значений — {@link AvroSingleObjectSerializer}
+     *       или {@link io.confluent.kafka.serializers.KafkaAvroSerializer}</li>
+     *   <li>Подключение к Schema Registry (для Confluent-кодека)</li>
      *   <li>Включение режима specific reader для генерируемых Avro-классов</li>
      * </ul>
      *
@@ -52,7 +68,10 @@ public class KafkaProducerConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, io.confluent.kafka.serializers.KafkaAvroSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "confluent".equals(avroCodec)
+            ? io.confluent.kafka.serializers.KafkaAvroSerializer.class
+            : AvroSingleObjectSerializer.class);
+        props.put(ClasspathSchemaStore.CLASSES_CONFIG, List.of(UserCreatedEvent.class, TokenRevokedEvent.class));
         props.put("schema.registry.url", schemaRegistryUrl);
         props.put("specific.avro.reader", true);
 
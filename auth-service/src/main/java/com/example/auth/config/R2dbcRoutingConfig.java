@@ -0,0 +1,144 @@
+package com.example.auth.config;
+
+import com.example.routing.ReadOnlyRoutingTransactionManager;
+import com.example.routing.ReadWriteRoutingConnectionFactory;
+import com.example.routing.ReadYourWritesTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Конфигурация пулов R2DBC с разделением чтения и записи.
+ *
+ * <p>Заменяет автоконфигурируемую фабрику соединений на {@link ReadWriteRoutingConnectionFactory}:
+ * primary строится из {@code spring.r2dbc.*}, реплики — из {@code app.r2dbc.replica-urls}
+ * (список через запятую) с теми же учётными данными, опциями драйвера и настройками пула.
+ * Если реплики не заданы, приложение работает только с primary, как и раньше.</p>
+ *
+ * <p>Так как фабрика больше не является {@link ConnectionPool}, метрики пулов
+ * ({@code r2dbc.pool.*} с тегом {@code name}) регистрируются здесь явно для каждого пула.
+ * Декораторы наблюдения R2DBC применяются к фабрикам под пулами, поэтому метрика
+ * {@code r2dbc.query} продолжает собираться для всех узлов.</p>
+ *
+ * <p>Журнал {@link ReadYourWritesTracker} хранится в памяти экземпляра. Вход сразу после регистрации
+ * или обновление только что выданного refresh-токена на соседнем экземпляре может уйти на отставшую
+ * реплику и не найти запись. Если это недопустимо, нужна привязка клиента к экземпляру на балансировщике
+ * либо чтение таких запросов с primary.</p>
+ *
+ * @see ReadOnlyRoutingTransactionManager
+ */
+@Configuration
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class R2dbcRoutingConfig {
+
+    @Value("${app.r2dbc.replica-urls:}")
+    List<String> replicaUrls;
+
+    @Value("${app.r2dbc.replica-health-check-interval:PT5S}")
+    Duration healthCheckInterval;
+
+    @Value("${app.r2dbc.read-your-writes-window:PT5S}")
+    Duration readYourWritesWindow;
+
+    /**
+     * Журнал недавних записей, по которому чтения «своих» данных направляются на primary.
+     *
+     * @return трекер записей с окном {@code app.r2dbc.read-your-writes-window}
+     */
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(readYourWritesWindow);
+    }
+
+    /**
+     * Создаёт маршрутизирующую фабрику соединений поверх пулов primary и реплик.
+     *
+     * @param properties            стандартные настройки {@code spring.r2dbc}
+     * @param decorators            декораторы фабрик (наблюдение за запросами)
+     * @param meterRegistry         реестр метрик для пулов
+     * @param readYourWritesTracker журнал недавних записей
+     * @return фабрика соединений, используемая репозиториями
+     */
+    @Bean
+    public ReadWriteRoutingConnectionFactory connectionFactory(R2dbcProperties properties,
+                                                               ObjectProvider<ConnectionFactoryDecorator> decorators,
+                                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                                               ReadYourWritesTracker readYourWritesTracker) {
+        List<ConnectionFactoryDecorator> orderedDecorators = decorators.orderedStream().toList();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        ConnectionPool primary = createPool("primary", properties.getUrl(), properties, orderedDecorators, registry);
+
+        List<ConnectionPool> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (StringUtils.hasText(url)) {
+                String name = "replica-" + replicas.size();
+                replicas.add(createPool(name, url.trim(), properties, orderedDecorators, registry));
+            }
+        }
+        return new ReadWriteRoutingConnectionFactory(primary, replicas, readYourWritesTracker, healthCheckInterval);
+    }
+
+    /**
+     * Менеджер транзакций, отправляющий {@code @Transactional(readOnly = true)} на реплики.
+     *
+     * @param connectionFactory маршрутизирующая фабрика соединений
+     * @return реактивный менеджер транзакций
+     */
+    @Bean
+    public ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new ReadOnlyRoutingTransactionManager(connectionFactory);
+    }
+
+    private ConnectionPool createPool(String name, String url, R2dbcProperties properties,
+                                      List<ConnectionFactoryDecorator> decorators, MeterRegistry registry) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+            .username(properties.getUsername())
+            .password(properties.getPassword())
+            .configure(options -> properties.getProperties()
+                .forEach((key, value) -> options.option(Option.valueOf(key), value)))
+            .decorators(decorators)
+            .build();
+
+        R2dbcProperties.Pool pool = properties.getPool();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory)
+            .name(name);
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(pool.getInitialSize()).to(builder::initialSize);
+        map.from(pool.getMaxSize()).to(builder::maxSize);
+        map.from(pool.getMinIdle()).to(builder::minIdle);
+        map.from(pool.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(pool.getMaxValidationTime()).to(builder::maxValidationTime);
+        map.from(pool.getAcquireRetry()).to(builder::acquireRetry);
+        map.from(pool.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        map.from(pool.getValidationDepth()).to(builder::validationDepth);
+
+        ConnectionPool connectionPool = new ConnectionPool(builder.build());
+        if (registry != null) {
+            new ConnectionPoolMetrics(connectionPool, name, Tags.empty()).bindTo(registry);
+        }
+        return connectionPool;
+    }
+}
\ No newline at end of file
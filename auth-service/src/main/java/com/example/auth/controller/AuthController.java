@@ -2,6 +2,7 @@ package com.example.auth.controller;
 
 import com.example.auth.dto.JwtResponse;
 import com.example.auth.dto.LoginRequest;
+import com.example.auth.dto.LogoutRequest;
 import com.example.auth.dto.RefreshTokenRequest;
 import com.example.auth.dto.RegisterRequest;
 import com.example.auth.service.AuthService;
@@ -32,6 +33,7 @@ import reactor.core.publisher.Mono;
  *   <li>Регистрация нового пользователя</li>
  *   <li>Вход в систему (логин)</li>
  *   <li>Обновление access-токена с помощью refresh-токена</li>
+ *   <li>Выход из системы с отзывом токенов</li>
  * </ul>
  * </p>
  */
@@ -141,4 +143,37 @@ public class AuthController {
                 .map(ResponseEntity::ok)
                 .switchIfEmpty(Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build()));
     }
+
+    /**
+     * Завершает сессию пользователя.
+     * <p>
+     * Удаляет refresh-токен и отзывает переданный access-токен: шлюз перестаёт его принимать
+     * через несколько секунд, не дожидаясь истечения срока действия.
+     * Если access-токен недействителен — возвращается 401. Если отзыв не удалось опубликовать
+     * в Kafka — 503: шлюз продолжил бы принимать токен, запрос можно повторить.
+     * </p>
+     *
+     * @param request DTO с полями {@code refreshToken} и {@code accessToken}
+     * @return ResponseEntity со статусом 204 при успехе, 401 при недействительном токене или 503
+     */
+    @PostMapping("/logout")
+    @Operation(
+        summary = "Выход из системы",
+        description = "Удаляет refresh-токен и отзывает access-токен",
+        responses = {
+            @ApiResponse(responseCode = "204", description = "Сессия завершена"),
+            @ApiResponse(responseCode = "401", description = "Access-токен недействителен"),
+            @ApiResponse(responseCode = "503", description = "Отзыв не опубликован, повторите запрос")
+        }
+    )
+    public Mono<ResponseEntity<Void>> logout(@Valid @RequestBody LogoutRequest request) {
+        log.info("Запрос на выход из системы");
+
+        return tokenService.logout(request)
+                .doOnSuccess(ignored -> log.info("Сессия завершена"))
+                .doOnError(error -> log.warn("Ошибка при выходе из системы: причина={}", error.getMessage()))
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorReturn(IllegalStateException.class, ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build())
+                .onErrorReturn(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.example.auth.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * DTO для выхода из системы.
+ * Содержит refresh-токен, который удаляется, и access-токен текущей сессии, который отзывается.
+ */
+@Schema(description = "Запрос на выход из системы")
+public record LogoutRequest(
+
+    @Schema(
+        description = "Refresh-токен",
+        example = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9.xxxxx"
+    )
+    @NotBlank(message = "Refresh-токен обязателен")
+    String refreshToken,
+
+    @Schema(
+        description = "Access-токен текущей сессии (опционально)",
+        example = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9.yyyyy"
+    )
+    String accessToken
+) {}
\ No newline at end of file
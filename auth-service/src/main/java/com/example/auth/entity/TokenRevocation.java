@@ -0,0 +1,47 @@
+package com.example.auth.entity;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись об отзыве access-токенов.
+ * <p>
+ * Отзыв задаётся либо конкретным {@code jti}, либо идентификатором пользователя —
+ * во втором случае недействительными считаются все его токены, выпущенные раньше {@link #issuedBefore}.
+ * Запись хранится до {@link #expiresAt}: позже все затронутые токены истекают сами.
+ * </p>
+ */
+@Table("token_revocations")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TokenRevocation {
+
+    @Id
+    Long id;
+
+    @Column("jti")
+    String jti;
+
+    @Column("user_id")
+    Long userId;
+
+    @Column("issued_before")
+    LocalDateTime issuedBefore;
+
+    @Column("expires_at")
+    LocalDateTime expiresAt;
+}
\ No newline at end of file
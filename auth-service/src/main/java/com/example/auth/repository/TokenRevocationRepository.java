@@ -0,0 +1,30 @@
+package com.example.auth.repository;
+
+import com.example.auth.entity.TokenRevocation;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Реактивный репозиторий записей об отзыве access-токенов ({@link TokenRevocation}).
+ *
+ * @see TokenRevocation
+ * @see ReactiveCrudRepository
+ */
+@Repository
+public interface TokenRevocationRepository extends ReactiveCrudRepository<TokenRevocation, Long> {
+
+    /**
+     * Удаляет записи, срок действия которых истёк: все затронутые ими токены уже просрочены.
+     *
+     * @param now момент, с которым сравнивается {@code expires_at}
+     * @return {@link Mono} с количеством удалённых записей
+     */
+    @Modifying
+    @Query("DELETE FROM token_revocations WHERE expires_at < :now")
+    Mono<Integer> deleteExpired(LocalDateTime now);
+}
\ No newline at end of file
@@ -13,6 +13,7 @@ import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -29,6 +30,7 @@ import java.util.stream.Collectors;
  * Выдаваемые токены содержат:
  * <ul>
  *   <li>{@code subject} — имя пользователя (username)</li>
+ *   <li>{@code jti} — уникальный идентификатор токена, по которому его можно отозвать</li>
  *   <li>{@code userId} — идентификатор пользователя</li>
  *   <li>{@code roles} — список ролей с префиксом {@code ROLE_}</li>
  *   <li>{@code iss} (issuer) — указывает на выдавший сервис: {@code http://localhost:8081}</li>
@@ -77,6 +79,7 @@ public class JwtUtil {
         Date expiryDate = new Date(now.getTime() + Duration.ofHours(expirationHours).toMillis());
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(user.getUsername())
                 .claim("userId", user.getId())
                 .claim("roles", user.getRoles().stream()
@@ -1,6 +1,7 @@
 package com.example.auth.security;
 
 import com.example.auth.repository.UserRepository;
+import com.example.routing.ReadRoute;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -22,7 +23,7 @@ import org.springframework.security.web.server.SecurityWebFilterChain;
  * <ul>
  *   <li>Настройку цепочки фильтров безопасности ({@link SecurityWebFilterChain})</li>
  *   <li>Поддержку JWT-аутентификации через {@code oauth2ResourceServer}</li>
- *   <li>Разрешение доступа к публичным эндпоинтам: регистрация, вход, рефреш токена, метрики и документация</li>
+ *   <li>Разрешение доступа к публичным эндпоинтам: регистрация, вход, рефреш токена, выход, метрики и документация</li>
  *   <li>Отключение ненужных механизмов аутентификации: CSRF, HTTP Basic, Form Login</li>
  *   <li>Интеграцию с репозиторием пользователей через {@link ReactiveUserDetailsService}</li>
  *   <li>Шифрование паролей с помощью {@link BCryptPasswordEncoder}</li>
@@ -47,6 +48,7 @@ public class SecurityConfig {
      *     <li>{@code /api/auth/register} — регистрация нового пользователя</li>
      *     <li>{@code /api/auth/login} — аутентификация и получение токена</li>
      *     <li>{@code /api/auth/refresh} — обновление access токена</li>
+     *     <li>{@code /api/auth/logout} — выход из системы и отзыв токенов</li>
      *     <li>{@code /.well-known/jwks.json} — публичный ключ для проверки JWT (RFC 7517)</li>
      *     <li>{@code /actuator/**} — эндпоинты мониторинга (health, metrics и др.)</li>
      *     <li>{@code /v3/api-docs/**} — OpenAPI спецификация (Swagger JSON)</li>
@@ -77,7 +79,8 @@ public class SecurityConfig {
                 .pathMatchers(
                     "/api/auth/register",
                     "/api/auth/login",
-                    "/api/auth/refresh"
+                    "/api/auth/refresh",
+                    "/api/auth/logout"
                 ).permitAll()
                 .pathMatchers("/actuator/**").permitAll()
                 .pathMatchers("/.well-known/jwks.json").permitAll()
@@ -123,7 +126,7 @@ public class SecurityConfig {
      */
     @Bean
     public ReactiveUserDetailsService userDetailsService() {
-        return email -> userRepository.findByEmail(email)
+        return email -> ReadRoute.readOnly(userRepository.findByEmail(email), email)
             .cast(org.springframework.security.core.userdetails.UserDetails.class);
     }
 
@@ -7,6 +7,8 @@ import com.example.auth.entity.User;
 import com.example.auth.entity.UserRole;
 import com.example.auth.event.UserCreatedEvent;
 import com.example.auth.repository.UserRepository;
+import com.example.routing.ReadRoute;
+import com.example.routing.ReadYourWritesTracker;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -52,6 +54,11 @@ import java.util.Set;
  * </ol>
  * </p>
  *
+ * <p>Проверка уникальности email при регистрации выполняется на primary. Поиск пользователя
+ * при входе может уйти на реплику; только что зарегистрированный пользователь читается с primary
+ * благодаря {@link ReadYourWritesTracker}. Журнал записей локален для экземпляра: если вход сразу
+ * после регистрации попадёт на другой экземпляр, а реплика ещё отстаёт, вход вернёт 401.</p>
+ *
  * @see RegisterRequest
  * @see LoginRequest
  * @see JwtResponse
@@ -68,6 +75,7 @@ public class AuthService {
     UserRepository userRepository;
     PasswordEncoder passwordEncoder;
     KafkaSender<String, Object> kafkaSender;
+    ReadYourWritesTracker readYourWritesTracker;
 
     /**
      * Регистрирует нового пользователя.
@@ -95,6 +103,10 @@ public class AuthService {
                     .build();
                 return userRepository.save(user);
             })
+            .doOnNext(savedUser -> {
+                readYourWritesTracker.recordWrite(savedUser.getEmail());
+                readYourWritesTracker.recordWrite(savedUser.getId().toString());
+            })
             .flatMap(savedUser -> {
                 UserCreatedEvent event = UserCreatedEvent.newBuilder()
                     .setUserId(savedUser.getId())
@@ -136,7 +148,7 @@ public class AuthService {
      * @throws RuntimeException если пользователь не найден или пароль не совпадает
      */
     public Mono<JwtResponse> login(LoginRequest request) {
-        return userRepository.findByEmail(request.email()) // ← Исправлено: findByEmail
+        return ReadRoute.readOnly(userRepository.findByEmail(request.email()), request.email())
             .switchIfEmpty(Mono.error(new RuntimeException("Пользователь не найден")))
             .filter(user -> passwordEncoder.matches(request.password(), user.getPassword()))
             .switchIfEmpty(Mono.error(new RuntimeException("Неверный пароль")))
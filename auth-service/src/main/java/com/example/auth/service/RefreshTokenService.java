@@ -3,6 +3,8 @@ package com.example.auth.service;
 import com.example.auth.entity.RefreshToken;
 import com.example.auth.entity.User;
 import com.example.auth.repository.RefreshTokenRepository;
+import com.example.routing.ReadRoute;
+import com.example.routing.ReadYourWritesTracker;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -15,6 +17,10 @@ import java.util.UUID;
 
 /**
  * Сервис для работы с refresh-токенами.
+ * <p>
+ * Поиск токена выполняется на реплике, кроме токенов, выданных в пределах окна
+ * {@code app.r2dbc.read-your-writes-window}: они читаются с primary.
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
@@ -25,6 +31,7 @@ public class RefreshTokenService {
     int refreshExpirationDays;
 
     final RefreshTokenRepository refreshTokenRepository;
+    final ReadYourWritesTracker readYourWritesTracker;
 
     /**
      * Создаёт новый refresh-токен для пользователя.
@@ -39,7 +46,8 @@ public class RefreshTokenService {
                 .token(UUID.randomUUID().toString())
                 .expiryDate(LocalDateTime.now().plusDays(refreshExpirationDays))
                 .build()
-        ).flatMap(refreshTokenRepository::save);
+        ).flatMap(refreshTokenRepository::save)
+            .doOnNext(saved -> readYourWritesTracker.recordWrite(saved.getToken()));
     }
 
     /**
@@ -49,7 +57,18 @@ public class RefreshTokenService {
      * @return Mono с найденным токеном или пустым, если не найден
      */
     public Mono<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        return ReadRoute.readOnly(refreshTokenRepository.findByToken(token), token);
+    }
+
+    /**
+     * Удаляет refresh-токен по его значению.
+     *
+     * @param token строковое значение токена
+     * @return Mono, завершающийся после удаления (или сразу, если токен не найден)
+     */
+    public Mono<Void> deleteByToken(String token) {
+        return refreshTokenRepository.findByToken(token)
+            .flatMap(refreshTokenRepository::delete);
     }
 
     /**
@@ -0,0 +1,177 @@
+package com.example.auth.service;
+
+import com.example.auth.entity.TokenRevocation;
+import com.example.auth.event.TokenRevokedEvent;
+import com.example.auth.repository.TokenRevocationRepository;
+import com.example.auth.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Function;
+
+/**
+ * Сервис отзыва access-токенов.
+ * <p>
+ * Access-токены проверяются в {@code api-gateway} без обращения к этому сервису, поэтому отзыв
+ * не может опираться на запрос в БД при каждой проверке. Вместо этого каждая запись об отзыве
+ * сохраняется в таблицу {@code token_revocations} и публикуется в топик Kafka {@value #TOPIC},
+ * откуда шлюз собирает локальный набор отозванных токенов.
+ * </p>
+ * <p>
+ * Шлюз узнаёт об отзыве только из Kafka, поэтому неудачная публикация не проглатывается:
+ * продюсер уже повторил отправку в пределах {@code delivery.timeout.ms}, и вызывающий получает
+ * {@link IllegalStateException}. Повторный отзыв того же токена безопасен.
+ * </p>
+ * <p>
+ * Поддерживаются два вида отзыва:
+ * <ul>
+ *   <li>по {@code jti} — один конкретный токен (выход из системы)</li>
+ *   <li>по {@code userId} — все токены пользователя, выпущенные до текущего момента
+ *       (смена роли, компрометация учётной записи)</li>
+ * </ul>
+ * </p>
+ *
+ * @see TokenRevokedEvent
+ * @see TokenRevocation
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TokenRevocationService {
+
+    /**
+     * Топик, в который публикуются события об отзыве токенов.
+     */
+    public static final String TOPIC = "token.revoked";
+
+    JwtUtil jwtUtil;
+    TokenRevocationRepository tokenRevocationRepository;
+    KafkaSender<String, Object> kafkaSender;
+    Duration tokenLifetime;
+
+    /**
+     * Конструктор для инъекции зависимостей.
+     *
+     * @param jwtUtil                   утилита для разбора access-токенов
+     * @param tokenRevocationRepository репозиторий записей об отзыве
+     * @param kafkaSender               реактивный продюсер Kafka
+     * @param expirationHours           срок жизни access-токена в часах — столько хранится отзыв по пользователю
+     */
+    public TokenRevocationService(JwtUtil jwtUtil,
+                                  TokenRevocationRepository tokenRevocationRepository,
+                                  KafkaSender<String, Object> kafkaSender,
+                                  @Value("${jwt.expiration-hours}") long expirationHours) {
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.kafkaSender = kafkaSender;
+        this.tokenLifetime = Duration.ofHours(expirationHours);
+    }
+
+    /**
+     * Отзывает один access-токен по его {@code jti}.
+     * <p>
+     * Токены, выпущенные до появления claim {@code jti}, отзываются вместе со всеми
+     * остальными токенами пользователя.
+     * </p>
+     *
+     * @param accessToken строка JWT с действительной подписью
+     * @return {@link Mono}, завершающийся после сохранения и публикации отзыва,
+     *         или {@link IllegalStateException}, если Kafka не подтвердила запись
+     */
+    public Mono<Void> revokeToken(String accessToken) {
+        return Mono.fromCallable(() -> jwtUtil.getClaimFromToken(accessToken, Function.identity()))
+                .onErrorMap(ex -> new RuntimeException("Access-токен недействителен", ex))
+                .flatMap(claims -> {
+                    Long userId = claims.get("userId", Long.class);
+                    if (claims.getId() == null) {
+                        return revokeUser(userId);
+                    }
+                    return revoke(TokenRevocation.builder()
+                            .jti(claims.getId())
+                            .userId(userId)
+                            .issuedBefore(LocalDateTime.now())
+                            .expiresAt(toLocalDateTime(claims.getExpiration().toInstant()))
+                            .build());
+                });
+    }
+
+    /**
+     * Отзывает все access-токены пользователя, выпущенные до текущего момента.
+     *
+     * @param userId идентификатор пользователя
+     * @return {@link Mono}, завершающийся после сохранения и публикации отзыва,
+     *         или {@link IllegalStateException}, если Kafka не подтвердила запись
+     */
+    public Mono<Void> revokeUser(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        return revoke(TokenRevocation.builder()
+                .userId(userId)
+                .issuedBefore(now)
+                .expiresAt(now.plus(tokenLifetime))
+                .build());
+    }
+
+    /**
+     * Периодически удаляет записи, все токены которых уже истекли сами.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-cleanup-interval:PT10M}")
+    public void purgeExpired() {
+        tokenRevocationRepository.deleteExpired(LocalDateTime.now())
+                .subscribe(
+                        deleted -> log.debug("Удалено истёкших записей об отзыве токенов: {}", deleted),
+                        error -> log.warn("Не удалось удалить истёкшие записи об отзыве токенов: {}", error.getMessage())
+                );
+    }
+
+    private Mono<Void> revoke(TokenRevocation revocation) {
+        return tokenRevocationRepository.save(revocation)
+                .flatMap(saved -> {
+                    TokenRevokedEvent event = TokenRevokedEvent.newBuilder()
+                            .setJti(saved.getJti())
+                            .setUserId(saved.getUserId())
+                            .setIssuedBefore(toInstant(saved.getIssuedBefore()))
+                            .setExpiresAt(toInstant(saved.getExpiresAt()))
+                            .build();
+
+                    SenderRecord<String, Object, Long> record = SenderRecord.create(
+                            TOPIC,
+                            null,
+                            null,
+                            saved.getUserId() != null ? saved.getUserId().toString() : saved.getJti(),
+                            event,
+                            saved.getId()
+                    );
+
+                    return kafkaSender.send(Mono.just(record))
+                            .flatMap(result -> result.exception() == null
+                                    ? Mono.empty()
+                                    : Mono.error(new IllegalStateException("Не удалось опубликовать отзыв токена",
+                                            result.exception())))
+                            .then();
+                })
+                .doOnSuccess(ignored -> log.info("Токены отозваны: jti={}, userId={}", revocation.getJti(), revocation.getUserId()))
+                .doOnError(IllegalStateException.class, error -> log.error(
+                        "Ошибка при отправке отзыва токена в Kafka: jti={}, userId={}, причина={}",
+                        revocation.getJti(), revocation.getUserId(), error.getCause().getMessage()));
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
\ No newline at end of file
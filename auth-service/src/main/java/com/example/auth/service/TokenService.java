@@ -1,9 +1,11 @@
 package com.example.auth.service;
 
 import com.example.auth.dto.JwtResponse;
+import com.example.auth.dto.LogoutRequest;
 import com.example.auth.entity.User;
 import com.example.auth.repository.UserRepository;
 import com.example.auth.security.JwtUtil;
+import com.example.routing.ReadRoute;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -22,6 +24,7 @@ public class TokenService {
     JwtUtil jwtUtil;
     UserRepository userRepository;
     RefreshTokenService refreshTokenService;
+    TokenRevocationService tokenRevocationService;
 
     /**
      * Генерирует пару токенов (access + refresh) для пользователя.
@@ -41,7 +44,8 @@ public class TokenService {
     public Mono<JwtResponse> refresh(String refreshTokenValue) {
         return refreshTokenService.findByToken(refreshTokenValue)
                 .flatMap(refreshTokenService::verifyExpiration)
-                .flatMap(refreshToken -> userRepository.findById(refreshToken.getUserId())
+                .flatMap(refreshToken -> ReadRoute.readOnly(userRepository.findById(refreshToken.getUserId()),
+                                refreshToken.getUserId().toString())
                         .flatMap(user -> refreshTokenService.createRefreshToken(user)
                                 .map(newRefreshToken -> new JwtResponse(
                                         jwtUtil.generateToken(user),
@@ -51,4 +55,16 @@ public class TokenService {
                 )
                 .switchIfEmpty(Mono.empty());
     }
+
+    /**
+     * Завершает сессию: удаляет refresh-токен и отзывает access-токен, если он передан.
+     */
+    public Mono<Void> logout(LogoutRequest request) {
+        Mono<Void> revokeAccessToken = request.accessToken() == null
+                ? Mono.empty()
+                : tokenRevocationService.revokeToken(request.accessToken());
+
+        return refreshTokenService.deleteByToken(request.refreshToken())
+                .then(revokeAccessToken);
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.auth.controller;
 
 import com.example.auth.dto.JwtResponse;
 import com.example.auth.dto.LoginRequest;
+import com.example.auth.dto.LogoutRequest;
 import com.example.auth.dto.RefreshTokenRequest;
 import com.example.auth.dto.RegisterRequest;
 import com.example.auth.service.AuthService;
@@ -22,6 +23,10 @@ import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
@@ -134,6 +139,42 @@ class AuthControllerTest {
                 .expectStatus().isUnauthorized();
     }
 
+    @Test
+    void logout_ShouldReturnNoContent_WhenSuccess() {
+        when(tokenService.logout(any(LogoutRequest.class)))
+                .thenReturn(Mono.empty());
+
+        webClient.post().uri("/api/auth/logout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LogoutRequest("refresh-token", "access-token"))
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void logout_ShouldReturnUnauthorized_WhenAccessTokenInvalid() {
+        when(tokenService.logout(any(LogoutRequest.class)))
+                .thenReturn(Mono.error(new RuntimeException("Invalid token")));
+
+        webClient.post().uri("/api/auth/logout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LogoutRequest("refresh-token", "invalid-token"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void logout_ShouldReturnServiceUnavailable_WhenRevocationNotPublished() {
+        when(tokenService.logout(any(LogoutRequest.class)))
+                .thenReturn(Mono.error(new IllegalStateException("Не удалось опубликовать отзыв токена")));
+
+        webClient.post().uri("/api/auth/logout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LogoutRequest("refresh-token", "access-token"))
+                .exchange()
+                .expectStatus().isEqualTo(503);
+    }
+
     @org.springframework.context.annotation.Configuration
     @ComponentScan(basePackageClasses = AuthController.class)
     static class TestConfig {
@@ -150,6 +191,11 @@ class AuthControllerTest {
             return mock(TokenService.class);
         }
 
+        @Bean
+        KeyPair keyPair() throws NoSuchAlgorithmException {
+            return KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        }
+
         @Bean
         @Primary
         SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
@@ -0,0 +1,53 @@
+package com.example.auth.service;
+
+import com.example.auth.entity.TokenRevocation;
+import com.example.auth.repository.TokenRevocationRepository;
+import com.example.auth.security.JwtUtil;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderResult;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    TokenRevocationRepository repository = mock(TokenRevocationRepository.class);
+    @SuppressWarnings("unchecked")
+    KafkaSender<String, Object> kafkaSender = mock(KafkaSender.class);
+    @SuppressWarnings("unchecked")
+    SenderResult<Long> result = mock(SenderResult.class);
+
+    TokenRevocationService service = new TokenRevocationService(mock(JwtUtil.class), repository, kafkaSender, 2);
+
+    @BeforeEach
+    void setUp() {
+        when(repository.save(any(TokenRevocation.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.<TokenRevocation>getArgument(0)));
+        doReturn(Flux.just(result)).when(kafkaSender).send(any());
+    }
+
+    @Test
+    void revokeUser_ShouldCompleteWhenKafkaAcknowledges() {
+        StepVerifier.create(service.revokeUser(7L)).verifyComplete();
+    }
+
+    @Test
+    void revokeUser_ShouldFailWhenKafkaRejectsRecord() {
+        when(result.exception()).thenReturn(new TimeoutException("Expiring 1 record(s)"));
+
+        StepVerifier.create(service.revokeUser(7L))
+            .expectErrorSatisfies(error -> assertThat(error)
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(TimeoutException.class))
+            .verify();
+    }
+}
\ No newline at end of file
@@ -4,4 +4,15 @@ Common labels
 {{- define "product-service.labels" -}}
 app: product-service
 release: {{ .Release.Name }}
+{{- end }}
+
+{{/*
+Адрес MongoDB: replica set из mongodb.yaml или внешний mongodb.uri
+*/}}
+{{- define "product-service.mongodbUri" -}}
+{{- if .Values.mongodb.enabled -}}
+mongodb://{{ .Release.Name }}-product-mongodb-0.{{ .Release.Name }}-product-mongodb:27017/{{ .Values.mongodb.database }}?replicaSet={{ .Values.mongodb.replicaSet }}
+{{- else -}}
+{{ required "mongodb.uri обязателен при mongodb.enabled=false" .Values.mongodb.uri }}
+{{- end -}}
 {{- end }}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.example.product.avro;
+
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Сериализатор Kafka для сгенерированных Avro-классов в формате
+ * <a href="https://avro.apache.org/docs/current/specification/#single-object-encoding">single-object encoding</a>:
+ * маркер {@code C3 01}, 8 байт fingerprint'а схемы, затем бинарное тело.
+ * <p>
+ * В отличие от {@code KafkaAvroSerializer} не обращается к Schema Registry: схема известна
+ * по классу значения. Классы перечисляются в {@link ClasspathSchemaStore#CLASSES_CONFIG}.
+ * </p>
+ */
+public class AvroSingleObjectSerializer implements Serializer<Object> {
+
+    private ClasspathSchemaStore schemaStore;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        schemaStore = ClasspathSchemaStore.fromConfigs(configs);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (!(data instanceof SpecificRecord record)) {
+            throw new SerializationException("Ожидался сгенерированный Avro-класс, получен " + data.getClass().getName());
+        }
+        try {
+            return schemaStore.encoder(record.getClass()).encode(record).array();
+        } catch (IOException ex) {
+            throw new SerializationException("Ошибка Avro-сериализации " + record.getSchema().getFullName(), ex);
+        }
+    }
+}
\ No newline at end of file
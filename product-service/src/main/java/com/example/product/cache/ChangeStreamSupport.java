@@ -0,0 +1,85 @@
+package com.example.product.cache;
+
+import com.mongodb.MongoException;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Проверяет при старте, что MongoDB поддерживает change stream.
+ * <p>
+ * На change stream построены синхронизация моделей чтения и кэша
+ * ({@link com.example.product.service.ProductReadModelsSync}) и публикация изменений в Kafka. Change stream есть только у replica set (в том числе из одного узла)
+ * и шардированного кластера; на одиночном сервере подписка завершается ошибкой, и переподключаться
+ * бессмысленно. Поэтому приложение не стартует, если сервер ответил, что он не replica set и не mongos.
+ * Недоступный при старте сервер проверку не проваливает: потоки подключатся, когда он поднимется.
+ * </p>
+ * <p>
+ * {@code app.change-streams.enabled=false} отключает проверку и всех потребителей change stream:
+ * кэш товаров тогда видит записи других экземпляров только по истечении {@code app.product-cache.ttl},
+ * индекс поиска и подсказки — только записи своего экземпляра, события в Kafka не публикуются.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ChangeStreamSupport.ENABLED_PROPERTY, havingValue = "true", matchIfMissing = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ChangeStreamSupport implements InitializingBean {
+
+    public static final String ENABLED_PROPERTY = "app.change-streams.enabled";
+
+    /**
+     * Код ошибки {@code $changeStream} на сервере, который не входит в replica set.
+     */
+    static final int NOT_SUPPORTED_CODE = 40573;
+
+    ReactiveMongoTemplate mongoTemplate;
+    Duration timeout;
+
+    public ChangeStreamSupport(ReactiveMongoTemplate mongoTemplate,
+                               @Value("${app.change-streams.check-timeout:PT10S}") Duration timeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Document hello = mongoTemplate.executeCommand(new Document("hello", 1))
+                .timeout(timeout)
+                .onErrorResume(ex -> {
+                    log.warn("Не удалось проверить поддержку change stream в MongoDB: {}", ex.toString());
+                    return Mono.empty();
+                })
+                .block();
+        if (hello != null && !supported(hello)) {
+            throw new IllegalStateException("MongoDB не поддерживает change stream: сервер не входит в replica set. "
+                    + "Запустите его как replica set (хотя бы из одного узла) или выключите "
+                    + ENABLED_PROPERTY);
+        }
+    }
+
+    /**
+     * Поддерживает ли change stream сервер с таким ответом на {@code hello}.
+     */
+    static boolean supported(Document hello) {
+        return hello.get("setName") != null || "isdbgrid".equals(hello.get("msg"));
+    }
+
+    /**
+     * Ошибка означает, что сервер не поддерживает change stream, и переподключение не поможет.
+     */
+    public static boolean unsupported(Throwable error) {
+        return NestedExceptionUtils.getMostSpecificCause(error) instanceof MongoException mongo
+                && mongo.getCode() == NOT_SUPPORTED_CODE;
+    }
+}
\ No newline at end of file
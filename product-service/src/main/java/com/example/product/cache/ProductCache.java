@@ -0,0 +1,112 @@
+package com.example.product.cache;
+
+import com.example.product.dto.ProductDto;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Near-кэш товаров по id.
+ * <p>
+ * Caffeine вытесняет записи по W-TinyLFU: редкие товары не вытесняют из кэша часто читаемые.
+ * Объём ограничен по памяти ({@code app.product-cache.max-weight-bytes}), вес записи оценивается
+ * по длине строк. Одновременные промахи по одному id объединяются в одну загрузку.
+ * Отсутствующие товары не кэшируются.
+ * </p>
+ * <p>
+ * Записи этого экземпляра обновляют кэш сразу, записи других экземпляров сбрасывают его
+ * через {@link com.example.product.service.ProductReadModelsSync}. {@code app.product-cache.ttl} ограничивает срок жизни
+ * записи, если событие изменения потеряно.
+ * </p>
+ * <p>
+ * Метрики: стандартные метрики Caffeine с тегом {@code cache=products} (попадания, промахи,
+ * {@code cache.load.duration}) и доля попаданий {@code product.cache.hit.ratio}.
+ * </p>
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductCache {
+
+    /**
+     * Оценка накладных расходов записи: узел Caffeine, {@link ProductDto}, ключ и строки без содержимого.
+     */
+    static final int ENTRY_OVERHEAD_BYTES = 200;
+
+    AsyncCache<String, ProductDto> products;
+
+    public ProductCache(MeterRegistry meterRegistry,
+                        @Value("${app.product-cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                        @Value("${app.product-cache.ttl:PT10M}") Duration ttl) {
+        this.products = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((String id, ProductDto product) -> ENTRY_OVERHEAD_BYTES
+                        + 2 * (id.length() + product.getName().length() + product.getCategory().length()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products.synchronous(), "products");
+        Gauge.builder("product.cache.hit.ratio", products, cache -> cache.synchronous().stats().hitRate())
+                .description("Доля обращений к кэшу товаров, обслуженных без загрузки")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Товар из кэша или из загрузчика; одновременные промахи по одному id вызывают загрузчик один раз.
+     *
+     * @param id     идентификатор товара
+     * @param loader загрузка при промахе; пустой {@link Mono}, если товара нет
+     * @return товар или пустой {@link Mono}
+     */
+    public Mono<ProductDto> get(String id, Function<String, Mono<ProductDto>> loader) {
+        return Mono.fromFuture(() -> products.get(id, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    /**
+     * Товары из кэша; промахи загружаются одним вызовом загрузчика. Товары, которые уже загружаются
+     * другим запросом, повторно не запрашиваются.
+     *
+     * @param ids    идентификаторы без повторов
+     * @param loader загрузка промахов; в ответе только найденные товары
+     * @return найденные товары по id
+     */
+    public Mono<Map<String, ProductDto>> getAll(Collection<String> ids,
+                                               Function<Set<String>, Mono<Map<String, ProductDto>>> loader) {
+        return Mono.fromFuture(() -> products.getAll(ids, (keys, executor) -> loader.apply(Set.copyOf(keys)).toFuture()), true);
+    }
+
+    /**
+     * Кладёт в кэш актуальное состояние товара после записи на этом экземпляре.
+     */
+    public void put(ProductDto product) {
+        products.put(product.getId(), CompletableFuture.completedFuture(product));
+    }
+
+    /**
+     * Сбрасывает товар; загрузка, начатая до сброса, в кэш уже не попадёт.
+     */
+    public void invalidate(String id) {
+        products.synchronous().invalidate(id);
+    }
+
+    /**
+     * Сбрасывает весь кэш.
+     */
+    public void invalidateAll() {
+        products.synchronous().invalidateAll();
+    }
+}
\ No newline at end of file
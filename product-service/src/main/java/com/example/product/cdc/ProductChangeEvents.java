@@ -0,0 +1,146 @@
+package com.example.product.cdc;
+
+import com.example.product.entity.Product;
+import com.example.product.event.ProductChangeType;
+import com.example.product.event.ProductChanged;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.money.Money;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.experimental.UtilityClass;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+
+import java.time.Instant;
+
+/**
+ * Преобразование событий change stream коллекции товаров в {@link ProductChanged}.
+ * <p>
+ * Для обновления в событие попадают только поля из {@code updatedFields}, поэтому полный
+ * документ с сервера не запрашивается. Вставка и замена несут полный документ и публикуются
+ * со всеми полями. Обновление, не затронувшее ни одного публикуемого поля, не порождает события.
+ * </p>
+ * <p>
+ * Цена публикуется точно в копейках ({@code priceMinor}) с валютой и для существующих потребителей
+ * в рублях ({@code price}).
+ * </p>
+ */
+@UtilityClass
+public class ProductChangeEvents {
+
+    /**
+     * @param change событие change stream
+     * @return событие для Kafka или {@code null}, если публиковать нечего
+     */
+    public static ProductChanged fromChange(ChangeStreamDocument<Document> change) {
+        String id = id(change.getDocumentKey());
+        if (id == null) {
+            return null;
+        }
+        return of(change.getOperationType(), id, change.getFullDocument(),
+                change.getUpdateDescription() != null ? change.getUpdateDescription().getUpdatedFields() : null,
+                changedAt(change));
+    }
+
+    static ProductChanged of(OperationType operation, String id, Document fullDocument,
+                             BsonDocument updatedFields, Instant changedAt) {
+        ProductChanged.Builder event = ProductChanged.newBuilder()
+                .setProductId(id)
+                .setChangedAt(changedAt);
+        switch (operation) {
+            case INSERT, REPLACE -> {
+                if (fullDocument == null) {
+                    return null;
+                }
+                event.setChangeType(operation == OperationType.INSERT ? ProductChangeType.CREATED : ProductChangeType.UPDATED)
+                        .setName(fullDocument.getString("name"))
+                        .setCategory(fullDocument.getString("category"))
+                        .setActive(fullDocument.getBoolean("active"))
+                        .setPopularity(longValue(fullDocument.get("popularity")));
+                if (fullDocument.get(Product.PRICE_FIELD) instanceof Number
+                        || fullDocument.get(Product.LEGACY_PRICE_FIELD) instanceof Number) {
+                    setPrice(event, ProductMapper.priceMinor(fullDocument), fullDocument.getString("currency"));
+                }
+            }
+            case UPDATE -> {
+                if (updatedFields == null || !setChanged(event, updatedFields)) {
+                    return null;
+                }
+                event.setChangeType(ProductChangeType.UPDATED);
+            }
+            case DELETE -> event.setChangeType(ProductChangeType.DELETED);
+            default -> {
+                return null;
+            }
+        }
+        return event.build();
+    }
+
+    private static boolean setChanged(ProductChanged.Builder event, BsonDocument updatedFields) {
+        boolean changed = false;
+        BsonValue value;
+        if ((value = updatedFields.get("name")) != null && value.isString()) {
+            event.setName(value.asString().getValue());
+            changed = true;
+        }
+        // Экземпляр прежней версии пишет цену в рублях в старое поле.
+        if ((value = updatedFields.get(Product.LEGACY_PRICE_FIELD)) != null && value.isNumber()) {
+            setPrice(event, Money.toMinor(value.asNumber().doubleValue()), null);
+            changed = true;
+        } else if ((value = updatedFields.get(Product.PRICE_FIELD)) != null && value.isNumber()) {
+            BsonValue currency = updatedFields.get("currency");
+            setPrice(event, value.asNumber().longValue(),
+                    currency != null && currency.isString() ? currency.asString().getValue() : null);
+            changed = true;
+        }
+        if ((value = updatedFields.get("category")) != null && value.isString()) {
+            event.setCategory(value.asString().getValue());
+            changed = true;
+        }
+        if ((value = updatedFields.get("active")) != null && value.isBoolean()) {
+            event.setActive(value.asBoolean().getValue());
+            changed = true;
+        }
+        if ((value = updatedFields.get("popularity")) != null && value.isNumber()) {
+            event.setPopularity(value.asNumber().longValue());
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static Instant changedAt(ChangeStreamDocument<Document> change) {
+        if (change.getWallTime() != null) {
+            return Instant.ofEpochMilli(change.getWallTime().getValue());
+        }
+        if (change.getClusterTime() != null) {
+            return Instant.ofEpochSecond(change.getClusterTime().getTime());
+        }
+        return Instant.now();
+    }
+
+    /**
+     * @param key {@code documentKey} события change stream
+     * @return id товара или {@code null}, если ключа нет (например, у событий удаления коллекции)
+     */
+    public static String id(BsonDocument key) {
+        BsonValue id = key != null ? key.get("_id") : null;
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : null;
+    }
+
+    private static void setPrice(ProductChanged.Builder event, long priceMinor, String currency) {
+        event.setPriceMinor(priceMinor)
+                .setCurrency(currency != null ? currency : Money.CURRENCY)
+                .setPrice(Money.toDouble(priceMinor));
+    }
+
+    private static Long longValue(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
\ No newline at end of file
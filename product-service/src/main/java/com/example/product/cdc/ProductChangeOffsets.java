@@ -0,0 +1,109 @@
+package com.example.product.cdc;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Позиция публикации изменений товаров в MongoDB: resume token последнего опубликованного
+ * события и аренда, разрешающая публикацию только одному экземпляру сервиса.
+ * <p>
+ * Документ коллекции {@value #COLLECTION}: {@code _id} — имя потока, {@code resumeToken} —
+ * токен в extended JSON, {@code owner} и {@code leaseUntil} — владелец аренды и её срок.
+ * Токен и продление аренды записываются только владельцем; если аренду перехватил другой
+ * экземпляр, запись завершается {@link IllegalStateException}.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductChangeOffsets {
+
+    static final String COLLECTION = "product_change_offsets";
+
+    ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Захватывает или продлевает аренду потока.
+     *
+     * @param stream имя потока
+     * @param owner  идентификатор экземпляра
+     * @param lease  срок аренды
+     * @return сохранённая позиция; пустой {@link Mono}, если аренда у другого экземпляра.
+     *         Время берётся при каждой подписке, поэтому повторять можно тот же {@link Mono}
+     */
+    public Mono<Offset> acquire(String stream, String owner, Duration lease) {
+        return Mono.defer(() -> {
+            Instant now = Instant.now();
+            Query query = Query.query(Criteria.where("_id").is(stream).orOperator(
+                    Criteria.where("owner").is(owner),
+                    Criteria.where("leaseUntil").lt(Date.from(now))));
+            Update update = new Update()
+                    .set("owner", owner)
+                    .set("leaseUntil", Date.from(now.plus(lease)));
+            return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                            Document.class, COLLECTION)
+                    .map(document -> new Offset(resumeToken(document)))
+                    .onErrorResume(DuplicateKeyException.class, ex -> Mono.empty());
+        });
+    }
+
+    /**
+     * Сохраняет позицию и продлевает аренду.
+     */
+    public Mono<Void> save(String stream, String owner, BsonDocument resumeToken, Duration lease) {
+        return renew(stream, owner, new Update().set("resumeToken", resumeToken.toJson()), lease);
+    }
+
+    /**
+     * Продлевает аренду без изменения позиции.
+     */
+    public Mono<Void> renew(String stream, String owner, Duration lease) {
+        return renew(stream, owner, new Update(), lease);
+    }
+
+    /**
+     * Освобождает аренду, чтобы другой экземпляр подхватил поток без ожидания её истечения.
+     */
+    public Mono<Void> release(String stream, String owner) {
+        return mongoTemplate.updateFirst(owned(stream, owner), new Update().set("leaseUntil", new Date(0)), COLLECTION)
+                .then();
+    }
+
+    private Mono<Void> renew(String stream, String owner, Update update, Duration lease) {
+        return mongoTemplate.updateFirst(owned(stream, owner),
+                        update.set("leaseUntil", Date.from(Instant.now().plus(lease))), COLLECTION)
+                .flatMap(result -> result.getMatchedCount() == 0
+                        ? Mono.error(new IllegalStateException("Аренда потока " + stream + " перешла другому экземпляру"))
+                        : Mono.empty());
+    }
+
+    private static Query owned(String stream, String owner) {
+        return Query.query(Criteria.where("_id").is(stream).and("owner").is(owner));
+    }
+
+    private static BsonDocument resumeToken(Document document) {
+        String json = document.getString("resumeToken");
+        return json != null ? BsonDocument.parse(json) : null;
+    }
+
+    /**
+     * @param resumeToken токен, после которого продолжить поток; {@code null} — начать с текущего момента
+     */
+    public record Offset(BsonDocument resumeToken) {
+    }
+}
\ No newline at end of file
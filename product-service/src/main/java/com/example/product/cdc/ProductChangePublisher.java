@@ -0,0 +1,147 @@
+package com.example.product.cdc;
+
+import com.example.product.cache.ChangeStreamSupport;
+import com.example.product.entity.Product;
+import com.example.product.event.ProductChanged;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveChangeStreamOperation;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Публикует изменения товаров из change stream MongoDB в топик Kafka {@code app.product-events.topic}.
+ * <p>
+ * Change stream видит любые записи в коллекцию — через API, импорт, массовую смену статуса
+ * или напрямую в базу. Событие {@link ProductChanged} несёт только изменённые поля
+ * (см. {@link ProductChangeEvents}), ключ записи — id товара, поэтому изменения одного товара
+ * попадают в одну партицию и читаются по порядку.
+ * </p>
+ * <p>
+ * События собираются в пачки до {@code batch-size} или на время {@code linger}; после подтверждения
+ * всей пачки брокером resume token последнего события сохраняется в {@link ProductChangeOffsets}.
+ * После сбоя или перезапуска поток продолжается с сохранённого токена, поэтому доставка —
+ * «хотя бы один раз»: события пачки, не успевшей сохраниться, публикуются повторно.
+ * </p>
+ * <p>
+ * Публикует один экземпляр — владелец аренды; остальные ждут её освобождения или истечения.
+ * Сбой публикации — перезапуск с нарастающей паузой; если сервер не поддерживает change stream
+ * (см. {@link ChangeStreamSupport}), публикация останавливается с ошибкой в логе.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ChangeStreamSupport.ENABLED_PROPERTY, havingValue = "true", matchIfMissing = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductChangePublisher implements InitializingBean, DisposableBean {
+
+    static final String STREAM = "product-changed";
+
+    ReactiveMongoTemplate mongoTemplate;
+    KafkaSender<String, Object> kafkaSender;
+    ProductChangeOffsets offsets;
+    String topic;
+    int batchSize;
+    Duration linger;
+    Duration lease;
+    String owner = UUID.randomUUID().toString();
+    @NonFinal
+    Disposable subscription;
+
+    public ProductChangePublisher(
+            ReactiveMongoTemplate mongoTemplate,
+            KafkaSender<String, Object> kafkaSender,
+            ProductChangeOffsets offsets,
+            @Value("${app.product-events.topic:product.changed}") String topic,
+            @Value("${app.product-events.batch-size:500}") int batchSize,
+            @Value("${app.product-events.linger:PT0.1S}") Duration linger,
+            @Value("${app.product-events.lease:PT30S}") Duration lease) {
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaSender = kafkaSender;
+        this.offsets = offsets;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.lease = lease;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        subscription = offsets.acquire(STREAM, owner, lease)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(lease.dividedBy(2)))
+                .doOnNext(offset -> log.info("Публикация изменений товаров в {} начата{}", topic,
+                        offset.resumeToken() != null ? " с сохранённой позиции" : ""))
+                .flatMap(offset -> Flux.merge(publish(offset.resumeToken()), heartbeat()).then())
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .filter(error -> !ChangeStreamSupport.unsupported(error))
+                        .doBeforeRetry(signal -> log.warn("Публикация изменений товаров прервана, перезапуск: {}",
+                                signal.failure().toString())))
+                .subscribe(null, error -> log.error("Публикация изменений товаров в {} остановлена", topic, error));
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        offsets.release(STREAM, owner)
+                .onErrorResume(ex -> Mono.empty())
+                .block(Duration.ofSeconds(5));
+    }
+
+    private Mono<Void> publish(BsonDocument resumeToken) {
+        ReactiveChangeStreamOperation.ChangeStreamWithFilterAndProjection<Document> stream =
+                mongoTemplate.changeStream(Document.class).watchCollection(Product.class);
+        return (resumeToken != null ? stream.resumeAfter(resumeToken) : stream).listen()
+                .map(this::pending)
+                .bufferTimeout(batchSize, linger, true)
+                .concatMap(this::send, 1)
+                .then(Mono.error(() -> new IllegalStateException("Change stream товаров завершился")));
+    }
+
+    private Mono<Void> send(List<Pending> batch) {
+        BsonDocument resumeToken = batch.get(batch.size() - 1).resumeToken();
+        Flux<SenderRecord<String, Object, Void>> records = Flux.fromIterable(batch)
+                .mapNotNull(Pending::event)
+                .map(event -> SenderRecord.create(new ProducerRecord<>(topic, event.getProductId(), event), null));
+        return kafkaSender.send(records)
+                .then(offsets.save(STREAM, owner, resumeToken, lease));
+    }
+
+    private Mono<Void> heartbeat() {
+        return Flux.interval(lease.dividedBy(3))
+                .concatMap(tick -> offsets.renew(STREAM, owner, lease))
+                .then();
+    }
+
+    private Pending pending(ChangeStreamEvent<Document> event) {
+        return new Pending(event.getRaw().getResumeToken(), ProductChangeEvents.fromChange(event.getRaw()));
+    }
+
+    /**
+     * Событие change stream с позицией; {@code event == null} — изменение не публикуется,
+     * но его токен всё равно продвигает позицию.
+     */
+    private record Pending(BsonDocument resumeToken, ProductChanged event) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.example.product.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Бинарные форматы Jackson для REST API: {@code application/cbor} и {@code application/x-jackson-smile}.
+ * <p>
+ * Формат выбирается по {@code Accept} и {@code Content-Type}. Пользовательские кодеки WebFlux
+ * встают перед стандартными, поэтому первым регистрируется JSON: при равном выборе (браузеры,
+ * клиенты без {@code Accept}) ответ остаётся в JSON. Бинарные {@link ObjectMapper} строятся
+ * тем же {@link Jackson2ObjectMapperBuilder}, что и JSON, и сериализуют DTO так же.
+ * </p>
+ * <p>
+ * CBOR в WebFlux не потоковый: {@link CborEncoder} собирает {@link Flux} в память. Единственный потоковый
+ * ответ product-service — импорт ({@code POST /api/products/import}) — явно объявляет {@code produces}
+ * NDJSON, и CBOR ему не назначается; остальные эндпоинты отдают одиночные значения и страницы.
+ * </p>
+ */
+@Configuration
+public class JacksonCodecsConfig {
+
+    static final MimeType SMILE = new MimeType("application", "x-jackson-smile");
+    static final MimeType SMILE_STREAM = new MimeType("application", "stream+x-jackson-smile");
+
+    /**
+     * Кодеки получают типы явно: конструктор с {@link ObjectMapper} без типов назначает им JSON.
+     */
+    @Bean
+    public CodecCustomizer binaryJacksonCodecs(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = builder.factory(new SmileFactory()).build();
+        return configurer -> {
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2JsonEncoder(objectMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2JsonDecoder(objectMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new CborEncoder(cborMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE, SMILE_STREAM));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE, SMILE_STREAM));
+        };
+    }
+
+    /**
+     * {@link Jackson2CborEncoder} отклоняет любую запись через {@code encode}, которым пишет ответ
+     * WebFlux. Значение кодируется целиком, поток — одним CBOR-массивом. Поток длиннее
+     * {@link #MAX_BUFFERED_ELEMENTS} не копится в памяти: подписка отменяется, запись завершается ошибкой.
+     */
+    static final class CborEncoder extends Jackson2CborEncoder {
+
+        static final int MAX_BUFFERED_ELEMENTS = 10_000;
+
+        CborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono<?> mono) {
+                return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return Flux.from(inputStream)
+                    .take(MAX_BUFFERED_ELEMENTS + 1L)
+                    .collectList()
+                    .<DataBuffer>handle((list, sink) -> {
+                        if (list.size() > MAX_BUFFERED_ELEMENTS) {
+                            sink.error(new EncodingException("Поток длиннее " + MAX_BUFFERED_ELEMENTS
+                                    + " элементов не кодируется в CBOR: нужен потоковый тип ответа"));
+                        } else {
+                            sink.next(encodeValue(list, bufferFactory, listType, mimeType, hints));
+                        }
+                    })
+                    .flux();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.example.product.config;
+
+import com.example.product.avro.AvroSingleObjectSerializer;
+import com.example.product.avro.ClasspathSchemaStore;
+import com.example.product.event.ProductChanged;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Конфигурация реактивного продюсера Kafka для событий {@code product.changed}.
+ * <p>
+ * Значения кодируются в Avro single-object encoding ({@link AvroSingleObjectSerializer}),
+ * Schema Registry для отправки не нужен. Продюсер идемпотентный ({@code acks=all}), поэтому
+ * повторы после сбоя сети не дублируют записи и не нарушают порядок внутри партиции.
+ * </p>
+ * <p>
+ * Записи копятся в пачки до {@code app.product-events.producer.batch-size} байт или
+ * {@code linger-ms} и сжимаются целиком ({@code compression-type}, по умолчанию lz4):
+ * события одного товара и одной категории сильно повторяются и хорошо сжимаются в пачке.
+ * </p>
+ */
+@Configuration
+public class KafkaProducerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    String bootstrapServers;
+
+    @Value("${app.product-events.producer.batch-size:65536}")
+    int batchSize;
+
+    @Value("${app.product-events.producer.linger-ms:20}")
+    int lingerMs;
+
+    @Value("${app.product-events.producer.compression-type:lz4}")
+    String compressionType;
+
+    /**
+     * @return опции продюсера событий товаров
+     */
+    @Bean
+    public SenderOptions<String, Object> senderOptions() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, AvroSingleObjectSerializer.class);
+        props.put(ClasspathSchemaStore.CLASSES_CONFIG, List.of(ProductChanged.class));
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+
+        return SenderOptions.create(props);
+    }
+
+    /**
+     * @return реактивный продюсер Kafka
+     */
+    @Bean
+    public KafkaSender<String, Object> kafkaSender() {
+        return KafkaSender.create(senderOptions());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.product.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.ReactiveSortHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/**
+ * Конфигурация WebFlux для Product Service.
+ *
+ * <p>Spring Boot регистрирует резолверы {@code Pageable}/{@code Sort} только для Spring MVC,
+ * поэтому для реактивных контроллеров они подключаются вручную.
+ */
+@Configuration
+public class WebFluxConfig implements WebFluxConfigurer {
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(
+                new ReactiveSortHandlerMethodArgumentResolver(),
+                new ReactivePageableHandlerMethodArgumentResolver());
+    }
+}
\ No newline at end of file
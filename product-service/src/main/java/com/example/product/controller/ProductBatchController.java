@@ -0,0 +1,47 @@
+package com.example.product.controller;
+
+import com.example.product.dto.BatchGetProductsRequest;
+import com.example.product.dto.BatchGetProductsResponse;
+import com.example.product.service.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Пакетные операции над коллекцией товаров.
+ * <p>
+ * Путь {@code /api/products:batchGet} не вкладывается в префикс {@link ProductController},
+ * поэтому операции вынесены в отдельный контроллер.
+ * </p>
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Tag(name = "Product API", description = "Операции с товарами: CRUD, поиск, фильтрация")
+public class ProductBatchController {
+
+    ProductService productService;
+
+    @PostMapping("/products:batchGet")
+    @Operation(
+            summary = "Получить товары по списку id",
+            description = "Повторы отбрасываются, отсутствующие в кэше товары загружаются одним запросом",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Найденные товары по id в порядке запроса и ненайденные id"),
+                    @ApiResponse(responseCode = "400", description = "Пустой или слишком длинный список id")
+            }
+    )
+    public Mono<BatchGetProductsResponse> batchGet(@Valid @RequestBody BatchGetProductsRequest request) {
+        return productService.findAllById(request.ids());
+    }
+}
\ No newline at end of file
@@ -1,6 +1,16 @@
 package com.example.product.controller;
 
+import com.example.product.dto.ProductCursorPage;
 import com.example.product.dto.ProductDto;
+import com.example.product.dto.ProductField;
+import com.example.product.dto.ProductImportEvent;
+import com.example.product.dto.ProductPage;
+import com.example.product.dto.ProductSort;
+import com.example.product.dto.ProductStatusChange;
+import com.example.product.dto.ProductStatusChangeResult;
+import com.example.product.dto.ProductSuggestion;
+import com.example.product.importer.ProductImportFormat;
+import com.example.product.importer.ProductImportService;
 import com.example.product.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,10 +23,11 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -27,8 +38,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
 import java.net.URI;
+import java.util.List;
 
 /**
  * REST-контроллер для управления товарами.
@@ -41,65 +56,146 @@ import java.net.URI;
 @Tag(name = "Product API", description = "Операции с товарами: CRUD, поиск, фильтрация")
 public class ProductController {
 
+    static final String FIELDS_DESCRIPTION =
+            "Поля товаров в ответе через запятую, например id,name,price; по умолчанию все";
+
     ProductService productService;
+    ProductImportService productImportService;
 
     @PostMapping
     @Operation(summary = "Создать товар", description = "Создаёт новый товар",
             responses = @ApiResponse(responseCode = "201", description = "Товар создан",
                     content = @Content(schema = @Schema(implementation = ProductDto.class))))
-    public ResponseEntity<ProductDto> create(@Valid @RequestBody ProductDto productDto) {
-        ProductDto created = productService.create(productDto);
-        return ResponseEntity.created(URI.create("/api/products/" + created.getId())).body(created);
+    public Mono<ResponseEntity<ProductDto>> create(@Valid @RequestBody ProductDto productDto) {
+        return productService.create(productDto)
+                .map(created -> ResponseEntity.created(URI.create("/api/products/" + created.getId())).body(created));
     }
 
     @PutMapping("/{id}")
     @Operation(summary = "Обновить товар", description = "Обновляет существующий товар по ID")
-    public ResponseEntity<ProductDto> update(@PathVariable String id, @Valid @RequestBody ProductDto productDto) {
-        ProductDto updated = productService.update(id, productDto);
-        return ResponseEntity.ok(updated);
+    public Mono<ResponseEntity<ProductDto>> update(@PathVariable String id, @Valid @RequestBody ProductDto productDto) {
+        return productService.update(id, productDto)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить товар по ID")
-    public ResponseEntity<ProductDto> getById(@PathVariable String id) {
+    public Mono<ResponseEntity<ProductDto>> getById(@PathVariable String id) {
         return productService.findById(id)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
     @GetMapping
-    @Operation(summary = "Получить все товары с пагинацией")
-    public ResponseEntity<Page<ProductDto>> getAll(
+    @Operation(summary = "Получить все товары с пагинацией",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Страница товаров"),
+                    @ApiResponse(responseCode = "400", description = "Неизвестное поле в fields")
+            })
+    public Mono<ResponseEntity<ProductPage>> getAll(
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) List<String> fields,
             @Parameter(hidden = true)
             @PageableDefault(size = 10) Pageable pageable) {
-        Page<ProductDto> page = productService.findAll(pageable);
-        return ResponseEntity.ok(page);
+        return Mono.fromCallable(() -> ProductField.parse(fields))
+                .flatMap(selected -> productService.findAll(selected, pageable))
+                .map(ResponseEntity::ok)
+                .onErrorReturn(IllegalArgumentException.class, ResponseEntity.badRequest().build());
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Поиск товаров по фильтрам")
-    public ResponseEntity<Page<ProductDto>> search(
+    @Operation(summary = "Поиск товаров по фильтрам",
+            description = "При facets=true страница дополняется числом товаров по категориям и диапазонам цен",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Страница товаров"),
+                    @ApiResponse(responseCode = "400", description = "Некорректные границы диапазонов цен или неизвестное поле в fields")
+            })
+    public Mono<ResponseEntity<ProductPage>> search(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "true") Boolean activeOnly,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @Parameter(description = "Границы диапазонов цен в рублях по возрастанию, например 1000,5000,10000")
+            @RequestParam(defaultValue = "${app.search-facets.price-bounds:1000,5000,10000,50000,100000}") List<BigDecimal> priceBounds,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) List<String> fields,
+            @Parameter(hidden = true) @PageableDefault(size = 10) Pageable pageable) {
+        return Mono.fromCallable(() -> ProductField.parse(fields))
+                .flatMap(selected -> facets
+                        ? productService.searchWithFacets(name, category, minPrice, maxPrice, activeOnly, priceBounds, selected, pageable)
+                        : productService.search(name, category, minPrice, maxPrice, activeOnly, selected, pageable))
+                .map(ResponseEntity::ok)
+                .onErrorReturn(IllegalArgumentException.class, ResponseEntity.badRequest().build());
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Поиск товаров с продолжением по курсору",
+            description = "Следующая страница запрашивается с nextCursor предыдущей; общее число — только при withCount=true",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Страница товаров"),
+                    @ApiResponse(responseCode = "400", description = "Некорректный курсор или курсор другого порядка сортировки")
+            })
+    public Mono<ResponseEntity<ProductCursorPage>> scroll(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) Double minPrice,
-            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(defaultValue = "true") Boolean activeOnly,
-            @Parameter(hidden = true) Pageable pageable) {
-        Page<ProductDto> results = productService.search(name, category, minPrice, maxPrice, activeOnly, pageable);
-        return ResponseEntity.ok(results);
+            @RequestParam(defaultValue = "ID_ASC") ProductSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean withCount) {
+        return productService.scroll(name, category, minPrice, maxPrice, activeOnly, sort, cursor, limit, withCount)
+                .map(ResponseEntity::ok)
+                .onErrorReturn(IllegalArgumentException.class, ResponseEntity.badRequest().build());
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Подсказки по префиксу названия",
+            description = "Активные товары, название или слово названия которых начинается с префикса, по убыванию популярности")
+    public Mono<List<ProductSuggestion>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return productService.suggest(prefix, limit);
+    }
+
+    @PostMapping(path = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, ProductImportFormat.TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Импорт товаров из NDJSON или CSV",
+            description = "Строки с id обновляют товар или создают его с этим id, строки без id создают новый товар. "
+                    + "Ответ — поток ошибок по строкам и итог последней строкой")
+    public Flux<ProductImportEvent> importProducts(@Parameter(hidden = true) ServerHttpRequest request) {
+        return productImportService.importProducts(request.getBody(), request.getHeaders().getContentType());
+    }
+
+    @PatchMapping("/status")
+    @Operation(summary = "Сменить статус группы товаров",
+            description = "По списку идентификаторов или по фильтру поиска, одним updateMany",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Статус изменён"),
+                    @ApiResponse(responseCode = "400", description = "Не заданы ни идентификаторы, ни фильтр")
+            })
+    public Mono<ResponseEntity<ProductStatusChangeResult>> changeStatus(@Valid @RequestBody ProductStatusChange change) {
+        return productService.changeStatus(change)
+                .map(ResponseEntity::ok)
+                .onErrorReturn(IllegalArgumentException.class, ResponseEntity.badRequest().build());
     }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Деактивировать товар", description = "Помечает товар как неактивный")
-    public ResponseEntity<Void> deactivate(@PathVariable String id) {
-        productService.deactivate(id);
-        return ResponseEntity.noContent().build();
+    public Mono<ResponseEntity<Void>> deactivate(@PathVariable String id) {
+        return productService.deactivate(id)
+                .map(found -> found ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
     }
 
     @PatchMapping("/{id}/activate")
     @Operation(summary = "Активировать товар")
-    public ResponseEntity<Void> activate(@PathVariable String id) {
-        productService.activate(id);
-        return ResponseEntity.ok().build();
+    public Mono<ResponseEntity<Void>> activate(@PathVariable String id) {
+        return productService.activate(id)
+                .map(found -> found ? ResponseEntity.ok().<Void>build() : ResponseEntity.notFound().<Void>build());
     }
 }
\ No newline at end of file
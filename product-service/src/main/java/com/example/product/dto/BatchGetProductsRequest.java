@@ -0,0 +1,28 @@
+package com.example.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO для пакетного получения товаров по идентификаторам.
+ *
+ * @param ids идентификаторы товаров, возможно с повторами
+ */
+@Schema(description = "Запрос на пакетное получение товаров")
+public record BatchGetProductsRequest(
+        @Schema(description = "Идентификаторы товаров (не более 500)",
+                example = "[\"665f1c2e8a3b4d2f9c0e1a7b\", \"665f1c2e8a3b4d2f9c0e1a7c\"]")
+        @NotEmpty(message = "Список идентификаторов не должен быть пустым")
+        @Size(max = BatchGetProductsRequest.MAX_IDS, message = "Не более 500 идентификаторов за запрос")
+        List<@NotBlank String> ids
+) {
+
+    /**
+     * Наибольшее число идентификаторов в одном запросе.
+     */
+    public static final int MAX_IDS = 500;
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO ответа на пакетное получение товаров.
+ * Найденные товары возвращаются по id в порядке запроса, без повторов.
+ *
+ * @param products   найденные товары по id
+ * @param missingIds идентификаторы, для которых товар не найден
+ */
+@Schema(description = "Ответ на пакетное получение товаров")
+public record BatchGetProductsResponse(
+        @Schema(description = "Найденные товары по id в порядке запроса")
+        Map<String, ProductDto> products,
+
+        @Schema(description = "Идентификаторы, для которых товар не найден", example = "[\"665f1c2e8a3b4d2f9c0e1a7d\"]")
+        List<String> missingIds
+) {
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.example.product.dto;
+
+import com.example.product.entity.Product;
+import com.example.product.money.Money;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+/**
+ * Позиция в выдаче товаров: значение ключа сортировки и {@code _id} последнего отданного товара.
+ * <p>
+ * Клиенту передаётся как непрозрачная строка base64url. Курсор привязан к порядку выдачи:
+ * курсор, выданный для одного {@link ProductSort}, не принимается для другого.
+ * Курсоры первой версии с ценой в {@code double} принимаются и переводятся в копейки.
+ * </p>
+ *
+ * @param sort  порядок выдачи, для которого выдан курсор
+ * @param value значение ключа сортировки ({@link Long} копеек для цены, {@link String} для названия и {@code _id})
+ * @param id    идентификатор последнего товара
+ */
+public record ProductCursor(ProductSort sort, Object value, String id) {
+
+    private static final byte VERSION = 2;
+    private static final byte DOUBLE_PRICE_VERSION = 1;
+
+    /**
+     * Курсор, указывающий на позицию сразу после товара.
+     *
+     * @param sort    порядок выдачи
+     * @param product последний отданный товар
+     * @return курсор
+     */
+    public static ProductCursor after(ProductSort sort, Product product) {
+        Object value = switch (sort.getField()) {
+            case "price" -> product.getPrice();
+            case "name" -> product.getName();
+            default -> product.getId();
+        };
+        return new ProductCursor(sort, value, product.getId());
+    }
+
+    /**
+     * @return курсор в виде строки base64url без выравнивания
+     */
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(sort.ordinal());
+            if (value instanceof Long price) {
+                out.writeLong(price);
+            } else {
+                out.writeUTF((String) value);
+            }
+            out.writeUTF(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Разбирает курсор, выданный для того же порядка выдачи.
+     *
+     * @param token    строка курсора
+     * @param expected порядок выдачи текущего запроса
+     * @return курсор
+     * @throws IllegalArgumentException если курсор повреждён или выдан для другого порядка
+     */
+    public static ProductCursor decode(String token, ProductSort expected) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            byte version = in.readByte();
+            if (version != VERSION && version != DOUBLE_PRICE_VERSION) {
+                throw new IllegalArgumentException("Неподдерживаемая версия курсора");
+            }
+            int ordinal = in.readUnsignedByte();
+            if (ordinal != expected.ordinal()) {
+                throw new IllegalArgumentException("Курсор выдан для другого порядка сортировки");
+            }
+            Object value;
+            if (!"price".equals(expected.getField())) {
+                value = in.readUTF();
+            } else {
+                value = version == VERSION ? in.readLong() : Money.toMinor(in.readDouble());
+            }
+            return new ProductCursor(expected, value, in.readUTF());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Некорректный курсор", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Страница товаров при выборке по курсору.
+ *
+ * @param items      товары страницы
+ * @param nextCursor курсор следующей страницы; {@code null}, если страница последняя
+ * @param total      число товаров по фильтрам; только если запрошено
+ */
+@Schema(description = "Страница товаров с курсором продолжения")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductCursorPage(
+        @Schema(description = "Товары страницы")
+        List<ProductDto> items,
+
+        @Schema(description = "Курсор следующей страницы, отсутствует на последней странице",
+                example = "AQEAGGY1ZjFjMmU4YTNiNGQyZjljMGUxYTdi")
+        String nextCursor,
+
+        @Schema(description = "Число товаров по фильтрам, только при withCount=true")
+        Long total
+) {
+}
\ No newline at end of file
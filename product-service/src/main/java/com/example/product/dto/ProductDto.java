@@ -1,32 +1,44 @@
 package com.example.product.dto;
 
+import com.example.product.money.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
 
+import java.math.BigDecimal;
+
 /**
  * DTO для передачи данных о товаре через REST API.
+ * <p>
+ * Внутри цена хранится в копейках ({@link #getPriceMinor()}), в JSON — десятичным числом в рублях
+ * в поле {@code price}, как и раньше.
+ * </p>
  */
 @Data
 @Schema(description = "Информация о товаре")
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ProductDto {
 
-    @Schema(description = "Уникальный идентификатор товара")
-    Long id;
+    @Schema(description = "Уникальный идентификатор товара", example = "665f1c2e8a3b4d2f9c0e1a7b")
+    String id;
 
     @NotBlank(message = "Название товара обязательно")
     @Schema(description = "Название товара", requiredMode = Schema.RequiredMode.REQUIRED, example = "Смартфон XYZ")
     String name;
 
-    @NotNull(message = "Цена обязательна")
-    @Positive(message = "Цена должна быть положительной")
-    @Schema(description = "Цена товара", requiredMode = Schema.RequiredMode.REQUIRED, example = "299.99")
-    Double price;
+    @JsonIgnore
+    long priceMinor;
+
+    @Pattern(regexp = Money.CURRENCY, message = "Поддерживается только валюта " + Money.CURRENCY)
+    @Schema(description = "Валюта цены, ISO 4217", example = Money.CURRENCY, defaultValue = Money.CURRENCY)
+    String currency = Money.CURRENCY;
 
     @NotBlank(message = "Категория обязательна")
     @Schema(description = "Категория товара", requiredMode = Schema.RequiredMode.REQUIRED, example = "Электроника")
@@ -34,4 +46,28 @@ public class ProductDto {
 
     @Schema(description = "Статус активности товара", example = "true")
     boolean active;
+
+    @PositiveOrZero(message = "Популярность не может быть отрицательной")
+    @Schema(description = "Популярность товара, определяет порядок подсказок поиска", example = "120")
+    long popularity;
+
+    /**
+     * @return цена в рублях
+     */
+    @JsonProperty("price")
+    @Positive(message = "Цена должна быть положительной")
+    @Schema(description = "Цена товара в рублях, не точнее копейки", requiredMode = Schema.RequiredMode.REQUIRED,
+            type = "number", example = "299.99")
+    public BigDecimal getPrice() {
+        return Money.toMajor(priceMinor);
+    }
+
+    /**
+     * @param price цена в рублях; {@code null} — цена не задана
+     * @throws IllegalArgumentException если цена точнее копейки
+     */
+    @JsonProperty("price")
+    public void setPrice(BigDecimal price) {
+        this.priceMinor = price != null ? Money.toMinor(price) : 0;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.example.product.dto;
+
+import com.example.product.money.Money;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фасеты поиска: число товаров по категориям и по диапазонам цен.
+ * <p>
+ * Каждый фасет считается по всем фильтрам запроса, кроме своего: счётчики категорий — без фильтра
+ * по категории, диапазоны цен — без фильтра по цене. Так интерфейс показывает, сколько товаров
+ * станет в выдаче при выборе другого значения.
+ * </p>
+ *
+ * @param categories   категории с ненулевым числом товаров, по убыванию числа
+ * @param priceBuckets диапазоны цен в порядке возрастания, включая пустые
+ */
+@Schema(description = "Фасеты поиска товаров")
+public record ProductFacets(
+        @Schema(description = "Число товаров по категориям, без учёта фильтра по категории")
+        List<CategoryCount> categories,
+
+        @Schema(description = "Число товаров по диапазонам цен, без учёта фильтра по цене")
+        List<PriceBucket> priceBuckets
+) {
+
+    /**
+     * Собирает диапазоны цен из границ и счётчиков.
+     *
+     * @param bounds границы в копейках по возрастанию
+     * @param counts {@code bounds.length + 1} счётчиков: до первой границы, между границами, от последней
+     * @return диапазоны цен
+     */
+    public static List<PriceBucket> priceBuckets(long[] bounds, long[] counts) {
+        List<PriceBucket> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            buckets.add(new PriceBucket(
+                    i > 0 ? Money.toMajor(bounds[i - 1]) : null,
+                    i < bounds.length ? Money.toMajor(bounds[i]) : null,
+                    counts[i]));
+        }
+        return buckets;
+    }
+
+    /**
+     * Число товаров категории.
+     *
+     * @param category категория
+     * @param count    число товаров
+     */
+    @Schema(description = "Число товаров категории")
+    public record CategoryCount(
+            @Schema(description = "Категория", example = "Электроника")
+            String category,
+
+            @Schema(description = "Число товаров", example = "42")
+            long count
+    ) {
+    }
+
+    /**
+     * Диапазон цен {@code [from, to)} в рублях.
+     *
+     * @param from  нижняя граница включительно; {@code null} для первого диапазона
+     * @param to    верхняя граница не включительно; {@code null} для последнего диапазона
+     * @param count число товаров
+     */
+    @Schema(description = "Диапазон цен [from, to)")
+    public record PriceBucket(
+            @Schema(description = "Нижняя граница включительно, отсутствует у первого диапазона", type = "number", example = "1000.00")
+            BigDecimal from,
+
+            @Schema(description = "Верхняя граница не включительно, отсутствует у последнего диапазона", type = "number", example = "5000.00")
+            BigDecimal to,
+
+            @Schema(description = "Число товаров", example = "17")
+            long count
+    ) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.example.product.dto;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Поле товара, которое можно запросить параметром {@code fields}.
+ * Имена совпадают с полями {@link ProductDto} и свойствами сущности, поэтому проекция передаётся в MongoDB как есть.
+ * Вместе с ценой отдаётся и её валюта.
+ */
+public enum ProductField {
+
+    ID("id"),
+    NAME("name"),
+    PRICE("price"),
+    CATEGORY("category"),
+    ACTIVE("active"),
+    POPULARITY("popularity");
+
+    /**
+     * Все поля: ответ без параметра {@code fields}.
+     */
+    public static final Set<ProductField> ALL = Collections.unmodifiableSet(EnumSet.allOf(ProductField.class));
+
+    private final String property;
+
+    ProductField(String property) {
+        this.property = property;
+    }
+
+    /**
+     * @return имя поля в ответе и в сущности
+     */
+    public String property() {
+        return property;
+    }
+
+    /**
+     * Разбирает список полей из запроса, например {@code id,name,price}.
+     *
+     * @param fields имена полей; пустой список — все поля
+     * @return запрошенные поля
+     * @throws IllegalArgumentException если поле неизвестно
+     */
+    public static Set<ProductField> parse(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return ALL;
+        }
+        EnumSet<ProductField> selected = EnumSet.noneOf(ProductField.class);
+        for (String field : fields) {
+            String name = field.strip();
+            if (name.isEmpty()) {
+                continue;
+            }
+            try {
+                selected.add(valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неизвестное поле товара: " + name);
+            }
+        }
+        return selected.isEmpty() ? ALL : selected;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Строка потока результатов импорта: ошибка по строке файла или итог импорта.
+ *
+ * @param line     номер строки файла с ошибкой, начиная с 1
+ * @param id       идентификатор товара из строки, если был указан
+ * @param error    описание ошибки
+ * @param imported итог: число записанных товаров
+ * @param rejected итог: число отклонённых строк
+ */
+@Schema(description = "Ошибка строки импорта или итог импорта (последняя строка потока)")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductImportEvent(
+        @Schema(description = "Номер строки файла, начиная с 1", example = "42")
+        Long line,
+
+        @Schema(description = "Идентификатор товара из строки", example = "665f1c2e8a3b4d2f9c0e1a7b")
+        String id,
+
+        @Schema(description = "Описание ошибки", example = "price: Цена должна быть положительной")
+        String error,
+
+        @Schema(description = "Итог: число записанных товаров", example = "49998")
+        Long imported,
+
+        @Schema(description = "Итог: число отклонённых строк", example = "2")
+        Long rejected
+) {
+
+    public static ProductImportEvent error(long line, String id, String error) {
+        return new ProductImportEvent(line, id, error, null, null);
+    }
+
+    public static ProductImportEvent summary(long imported, long rejected) {
+        return new ProductImportEvent(null, null, null, imported, rejected);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.example.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Страница товаров при выборке по номеру страницы.
+ * <p>
+ * Поля названы так же, как в сериализованном {@code PageImpl}, но без {@code pageable}, {@code sort}
+ * и производных признаков: состав ответа не зависит от версии Spring Data.
+ * </p>
+ *
+ * @param content       товары страницы
+ * @param number        номер страницы, с нуля
+ * @param size          размер страницы
+ * @param totalElements число товаров по фильтрам
+ * @param totalPages    число страниц
+ * @param facets        фасеты; только если запрошены
+ */
+@Schema(description = "Страница товаров")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductPage(
+        @Schema(description = "Товары страницы")
+        List<ProductView> content,
+
+        @Schema(description = "Номер страницы, с нуля", example = "0")
+        int number,
+
+        @Schema(description = "Размер страницы", example = "10")
+        int size,
+
+        @Schema(description = "Число товаров по фильтрам", example = "42")
+        long totalElements,
+
+        @Schema(description = "Число страниц", example = "5")
+        int totalPages,
+
+        @Schema(description = "Фасеты, только при facets=true")
+        ProductFacets facets
+) {
+
+    public static ProductPage of(List<ProductView> content, Pageable pageable, long total, ProductFacets facets) {
+        int size = pageable.isPaged() ? pageable.getPageSize() : content.size();
+        int number = pageable.isPaged() ? pageable.getPageNumber() : 0;
+        int totalPages = size == 0 ? 1 : (int) Math.ceil((double) total / size);
+        return new ProductPage(content, number, size, total, totalPages, facets);
+    }
+
+    /**
+     * Страница результатов индекса поиска с запрошенными полями.
+     */
+    public static ProductPage of(Page<ProductDto> page, Set<ProductField> fields) {
+        List<ProductView> content = page.getContent().stream().map(dto -> ProductView.of(dto, fields)).toList();
+        ProductFacets facets = page instanceof ProductSearchPage searchPage ? searchPage.getFacets() : null;
+        return of(content, page.getPageable(), page.getTotalElements(), facets);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.product.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Страница результатов поиска с фасетами из индекса поиска.
+ * В ответ API попадает как {@link ProductPage}.
+ */
+public class ProductSearchPage extends PageImpl<ProductDto> {
+
+    private final transient ProductFacets facets;
+
+    public ProductSearchPage(List<ProductDto> content, Pageable pageable, long total, ProductFacets facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public ProductFacets getFacets() {
+        return facets;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Порядок выдачи товаров при постраничной выборке по курсору.
+ * Каждый порядок дополняется сортировкой по {@code _id}, чтобы ключ был уникальным.
+ */
+@Getter
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Schema(description = "Порядок выдачи товаров")
+public enum ProductSort {
+
+    ID_ASC("_id", Sort.Direction.ASC),
+    PRICE_ASC("price", Sort.Direction.ASC),
+    PRICE_DESC("price", Sort.Direction.DESC),
+    NAME_ASC("name", Sort.Direction.ASC),
+    NAME_DESC("name", Sort.Direction.DESC);
+
+    String field;
+    Sort.Direction direction;
+
+    /**
+     * @return сортировка по ключу и {@code _id} в одном направлении
+     */
+    public Sort toSort() {
+        return "_id".equals(field)
+                ? Sort.by(direction, field)
+                : Sort.by(direction, field).and(Sort.by(direction, "_id"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.example.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Запрос на смену статуса группы товаров: по списку идентификаторов или по фильтру.
+ * Фильтр имеет семантику поиска; пустой фильтр без идентификаторов не допускается.
+ *
+ * @param active   новый статус
+ * @param ids      идентификаторы товаров
+ * @param name     часть названия
+ * @param category категория
+ * @param minPrice минимальная цена в рублях
+ * @param maxPrice максимальная цена в рублях
+ */
+@Schema(description = "Смена статуса товаров по списку идентификаторов или по фильтру")
+public record ProductStatusChange(
+        @NotNull(message = "Статус обязателен")
+        @Schema(description = "Новый статус", requiredMode = Schema.RequiredMode.REQUIRED, example = "false")
+        Boolean active,
+
+        @Size(max = 10_000, message = "Не больше 10000 идентификаторов в запросе")
+        @Schema(description = "Идентификаторы товаров; если заданы, фильтр не используется")
+        List<String> ids,
+
+        @Schema(description = "Часть названия", example = "смартфон")
+        String name,
+
+        @Schema(description = "Категория", example = "Электроника")
+        String category,
+
+        @Schema(description = "Минимальная цена в рублях", type = "number", example = "100.00")
+        BigDecimal minPrice,
+
+        @Schema(description = "Максимальная цена в рублях", type = "number", example = "500.00")
+        BigDecimal maxPrice
+) {
+
+    /**
+     * @return {@code true}, если задан список идентификаторов
+     */
+    public boolean byIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    /**
+     * @return {@code true}, если задан хотя бы один параметр фильтра
+     */
+    public boolean hasFilter() {
+        return name != null && !name.isBlank()
+                || category != null && !category.isBlank()
+                || minPrice != null
+                || maxPrice != null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Результат смены статуса группы товаров.
+ *
+ * @param matched  число найденных товаров
+ * @param modified число товаров, статус которых изменился
+ */
+@Schema(description = "Результат смены статуса товаров")
+public record ProductStatusChangeResult(
+        @Schema(description = "Число найденных товаров", example = "120")
+        long matched,
+
+        @Schema(description = "Число товаров, статус которых изменился", example = "115")
+        long modified
+) {
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.product.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Подсказка поиска по префиксу названия.
+ *
+ * @param id         идентификатор товара
+ * @param name       название товара
+ * @param popularity популярность, по которой упорядочены подсказки
+ */
+@Schema(description = "Подсказка поиска товара")
+public record ProductSuggestion(
+        @Schema(description = "Идентификатор товара", example = "665f1c2e8a3b4d2f9c0e1a7b")
+        String id,
+
+        @Schema(description = "Название товара", example = "Смартфон XYZ")
+        String name,
+
+        @Schema(description = "Популярность товара", example = "120")
+        long popularity
+) {
+}
\ No newline at end of file
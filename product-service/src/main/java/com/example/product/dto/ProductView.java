@@ -0,0 +1,59 @@
+package com.example.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Товар в списке: только поля, запрошенные параметром {@code fields}, незапрошенные в ответ не попадают.
+ * Без {@code fields} совпадает с {@link ProductDto}.
+ *
+ * @param id         идентификатор товара
+ * @param name       название
+ * @param price      цена в рублях
+ * @param currency   валюта цены; отдаётся вместе с ценой
+ * @param category   категория
+ * @param active     статус активности
+ * @param popularity популярность
+ */
+@Schema(description = "Товар в списке; только запрошенные поля")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductView(
+        @Schema(description = "Уникальный идентификатор товара", example = "665f1c2e8a3b4d2f9c0e1a7b")
+        String id,
+
+        @Schema(description = "Название товара", example = "Смартфон XYZ")
+        String name,
+
+        @Schema(description = "Цена товара в рублях", type = "number", example = "299.99")
+        BigDecimal price,
+
+        @Schema(description = "Валюта цены, ISO 4217", example = "RUB")
+        String currency,
+
+        @Schema(description = "Категория товара", example = "Электроника")
+        String category,
+
+        @Schema(description = "Статус активности товара", example = "true")
+        Boolean active,
+
+        @Schema(description = "Популярность товара", example = "120")
+        Long popularity
+) {
+
+    /**
+     * Выбирает из DTO запрошенные поля.
+     */
+    public static ProductView of(ProductDto dto, Set<ProductField> fields) {
+        return new ProductView(
+                fields.contains(ProductField.ID) ? dto.getId() : null,
+                fields.contains(ProductField.NAME) ? dto.getName() : null,
+                fields.contains(ProductField.PRICE) ? dto.getPrice() : null,
+                fields.contains(ProductField.PRICE) ? dto.getCurrency() : null,
+                fields.contains(ProductField.CATEGORY) ? dto.getCategory() : null,
+                fields.contains(ProductField.ACTIVE) ? dto.isActive() : null,
+                fields.contains(ProductField.POPULARITY) ? dto.getPopularity() : null);
+    }
+}
\ No newline at end of file
@@ -1,36 +1,82 @@
 package com.example.product.entity;
 
+import com.example.product.money.Money;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 /**
  * Сущность товара, хранится в MongoDB.
+ * <p>
+ * Индексы покрывают постраничную выборку по курсору: равенство по категории и статусу,
+ * затем ключ сортировки и {@code _id} как уникальный дополнительный ключ; для выборки без категории —
+ * те же индексы без неё. Выборка с неактивными товарами ограничивает статус условием
+ * {@code active ∈ {true, false}}, и MongoDB сливает два упорядоченных диапазона тех же индексов.
+ * </p>
+ * <p>
+ * Цена хранится в копейках в поле {@value #PRICE_FIELD}; в запросах, сортировках и проекциях
+ * по сущности свойство по-прежнему называется {@code price}.
+ * </p>
  */
 @Document(collection = "products")
+@CompoundIndex(name = "category_active_price_minor_id", def = "{'category': 1, 'active': 1, 'priceMinor': 1, '_id': 1}")
+@CompoundIndex(name = "category_active_name_id", def = "{'category': 1, 'active': 1, 'name': 1, '_id': 1}")
+@CompoundIndex(name = "active_price_minor_id", def = "{'active': 1, 'priceMinor': 1, '_id': 1}")
+@CompoundIndex(name = "active_name_id", def = "{'active': 1, 'name': 1, '_id': 1}")
 @Getter @Setter
-@RequiredArgsConstructor
 @NoArgsConstructor(force = true)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Product {
 
+    /**
+     * Поле цены в копейках в документе MongoDB.
+     */
+    public static final String PRICE_FIELD = "priceMinor";
+
+    /**
+     * Поле цены в рублях ({@code double}) до перехода на копейки. Экземпляры прежней версии
+     * пишут его и во время выкладки, в том числе в уже переведённые документы.
+     */
+    public static final String LEGACY_PRICE_FIELD = "price";
+
     @Id
-    Long id;
+    String id;
 
     @NonNull
     String name;
 
+    /**
+     * Цена в копейках, см. {@link Money}.
+     */
+    @Field(PRICE_FIELD)
+    long price;
+
+    /**
+     * Валюта цены, ISO 4217.
+     */
     @NonNull
-    Double price;
+    String currency = Money.CURRENCY;
 
     @NonNull
     String category;
 
     boolean active;
+
+    /**
+     * Популярность товара: чем больше, тем выше товар в подсказках поиска.
+     */
+    long popularity;
+
+    public Product(@NonNull String name, long price, @NonNull String category) {
+        this.name = name;
+        this.price = price;
+        this.category = category;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package com.example.product.grpc;
+
+import com.example.product.dto.BatchGetProductsRequest;
+import com.example.product.mapper.ProductProtoMapper;
+import com.example.product.service.ProductService;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Value;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * gRPC API товаров.
+ * <p>
+ * Сообщения строятся напрямую из {@link com.example.product.entity.Product} и
+ * {@link com.example.product.dto.ProductDto}, минуя JSON. Каталог отдаётся пачками:
+ * следующая пачка запрашивается из MongoDB только когда транспорт готов её принять,
+ * поэтому медленный клиент не накапливает каталог в памяти сервиса.
+ * </p>
+ */
+@Slf4j
+@GrpcService
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductGrpcService extends ProductServiceGrpc.ProductServiceImplBase {
+
+    ProductService productService;
+    int defaultChunkSize;
+    int maxChunkSize;
+
+    public ProductGrpcService(
+            ProductService productService,
+            @Value("${app.grpc.catalog-chunk-size:500}") int defaultChunkSize,
+            @Value("${app.grpc.max-catalog-chunk-size:5000}") int maxChunkSize) {
+        this.productService = productService;
+        this.defaultChunkSize = defaultChunkSize;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    @Override
+    public void getProduct(GetProductRequest request, StreamObserver<ProductResponse> responseObserver) {
+        if (request.getId().isBlank()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("Не задан id товара").asRuntimeException());
+            return;
+        }
+        unary(productService.findById(request.getId())
+                        .map(ProductProtoMapper::toProto)
+                        .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Товар не найден: " + request.getId()))),
+                responseObserver);
+    }
+
+    @Override
+    public void getProducts(GetProductsRequest request, StreamObserver<GetProductsResponse> responseObserver) {
+        if (request.getIdsCount() == 0 || request.getIdsCount() > BatchGetProductsRequest.MAX_IDS) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Ожидается от 1 до " + BatchGetProductsRequest.MAX_IDS + " идентификаторов")
+                    .asRuntimeException());
+            return;
+        }
+        unary(productService.findAllById(request.getIdsList())
+                        .map(found -> {
+                            GetProductsResponse.Builder response = GetProductsResponse.newBuilder()
+                                    .addAllMissingIds(found.missingIds());
+                            found.products().values().forEach(dto -> response.addProducts(ProductProtoMapper.toProto(dto)));
+                            return response.build();
+                        }),
+                responseObserver);
+    }
+
+    @Override
+    public void streamCatalog(StreamCatalogRequest request, StreamObserver<ProductChunk> responseObserver) {
+        int chunkSize = request.getChunkSize() == 0
+                ? defaultChunkSize
+                : Math.min(Math.max(request.getChunkSize(), 1), maxChunkSize);
+        Flux<ProductChunk> chunks = productService
+                .streamCatalog(request.getCategory(), request.getActiveOnly(), chunkSize)
+                .map(ProductProtoMapper::toProto)
+                .buffer(chunkSize)
+                .map(products -> ProductChunk.newBuilder().addAllProducts(products).build());
+
+        FlowControlledSubscriber subscriber =
+                new FlowControlledSubscriber((ServerCallStreamObserver<ProductChunk>) responseObserver);
+        chunks.subscribe(subscriber);
+    }
+
+    private static <T> void unary(Mono<T> response, StreamObserver<T> observer) {
+        response.subscribe(
+                value -> {
+                    observer.onNext(value);
+                    observer.onCompleted();
+                },
+                ex -> observer.onError(toStatus(ex)));
+    }
+
+    private static RuntimeException toStatus(Throwable ex) {
+        if (ex instanceof NoSuchElementException) {
+            return Status.NOT_FOUND.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return Status.INVALID_ARGUMENT.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        log.error("Ошибка обработки gRPC-запроса", ex);
+        return Status.INTERNAL.withDescription("Внутренняя ошибка сервиса").asRuntimeException();
+    }
+
+    /**
+     * Передаёт пачки в поток ответа по одной: следующая запрашивается, только если транспорт
+     * готов к записи, иначе — из обработчика готовности. Отмена вызова клиентом отменяет подписку.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    static final class FlowControlledSubscriber extends BaseSubscriber<ProductChunk> {
+
+        ServerCallStreamObserver<ProductChunk> observer;
+        AtomicBoolean awaitingReady = new AtomicBoolean();
+
+        FlowControlledSubscriber(ServerCallStreamObserver<ProductChunk> observer) {
+            this.observer = observer;
+            // Обработчики задаются до выхода из метода сервиса, как того требует gRPC.
+            observer.setOnReadyHandler(this::resumeIfAwaiting);
+            observer.setOnCancelHandler(this::dispose);
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            requestWhenReady();
+        }
+
+        @Override
+        protected void hookOnNext(ProductChunk chunk) {
+            observer.onNext(chunk);
+            requestWhenReady();
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            observer.onCompleted();
+        }
+
+        @Override
+        protected void hookOnError(Throwable ex) {
+            observer.onError(toStatus(ex));
+        }
+
+        private void requestWhenReady() {
+            if (observer.isReady()) {
+                request(1);
+                return;
+            }
+            awaitingReady.set(true);
+            // Транспорт мог стать готовым между проверкой и установкой флага.
+            if (observer.isReady()) {
+                resumeIfAwaiting();
+            }
+        }
+
+        private void resumeIfAwaiting() {
+            if (awaitingReady.compareAndSet(true, false)) {
+                request(1);
+            }
+        }
+    }
+}
\ No newline at end of file
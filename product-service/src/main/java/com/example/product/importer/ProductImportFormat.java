@@ -0,0 +1,25 @@
+package com.example.product.importer;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Формат файла импорта товаров.
+ */
+public enum ProductImportFormat {
+
+    /** Объект {@code ProductDto} в JSON на каждой строке. */
+    NDJSON,
+
+    /** CSV с заголовком: {@code id,name,price,category,active,popularity} в любом порядке. */
+    CSV;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    /**
+     * @param contentType тип содержимого запроса
+     * @return формат; NDJSON для всех типов, кроме {@code text/csv}
+     */
+    public static ProductImportFormat of(MediaType contentType) {
+        return contentType != null && contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE)) ? CSV : NDJSON;
+    }
+}
\ No newline at end of file
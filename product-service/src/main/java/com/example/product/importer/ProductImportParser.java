@@ -0,0 +1,213 @@
+package com.example.product.importer;
+
+import com.example.product.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Потоковый разбор и проверка файла импорта товаров.
+ * <p>
+ * Тело запроса делится на строки по мере поступления, без чтения файла целиком. Строки собираются
+ * в пачки, и каждая пачка разбирается и проверяется Bean Validation на общем параллельном планировщике;
+ * порядок пачек на выходе сохраняется. Пустые строки пропускаются, но в нумерации учитываются.
+ * </p>
+ * <p>
+ * Если статус в строке не указан, товар считается активным, как при создании через API.
+ * </p>
+ */
+public class ProductImportParser {
+
+    static final List<String> CSV_COLUMNS = List.of("id", "name", "price", "category", "active", "popularity");
+
+    private static final StringDecoder LINES = StringDecoder.allMimeTypes(List.of("\n"), true);
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public ProductImportParser(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Строка файла: товар или описание ошибки разбора и проверки.
+     *
+     * @param line    номер строки, начиная с 1
+     * @param product товар; {@code null}, если строку не удалось разобрать
+     * @param error   ошибка; {@code null}, если строка корректна
+     */
+    public record Row(long line, ProductDto product, String error) {
+
+        public String id() {
+            return product != null ? product.getId() : null;
+        }
+    }
+
+    /**
+     * Разбирает и проверяет файл пачками.
+     *
+     * @param body        тело запроса
+     * @param format      формат файла
+     * @param batchSize   размер пачки
+     * @param parallelism число пачек, разбираемых одновременно
+     * @return пачки строк в порядке файла
+     */
+    public Flux<List<Row>> parse(Flux<DataBuffer> body, ProductImportFormat format, int batchSize, int parallelism) {
+        Flux<Line> lines = lines(body);
+        if (format == ProductImportFormat.NDJSON) {
+            return batches(lines, this::ndjsonRow, batchSize, parallelism);
+        }
+        return lines.switchOnFirst((first, all) -> {
+            if (!first.hasValue()) {
+                return Flux.empty();
+            }
+            Map<String, Integer> header = csvHeader(first.get().text());
+            return batches(all.skip(1), line -> csvRow(header, line), batchSize, parallelism);
+        });
+    }
+
+    private Flux<List<Row>> batches(Flux<Line> lines, Function<Line, Row> parser, int batchSize, int parallelism) {
+        return lines.buffer(batchSize)
+                .flatMapSequential(batch -> Mono.fromCallable(() -> batch.stream().map(parser).toList())
+                        .subscribeOn(Schedulers.parallel()), parallelism);
+    }
+
+    static Flux<Line> lines(Flux<DataBuffer> body) {
+        return LINES.decode(body, ResolvableType.forClass(String.class), null, Map.of())
+                .index((index, text) -> new Line(index + 1,
+                        text.endsWith("\r") ? text.substring(0, text.length() - 1) : text))
+                .filter(line -> !line.text().isBlank());
+    }
+
+    Row ndjsonRow(Line line) {
+        ProductDto product;
+        try {
+            JsonNode node = objectMapper.readTree(line.text());
+            product = objectMapper.treeToValue(node, ProductDto.class);
+            if (!node.hasNonNull("active")) {
+                product.setActive(true);
+            }
+        } catch (JsonProcessingException e) {
+            return new Row(line.number(), null, "Некорректный JSON: " + e.getOriginalMessage());
+        }
+        return validated(line, product);
+    }
+
+    Row csvRow(Map<String, Integer> header, Line line) {
+        List<String> values = csvValues(line.text());
+        ProductDto product = new ProductDto();
+        try {
+            product.setId(blankToNull(value(values, header, "id")));
+            product.setName(value(values, header, "name"));
+            product.setCategory(value(values, header, "category"));
+            String price = blankToNull(value(values, header, "price"));
+            product.setPrice(price != null ? new BigDecimal(price) : null);
+            String active = blankToNull(value(values, header, "active"));
+            product.setActive(active == null || Boolean.parseBoolean(active));
+            String popularity = blankToNull(value(values, header, "popularity"));
+            product.setPopularity(popularity != null ? Long.parseLong(popularity) : 0);
+        } catch (NumberFormatException e) {
+            return new Row(line.number(), product, "Некорректное число: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return new Row(line.number(), product, "price: " + e.getMessage());
+        }
+        return validated(line, product);
+    }
+
+    private Row validated(Line line, ProductDto product) {
+        if (product.getId() != null && product.getId().isBlank()) {
+            product.setId(null);
+        }
+        Set<ConstraintViolation<ProductDto>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return new Row(line.number(), product, null);
+        }
+        String error = violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return new Row(line.number(), product, error);
+    }
+
+    static Map<String, Integer> csvHeader(String line) {
+        List<String> columns = csvValues(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).strip().toLowerCase(Locale.ROOT);
+            // BOM в начале файла из Excel.
+            if (i == 0 && column.startsWith("\uFEFF")) {
+                column = column.substring(1);
+            }
+            if (CSV_COLUMNS.contains(column)) {
+                header.put(column, i);
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Значения строки CSV по RFC 4180: поля в кавычках могут содержать запятые и удвоенные кавычки.
+     * Переводы строк внутри полей не поддерживаются.
+     */
+    static List<String> csvValues(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static String value(List<String> values, Map<String, Integer> header, String column) {
+        Integer index = header.get(column);
+        return index != null && index < values.size() ? values.get(index) : null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.strip();
+    }
+
+    /**
+     * Непустая строка файла с номером.
+     */
+    record Line(long number, String text) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.example.product.importer;
+
+import com.example.product.dto.ProductImportEvent;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.service.ProductReadModels;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.Validator;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Потоковый импорт товаров из NDJSON или CSV.
+ * <p>
+ * Файл разбирается и проверяется пачками по {@code app.import.batch-size} строк параллельно
+ * ({@link ProductImportParser}). Каждая пачка записывается одним неупорядоченным {@code bulkWrite}:
+ * строки без id — {@code insertOne} с id, выданным здесь, строки с id — {@code replaceOne} с upsert.
+ * Ошибка одной строки не останавливает запись остальных. Одновременно пишется не больше
+ * {@code app.import.write-concurrency} пачек; следующие строки читаются из запроса по мере записи.
+ * </p>
+ * <p>
+ * Результат — поток NDJSON: по строке на каждую отклонённую строку файла и итог последней строкой.
+ * Записанные товары сразу применяются к моделям чтения этого экземпляра.
+ * </p>
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductImportService {
+
+    ReactiveMongoTemplate mongoTemplate;
+    ProductReadModels readModels;
+    ProductImportParser parser;
+    int batchSize;
+    int parallelism;
+    int writeConcurrency;
+
+    public ProductImportService(ReactiveMongoTemplate mongoTemplate,
+                                ProductReadModels readModels,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                @Value("${app.import.batch-size:1000}") int batchSize,
+                                @Value("${app.import.parallelism:4}") int parallelism,
+                                @Value("${app.import.write-concurrency:2}") int writeConcurrency) {
+        this.mongoTemplate = mongoTemplate;
+        this.readModels = readModels;
+        this.parser = new ProductImportParser(objectMapper, validator);
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.writeConcurrency = writeConcurrency;
+    }
+
+    /**
+     * Импортирует товары из тела запроса.
+     *
+     * @param body        тело запроса
+     * @param contentType {@code application/x-ndjson} или {@code text/csv}
+     * @return ошибки по строкам и итог последним элементом
+     */
+    public Flux<ProductImportEvent> importProducts(Flux<DataBuffer> body, MediaType contentType) {
+        AtomicLong imported = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        return parser.parse(body, ProductImportFormat.of(contentType), batchSize, parallelism)
+                .flatMapSequential(rows -> write(rows, imported, rejected), writeConcurrency)
+                .concatWith(Mono.fromSupplier(() -> {
+                    log.info("Импорт товаров завершён: записано {}, отклонено {}", imported.get(), rejected.get());
+                    return ProductImportEvent.summary(imported.get(), rejected.get());
+                }));
+    }
+
+    private Flux<ProductImportEvent> write(List<ProductImportParser.Row> rows, AtomicLong imported, AtomicLong rejected) {
+        List<ProductImportEvent> events = new ArrayList<>();
+        List<ProductImportParser.Row> accepted = new ArrayList<>(rows.size());
+        List<Product> products = new ArrayList<>(rows.size());
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (ProductImportParser.Row row : rows) {
+            if (row.error() != null) {
+                events.add(ProductImportEvent.error(row.line(), row.id(), row.error()));
+                continue;
+            }
+            Product product = ProductMapper.toEntity(row.product());
+            if (row.id() != null) {
+                product.setId(row.id());
+                bulk.replaceOne(Query.query(Criteria.where("_id").is(row.id())), product,
+                        FindAndReplaceOptions.options().upsert());
+            } else {
+                product.setId(new ObjectId().toHexString());
+                bulk.insert(product);
+            }
+            accepted.add(row);
+            products.add(product);
+        }
+        rejected.addAndGet(events.size());
+        if (products.isEmpty()) {
+            return Flux.fromIterable(events);
+        }
+
+        return bulk.execute()
+                .map(result -> Map.<Integer, String>of())
+                .onErrorResume(e -> Mono.just(failures(e, products.size())))
+                .flatMapIterable(failed -> {
+                    for (int i = 0; i < products.size(); i++) {
+                        String error = failed.get(i);
+                        if (error != null) {
+                            ProductImportParser.Row row = accepted.get(i);
+                            events.add(ProductImportEvent.error(row.line(), row.id(), error));
+                        } else {
+                            readModels.apply(products.get(i));
+                        }
+                    }
+                    rejected.addAndGet(failed.size());
+                    imported.addAndGet(products.size() - failed.size());
+                    return events;
+                });
+    }
+
+    /**
+     * Ошибки записи по номеру операции в пачке. Если сервер не сообщил ошибки по операциям,
+     * ошибкой считается вся пачка.
+     */
+    private static Map<Integer, String> failures(Throwable e, int size) {
+        List<BulkWriteError> errors = null;
+        if (e instanceof BulkOperationException bulkError) {
+            errors = bulkError.getErrors();
+        } else if (e instanceof MongoBulkWriteException bulkError) {
+            errors = bulkError.getWriteErrors();
+        } else if (e.getCause() instanceof MongoBulkWriteException bulkError) {
+            errors = bulkError.getWriteErrors();
+        }
+
+        Map<Integer, String> failed = new HashMap<>();
+        if (errors != null) {
+            errors.forEach(error -> failed.put(error.getIndex(), error.getMessage()));
+        } else {
+            log.warn("Не удалось записать пачку импорта из {} товаров", size, e);
+            for (int i = 0; i < size; i++) {
+                failed.put(i, "Ошибка записи пачки: " + e.getMessage());
+            }
+        }
+        return failed;
+    }
+}
\ No newline at end of file
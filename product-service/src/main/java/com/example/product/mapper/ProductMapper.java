@@ -1,11 +1,18 @@
 package com.example.product.mapper;
 
 import com.example.product.dto.ProductDto;
+import com.example.product.dto.ProductField;
+import com.example.product.dto.ProductView;
 import com.example.product.entity.Product;
+import com.example.product.money.Money;
 import lombok.experimental.UtilityClass;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.Set;
 
 /**
- * Утилита для преобразования между {@link Product} и {@link ProductDto}.
+ * Утилита для преобразования между {@link Product}, {@link ProductDto} и {@link ProductView}.
  */
 @UtilityClass
 public class ProductMapper {
@@ -21,12 +28,34 @@ public class ProductMapper {
         ProductDto dto = new ProductDto();
         dto.setId(product.getId());
         dto.setName(product.getName());
-        dto.setPrice(product.getPrice());
+        dto.setPriceMinor(product.getPrice());
+        dto.setCurrency(product.getCurrency());
         dto.setCategory(product.getCategory());
         dto.setActive(product.isActive());
+        dto.setPopularity(product.getPopularity());
         return dto;
     }
 
+    /**
+     * Преобразует документ MongoDB, прочитанный с проекцией, в товар списка.
+     * Отсутствующие в документе запрошенные поля получают те же значения, что и в сущности.
+     *
+     * @param document документ с запрошенными полями
+     * @param fields   запрошенные поля
+     * @return товар списка
+     */
+    public static ProductView toView(Document document, Set<ProductField> fields) {
+        Object id = document.get("_id");
+        return new ProductView(
+                fields.contains(ProductField.ID) ? (id instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(id)) : null,
+                fields.contains(ProductField.NAME) ? document.getString("name") : null,
+                fields.contains(ProductField.PRICE) ? Money.toMajor(priceMinor(document)) : null,
+                fields.contains(ProductField.PRICE) ? currency(document) : null,
+                fields.contains(ProductField.CATEGORY) ? document.getString("category") : null,
+                fields.contains(ProductField.ACTIVE) ? document.getBoolean("active", false) : null,
+                fields.contains(ProductField.POPULARITY) ? number(document.get("popularity")).longValue() : null);
+    }
+
     /**
      * Преобразует DTO в сущность.
      * Используется при создании/обновлении.
@@ -38,9 +67,44 @@ public class ProductMapper {
         if (dto == null) return null;
         Product product = new Product();
         product.setName(dto.getName());
-        product.setPrice(dto.getPrice());
+        product.setPrice(dto.getPriceMinor());
+        product.setCurrency(currency(dto));
         product.setCategory(dto.getCategory());
         product.setActive(dto.isActive());
+        product.setPopularity(dto.getPopularity());
         return product;
     }
+
+    /**
+     * Цена документа MongoDB в копейках. Документ, ещё не переведённый на копейки,
+     * хранит цену в рублях в поле {@value Product#LEGACY_PRICE_FIELD} как {@code double}.
+     * Если есть оба поля, старое записано экземпляром прежней версии позже перевода и важнее.
+     *
+     * @param document документ товара
+     * @return цена в копейках; 0, если цены нет
+     */
+    public static long priceMinor(Document document) {
+        Object legacy = document.get(Product.LEGACY_PRICE_FIELD);
+        if (legacy instanceof Number amount) {
+            return Money.toMinor(amount.doubleValue());
+        }
+        Object price = document.get(Product.PRICE_FIELD);
+        return price instanceof Number minor ? minor.longValue() : 0;
+    }
+
+    /**
+     * @return валюта из DTO или валюта каталога, если она не указана
+     */
+    public static String currency(ProductDto dto) {
+        return dto.getCurrency() != null ? dto.getCurrency() : Money.CURRENCY;
+    }
+
+    private static String currency(Document document) {
+        String currency = document.getString("currency");
+        return currency != null ? currency : Money.CURRENCY;
+    }
+
+    private static Number number(Object value) {
+        return value instanceof Number number ? number : 0;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.example.product.mapper;
+
+import com.example.product.dto.ProductDto;
+import com.example.product.entity.Product;
+import com.example.product.grpc.ProductResponse;
+import com.example.product.money.Money;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Утилита для преобразования {@link Product} и {@link ProductDto} в сообщения gRPC API.
+ * Поля копируются напрямую, без промежуточного JSON. Цена передаётся точно в копейках
+ * и для совместимости — в рублях как {@code double}.
+ */
+@UtilityClass
+public class ProductProtoMapper {
+
+    /**
+     * Преобразует сущность в сообщение.
+     *
+     * @param product сущность товара
+     * @return сообщение товара
+     */
+    public static ProductResponse toProto(Product product) {
+        return ProductResponse.newBuilder()
+                .setId(product.getId())
+                .setName(product.getName())
+                .setPrice(Money.toDouble(product.getPrice()))
+                .setPriceMinor(product.getPrice())
+                .setCurrency(product.getCurrency())
+                .setCategory(product.getCategory())
+                .setActive(product.isActive())
+                .setPopularity(product.getPopularity())
+                .build();
+    }
+
+    /**
+     * Преобразует DTO в сообщение.
+     *
+     * @param dto DTO товара
+     * @return сообщение товара
+     */
+    public static ProductResponse toProto(ProductDto dto) {
+        return ProductResponse.newBuilder()
+                .setId(dto.getId())
+                .setName(dto.getName())
+                .setPrice(Money.toDouble(dto.getPriceMinor()))
+                .setPriceMinor(dto.getPriceMinor())
+                .setCurrency(ProductMapper.currency(dto))
+                .setCategory(dto.getCategory())
+                .setActive(dto.isActive())
+                .setPopularity(dto.getPopularity())
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.example.product.migration;
+
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.money.Money;
+import com.mongodb.MongoCommandException;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterConvertCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Перевод цен товаров из рублей в {@code double} (поле {@value Product#LEGACY_PRICE_FIELD}) в копейки
+ * (поле {@value Product#PRICE_FIELD}) с явной валютой {@value Money#CURRENCY}.
+ * <p>
+ * Выполняется при каждом старте до открытия трафика и до загрузки поискового индекса: одним
+ * {@code updateMany} с конвейером по документам с числовым старым полем. Цена умножается
+ * в {@code Decimal128} и округляется до копейки банковским округлением, старое поле удаляется,
+ * поэтому повторный запуск ничего не меняет. Индексы по старому полю удаляются.
+ * </p>
+ * <p>
+ * Во время выкладки экземпляры прежней версии пишут цену в старое поле — и в новые документы,
+ * и частичным обновлением в уже переведённые. Поэтому старое поле важнее нового, где бы оба
+ * ни встретились: при переводе, при чтении сущности ({@link #onAfterConvert}), в проекциях списков
+ * и change stream ({@link ProductMapper#priceMinor}), в фасетах цен ({@link #priceMinorExpression()}).
+ * Фильтры и сортировки по цене видят такие документы после следующего запуска миграции.
+ * </p>
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductPriceMigration implements ApplicationRunner, ReactiveAfterConvertCallback<Product> {
+
+    static final List<String> LEGACY_INDEXES = List.of("category_active_price_id", "active_price_id");
+    static final long MINOR_PER_MAJOR = Money.toMinor(BigDecimal.ONE);
+    static final int INDEX_NOT_FOUND = 27;
+
+    static final Document LEGACY_FILTER = new Document(Product.LEGACY_PRICE_FIELD, new Document("$type", "number"));
+
+    static final List<Document> MIGRATION = List.of(
+            new Document("$set", new Document(Product.PRICE_FIELD, legacyPriceMinor())
+                    .append("currency", new Document("$ifNull", List.of("$currency", Money.CURRENCY)))),
+            new Document("$unset", Product.LEGACY_PRICE_FIELD));
+
+    ReactiveMongoTemplate mongoTemplate;
+    boolean enabled;
+    Duration timeout;
+
+    public ProductPriceMigration(ReactiveMongoTemplate mongoTemplate,
+                                 @Value("${app.price-migration.enabled:true}") boolean enabled,
+                                 @Value("${app.price-migration.timeout:PT10M}") Duration timeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            migrate().block(timeout);
+        }
+    }
+
+    /**
+     * Переводит цены оставшихся документов и удаляет индексы по старому полю.
+     */
+    public Mono<Void> migrate() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .flatMap(collection -> Mono.from(collection.updateMany(LEGACY_FILTER, MIGRATION))
+                        .doOnNext(result -> {
+                            if (result.getModifiedCount() > 0) {
+                                log.info("Цены переведены в копейки: {} товаров", result.getModifiedCount());
+                            }
+                        })
+                        .thenMany(Flux.fromIterable(LEGACY_INDEXES).concatMap(index -> dropIndex(collection, index)))
+                        .then());
+    }
+
+    /**
+     * Выражение агрегации: цена документа в копейках, из старого поля, если оно числовое.
+     * Документ без цены даёт {@code null}.
+     */
+    public static Document priceMinorExpression() {
+        return new Document("$cond", List.of(
+                new Document("$isNumber", "$" + Product.LEGACY_PRICE_FIELD),
+                legacyPriceMinor(),
+                "$" + Product.PRICE_FIELD));
+    }
+
+    @Override
+    public Publisher<Product> onAfterConvert(Product entity, Document document, String collection) {
+        if (document.get(Product.LEGACY_PRICE_FIELD) instanceof Number) {
+            entity.setPrice(ProductMapper.priceMinor(document));
+        }
+        return Mono.just(entity);
+    }
+
+    private static Document legacyPriceMinor() {
+        return new Document("$toLong", new Document("$round", List.of(
+                new Document("$multiply", List.of(
+                        new Document("$toDecimal", "$" + Product.LEGACY_PRICE_FIELD), MINOR_PER_MAJOR)),
+                0)));
+    }
+
+    private static Mono<Void> dropIndex(MongoCollection<Document> collection, String index) {
+        return Mono.from(collection.dropIndex(index))
+                .doOnSuccess(done -> log.info("Удалён индекс по цене в рублях: {}", index))
+                .onErrorResume(MongoCommandException.class, e -> e.getErrorCode() == INDEX_NOT_FOUND
+                        ? Mono.empty()
+                        : Mono.error(e));
+    }
+}
\ No newline at end of file
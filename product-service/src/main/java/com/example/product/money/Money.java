@@ -0,0 +1,85 @@
+package com.example.product.money;
+
+import lombok.experimental.UtilityClass;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Денежные суммы в минимальных единицах валюты.
+ * <p>
+ * Цены хранятся, сравниваются и индексируются как {@code long} копеек: без ошибок округления
+ * двоичной дроби и без упаковки. Каталог ведётся в одной валюте {@value #CURRENCY}, она явно записана
+ * у каждого товара. Во внешних форматах цена остаётся десятичным числом в рублях, например {@code 299.99}.
+ * </p>
+ */
+@UtilityClass
+public class Money {
+
+    /**
+     * Валюта каталога, ISO 4217.
+     */
+    public static final String CURRENCY = "RUB";
+
+    /**
+     * Число знаков после запятой: копейки.
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * Точный перевод суммы в копейки.
+     *
+     * @param amount сумма в рублях
+     * @return сумма в копейках
+     * @throws IllegalArgumentException если в сумме больше {@value #SCALE} знаков после запятой или она слишком велика
+     */
+    public static long toMinor(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Сумма должна быть в пределах long копеек и не точнее копейки: " + amount, e);
+        }
+    }
+
+    /**
+     * Перевод суммы в копейки с округлением, например для границ диапазона в фильтре:
+     * нижняя граница округляется вверх, верхняя — вниз.
+     *
+     * @param amount   сумма в рублях
+     * @param rounding округление до копейки
+     * @return сумма в копейках
+     * @throws IllegalArgumentException если сумма слишком велика
+     */
+    public static long toMinor(BigDecimal amount, RoundingMode rounding) {
+        return toMinor(amount.setScale(SCALE, rounding));
+    }
+
+    /**
+     * Перевод цены, записанной до перехода на копейки как {@code double}.
+     * Округление банковское, как у {@code $round} в миграции MongoDB.
+     *
+     * @param amount сумма в рублях
+     * @return сумма в копейках
+     */
+    public static long toMinor(double amount) {
+        return toMinor(BigDecimal.valueOf(amount), RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * @param minor сумма в копейках
+     * @return сумма в рублях с {@value #SCALE} знаками после запятой
+     */
+    public static BigDecimal toMajor(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    /**
+     * Ближайшее к сумме {@code double} — для форматов, где цена исторически передаётся двоичной дробью.
+     *
+     * @param minor сумма в копейках
+     * @return сумма в рублях
+     */
+    public static double toDouble(long minor) {
+        return toMajor(minor).doubleValue();
+    }
+}
\ No newline at end of file
@@ -1,13 +1,16 @@
 package com.example.product.repository;
 
 import com.example.product.entity.Product;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-
+/**
+ * Неблокирующий репозиторий товаров.
+ * <p>
+ * Поиск по фильтрам и страницы с проекцией полей собираются в {@code ProductServiceImpl}
+ * через {@code ReactiveMongoTemplate}, производные методы для комбинаций фильтров не нужны.
+ * </p>
+ */
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
-    List<Product> findByCategory(String category);
-    List<Product> findByNameContainingIgnoreCase(String name);
+public interface ProductRepository extends ReactiveMongoRepository<Product, String> {
 }
\ No newline at end of file
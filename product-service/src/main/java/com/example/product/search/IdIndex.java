@@ -0,0 +1,140 @@
+package com.example.product.search;
+
+import org.bson.types.ObjectId;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Порядок товаров по {@code _id}, в котором их сортирует MongoDB: строковые идентификаторы раньше
+ * {@link ObjectId}, внутри каждого вида — по возрастанию.
+ * <p>
+ * Порядковые номера выдаются в порядке поступления товаров в индекс и с порядком {@code _id} не совпадают:
+ * изменения из change stream и записи приходят и во время начальной загрузки, импорт принимает
+ * произвольные строковые id, ObjectId с разных экземпляров не монотонны. Поэтому, как и в {@link PriceIndex},
+ * хранится массив порядковых номеров, отсортированный по id, и дельта товаров, добавленных после
+ * последней перестройки; когда дельта превышает порог, массив перестраивается. Id товара после
+ * добавления не меняется, поэтому других изменений порядок не знает.
+ * </p>
+ * <p>
+ * Не потокобезопасен: синхронизацию обеспечивает {@link ProductSearchIndex}.
+ * </p>
+ */
+final class IdIndex {
+
+    private final int rebuildThreshold;
+    private int[] sortedOrdinals = new int[0];
+    private final RoaringBitmap added = new RoaringBitmap();
+
+    IdIndex(int rebuildThreshold) {
+        this.rebuildThreshold = rebuildThreshold;
+    }
+
+    /**
+     * Отмечает новый товар; при переполнении дельты перестраивает массив.
+     */
+    void add(int ordinal, String[] ids, int size) {
+        added.add(ordinal);
+        if (added.getCardinality() > rebuildThreshold) {
+            rebuild(ids, size);
+        }
+    }
+
+    /**
+     * Перестраивает отсортированный массив и очищает дельту. Вид идентификатора проверяется
+     * один раз на товар: строковые и ObjectId сортируются по отдельности и идут подряд.
+     */
+    void rebuild(String[] ids, int size) {
+        List<Integer> strings = new ArrayList<>();
+        List<Integer> objectIds = new ArrayList<>(size);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            (ObjectId.isValid(ids[ordinal]) ? objectIds : strings).add(ordinal);
+        }
+        Comparator<Integer> byId = Comparator.comparing(ordinal -> ids[ordinal]);
+        strings.sort(byId);
+        objectIds.sort(byId);
+        int[] rebuilt = new int[size];
+        int position = 0;
+        for (int ordinal : strings) {
+            rebuilt[position++] = ordinal;
+        }
+        for (int ordinal : objectIds) {
+            rebuilt[position++] = ordinal;
+        }
+        sortedOrdinals = rebuilt;
+        added.clear();
+    }
+
+    /**
+     * Первые {@code limit} товаров из {@code matches} в порядке id.
+     * <p>
+     * Отсортированный массив просматривается с нужного конца до набора {@code limit} элементов;
+     * товары из дельты сортируются отдельно и сливаются с результатом, как в {@link PriceIndex#first}.
+     * </p>
+     */
+    int[] first(RoaringBitmap matches, int limit, boolean ascending, String[] ids) {
+        int[] fromArray = new int[limit];
+        int found = 0;
+        for (int step = 0; step < sortedOrdinals.length && found < limit; step++) {
+            int ordinal = sortedOrdinals[ascending ? step : sortedOrdinals.length - 1 - step];
+            if (matches.contains(ordinal)) {
+                fromArray[found++] = ordinal;
+            }
+        }
+        RoaringBitmap changed = RoaringBitmap.and(added, matches);
+        if (changed.isEmpty()) {
+            return found == limit ? fromArray : Arrays.copyOf(fromArray, found);
+        }
+
+        Comparator<Integer> order = order(ascending, ids);
+        Integer[] fromDelta = changed.stream().boxed().sorted(order).toArray(Integer[]::new);
+        int[] merged = new int[Math.min(limit, found + fromDelta.length)];
+        int a = 0;
+        int d = 0;
+        for (int i = 0; i < merged.length; i++) {
+            boolean takeDelta = a == found || (d < fromDelta.length && order.compare(fromDelta[d], fromArray[a]) < 0);
+            merged[i] = takeDelta ? fromDelta[d++] : fromArray[a++];
+        }
+        return merged;
+    }
+
+    /**
+     * Первые {@code limit} товаров из {@code matches} в порядке id — частичной сортировкой всех совпадений.
+     * Выгоднее {@link #first}, когда совпадений мало.
+     */
+    static int[] top(RoaringBitmap matches, int limit, boolean ascending, String[] ids) {
+        Comparator<Integer> order = order(ascending, ids);
+        // Корень кучи — худший из отобранных товаров: первым вытесняется он.
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, order.reversed());
+        PeekableIntIterator candidates = matches.getIntIterator();
+        while (candidates.hasNext()) {
+            heap.add(candidates.next());
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        return heap.stream().sorted(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Сравнивает идентификаторы в порядке MongoDB.
+     */
+    static int compare(String left, String right) {
+        boolean leftObjectId = ObjectId.isValid(left);
+        boolean rightObjectId = ObjectId.isValid(right);
+        if (leftObjectId != rightObjectId) {
+            return leftObjectId ? 1 : -1;
+        }
+        return left.compareTo(right);
+    }
+
+    private static Comparator<Integer> order(boolean ascending, String[] ids) {
+        Comparator<Integer> byId = (left, right) -> compare(ids[left], ids[right]);
+        return ascending ? byId : byId.reversed();
+    }
+}
\ No newline at end of file
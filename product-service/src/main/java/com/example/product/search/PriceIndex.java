@@ -0,0 +1,332 @@
+package com.example.product.search;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+
+/**
+ * Индекс цен в копейках: порядковые номера товаров, отсортированные по цене, и дельта изменений.
+ * <p>
+ * Диапазон цен ищется двоичным поиском по отсортированному массиву. Для каждого блока из
+ * {@value #BLOCK_SIZE} соседних элементов массива заранее построен битмап, поэтому диапазон
+ * собирается объединением целых блоков и поэлементно только на краях. Товары, чья цена изменилась
+ * или которые добавлены после последней перестройки, лежат в {@code dirty} и проверяются
+ * по актуальному массиву цен. Когда дельта превышает порог, массив перестраивается.
+ * </p>
+ * <p>
+ * Не потокобезопасен: синхронизацию обеспечивает {@link ProductSearchIndex}.
+ * </p>
+ */
+final class PriceIndex {
+
+    static final int BLOCK_SIZE = 4096;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final int rebuildThreshold;
+    private long[] sortedPrices = new long[0];
+    private int[] sortedOrdinals = new int[0];
+    private RoaringBitmap[] blocks = new RoaringBitmap[0];
+    private final RoaringBitmap dirty = new RoaringBitmap();
+
+    PriceIndex(int rebuildThreshold) {
+        this.rebuildThreshold = rebuildThreshold;
+    }
+
+    /**
+     * Отмечает изменение цены товара; при переполнении дельты перестраивает индекс.
+     */
+    void markDirty(int ordinal, long[] prices, int size) {
+        dirty.add(ordinal);
+        if (dirty.getCardinality() > rebuildThreshold) {
+            rebuild(prices, size);
+        }
+    }
+
+    /**
+     * Перестраивает отсортированный массив по текущим ценам и очищает дельту.
+     */
+    void rebuild(long[] prices, int size) {
+        int[] ordinals = new int[size];
+        long[] keys = Arrays.copyOf(prices, size);
+        for (int i = 0; i < size; i++) {
+            ordinals[i] = i;
+        }
+        sort(keys, ordinals, 0, size - 1);
+        RoaringBitmap[] rebuilt = new RoaringBitmap[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        for (int block = 0; block < rebuilt.length; block++) {
+            int from = block * BLOCK_SIZE;
+            rebuilt[block] = RoaringBitmap.bitmapOfUnordered(
+                    Arrays.copyOfRange(ordinals, from, Math.min(size, from + BLOCK_SIZE)));
+        }
+        sortedPrices = keys;
+        sortedOrdinals = ordinals;
+        blocks = rebuilt;
+        dirty.clear();
+    }
+
+    /**
+     * Товары с ценой в диапазоне {@code [min, max]}.
+     *
+     * @param min    нижняя граница, включительно
+     * @param max    верхняя граница, включительно
+     * @param prices актуальные цены по порядковым номерам
+     * @return порядковые номера товаров
+     */
+    RoaringBitmap range(long min, long max, long[] prices) {
+        int from = lowerBound(min);
+        int to = upperBound(max);
+        RoaringBitmap result = new RoaringBitmap();
+        if (to > from) {
+            int firstBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int lastBlock = to / BLOCK_SIZE;
+            if (firstBlock < lastBlock) {
+                result = FastAggregation.or(Arrays.copyOfRange(blocks, firstBlock, lastBlock));
+                addRange(result, from, firstBlock * BLOCK_SIZE);
+                addRange(result, lastBlock * BLOCK_SIZE, to);
+            } else {
+                addRange(result, from, to);
+            }
+        }
+        if (!dirty.isEmpty()) {
+            RoaringBitmap matched = result;
+            matched.andNot(dirty);
+            dirty.forEach((int ordinal) -> {
+                long price = prices[ordinal];
+                if (price >= min && price <= max) {
+                    matched.add(ordinal);
+                }
+            });
+        }
+        return result;
+    }
+
+    private void addRange(RoaringBitmap result, int from, int to) {
+        if (to > from) {
+            result.add(Arrays.copyOfRange(sortedOrdinals, from, to));
+        }
+    }
+
+    /**
+     * Первые {@code limit} товаров из {@code matches} в порядке цены, затем порядкового номера.
+     * <p>
+     * Отсортированный массив просматривается с нужного конца до набора {@code limit} элементов,
+     * поэтому стоимость зависит от глубины страницы и селективности фильтра, а не от числа совпадений.
+     * Товары из дельты сортируются отдельно и сливаются с результатом.
+     * </p>
+     */
+    int[] first(RoaringBitmap matches, int limit, boolean ascending, long[] prices) {
+        int[] fromArray = new int[limit];
+        int found = 0;
+        for (int step = 0; step < sortedOrdinals.length && found < limit; step++) {
+            int ordinal = sortedOrdinals[ascending ? step : sortedOrdinals.length - 1 - step];
+            if (matches.contains(ordinal) && !dirty.contains(ordinal)) {
+                fromArray[found++] = ordinal;
+            }
+        }
+        if (dirty.isEmpty()) {
+            return found == limit ? fromArray : Arrays.copyOf(fromArray, found);
+        }
+
+        RoaringBitmap changed = RoaringBitmap.and(dirty, matches);
+        int[] fromDelta = changed.toArray();
+        long[] deltaKeys = new long[fromDelta.length];
+        for (int i = 0; i < fromDelta.length; i++) {
+            deltaKeys[i] = prices[fromDelta[i]];
+        }
+        sort(deltaKeys, fromDelta, 0, fromDelta.length - 1);
+
+        int[] merged = new int[Math.min(limit, found + fromDelta.length)];
+        int a = 0;
+        int d = ascending ? 0 : fromDelta.length - 1;
+        for (int i = 0; i < merged.length; i++) {
+            boolean takeDelta;
+            if (a == found) {
+                takeDelta = true;
+            } else if (d < 0 || d >= fromDelta.length) {
+                takeDelta = false;
+            } else {
+                boolean deltaFirst = less(deltaKeys[d], fromDelta[d], prices[fromArray[a]], fromArray[a]);
+                takeDelta = ascending == deltaFirst;
+            }
+            if (takeDelta) {
+                merged[i] = fromDelta[d];
+                d += ascending ? 1 : -1;
+            } else {
+                merged[i] = fromArray[a++];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Первые {@code limit} товаров из {@code matches} в порядке цены, затем порядкового номера, —
+     * частичной сортировкой всех совпадений. Выгоднее {@link #first}, когда совпадений мало:
+     * ограниченная куча на массиве порядковых номеров, без упаковки.
+     */
+    static int[] top(RoaringBitmap matches, int limit, boolean ascending, long[] prices) {
+        // Корень кучи — худший из отобранных товаров: первым вытесняется он.
+        int[] heap = new int[Math.min(limit, matches.getCardinality())];
+        int count = 0;
+        PeekableIntIterator candidates = matches.getIntIterator();
+        while (candidates.hasNext()) {
+            int ordinal = candidates.next();
+            if (count < heap.length) {
+                heap[count] = ordinal;
+                siftUp(heap, count++, ascending, prices);
+            } else if (count > 0 && before(ordinal, heap[0], ascending, prices)) {
+                heap[0] = ordinal;
+                siftDown(heap, count, ascending, prices);
+            }
+        }
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = prices[heap[i]];
+        }
+        sort(keys, heap, 0, count - 1);
+        if (!ascending) {
+            for (int i = 0, j = count - 1; i < j; i++, j--) {
+                int ordinal = heap[i];
+                heap[i] = heap[j];
+                heap[j] = ordinal;
+            }
+        }
+        return heap;
+    }
+
+    private static void siftUp(int[] heap, int at, boolean ascending, long[] prices) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (!before(heap[parent], heap[at], ascending, prices)) {
+                return;
+            }
+            swap(heap, parent, at);
+            at = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int count, boolean ascending, long[] prices) {
+        int at = 0;
+        while (true) {
+            int worst = at;
+            int left = 2 * at + 1;
+            int right = left + 1;
+            if (left < count && before(heap[worst], heap[left], ascending, prices)) {
+                worst = left;
+            }
+            if (right < count && before(heap[worst], heap[right], ascending, prices)) {
+                worst = right;
+            }
+            if (worst == at) {
+                return;
+            }
+            swap(heap, at, worst);
+            at = worst;
+        }
+    }
+
+    /**
+     * Идёт ли товар {@code left} в выдаче раньше {@code right}.
+     */
+    private static boolean before(int left, int right, boolean ascending, long[] prices) {
+        return ascending
+                ? less(prices[left], left, prices[right], right)
+                : less(prices[right], right, prices[left], left);
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    private int lowerBound(long min) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] < min) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(long max) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] <= max) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Сортирует цены и порядковые номера параллельно, без упаковки в объекты.
+     * Равные цены упорядочены по порядковому номеру, чтобы порядок выдачи был детерминированным.
+     */
+    private static void sort(long[] keys, int[] values, int left, int right) {
+        while (right - left > INSERTION_SORT_THRESHOLD) {
+            int mid = (left + right) >>> 1;
+            if (less(keys, values, mid, left)) swap(keys, values, mid, left);
+            if (less(keys, values, right, left)) swap(keys, values, right, left);
+            if (less(keys, values, right, mid)) swap(keys, values, right, mid);
+            long pivotKey = keys[mid];
+            int pivotValue = values[mid];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (less(keys[i], values[i], pivotKey, pivotValue)) i++;
+                while (less(pivotKey, pivotValue, keys[j], values[j])) j--;
+                if (i <= j) {
+                    swap(keys, values, i++, j--);
+                }
+            }
+            // Меньшая часть — рекурсивно, большая — в цикле: глубина стека не превышает log n.
+            if (j - left < right - i) {
+                sort(keys, values, left, j);
+                left = i;
+            } else {
+                sort(keys, values, i, right);
+                right = j;
+            }
+        }
+        for (int i = left + 1; i <= right; i++) {
+            long key = keys[i];
+            int value = values[i];
+            int j = i - 1;
+            while (j >= left && less(key, value, keys[j], values[j])) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+        }
+    }
+
+    private static boolean less(long[] keys, int[] values, int i, int j) {
+        return less(keys[i], values[i], keys[j], values[j]);
+    }
+
+    private static boolean less(long leftKey, int leftValue, long rightKey, int rightValue) {
+        return leftKey < rightKey || (leftKey == rightKey && leftValue < rightValue);
+    }
+
+    private static void swap(long[] keys, int[] values, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
\ No newline at end of file
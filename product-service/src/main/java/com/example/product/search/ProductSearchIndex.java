@@ -0,0 +1,595 @@
+package com.example.product.search;
+
+import com.example.product.dto.ProductDto;
+import com.example.product.dto.ProductFacets;
+import com.example.product.dto.ProductSearchPage;
+import com.example.product.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Поисковый индекс каталога в памяти процесса.
+ * <p>
+ * Каждому товару присваивается порядковый номер; фильтры хранятся как {@link RoaringBitmap}
+ * порядковых номеров:
+ * <ul>
+ *   <li>триграммы названия в нижнем регистре — поиск подстроки без сканирования коллекции;</li>
+ *   <li>категории и признак активности;</li>
+ *   <li>цены — отсортированный массив {@link PriceIndex} с дельтой изменений;</li>
+ *   <li>порядок {@code _id} — так же устроенный {@link IdIndex}: порядковые номера идут в порядке
+ *       поступления товаров, а не их id.</li>
+ * </ul>
+ * Удалённый товар остаётся на своём порядковом номере, но попадает в битмап {@code deleted},
+ * который вычитается из любой выборки.
+ * Запрос — пересечение битмапов, затем проверка подстроки только у кандидатов.
+ * Индекс хранит все поля {@link ProductDto}, поэтому страница результатов собирается без обращения к MongoDB;
+ * валюта у всех товаров каталога одна — {@link com.example.product.money.Money#CURRENCY}.
+ * Фасеты ({@link #searchWithFacets}) считаются по тем же битмапам, без отдельных запросов.
+ * </p>
+ * <p>
+ * Индекс заполняется {@link ProductSearchIndexLoader} при старте и обновляется при записи через
+ * {@code ProductServiceImpl}. Пока загрузка не завершена, {@link #search} возвращает пустой
+ * {@link Optional}, и поиск выполняется в MongoDB.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    static final int NGRAM = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PriceIndex priceIndex;
+    private final IdIndex idIndex;
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<Long, RoaringBitmap> trigrams = new HashMap<>();
+    private final Map<String, RoaringBitmap> categories = new HashMap<>();
+    private final RoaringBitmap active = new RoaringBitmap();
+    private final RoaringBitmap deleted = new RoaringBitmap();
+
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    // Названия в нижнем регистре лежат подряд в одном массиве: проверка подстроки у десятков тысяч
+    // кандидатов упирается в промахи кэша, а не в сравнение символов.
+    private char[] nameArena = new char[INITIAL_CAPACITY * 32];
+    private int arenaSize;
+    private int arenaGarbage;
+    private int[] nameStart = new int[INITIAL_CAPACITY];
+    private int[] nameLength = new int[INITIAL_CAPACITY];
+    private String[] categoryOf = new String[INITIAL_CAPACITY];
+    // Цены в копейках.
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private long[] popularity = new long[INITIAL_CAPACITY];
+    private int size;
+
+    private volatile boolean ready;
+
+    public ProductSearchIndex(@Value("${app.search-index.price-rebuild-threshold:4096}") int priceRebuildThreshold) {
+        this.priceIndex = new PriceIndex(priceRebuildThreshold);
+        this.idIndex = new IdIndex(priceRebuildThreshold);
+    }
+
+    /**
+     * Добавляет пачку товаров при начальной загрузке.
+     * Товары, уже попавшие в индекс через запись, не перезаписываются: их версия новее.
+     *
+     * @param products товары из MongoDB
+     */
+    public void load(Collection<Product> products) {
+        write(() -> {
+            for (Product product : products) {
+                if (!ordinals.containsKey(product.getId())) {
+                    index(product, false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Завершает начальную загрузку: строит индексы цен и id и включает поиск по индексу.
+     */
+    public void markReady() {
+        write(() -> {
+            priceIndex.rebuild(prices, size);
+            idIndex.rebuild(ids, size);
+            trigrams.values().forEach(RoaringBitmap::runOptimize);
+            categories.values().forEach(RoaringBitmap::runOptimize);
+            active.runOptimize();
+        });
+        ready = true;
+        log.info("Поисковый индекс товаров загружен: {} товаров, {} триграмм", size, trigrams.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Добавляет или обновляет товар после записи в MongoDB.
+     *
+     * @param product сохранённый товар
+     */
+    public void upsert(Product product) {
+        write(() -> index(product, true));
+    }
+
+    /**
+     * Обновляет признак активности товара.
+     *
+     * @param id    идентификатор товара
+     * @param value новый признак активности
+     */
+    public void setActive(String id, boolean value) {
+        write(() -> {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal == null) {
+                return;
+            }
+            if (value) {
+                active.add(ordinal);
+            } else {
+                active.remove(ordinal);
+            }
+        });
+    }
+
+    /**
+     * Убирает удалённый товар из выдачи. Если товар с тем же id появится снова,
+     * {@link #upsert} вернёт его на прежний порядковый номер.
+     *
+     * @param id идентификатор товара
+     */
+    public void delete(String id) {
+        write(() -> {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null) {
+                active.remove(ordinal);
+                deleted.add(ordinal);
+            }
+        });
+    }
+
+    /**
+     * Поиск по фильтрам с семантикой {@code ProductServiceImpl.searchCriteria}.
+     *
+     * @return страница товаров или пустой {@link Optional}, если индекс не загружен
+     *         или сортировка не поддерживается (поддерживаются {@code price}, {@code name}, {@code id})
+     */
+    public Optional<Page<ProductDto>> search(
+            String name,
+            String category,
+            Long minPrice,
+            Long maxPrice,
+            Boolean activeOnly,
+            Pageable pageable) {
+        Sort.Order order = supportedOrder(pageable);
+        if (order == null) {
+            return Optional.empty();
+        }
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            RoaringBitmap matches = matches(name, category, minPrice, maxPrice, activeOnly);
+            int total = matches.getCardinality();
+            List<ProductDto> content = page(matches, pageable, order, comparator(order));
+            return Optional.of(new PageImpl<>(content, pageable, total));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Поиск с фасетами: страница, счётчики категорий и диапазонов цен за один проход по битмапам.
+     * <p>
+     * Фильтры по названию и активности вычисляются один раз; фильтры по категории и цене
+     * пересекаются с ними по отдельности, и каждый фасет считается по пересечению без своего фильтра.
+     * Счётчик категории — {@link RoaringBitmap#andCardinality} без построения пересечения,
+     * диапазон цены — бинарный поиск по границам для каждого товара-кандидата.
+     * </p>
+     *
+     * @param priceBounds границы диапазонов цен в копейках по возрастанию
+     * @return страница с фасетами или пустой {@link Optional} — в тех же случаях, что и {@link #search}
+     */
+    public Optional<ProductSearchPage> searchWithFacets(
+            String name,
+            String category,
+            Long minPrice,
+            Long maxPrice,
+            Boolean activeOnly,
+            long[] priceBounds,
+            Pageable pageable) {
+        Sort.Order order = supportedOrder(pageable);
+        if (order == null) {
+            return Optional.empty();
+        }
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            RoaringBitmap base = matches(name, null, null, null, activeOnly);
+            RoaringBitmap byPrice = minPrice != null || maxPrice != null
+                    ? RoaringBitmap.and(base, priceIndex.range(
+                            minPrice != null ? minPrice : Long.MIN_VALUE,
+                            maxPrice != null ? maxPrice : Long.MAX_VALUE,
+                            prices))
+                    : base;
+            RoaringBitmap byCategory = base;
+            RoaringBitmap matches = byPrice;
+            if (category != null && !category.isBlank()) {
+                RoaringBitmap posting = categories.getOrDefault(category, new RoaringBitmap());
+                byCategory = RoaringBitmap.and(base, posting);
+                matches = RoaringBitmap.and(byPrice, posting);
+            }
+
+            ProductFacets facets = new ProductFacets(
+                    categoryCounts(byPrice),
+                    ProductFacets.priceBuckets(priceBounds, priceCounts(byCategory, priceBounds)));
+            List<ProductDto> content = page(matches, pageable, order, comparator(order));
+            return Optional.of(new ProductSearchPage(content, pageable, matches.getCardinality(), facets));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Единственный порядок сортировки запроса, если индекс готов и умеет по нему сортировать.
+     */
+    private Sort.Order supportedOrder(Pageable pageable) {
+        if (!ready) {
+            return null;
+        }
+        Sort sort = pageable.getSort();
+        if (sort.stream().count() > 1) {
+            return null;
+        }
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("id"));
+        return comparator(order) != null ? order : null;
+    }
+
+    private List<ProductFacets.CategoryCount> categoryCounts(RoaringBitmap matches) {
+        List<ProductFacets.CategoryCount> counts = new ArrayList<>();
+        for (Map.Entry<String, RoaringBitmap> entry : categories.entrySet()) {
+            long count = RoaringBitmap.andCardinality(matches, entry.getValue());
+            if (count > 0) {
+                counts.add(new ProductFacets.CategoryCount(entry.getKey(), count));
+            }
+        }
+        counts.sort(Comparator.comparingLong(ProductFacets.CategoryCount::count).reversed()
+                .thenComparing(ProductFacets.CategoryCount::category));
+        return counts;
+    }
+
+    private long[] priceCounts(RoaringBitmap matches, long[] bounds) {
+        long[] counts = new long[bounds.length + 1];
+        int[] buffer = new int[256];
+        BatchIterator batches = matches.getBatchIterator();
+        while (batches.hasNext()) {
+            int n = batches.nextBatch(buffer);
+            for (int i = 0; i < n; i++) {
+                // Номер диапазона — число границ не больше цены. Цены кандидатов случайны, поэтому
+                // сравнения без ветвлений быстрее бинарного поиска с его непредсказуемыми переходами.
+                long price = prices[buffer[i]];
+                int bucket = 0;
+                for (long bound : bounds) {
+                    bucket += price >= bound ? 1 : 0;
+                }
+                counts[bucket]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Порядковые номера товаров, подходящих под все фильтры; границы цены в копейках.
+     * Вызывается под блокировкой чтения.
+     */
+    RoaringBitmap matches(String name, String category, Long minPrice, Long maxPrice, Boolean activeOnly) {
+        List<RoaringBitmap> filters = new ArrayList<>();
+        if (activeOnly == null || activeOnly) {
+            filters.add(active);
+        }
+        if (category != null && !category.isBlank()) {
+            RoaringBitmap posting = categories.get(category);
+            if (posting == null) {
+                return new RoaringBitmap();
+            }
+            filters.add(posting);
+        }
+        String needle = name != null && !name.isBlank() ? normalize(name.strip()) : null;
+        if (needle != null && needle.length() >= NGRAM) {
+            for (int i = 0; i + NGRAM <= needle.length(); i++) {
+                RoaringBitmap posting = trigrams.get(trigram(needle, i));
+                if (posting == null) {
+                    return new RoaringBitmap();
+                }
+                filters.add(posting);
+            }
+        }
+        if (minPrice != null || maxPrice != null) {
+            filters.add(priceIndex.range(
+                    minPrice != null ? minPrice : Long.MIN_VALUE,
+                    maxPrice != null ? maxPrice : Long.MAX_VALUE,
+                    prices));
+        }
+
+        RoaringBitmap result = switch (filters.size()) {
+            case 0 -> RoaringBitmap.bitmapOfRange(0, size);
+            case 1 -> filters.get(0).clone();
+            default -> FastAggregation.and(filters.iterator());
+        };
+        result.andNot(deleted);
+        // Совпадение всех триграмм не гарантирует подстроку длиннее одной триграммы.
+        if (needle != null && needle.length() != NGRAM) {
+            // Ложные совпадения редки: дешевле собрать и вычесть их, чем строить битмап заново.
+            char[] pattern = needle.toCharArray();
+            RoaringBitmap rejected = new RoaringBitmap();
+            PeekableIntIterator candidates = result.getIntIterator();
+            while (candidates.hasNext()) {
+                int ordinal = candidates.next();
+                if (!nameContains(ordinal, pattern)) {
+                    rejected.add(ordinal);
+                }
+            }
+            result.andNot(rejected);
+        }
+        return result;
+    }
+
+    private List<ProductDto> page(RoaringBitmap matches, Pageable pageable, Sort.Order order, Comparator<Integer> comparator) {
+        int total = matches.getCardinality();
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : total;
+        if (offset >= total) {
+            return List.of();
+        }
+        int end = (int) Math.min(total, offset + limit);
+        List<ProductDto> content = new ArrayList<>(end - (int) offset);
+
+        // Обход отсортированного массива просматривает около end * size / total элементов,
+        // частичная сортировка — все total совпадений: выбираем то, что дешевле.
+        boolean walk = (long) end * size < (long) total * total;
+        if ("id".equals(order.getProperty())) {
+            int[] ordered = walk
+                    ? idIndex.first(matches, end, order.isAscending(), ids)
+                    : IdIndex.top(matches, end, order.isAscending(), ids);
+            for (int i = (int) offset; i < ordered.length; i++) {
+                content.add(toDto(ordered[i]));
+            }
+            return content;
+        }
+
+        if ("price".equals(order.getProperty())) {
+            int[] ordered = walk
+                    ? priceIndex.first(matches, end, order.isAscending(), prices)
+                    : PriceIndex.top(matches, end, order.isAscending(), prices);
+            for (int i = (int) offset; i < ordered.length; i++) {
+                content.add(toDto(ordered[i]));
+            }
+            return content;
+        }
+
+        // Частичная сортировка по названию: в куче остаются только первые end элементов.
+        PriorityQueue<Integer> top = new PriorityQueue<>(end + 1, comparator.reversed());
+        matches.forEach((int ordinal) -> {
+            top.add(ordinal);
+            if (top.size() > end) {
+                top.poll();
+            }
+        });
+        Integer[] sorted = top.toArray(new Integer[0]);
+        Arrays.sort(sorted, comparator);
+        for (int i = (int) offset; i < sorted.length; i++) {
+            content.add(toDto(sorted[i]));
+        }
+        return content;
+    }
+
+    private Comparator<Integer> comparator(Sort.Order order) {
+        Comparator<Integer> byKey = switch (order.getProperty()) {
+            case "price" -> Comparator.comparingLong(ordinal -> prices[ordinal]);
+            case "name" -> Comparator.comparing(ordinal -> names[ordinal]);
+            case "id" -> (left, right) -> IdIndex.compare(ids[left], ids[right]);
+            default -> null;
+        };
+        if (byKey == null) {
+            return null;
+        }
+        // Равные ключи упорядочены по порядковому номеру — так же, как в PriceIndex; id уникальны.
+        Comparator<Integer> total = byKey.thenComparing(Comparator.naturalOrder());
+        return order.isAscending() ? total : total.reversed();
+    }
+
+    private ProductDto toDto(int ordinal) {
+        ProductDto dto = new ProductDto();
+        dto.setId(ids[ordinal]);
+        dto.setName(names[ordinal]);
+        dto.setPriceMinor(prices[ordinal]);
+        dto.setCategory(categoryOf[ordinal]);
+        dto.setActive(active.contains(ordinal));
+        dto.setPopularity(popularity[ordinal]);
+        return dto;
+    }
+
+    private void index(Product product, boolean track) {
+        Integer existing = ordinals.get(product.getId());
+        int ordinal;
+        if (existing == null) {
+            ordinal = size;
+            ensureCapacity(size + 1);
+            size++;
+            ids[ordinal] = product.getId();
+            ordinals.put(product.getId(), ordinal);
+            if (track) {
+                idIndex.add(ordinal, ids, size);
+            }
+        } else {
+            ordinal = existing;
+            deleted.remove(ordinal);
+        }
+
+        if (!product.getName().equals(names[ordinal])) {
+            if (names[ordinal] != null) {
+                forEachTrigram(normalize(names[ordinal]), key -> remove(trigrams, key, ordinal));
+                arenaGarbage += nameLength[ordinal];
+            }
+            String lowerName = normalize(product.getName());
+            names[ordinal] = product.getName();
+            storeName(ordinal, lowerName);
+            forEachTrigram(lowerName, key -> trigrams.computeIfAbsent(key, k -> new RoaringBitmap()).add(ordinal));
+        }
+        if (!product.getCategory().equals(categoryOf[ordinal])) {
+            if (categoryOf[ordinal] != null) {
+                remove(categories, categoryOf[ordinal], ordinal);
+            }
+            categoryOf[ordinal] = product.getCategory();
+            categories.computeIfAbsent(product.getCategory(), k -> new RoaringBitmap()).add(ordinal);
+        }
+        boolean priceChanged = existing == null || prices[ordinal] != product.getPrice();
+        prices[ordinal] = product.getPrice();
+        popularity[ordinal] = product.getPopularity();
+        if (track && priceChanged) {
+            priceIndex.markDirty(ordinal, prices, size);
+        }
+        if (product.isActive()) {
+            active.add(ordinal);
+        } else {
+            active.remove(ordinal);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, grown);
+        names = Arrays.copyOf(names, grown);
+        nameStart = Arrays.copyOf(nameStart, grown);
+        nameLength = Arrays.copyOf(nameLength, grown);
+        categoryOf = Arrays.copyOf(categoryOf, grown);
+        prices = Arrays.copyOf(prices, grown);
+        popularity = Arrays.copyOf(popularity, grown);
+    }
+
+    private void storeName(int ordinal, String lowerName) {
+        if (arenaGarbage > arenaSize / 2) {
+            compactArena();
+        }
+        int length = lowerName.length();
+        if (arenaSize + length > nameArena.length) {
+            nameArena = Arrays.copyOf(nameArena, Math.max(arenaSize + length, nameArena.length * 2));
+        }
+        lowerName.getChars(0, length, nameArena, arenaSize);
+        nameStart[ordinal] = arenaSize;
+        nameLength[ordinal] = length;
+        arenaSize += length;
+    }
+
+    /**
+     * Переписывает арену без названий, оставшихся от переименованных товаров.
+     */
+    private void compactArena() {
+        char[] compacted = new char[Math.max(nameArena.length, arenaSize - arenaGarbage)];
+        int position = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (names[ordinal] == null) {
+                continue;
+            }
+            System.arraycopy(nameArena, nameStart[ordinal], compacted, position, nameLength[ordinal]);
+            nameStart[ordinal] = position;
+            position += nameLength[ordinal];
+        }
+        nameArena = compacted;
+        arenaSize = position;
+        arenaGarbage = 0;
+    }
+
+    private boolean nameContains(int ordinal, char[] pattern) {
+        int start = nameStart[ordinal];
+        int last = start + nameLength[ordinal] - pattern.length;
+        char first = pattern[0];
+        for (int i = start; i <= last; i++) {
+            if (nameArena[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < pattern.length && nameArena[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write(Runnable action) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static <K> void remove(Map<K, RoaringBitmap> postings, K key, int ordinal) {
+        RoaringBitmap posting = postings.get(key);
+        if (posting != null) {
+            posting.remove(ordinal);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static void forEachTrigram(String value, LongConsumer consumer) {
+        for (int i = 0; i + NGRAM <= value.length(); i++) {
+            consumer.accept(trigram(value, i));
+        }
+    }
+
+    /**
+     * Ключ триграммы: три символа UTF-16, упакованные в 48 бит и перемешанные умножением
+     * на нечётную константу. Умножение обратимо, поэтому ключи не совпадают, а {@link Long#hashCode()}
+     * без перемешивания давал бы массовые коллизии в {@link HashMap}.
+     */
+    static long trigram(String value, int from) {
+        long packed = ((long) value.charAt(from) << 32) | ((long) value.charAt(from + 1) << 16) | value.charAt(from + 2);
+        return packed * 0x9E3779B97F4A7C15L;
+    }
+
+    static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.product.search;
+
+import com.example.product.entity.Product;
+import com.example.product.suggest.ProductSuggester;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Начальная загрузка {@link ProductSearchIndex} и {@link ProductSuggester} из MongoDB после старта приложения.
+ * <p>
+ * Товары читаются в порядке {@code _id}, чтобы порядковые номера в индексе возрастали вместе с {@code _id}.
+ * До окончания загрузки поиск выполняется в MongoDB, а подсказки пусты.
+ * Окончание загрузки, в том числе неудачной, публикуется через {@link #loaded()}.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductSearchIndexLoader {
+
+    static final int LOAD_BATCH = 5_000;
+
+    ReactiveMongoTemplate mongoTemplate;
+    ProductSearchIndex productSearchIndex;
+    ProductSuggester productSuggester;
+    Sinks.Empty<Void> loaded = Sinks.empty();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        mongoTemplate.find(new Query().with(Sort.by("_id")), Product.class)
+                .buffer(LOAD_BATCH)
+                .doOnNext(batch -> {
+                    productSearchIndex.load(batch);
+                    productSuggester.load(batch);
+                })
+                .then(Mono.fromRunnable(() -> {
+                    productSearchIndex.markReady();
+                    productSuggester.markReady();
+                }))
+                .doFinally(signal -> loaded.tryEmitEmpty())
+                .subscribe(null, ex -> log.error("Не удалось загрузить поисковый индекс товаров, поиск остаётся в MongoDB", ex));
+    }
+
+    /**
+     * Завершается, когда начальная загрузка закончена или прервана ошибкой.
+     */
+    public Mono<Void> loaded() {
+        return loaded.asMono();
+    }
+}
\ No newline at end of file
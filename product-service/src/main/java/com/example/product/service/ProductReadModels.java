@@ -0,0 +1,52 @@
+package com.example.product.service;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.search.ProductSearchIndex;
+import com.example.product.suggest.ProductSuggester;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+/**
+ * Модели чтения в памяти экземпляра: {@link ProductSearchIndex}, {@link ProductSuggester} и {@link ProductCache}.
+ * <p>
+ * Каждая успешная запись в MongoDB, одиночная или пакетная, применяется ко всем трём через этот класс.
+ * Это изменения только этого экземпляра: записи других экземпляров и правки напрямую в базе
+ * применяет {@link ProductReadModelsSync} по change stream.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductReadModels {
+
+    ProductSearchIndex productSearchIndex;
+    ProductSuggester productSuggester;
+    ProductCache productCache;
+
+    /**
+     * Применяет сохранённое состояние товара.
+     *
+     * @param product товар после записи
+     */
+    public void apply(Product product) {
+        productSearchIndex.upsert(product);
+        productSuggester.upsert(product);
+        productCache.put(ProductMapper.toDto(product));
+    }
+
+    /**
+     * Применяет смену признака активности. Кэш сбрасывается: полного состояния товара здесь нет.
+     *
+     * @param id     идентификатор товара
+     * @param active новый признак активности
+     */
+    public void setActive(String id, boolean active) {
+        productCache.invalidate(id);
+        productSearchIndex.setActive(id, active);
+        productSuggester.setActive(id, active);
+    }
+}
\ No newline at end of file
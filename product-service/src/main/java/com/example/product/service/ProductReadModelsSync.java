@@ -0,0 +1,165 @@
+package com.example.product.service;
+
+import com.example.product.cache.ChangeStreamSupport;
+import com.example.product.cache.ProductCache;
+import com.example.product.cdc.ProductChangeEvents;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.search.ProductSearchIndex;
+import com.example.product.suggest.ProductSuggester;
+import com.mongodb.MongoException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveChangeStreamOperation;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Применяет к {@link ProductSearchIndex}, {@link ProductSuggester} и {@link ProductCache} изменения товаров
+ * из change stream коллекции.
+ * <p>
+ * Запись на этом экземпляре применяется к моделям чтения сразу ({@link ProductReadModels}), а запись
+ * на другом экземпляре, импорт там же или правка напрямую в базе видны здесь только через change stream.
+ * Поток запрашивается с {@code fullDocument: updateLookup}: для обновления сервер присылает документ
+ * целиком, и индекс с подсказками получают его так же, как при локальной записи. Удалённый товар
+ * убирается из выдачи и снимается с подсказок как неактивный. Запись кэша по id изменённого или удалённого
+ * товара сбрасывается: следующее чтение загрузит его из базы.
+ * </p>
+ * <p>
+ * Подписка открывается при создании бина, до начальной загрузки индекса и подсказок: изменения за время
+ * загрузки приходят из потока, а загрузка уже полученные из него товары не перезаписывает. После обрыва поток
+ * продолжается с resume token последнего события. Если продолжить нельзя (позиция вышла из oplog,
+ * коллекция удалена или переименована), поток открывается заново, кэш сбрасывается целиком, а индекс
+ * и подсказки пересинхронизируются полным чтением коллекции. Если сервер не поддерживает change stream (см. {@link ChangeStreamSupport}),
+ * синхронизация останавливается с ошибкой в логе.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ChangeStreamSupport.ENABLED_PROPERTY, havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductReadModelsSync implements InitializingBean, DisposableBean {
+
+    /**
+     * Коды ошибок, после которых продолжить поток с сохранённого токена нельзя:
+     * ChangeStreamFatalError и ChangeStreamHistoryLost.
+     */
+    static final Set<Integer> NON_RESUMABLE_CODES = Set.of(280, 286);
+
+    ReactiveMongoTemplate mongoTemplate;
+    ProductSearchIndex productSearchIndex;
+    ProductSuggester productSuggester;
+    ProductCache productCache;
+    AtomicReference<BsonDocument> resumeToken = new AtomicReference<>();
+    AtomicBoolean opened = new AtomicBoolean();
+    @NonFinal
+    Disposable subscription;
+
+    @Override
+    public void afterPropertiesSet() {
+        subscription = Flux.defer(this::listen)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .filter(error -> !ChangeStreamSupport.unsupported(error))
+                        .doBeforeRetry(signal -> {
+                            if (!resumable(signal.failure())) {
+                                resumeToken.set(null);
+                            }
+                            log.warn("Поток изменений товаров для моделей чтения прерван, переподключение: {}",
+                                    signal.failure().toString());
+                        }))
+                .repeatWhen(completions -> completions.delayElements(Duration.ofSeconds(1)))
+                .subscribe(null, error -> log.error("Синхронизация моделей чтения товаров по change stream остановлена", error));
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Flux<Void> listen() {
+        BsonDocument token = resumeToken.get();
+        ReactiveChangeStreamOperation.ChangeStreamWithFilterAndProjection<Document> stream = mongoTemplate
+                .changeStream(Document.class)
+                .withOptions(options -> options.fullDocumentLookup(FullDocument.UPDATE_LOOKUP))
+                .watchCollection(Product.class);
+        Flux<Void> changes = (token != null ? stream.resumeAfter(token) : stream).listen()
+                .doOnNext(event -> apply(event.getRaw()))
+                .thenMany(Flux.empty());
+        // Первое открытие предшествует начальной загрузке моделей; повторное без токена означает,
+        // что изменения между потоками потеряны, и модели дочитываются из коллекции.
+        boolean resync = token == null && opened.getAndSet(true);
+        return resync ? Flux.merge(changes, resync().thenMany(Flux.empty())) : changes;
+    }
+
+    /**
+     * Применяет одно событие change stream и запоминает его позицию.
+     */
+    void apply(ChangeStreamDocument<Document> change) {
+        if (change == null) {
+            return;
+        }
+        OperationType operation = change.getOperationType();
+        String id = ProductChangeEvents.id(change.getDocumentKey());
+        if (id != null) {
+            productCache.invalidate(id);
+        }
+        if (operation == OperationType.DELETE && id != null) {
+            productSearchIndex.delete(id);
+            productSuggester.setActive(id, false);
+        } else if (change.getFullDocument() != null
+                && (operation == OperationType.INSERT || operation == OperationType.UPDATE || operation == OperationType.REPLACE)) {
+            // Конвертер не вызывает callback-и чтения: цену из старого поля переносит ProductMapper.
+            Product product = mongoTemplate.getConverter().read(Product.class, change.getFullDocument());
+            product.setPrice(ProductMapper.priceMinor(change.getFullDocument()));
+            upsert(product);
+        }
+        // После invalidate поток с этой позиции не продолжить: следующий откроется заново.
+        resumeToken.set(operation == OperationType.INVALIDATE ? null : change.getResumeToken());
+    }
+
+    private Mono<Void> resync() {
+        // Пропущенные изменения неизвестны: сбрасываются все записи кэша, а не только изменённые.
+        productCache.invalidateAll();
+        return mongoTemplate.find(new Query().with(Sort.by("_id")), Product.class)
+                .doOnNext(this::upsert)
+                .count()
+                .doOnNext(count -> log.info("Модели чтения товаров пересинхронизированы: {} товаров", count))
+                .then();
+    }
+
+    private void upsert(Product product) {
+        productSearchIndex.upsert(product);
+        productSuggester.upsert(product);
+    }
+
+    private static boolean resumable(Throwable error) {
+        return !(NestedExceptionUtils.getMostSpecificCause(error) instanceof MongoException mongo
+                && NON_RESUMABLE_CODES.contains(mongo.getCode()));
+    }
+}
\ No newline at end of file
@@ -1,13 +1,28 @@
 package com.example.product.service;
 
+import com.example.product.dto.BatchGetProductsResponse;
+import com.example.product.dto.ProductCursorPage;
 import com.example.product.dto.ProductDto;
-import org.springframework.data.domain.Page;
+import com.example.product.dto.ProductField;
+import com.example.product.dto.ProductPage;
+import com.example.product.dto.ProductSort;
+import com.example.product.dto.ProductStatusChange;
+import com.example.product.dto.ProductStatusChangeResult;
+import com.example.product.dto.ProductSuggestion;
+import com.example.product.entity.Product;
 import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Optional;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Сервис для управления товарами.
+ * <p>
+ * Все методы неблокирующие: отсутствие товара выражается пустым {@link Mono}.
+ * </p>
  */
 public interface ProductService {
 
@@ -17,64 +32,165 @@ public interface ProductService {
      * @param productDto данные нового товара
      * @return сохранённый товар
      */
-    ProductDto create(ProductDto productDto);
+    Mono<ProductDto> create(ProductDto productDto);
 
     /**
      * Обновляет существующий товар по ID.
      *
      * @param id         идентификатор товара
      * @param productDto новые данные
-     * @return обновлённый товар
+     * @return обновлённый товар или пустой {@link Mono}, если товар не найден
      */
-    ProductDto update(String id, ProductDto productDto);
+    Mono<ProductDto> update(String id, ProductDto productDto);
 
     /**
      * Находит товар по ID.
      *
      * @param id идентификатор
-     * @return Optional с товаром
+     * @return товар или пустой {@link Mono}
      */
-    Optional<ProductDto> findById(String id);
+    Mono<ProductDto> findById(String id);
+
+    /**
+     * Находит товары по списку id: попадания берутся из кэша, промахи — одним запросом {@code $in}.
+     *
+     * @param ids идентификаторы, возможно с повторами
+     * @return найденные товары в порядке запроса и ненайденные id
+     */
+    Mono<BatchGetProductsResponse> findAllById(List<String> ids);
 
     /**
      * Возвращает все товары с пагинацией.
+     * Из MongoDB читаются только запрошенные поля.
      *
+     * @param fields   поля товаров в ответе
      * @param pageable параметры пагинации
      * @return страница товаров
      */
-    Page<ProductDto> findAll(Pageable pageable);
+    Mono<ProductPage> findAll(Set<ProductField> fields, Pageable pageable);
+
+    /**
+     * Каталог в порядке id одним курсором MongoDB, без кэша и преобразования в DTO.
+     * Следующая порция документов читается по мере запроса подписчика.
+     *
+     * @param category   категория (опционально)
+     * @param activeOnly только активные
+     * @param batchSize  размер порции курсора
+     * @return товары каталога
+     */
+    Flux<Product> streamCatalog(String category, boolean activeOnly, int batchSize);
 
     /**
      * Поиск товаров по фильтрам.
+     * Все заданные фильтры объединяются в один запрос к MongoDB.
      *
      * @param name       часть названия (опционально)
      * @param category   категория (опционально)
-     * @param minPrice   минимальная цена (опционально)
-     * @param maxPrice   максимальная цена (опционально)
+     * @param minPrice   минимальная цена в рублях (опционально)
+     * @param maxPrice   максимальная цена в рублях (опционально)
      * @param activeOnly только активные (если true)
+     * @param fields     поля товаров в ответе; из MongoDB читаются только они
      * @param pageable   параметры пагинации
      * @return страница товаров
      */
-    Page<ProductDto> search(
+    Mono<ProductPage> search(
+            String name,
+            String category,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Boolean activeOnly,
+            Set<ProductField> fields,
+            Pageable pageable
+    );
+
+    /**
+     * Поиск товаров по фильтрам с фасетами: числом товаров по категориям и по диапазонам цен.
+     * Страница и фасеты считаются одним запросом; каждый фасет не учитывает собственный фильтр.
+     *
+     * @param name        часть названия (опционально)
+     * @param category    категория (опционально)
+     * @param minPrice    минимальная цена в рублях (опционально)
+     * @param maxPrice    максимальная цена в рублях (опционально)
+     * @param activeOnly  только активные (если true)
+     * @param priceBounds границы диапазонов цен в рублях, строго по возрастанию, не точнее копейки
+     * @param fields      поля товаров в ответе; из MongoDB читаются только они
+     * @param pageable    параметры пагинации
+     * @return страница товаров с фасетами; ошибка {@link IllegalArgumentException}, если границы некорректны
+     */
+    Mono<ProductPage> searchWithFacets(
             String name,
             String category,
-            Double minPrice,
-            Double maxPrice,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
             Boolean activeOnly,
+            List<BigDecimal> priceBounds,
+            Set<ProductField> fields,
             Pageable pageable
     );
 
+    /**
+     * Поиск товаров по фильтрам с продолжением по курсору.
+     * <p>
+     * Следующая страница выбирается условием «после ключа сортировки и {@code _id}
+     * последнего товара», поэтому глубокие страницы стоят столько же, сколько первая.
+     * Название, как и в {@link #search}, ищется по подстроке без учёта регистра.
+     * </p>
+     *
+     * @param name       часть названия  (опционально)
+     * @param category   категория (опционально)
+     * @param minPrice   минимальная цена в рублях (опционально)
+     * @param maxPrice   максимальная цена в рублях (опционально)
+     * @param activeOnly только активные (если true)
+     * @param sort       порядок выдачи
+     * @param cursor     курсор предыдущей страницы; {@code null} для первой
+     * @param limit      размер страницы
+     * @param withCount  посчитать общее число товаров по фильтрам
+     * @return страница товаров; ошибка {@link IllegalArgumentException}, если курсор некорректен
+     */
+    Mono<ProductCursorPage> scroll(
+            String name,
+            String category,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Boolean activeOnly,
+            ProductSort sort,
+            String cursor,
+            int limit,
+            boolean withCount
+    );
+
+    /**
+     * Подсказки для строки поиска: активные товары, название или слово названия которых
+     * начинается с префикса, по убыванию популярности.
+     *
+     * @param prefix введённый текст
+     * @param limit  число подсказок
+     * @return подсказки; пустой список для пустого префикса
+     */
+    Mono<List<ProductSuggestion>> suggest(String prefix, int limit);
+
+    /**
+     * Меняет статус группы товаров одним {@code updateMany}.
+     *
+     * @param change новый статус и список идентификаторов или фильтр
+     * @return число найденных и изменённых товаров; ошибка {@link IllegalArgumentException},
+     *         если не заданы ни идентификаторы, ни фильтр
+     */
+    Mono<ProductStatusChangeResult> changeStatus(ProductStatusChange change);
+
     /**
      * Помечает товар как удалённый (неактивный).
      *
      * @param id идентификатор товара
+     * @return {@code true}, если товар найден
      */
-    void deactivate(String id);
+    Mono<Boolean> deactivate(String id);
 
     /**
      * Активирует товар.
      *
      * @param id идентификатор товара
+     * @return {@code true}, если товар найден
      */
-    void activate(String id);
+    Mono<Boolean> activate(String id);
 }
\ No newline at end of file
@@ -1,97 +1,578 @@
-//package com.example.product.service;
-//
-//import com.example.product.dto.ProductDto;
-//import com.example.product.entity.Product;
-//import com.example.product.mapper.ProductMapper;
-//import com.example.product.repository.ProductRepository;
-//import com.example.product.service.ProductService;
-//import lombok.AccessLevel;
-//import lombok.RequiredArgsConstructor;
-//import lombok.experimental.FieldDefaults;
-//import org.springframework.data.domain.Page;
-//import org.springframework.data.domain.Pageable;
-//import org.springframework.stereotype.Service;
-//import org.springframework.transaction.annotation.Transactional;
-//
-//import java.util.Optional;
-//
-///**
-// * Реализация {@link ProductService}.
-// */
-//@Service
-//@RequiredArgsConstructor
-//@Transactional(readOnly = true)
-//@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
-//public class ProductServiceImpl implements ProductService {
-//
-//    ProductRepository productRepository;
-//
-//    @Override
-//    @Transactional
-//    public ProductDto create(ProductDto productDto) {
-//        Product product = ProductMapper.toEntity(productDto);
-//        product.setActive(true);
-//        Product saved = productRepository.save(product);
-//        return ProductMapper.toDto(saved);
-//    }
-//
-//    @Override
-//    @Transactional
-//    public ProductDto update(String id, ProductDto productDto) {
-//        Product existing = productRepository.findById(id)
-//                .orElseThrow(() -> new IllegalArgumentException("Товар не найден: " + id));
-//        ProductMapper.toEntity(productDto).copyTo(existing); // или вручную
-//        existing.setId(id);
-//        Product updated = productRepository.save(existing);
-//        return ProductMapper.toDto(updated);
-//    }
-//
-//    @Override
-//    public Optional<ProductDto> findById(String id) {
-//        return productRepository.findById(id)
-//                .map(ProductMapper::toDto);
-//    }
-//
-//    @Override
-//    public Page<ProductDto> findAll(Pageable pageable) {
-//        return productRepository.findAll(pageable)
-//                .map(productMapper::toDto);
-//    }
-//
-//    @Override
-//    public Page<ProductDto> search(
-//            String name,
-//            String category,
-//            Double minPrice,
-//            Double maxPrice,
-//            Boolean activeOnly,
-//            Pageable pageable) {
-//        Boolean isActive = activeOnly == null || activeOnly;
-//        return productRepository.findByNameContainingIgnoreCaseAndCategoryAndPriceBetweenAndActive(
-//                        name != null ? name : "",
-//                        category,
-//                        minPrice != null ? minPrice : 0.0,
-//                        maxPrice != null ? maxPrice : Double.MAX_VALUE,
-//                        isActive,
-//                        pageable)
-//                .map(productMapper::toDto);
-//    }
-//
-//    @Override
-//    @Transactional
-//    public void deactivate(String id) {
-//        Product product = productRepository.findById(id)
-//                .orElseThrow(() -> new IllegalArgumentException("Товар не найден: " + id));
-//        product.setActive(false);
-//        productRepository.save(product);
-//    }
-//
-//    @Override
-//    @Transactional
-//    public void activate(String id) {
-//        Product product = productRepository.findById(id)
-//                .orElseThrow(() -> new IllegalArgumentException("Товар не найден: " + id));
-//        product.setActive(true);
-//        productRepository.save(product);
-//    }
-//}
\ No newline at end of file
+package com.example.product.service;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.BatchGetProductsResponse;
+import com.example.product.dto.ProductCursor;
+import com.example.product.dto.ProductCursorPage;
+import com.example.product.dto.ProductDto;
+import com.example.product.dto.ProductField;
+import com.example.product.dto.ProductPage;
+import com.example.product.dto.ProductFacets;
+import com.example.product.dto.ProductSort;
+import com.example.product.dto.ProductStatusChange;
+import com.example.product.dto.ProductStatusChangeResult;
+import com.example.product.dto.ProductSuggestion;
+import com.example.product.dto.ProductView;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.migration.ProductPriceMigration;
+import com.example.product.money.Money;
+import com.example.product.repository.ProductRepository;
+import com.example.product.search.ProductSearchIndex;
+import com.example.product.suggest.ProductSuggester;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Реализация {@link ProductService} на реактивном драйвере MongoDB.
+ * <p>
+ * Обновление и смена статуса выполняются одной атомарной операцией на сервере
+ * ({@code findAndModify}/{@code updateFirst}) без предварительного чтения документа.
+ * </p>
+ * <p>
+ * Постраничный поиск обслуживается {@link ProductSearchIndex}, если он загружен, подсказки —
+ * {@link ProductSuggester}, чтение по id — {@link ProductCache}. Каждая запись сразу применяется
+ * ко всем трём через {@link ProductReadModels}; записи других экземпляров доходят по change stream
+ * ({@link ProductReadModelsSync}).
+ * </p>
+ * <p>
+ * Цены в фильтрах и границах фасетов приходят в рублях и переводятся в копейки один раз на запрос;
+ * дальше и MongoDB, и индекс сравнивают целые числа.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductServiceImpl implements ProductService {
+
+    static final int MAX_SCROLL_LIMIT = 200;
+    static final String NO_PRICE_BUCKET = "none";
+    static final int MAX_PRICE_BUCKETS = 32;
+
+    ProductRepository productRepository;
+    ReactiveMongoTemplate mongoTemplate;
+    ProductSearchIndex productSearchIndex;
+    ProductSuggester productSuggester;
+    ProductCache productCache;
+    ProductReadModels readModels;
+
+    @Override
+    public Mono<ProductDto> create(ProductDto productDto) {
+        Product product = ProductMapper.toEntity(productDto);
+        product.setActive(true);
+        return productRepository.save(product)
+                .doOnNext(readModels::apply)
+                .map(ProductMapper::toDto);
+    }
+
+    /**
+     * Обновление снимает и старое поле цены в рублях: иначе цена, записанная туда экземпляром прежней
+     * версии, осталась бы важнее новой (см. {@link ProductMapper#priceMinor}). Операция собрана в именах
+     * полей документа, потому что по сущности имя {@value Product#LEGACY_PRICE_FIELD} означает
+     * {@value Product#PRICE_FIELD}.
+     */
+    @Override
+    public Mono<ProductDto> update(String id, ProductDto productDto) {
+        Update update = new Update()
+                .set("name", productDto.getName())
+                .set(Product.PRICE_FIELD, productDto.getPriceMinor())
+                .set("currency", ProductMapper.currency(productDto))
+                .set("category", productDto.getCategory())
+                .set("active", productDto.isActive())
+                .set("popularity", productDto.getPopularity())
+                .unset(Product.LEGACY_PRICE_FIELD);
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(objectId(id))), update,
+                        FindAndModifyOptions.options().returnNew(true), Document.class,
+                        mongoTemplate.getCollectionName(Product.class))
+                .map(document -> mongoTemplate.getConverter().read(Product.class, document))
+                .doOnNext(readModels::apply)
+                .map(ProductMapper::toDto);
+    }
+
+    @Override
+    public Mono<ProductDto> findById(String id) {
+        return productCache.get(id, key -> productRepository.findById(key).map(ProductMapper::toDto));
+    }
+
+    @Override
+    public Mono<BatchGetProductsResponse> findAllById(List<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>(ids);
+        return productCache.getAll(distinct, missing -> mongoTemplate
+                        .find(Query.query(Criteria.where("_id").in(missing)), Product.class)
+                        .collectMap(Product::getId, ProductMapper::toDto))
+                .map(found -> {
+                    Map<String, ProductDto> products = new LinkedHashMap<>();
+                    List<String> missingIds = new ArrayList<>();
+                    for (String id : distinct) {
+                        ProductDto product = found.get(id);
+                        if (product != null) {
+                            products.put(id, product);
+                        } else {
+                            missingIds.add(id);
+                        }
+                    }
+                    return new BatchGetProductsResponse(products, missingIds);
+                });
+    }
+
+    @Override
+    public Mono<ProductPage> findAll(Set<ProductField> fields, Pageable pageable) {
+        return Mono.zip(
+                        findViews(new Query().with(pageable), fields).collectList(),
+                        productRepository.count())
+                .map(tuple -> ProductPage.of(tuple.getT1(), pageable, tuple.getT2(), null));
+    }
+
+    @Override
+    public Flux<Product> streamCatalog(String category, boolean activeOnly, int batchSize) {
+        Query query = new Query(and(filterCriteria(category, null, null, activeOnly)))
+                .with(Sort.by("_id"))
+                .cursorBatchSize(batchSize);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public Mono<ProductPage> search(
+            String name,
+            String category,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Boolean activeOnly,
+            Set<ProductField> fields,
+            Pageable pageable) {
+        return Mono.defer(() -> {
+            Long min = minPrice(minPrice);
+            Long max = maxPrice(maxPrice);
+            return productSearchIndex.search(name, category, min, max, activeOnly, pageable)
+                    .map(page -> Mono.just(ProductPage.of(page, fields)))
+                    .orElseGet(() -> searchInMongo(name, category, min, max, activeOnly, fields, pageable));
+        });
+    }
+
+    private Mono<ProductPage> searchInMongo(
+            String name,
+            String category,
+            Long minPrice,
+            Long maxPrice,
+            Boolean activeOnly,
+            Set<ProductField> fields,
+            Pageable pageable) {
+        Criteria criteria = searchCriteria(name, category, minPrice, maxPrice, activeOnly);
+        return Mono.zip(
+                        findViews(new Query(criteria).with(pageable), fields).collectList(),
+                        mongoTemplate.count(new Query(criteria), Product.class))
+                .map(tuple -> ProductPage.of(tuple.getT1(), pageable, tuple.getT2(), null));
+    }
+
+    @Override
+    public Mono<ProductPage> searchWithFacets(
+            String name,
+            String category,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Boolean activeOnly,
+            List<BigDecimal> priceBounds,
+            Set<ProductField> fields,
+            Pageable pageable) {
+        return Mono.defer(() -> {
+            long[] bounds = priceBounds(priceBounds);
+            Long min = minPrice(minPrice);
+            Long max = maxPrice(maxPrice);
+            return productSearchIndex
+                    .searchWithFacets(name, category, min, max, activeOnly, bounds, pageable)
+                    .map(page -> Mono.just(ProductPage.of(page, fields)))
+                    .orElseGet(() -> searchWithFacetsInMongo(name, category, min, max, activeOnly, bounds, fields, pageable));
+        });
+    }
+
+    /**
+     * Фасеты в MongoDB — одна агрегация {@code $facet} поверх общего фильтра по названию и статусу:
+     * ветка категорий добавляет фильтр по цене, ветка цен — по категории.
+     * Страница и общее число выбираются параллельно теми же запросами, что и в {@link #searchInMongo}.
+     */
+    private Mono<ProductPage> searchWithFacetsInMongo(
+            String name,
+            String category,
+            Long minPrice,
+            Long maxPrice,
+            Boolean activeOnly,
+            long[] bounds,
+            Set<ProductField> fields,
+            Pageable pageable) {
+        Criteria criteria = searchCriteria(name, category, minPrice, maxPrice, activeOnly);
+        // activeOnly = false: статус уже учтён в общем фильтре, здесь нужен только фильтр по цене.
+        Criteria byPrice = and(filterCriteria(null, minPrice, maxPrice, false));
+        Criteria byCategory = category != null && !category.isBlank()
+                ? Criteria.where("category").is(category)
+                : new Criteria();
+
+        Aggregation facets = Aggregation.newAggregation(
+                Aggregation.match(searchCriteria(name, null, null, null, activeOnly)),
+                Aggregation.facet(
+                                Aggregation.match(byPrice),
+                                Aggregation.group("category").count().as("count"))
+                        .as("categories")
+                        .and(
+                                Aggregation.match(byCategory),
+                                priceBuckets(bounds))
+                        .as("prices"));
+
+        return Mono.zip(
+                        findViews(new Query(criteria).with(pageable), fields).collectList(),
+                        mongoTemplate.count(new Query(criteria), Product.class),
+                        mongoTemplate.aggregate(facets, Product.class, Document.class)
+                                .next()
+                                .map(result -> facets(result, bounds)))
+                .map(tuple -> ProductPage.of(tuple.getT1(), pageable, tuple.getT2(), tuple.getT3()));
+    }
+
+    /**
+     * Товары списка с проекцией в запросе: MongoDB возвращает только запрошенные поля,
+     * документы преобразуются в ответ напрямую, минуя сущность и DTO.
+     */
+    private Flux<ProductView> findViews(Query query, Set<ProductField> fields) {
+        return mongoTemplate.find(viewQuery(query, fields, mongoTemplate.getConverter()), Document.class,
+                        mongoTemplate.getCollectionName(Product.class))
+                .map(document -> ProductMapper.toView(document, fields));
+    }
+
+    /**
+     * Запрос списка в именах полей документа. Фильтр и сортировка переводятся по сущности заранее:
+     * в проекцию цены входит и старое поле {@value Product#LEGACY_PRICE_FIELD} документов, которые ещё
+     * не переведены на копейки, а по сущности это имя означает {@value Product#PRICE_FIELD}.
+     */
+    static Query viewQuery(Query query, Set<ProductField> fields, MongoConverter converter) {
+        MongoPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(Product.class);
+        QueryMapper queryMapper = new QueryMapper(converter);
+        Document projection = new Document();
+        if (!fields.contains(ProductField.ID)) {
+            projection.append("_id", 0);
+        }
+        for (ProductField field : fields) {
+            projection.append(entity.getRequiredPersistentProperty(field.property()).getFieldName(), 1);
+        }
+        if (fields.contains(ProductField.PRICE)) {
+            projection.append("currency", 1).append(Product.LEGACY_PRICE_FIELD, 1);
+        }
+        BasicQuery mapped = new BasicQuery(queryMapper.getMappedObject(query.getQueryObject(), entity), projection);
+        mapped.setSortObject(queryMapper.getMappedSort(query.getSortObject(), entity));
+        return mapped.skip(query.getSkip()).limit(query.getLimit());
+    }
+
+    /**
+     * Стадия {@code $bucket} по цене в копейках, с приоритетом старого поля (см. {@link ProductPriceMigration}).
+     * Крайние границы — бесконечности, поэтому любая цена попадает в диапазон; документы без цены
+     * уходят в диапазон по умолчанию {@value #NO_PRICE_BUCKET}: без него {@code $bucket} на них падает.
+     * Стадия собирается в именах полей документа: по сущности {@code $price} означало бы новое поле.
+     */
+    static AggregationOperation priceBuckets(long[] bounds) {
+        List<Object> boundaries = new ArrayList<>(bounds.length + 2);
+        boundaries.add(Double.NEGATIVE_INFINITY);
+        for (long bound : bounds) {
+            boundaries.add(bound);
+        }
+        boundaries.add(Double.POSITIVE_INFINITY);
+        Document bucket = new Document("groupBy", ProductPriceMigration.priceMinorExpression())
+                .append("boundaries", boundaries)
+                .append("default", NO_PRICE_BUCKET)
+                .append("output", new Document("count", new Document("$sum", 1)));
+        return context -> new Document("$bucket", bucket);
+    }
+
+    private static ProductFacets facets(Document result, long[] bounds) {
+        List<ProductFacets.CategoryCount> categories = new ArrayList<>();
+        for (Document group : result.getList("categories", Document.class)) {
+            categories.add(new ProductFacets.CategoryCount(group.getString("_id"), group.get("count", Number.class).longValue()));
+        }
+        categories.sort(Comparator.comparingLong(ProductFacets.CategoryCount::count).reversed()
+                .thenComparing(ProductFacets.CategoryCount::category));
+
+        // Пустые диапазоны $bucket не возвращает; _id диапазона — его нижняя граница,
+        // у диапазона товаров без цены _id — строка, он в фасеты не входит.
+        long[] counts = new long[bounds.length + 1];
+        for (Document bucket : result.getList("prices", Document.class)) {
+            if (!(bucket.get("_id") instanceof Number from)) {
+                continue;
+            }
+            int position = from instanceof Double infinity && infinity.isInfinite()
+                    ? 0
+                    : Arrays.binarySearch(bounds, from.longValue()) + 1;
+            counts[position] = bucket.get("count", Number.class).longValue();
+        }
+        return new ProductFacets(categories, ProductFacets.priceBuckets(bounds, counts));
+    }
+
+    /**
+     * Переводит границы диапазонов цен в копейки и проверяет их: не больше {@value #MAX_PRICE_BUCKETS},
+     * строго по возрастанию, не точнее копейки.
+     */
+    static long[] priceBounds(List<BigDecimal> priceBounds) {
+        if (priceBounds == null || priceBounds.isEmpty()) {
+            throw new IllegalArgumentException("Не заданы границы диапазонов цен");
+        }
+        if (priceBounds.size() > MAX_PRICE_BUCKETS) {
+            throw new IllegalArgumentException("Не больше " + MAX_PRICE_BUCKETS + " границ диапазонов цен");
+        }
+        long[] bounds = new long[priceBounds.size()];
+        for (int i = 0; i < bounds.length; i++) {
+            BigDecimal bound = priceBounds.get(i);
+            if (bound == null) {
+                throw new IllegalArgumentException("Границы диапазонов цен должны быть заданы");
+            }
+            bounds[i] = Money.toMinor(bound);
+            if (i > 0 && bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("Границы диапазонов цен должны строго возрастать");
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Нижняя граница фильтра по цене в копейках: неполная копейка округляется вверх.
+     */
+    static Long minPrice(BigDecimal minPrice) {
+        return minPrice != null ? Money.toMinor(minPrice, RoundingMode.CEILING) : null;
+    }
+
+    /**
+     * Верхняя граница фильтра по цене в копейках: неполная копейка отбрасывается.
+     */
+    static Long maxPrice(BigDecimal maxPrice) {
+        return maxPrice != null ? Money.toMinor(maxPrice, RoundingMode.FLOOR) : null;
+    }
+
+    @Override
+    public Mono<ProductCursorPage> scroll(
+            String name,
+            String category,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Boolean activeOnly,
+            ProductSort sort,
+            String cursor,
+            int limit,
+            boolean withCount) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_SCROLL_LIMIT));
+        Optional<ProductCursor> after;
+        List<Criteria> filters;
+        try {
+            after = Optional.ofNullable(cursor).filter(token -> !token.isBlank())
+                    .map(token -> ProductCursor.decode(token, sort));
+            filters = scrollCriteria(name, category, minPrice(minPrice), maxPrice(maxPrice), activeOnly);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+
+        Query pageQuery = new Query();
+        List<Criteria> pageFilters = new ArrayList<>(filters);
+        after.map(ProductServiceImpl::seekCriteria).ifPresent(pageFilters::add);
+        pageQuery.addCriteria(and(pageFilters))
+                .with(sort.toSort())
+                .limit(pageSize + 1);
+
+        Mono<List<Product>> items = mongoTemplate.find(pageQuery, Product.class).collectList();
+        Mono<Optional<Long>> total = withCount
+                ? mongoTemplate.count(new Query(and(filters)), Product.class).map(Optional::of)
+                : Mono.just(Optional.empty());
+
+        return Mono.zip(items, total)
+                .map(tuple -> {
+                    List<Product> products = tuple.getT1();
+                    boolean hasNext = products.size() > pageSize;
+                    List<Product> page = hasNext ? products.subList(0, pageSize) : products;
+                    String next = hasNext ? ProductCursor.after(sort, page.get(page.size() - 1)).encode() : null;
+                    return new ProductCursorPage(
+                            page.stream().map(ProductMapper::toDto).toList(),
+                            next,
+                            tuple.getT2().orElse(null));
+                });
+    }
+
+    @Override
+    public Mono<List<ProductSuggestion>> suggest(String prefix, int limit) {
+        return Mono.fromSupplier(() -> productSuggester.suggest(prefix, limit));
+    }
+
+    @Override
+    public Mono<ProductStatusChangeResult> changeStatus(ProductStatusChange change) {
+        Criteria target;
+        try {
+            if (change.byIds()) {
+                target = Criteria.where("_id").in(change.ids().stream().map(ProductServiceImpl::objectId).toList());
+            } else if (change.hasFilter()) {
+                target = searchCriteria(change.name(), change.category(),
+                        minPrice(change.minPrice()), maxPrice(change.maxPrice()), false);
+            } else {
+                return Mono.error(new IllegalArgumentException("Не заданы ни идентификаторы, ни фильтр товаров"));
+            }
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        boolean active = change.active();
+
+        // Модели чтения в памяти обновляются по идентификаторам: для фильтра они читаются
+        // после обновления одним запросом с проекцией только _id.
+        Flux<String> changedIds;
+        if (change.byIds()) {
+            changedIds = Flux.fromIterable(change.ids());
+        } else {
+            Query changed = Query.query(target).addCriteria(Criteria.where("active").is(active));
+            changed.fields().include("_id");
+            changedIds = mongoTemplate.query(Product.class)
+                    .as(Document.class)
+                    .matching(changed)
+                    .all()
+                    .map(document -> document.get("_id").toString());
+        }
+        return mongoTemplate.updateMulti(new Query(target), Update.update("active", active), Product.class)
+                .flatMap(result -> changedIds
+                        .doOnNext(id -> readModels.setActive(id, active))
+                        .then(Mono.just(new ProductStatusChangeResult(result.getMatchedCount(), result.getModifiedCount()))));
+    }
+
+    @Override
+    public Mono<Boolean> deactivate(String id) {
+        return setActive(id, false);
+    }
+
+    @Override
+    public Mono<Boolean> activate(String id) {
+        return setActive(id, true);
+    }
+
+    /**
+     * Собирает один составной фильтр из заданных параметров поиска; цены в копейках.
+     * Незаданные параметры в запрос не попадают.
+     */
+    static Criteria searchCriteria(String name, String category, Long minPrice, Long maxPrice, Boolean activeOnly) {
+        List<Criteria> filters = new ArrayList<>(4);
+        nameCriteria(name).ifPresent(filters::add);
+        filters.addAll(filterCriteria(category, minPrice, maxPrice, activeOnly));
+        return and(filters);
+    }
+
+    /**
+     * Подстрока названия без учёта регистра; одинакова для {@code /search} и {@code /scroll}.
+     */
+    static Optional<Criteria> nameCriteria(String name) {
+        return Optional.ofNullable(name)
+                .filter(value -> !value.isBlank())
+                .map(value -> Criteria.where("name").regex(Pattern.quote(value.strip()), "i"));
+    }
+
+    /**
+     * Фильтры по категории, цене и статусу в порядке полей составных индексов.
+     */
+    static List<Criteria> filterCriteria(String category, Long minPrice, Long maxPrice, Boolean activeOnly) {
+        List<Criteria> filters = new ArrayList<>(3);
+        if (category != null && !category.isBlank()) {
+            filters.add(Criteria.where("category").is(category));
+        }
+        if (activeOnly == null || activeOnly) {
+            filters.add(Criteria.where("active").is(true));
+        }
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) {
+                price = price.gte(minPrice);
+            }
+            if (maxPrice != null) {
+                price = price.lte(maxPrice);
+            }
+            filters.add(price);
+        }
+        return filters;
+    }
+
+    /**
+     * Фильтры выборки по курсору. Без {@code activeOnly} статус всё равно ограничивается условием
+     * {@code active ∈ {true, false}}: по двум точечным значениям MongoDB читает оба упорядоченных диапазона
+     * составного индекса и сливает их (SORT_MERGE), а не сортирует всю выборку в памяти.
+     * Название проверяется последним: подстрока не сужает диапазон индекса, а только отсеивает
+     * документы при его обходе, так что порядок по-прежнему берётся из индекса.
+     */
+    static List<Criteria> scrollCriteria(String name, String category, Long minPrice, Long maxPrice, Boolean activeOnly) {
+        List<Criteria> filters = filterCriteria(category, minPrice, maxPrice, activeOnly);
+        if (activeOnly != null && !activeOnly) {
+            int position = category != null && !category.isBlank() ? 1 : 0;
+            filters.add(position, Criteria.where("active").in(true, false));
+        }
+        nameCriteria(name).ifPresent(filters::add);
+        return filters;
+    }
+
+    /**
+     * Условие «строго после курсора» по ключу сортировки и {@code _id}.
+     */
+    static Criteria seekCriteria(ProductCursor cursor) {
+        boolean ascending = cursor.sort().getDirection() == Sort.Direction.ASC;
+        Object id = objectId(cursor.id());
+        String field = cursor.sort().getField();
+        if ("_id".equals(field)) {
+            return after(Criteria.where("_id"), id, ascending);
+        }
+        return new Criteria().orOperator(
+                after(Criteria.where(field), cursor.value(), ascending),
+                new Criteria().andOperator(
+                        Criteria.where(field).is(cursor.value()),
+                        after(Criteria.where("_id"), id, ascending)));
+    }
+
+    private static Criteria after(Criteria criteria, Object value, boolean ascending) {
+        return ascending ? criteria.gt(value) : criteria.lt(value);
+    }
+
+    private static Object objectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static Criteria and(List<Criteria> filters) {
+        return filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters);
+    }
+
+    private Mono<Boolean> setActive(String id, boolean active) {
+        return mongoTemplate.updateFirst(byId(id), Update.update("active", active), Product.class)
+                .map(result -> result.getMatchedCount() > 0)
+                .doOnNext(found -> {
+                    if (found) {
+                        readModels.setActive(id, active);
+                    }
+                });
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+}
\ No newline at end of file
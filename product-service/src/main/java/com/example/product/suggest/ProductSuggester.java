@@ -0,0 +1,223 @@
+package com.example.product.suggest;
+
+import com.example.product.dto.ProductSuggestion;
+import com.example.product.entity.Product;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Подсказки по префиксу названия товара.
+ * <p>
+ * Запросы обслуживает неизменяемое {@link SuggestTrie}. Изменения товаров сразу попадают
+ * в небольшую дельту, которая накладывается на результат дерева, а дерево перестраивается
+ * в фоне не чаще раза в {@code app.suggest.rebuild-interval} и подменяется атомарно.
+ * После подмены из дельты удаляются изменения, вошедшие в новое дерево.
+ * </p>
+ * <p>
+ * Дельта просматривается каждым запросом целиком, поэтому, как и у {@code PriceIndex}, её размер ограничен:
+ * если изменений больше {@code app.suggest.rebuild-threshold}, перестройка запускается сразу, не дожидаясь интервала.
+ * </p>
+ * <p>
+ * Дерево хранит топ с запасом ({@code 2 * top-k}): записи, изменённые после построения,
+ * отбрасываются из результата дерева и берутся из дельты.
+ * </p>
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductSuggester implements InitializingBean, DisposableBean {
+
+    int topK;
+    Duration rebuildInterval;
+    int rebuildThreshold;
+
+    Map<String, Item> catalog = new ConcurrentHashMap<>();
+    Map<String, Change> delta = new ConcurrentHashMap<>();
+    AtomicLong version = new AtomicLong();
+    AtomicBoolean dirty = new AtomicBoolean();
+    AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    Scheduler rebuildScheduler = Schedulers.newSingle("product-suggest-rebuild");
+    @NonFinal
+    volatile SuggestTrie trie = SuggestTrie.EMPTY;
+    @NonFinal
+    Disposable rebuilds;
+
+    public ProductSuggester(
+            @Value("${app.suggest.top-k:10}") int topK,
+            @Value("${app.suggest.rebuild-interval:PT5S}") Duration rebuildInterval,
+            @Value("${app.suggest.rebuild-threshold:1024}") int rebuildThreshold) {
+        this.topK = topK;
+        this.rebuildInterval = rebuildInterval;
+        this.rebuildThreshold = rebuildThreshold;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuilds = Flux.interval(rebuildInterval, rebuildScheduler)
+                .onBackpressureDrop()
+                .filter(tick -> dirty.getAndSet(false))
+                .subscribe(tick -> rebuild(), ex -> log.error("Фоновая перестройка подсказок остановлена", ex));
+    }
+
+    @Override
+    public void destroy() {
+        if (rebuilds != null) {
+            rebuilds.dispose();
+        }
+        rebuildScheduler.dispose();
+    }
+
+    /**
+     * Добавляет пачку товаров при начальной загрузке; товары, изменённые за время загрузки, не перезаписываются.
+     */
+    public void load(Collection<Product> products) {
+        for (Product product : products) {
+            catalog.putIfAbsent(product.getId(), Item.of(product));
+        }
+    }
+
+    /**
+     * Завершает начальную загрузку: первое дерево строится в фоне.
+     */
+    public void markReady() {
+        rebuildScheduler.schedule(this::rebuild);
+    }
+
+    /**
+     * Применяет создание или изменение товара.
+     */
+    public void upsert(Product product) {
+        Item item = Item.of(product);
+        catalog.put(product.getId(), item);
+        recordChange(product.getId(), item.active() ? item.entry() : null);
+    }
+
+    /**
+     * Применяет смену признака активности товара.
+     */
+    public void setActive(String id, boolean active) {
+        Item updated = catalog.computeIfPresent(id, (key, item) -> new Item(item.entry(), active));
+        if (updated != null) {
+            recordChange(id, active ? updated.entry() : null);
+        }
+    }
+
+    /**
+     * Лучшие по популярности активные товары, название или слово названия которых начинается с префикса.
+     *
+     * @param prefix введённый текст
+     * @param limit  число подсказок, не больше {@code app.suggest.top-k}
+     * @return подсказки
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String normalized = SuggestTrie.normalize(prefix);
+        int count = Math.min(Math.max(limit, 1), topK);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        List<SuggestTrie.Entry> candidates = new ArrayList<>(count * 2);
+        for (SuggestTrie.Entry entry : trie.lookup(normalized, topK * 2)) {
+            if (!delta.containsKey(entry.id())) {
+                candidates.add(entry);
+            }
+        }
+        for (Change change : delta.values()) {
+            SuggestTrie.Entry entry = change.entry();
+            if (entry != null && matches(entry.normalized(), normalized)) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(SuggestTrie.RANKING);
+
+        List<ProductSuggestion> result = new ArrayList<>(Math.min(count, candidates.size()));
+        for (int i = 0; i < candidates.size() && result.size() < count; i++) {
+            SuggestTrie.Entry entry = candidates.get(i);
+            result.add(new ProductSuggestion(entry.id(), entry.name(), entry.popularity()));
+        }
+        return result;
+    }
+
+    /**
+     * Строит новое дерево по текущему каталогу и подменяет им старое.
+     */
+    void rebuild() {
+        long built = version.get();
+        long started = System.nanoTime();
+        List<SuggestTrie.Entry> active = catalog.values().stream()
+                .filter(Item::active)
+                .map(Item::entry)
+                .toList();
+        SuggestTrie rebuilt = SuggestTrie.build(active, topK * 2);
+        trie = rebuilt;
+        delta.values().removeIf(change -> change.version() <= built);
+        log.debug("Дерево подсказок перестроено: {} товаров, {} узлов, {} мс",
+                rebuilt.size(), rebuilt.nodeCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void recordChange(String id, SuggestTrie.Entry entry) {
+        Change change = new Change(version.incrementAndGet(), entry);
+        delta.merge(id, change, (previous, next) -> next.version() > previous.version() ? next : previous);
+        dirty.set(true);
+        if (delta.size() > rebuildThreshold && rebuildScheduled.compareAndSet(false, true)) {
+            rebuildScheduler.schedule(() -> {
+                rebuildScheduled.set(false);
+                dirty.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    /**
+     * Число изменений, ещё не вошедших в дерево.
+     */
+    int deltaSize() {
+        return delta.size();
+    }
+
+    private static boolean matches(String normalized, String prefix) {
+        if (normalized.startsWith(prefix)) {
+            return true;
+        }
+        for (int at = normalized.indexOf(' '); at >= 0; at = normalized.indexOf(' ', at + 1)) {
+            if (normalized.startsWith(prefix, at + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Item(SuggestTrie.Entry entry, boolean active) {
+
+        static Item of(Product product) {
+            return new Item(new SuggestTrie.Entry(product.getId(), product.getName(),
+                    SuggestTrie.normalize(product.getName()), product.getPopularity()), product.isActive());
+        }
+    }
+
+    /**
+     * Изменение после последнего построения дерева; {@code entry == null} — товар больше не подсказывается.
+     */
+    private record Change(long version, SuggestTrie.Entry entry) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,375 @@
+package com.example.product.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Неизменяемое сжатое префиксное дерево (radix trie) по нормализованным названиям товаров.
+ * <p>
+ * Дерево хранится в примитивных массивах: метки рёбер — в общем массиве символов, дети узла
+ * лежат подряд и ищутся двоичным поиском по первому символу метки. Ключами служат название
+ * целиком и каждый его хвост, начинающийся с нового слова, поэтому подсказка находит товар
+ * и по второму слову названия.
+ * </p>
+ * <p>
+ * Записи пронумерованы в порядке ранжирования ({@link #RANKING}), так что сравнение записей —
+ * сравнение номеров. Узлы, под которыми больше {@code topK} товаров, хранят готовый топ-K;
+ * для остальных топ собирается обходом небольшого поддерева.
+ * </p>
+ */
+final class SuggestTrie {
+
+    /**
+     * Товар в подсказках.
+     *
+     * @param id         идентификатор товара
+     * @param name       название для показа
+     * @param normalized название после {@link #normalize(String)}
+     * @param popularity популярность
+     */
+    record Entry(String id, String name, String normalized, long popularity) {
+    }
+
+    /**
+     * Порядок подсказок: популярность по убыванию, затем название и идентификатор.
+     */
+    static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::popularity).reversed()
+            .thenComparing(Entry::normalized)
+            .thenComparing(Entry::id);
+
+    static final SuggestTrie EMPTY = build(List.of(), 1);
+
+    private final Entry[] entries;
+
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelEnd;
+    private final char[] firstChar;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] terminalStart;
+    private final int[] terminalCount;
+    private final int[] terminals;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] top;
+
+    private SuggestTrie(Entry[] entries, Builder builder) {
+        this.entries = entries;
+        int nodes = builder.nodeCount;
+        this.labels = Arrays.copyOf(builder.labels, builder.labelsSize);
+        this.labelStart = Arrays.copyOf(builder.labelStart, nodes);
+        this.labelEnd = Arrays.copyOf(builder.labelEnd, nodes);
+        this.firstChar = Arrays.copyOf(builder.firstChar, nodes);
+        this.firstChild = Arrays.copyOf(builder.firstChild, nodes);
+        this.childCount = Arrays.copyOf(builder.childCount, nodes);
+        this.terminalStart = Arrays.copyOf(builder.terminalStart, nodes);
+        this.terminalCount = Arrays.copyOf(builder.terminalCount, nodes);
+        this.terminals = Arrays.copyOf(builder.terminals, builder.terminalsSize);
+        this.topStart = Arrays.copyOf(builder.topStart, nodes);
+        this.topCount = Arrays.copyOf(builder.topCount, nodes);
+        this.top = Arrays.copyOf(builder.top, builder.topSize);
+    }
+
+    /**
+     * Строит дерево по активным товарам.
+     *
+     * @param source товары
+     * @param topK   размер топа, хранимого в узлах
+     * @return дерево
+     */
+    static SuggestTrie build(Collection<Entry> source, int topK) {
+        Entry[] entries = source.stream()
+                .filter(entry -> !entry.normalized().isEmpty())
+                .sorted(RANKING)
+                .toArray(Entry[]::new);
+
+        List<Key> keys = new ArrayList<>(entries.length * 3);
+        for (int i = 0; i < entries.length; i++) {
+            String normalized = entries[i].normalized();
+            keys.add(new Key(normalized, i));
+            for (int at = normalized.indexOf(' '); at >= 0; at = normalized.indexOf(' ', at + 1)) {
+                if (at + 1 < normalized.length()) {
+                    keys.add(new Key(normalized.substring(at + 1), i));
+                }
+            }
+        }
+        Key[] sorted = keys.toArray(Key[]::new);
+        Arrays.sort(sorted, Comparator.comparing(Key::text));
+
+        Builder builder = new Builder(sorted, topK);
+        int root = builder.allocate(1);
+        builder.labelStart[root] = 0;
+        builder.labelEnd[root] = 0;
+        builder.build(root, 0, sorted.length, 0);
+        return new SuggestTrie(entries, builder);
+    }
+
+    /**
+     * Лучшие товары, у которых название или одно из слов начинается с префикса.
+     *
+     * @param prefix нормализованный префикс
+     * @param limit  число подсказок, не больше {@code topK} дерева
+     * @return подсказки в порядке ранжирования
+     */
+    List<Entry> lookup(String prefix, int limit) {
+        int node = descend(prefix);
+        if (node < 0) {
+            return List.of();
+        }
+        if (topStart[node] >= 0) {
+            int count = Math.min(limit, topCount[node]);
+            List<Entry> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(entries[top[topStart[node] + i]]);
+            }
+            return result;
+        }
+        TopK best = new TopK(limit);
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = node;
+        while (depth > 0) {
+            int current = stack[--depth];
+            for (int i = 0; i < terminalCount[current]; i++) {
+                best.offer(terminals[terminalStart[current] + i]);
+            }
+            if (depth + childCount[current] > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, depth + childCount[current]));
+            }
+            for (int i = 0; i < childCount[current]; i++) {
+                stack[depth++] = firstChild[current] + i;
+            }
+        }
+        int[] ranked = best.toSortedArray();
+        List<Entry> result = new ArrayList<>(ranked.length);
+        for (int ordinal : ranked) {
+            result.add(entries[ordinal]);
+        }
+        return result;
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    int nodeCount() {
+        return labelStart.length;
+    }
+
+    /**
+     * Нормализация названия и префикса: нижний регистр, «ё» как «е», одиночные пробелы.
+     */
+    static String normalize(String value) {
+        StringBuilder normalized = new StringBuilder(value.length());
+        boolean space = true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = Character.toLowerCase(value.charAt(i));
+            if (Character.isWhitespace(c)) {
+                if (!space) {
+                    normalized.append(' ');
+                    space = true;
+                }
+                continue;
+            }
+            normalized.append(c == 'ё' ? 'е' : c);
+            space = false;
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+
+    private int descend(String prefix) {
+        int node = 0;
+        int i = 0;
+        while (i < prefix.length()) {
+            int child = findChild(node, prefix.charAt(i));
+            if (child < 0) {
+                return -1;
+            }
+            int start = labelStart[child];
+            int length = Math.min(labelEnd[child] - start, prefix.length() - i);
+            for (int k = 0; k < length; k++) {
+                if (labels[start + k] != prefix.charAt(i + k)) {
+                    return -1;
+                }
+            }
+            i += length;
+            node = child;
+        }
+        return node;
+    }
+
+    private int findChild(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (firstChar[mid] < c) {
+                low = mid + 1;
+            } else if (firstChar[mid] > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private record Key(String text, int entry) {
+    }
+
+    /**
+     * Построение дерева по отсортированным ключам; массивы растут по мере необходимости.
+     */
+    private static final class Builder {
+
+        private final Key[] keys;
+        private final int topK;
+
+        int nodeCount;
+        char[] labels = new char[1024];
+        int labelsSize;
+        int[] labelStart = new int[256];
+        int[] labelEnd = new int[256];
+        char[] firstChar = new char[256];
+        int[] firstChild = new int[256];
+        int[] childCount = new int[256];
+        int[] terminalStart = new int[256];
+        int[] terminalCount = new int[256];
+        int[] terminals = new int[256];
+        int terminalsSize;
+        int[] topStart = new int[256];
+        int[] topCount = new int[256];
+        int[] top = new int[256];
+        int topSize;
+
+        Builder(Key[] keys, int topK) {
+            this.keys = keys;
+            this.topK = topK;
+        }
+
+        int allocate(int count) {
+            int first = nodeCount;
+            nodeCount += count;
+            if (nodeCount > labelStart.length) {
+                int grown = Math.max(nodeCount, labelStart.length * 2);
+                labelStart = Arrays.copyOf(labelStart, grown);
+                labelEnd = Arrays.copyOf(labelEnd, grown);
+                firstChar = Arrays.copyOf(firstChar, grown);
+                firstChild = Arrays.copyOf(firstChild, grown);
+                childCount = Arrays.copyOf(childCount, grown);
+                terminalStart = Arrays.copyOf(terminalStart, grown);
+                terminalCount = Arrays.copyOf(terminalCount, grown);
+                topStart = Arrays.copyOf(topStart, grown);
+                topCount = Arrays.copyOf(topCount, grown);
+            }
+            return first;
+        }
+
+        /**
+         * Строит узел по ключам {@code [from, to)}, у которых общий префикс длины {@code depth}.
+         *
+         * @return топ поддерева; полный, если товаров в поддереве не больше {@code topK}
+         */
+        Subtree build(int node, int from, int to, int depth) {
+            int i = from;
+            while (i < to && keys[i].text().length() == depth) {
+                i++;
+            }
+            terminalStart[node] = terminalsSize;
+            terminalCount[node] = i - from;
+            for (int k = from; k < i; k++) {
+                appendTerminal(keys[k].entry());
+            }
+
+            List<int[]> groups = new ArrayList<>();
+            while (i < to) {
+                char c = keys[i].text().charAt(depth);
+                int end = i + 1;
+                while (end < to && keys[end].text().charAt(depth) == c) {
+                    end++;
+                }
+                groups.add(new int[]{i, end});
+                i = end;
+            }
+
+            int first = allocate(groups.size());
+            firstChild[node] = first;
+            childCount[node] = groups.size();
+
+            TopK best = new TopK(topK);
+            for (int k = terminalStart[node]; k < terminalStart[node] + terminalCount[node]; k++) {
+                best.offer(terminals[k]);
+            }
+            boolean complete = true;
+            for (int g = 0; g < groups.size(); g++) {
+                int child = first + g;
+                int groupFrom = groups.get(g)[0];
+                int groupTo = groups.get(g)[1];
+                String head = keys[groupFrom].text();
+                int lcp = commonPrefix(head, keys[groupTo - 1].text(), depth);
+                firstChar[child] = head.charAt(depth);
+                labelStart[child] = labelsSize;
+                appendLabel(head, depth, lcp);
+                labelEnd[child] = labelsSize;
+
+                Subtree subtree = build(child, groupFrom, groupTo, lcp);
+                complete &= subtree.complete();
+                for (int ordinal : subtree.top()) {
+                    best.offer(ordinal);
+                }
+            }
+            complete &= !best.overflowed();
+
+            int[] ranked = best.toSortedArray();
+            if (complete) {
+                topStart[node] = -1;
+                topCount[node] = 0;
+            } else {
+                topStart[node] = topSize;
+                topCount[node] = ranked.length;
+                if (topSize + ranked.length > top.length) {
+                    top = Arrays.copyOf(top, Math.max(topSize + ranked.length, top.length * 2));
+                }
+                System.arraycopy(ranked, 0, top, topSize, ranked.length);
+                topSize += ranked.length;
+            }
+            return new Subtree(ranked, complete);
+        }
+
+        private void appendTerminal(int entry) {
+            if (terminalsSize == terminals.length) {
+                terminals = Arrays.copyOf(terminals, terminals.length * 2);
+            }
+            terminals[terminalsSize++] = entry;
+        }
+
+        private void appendLabel(String text, int from, int to) {
+            int length = to - from;
+            if (labelsSize + length > labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(labelsSize + length, labels.length * 2));
+            }
+            text.getChars(from, to, labels, labelsSize);
+            labelsSize += length;
+        }
+
+        private static int commonPrefix(String first, String last, int from) {
+            int max = Math.min(first.length(), last.length());
+            int i = from;
+            while (i < max && first.charAt(i) == last.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    private record Subtree(int[] top, boolean complete) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.example.product.suggest;
+
+import java.util.Arrays;
+
+/**
+ * Ограниченная куча лучших {@code k} записей без повторов.
+ * <p>
+ * Записи — номера в порядке ранжирования, меньший номер лучше. В вершине кучи — худшая из
+ * отобранных записей, поэтому новая запись сравнивается только с ней.
+ * </p>
+ */
+final class TopK {
+
+    private final int[] heap;
+    private int size;
+    private boolean overflowed;
+
+    TopK(int k) {
+        this.heap = new int[k];
+    }
+
+    /**
+     * Предлагает запись; повтор уже отобранной записи игнорируется.
+     */
+    void offer(int ordinal) {
+        for (int i = 0; i < size; i++) {
+            if (heap[i] == ordinal) {
+                return;
+            }
+        }
+        if (size < heap.length) {
+            heap[size] = ordinal;
+            siftUp(size++);
+            return;
+        }
+        overflowed = true;
+        if (heap.length > 0 && ordinal < heap[0]) {
+            heap[0] = ordinal;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @return {@code true}, если хотя бы одна запись не поместилась
+     */
+    boolean overflowed() {
+        return overflowed;
+    }
+
+    /**
+     * @return отобранные записи от лучшей к худшей
+     */
+    int[] toSortedArray() {
+        int[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private void siftUp(int index) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private void siftDown(int index) {
+        int value = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,278 @@
+package com.example.product.warmup;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.search.ProductSearchIndexLoader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Прогрев экземпляра после старта: кэш товаров, поисковый индекс и JIT.
+ * <p>
+ * Самые популярные товары ({@code app.warmup.hot-products}) кладутся в {@link ProductCache},
+ * затем после загрузки поискового индекса несколько раундов ({@code app.warmup.rounds}) синтетических
+ * GET-запросов идут через HTTP-порт этого экземпляра: карточки, поиск и прокрутка по самым частым
+ * категориям, подсказки и первая страница каталога. Запросы проходят весь путь — Netty, кодеки,
+ * контроллер, сервис и модели чтения — и только читают данные.
+ * </p>
+ * <p>
+ * Пока прогрев не закончен, индикатор {@code productWarmup} в группе {@code readiness} отвечает
+ * {@code OUT_OF_SERVICE}, и экземпляр не получает трафик. Если прогрев не уложился в
+ * {@code app.warmup.budget} или упал, он прерывается и экземпляр всё равно становится готовым.
+ * </p>
+ * <p>
+ * Метрики: {@code product.warmup.duration} с тегом {@code outcome}, число прогретых товаров
+ * {@code product.warmup.products}, запросы {@code product.warmup.requests} с тегом {@code outcome}
+ * и {@code product.warmup.speedup} — во сколько раз последний раунд быстрее первого.
+ * Синтетические чтения карточек учитываются в метриках {@link ProductCache} как попадания.
+ * </p>
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductWarmup implements HealthIndicator {
+
+    static final int PAGE_SIZE = 20;
+    static final int PREFIX_LENGTH = 3;
+
+    ReactiveMongoTemplate mongoTemplate;
+    ProductSearchIndexLoader searchIndexLoader;
+    ProductCache productCache;
+    WebClient.Builder webClientBuilder;
+    MeterRegistry meterRegistry;
+
+    boolean enabled;
+    Duration budget;
+    int hotProducts;
+    int hotCategories;
+    int sampleSize;
+    int rounds;
+    int concurrency;
+
+    AtomicReference<Outcome> outcome = new AtomicReference<>();
+    AtomicInteger preloaded = new AtomicInteger();
+    AtomicReference<Double> speedup = new AtomicReference<>(Double.NaN);
+    AtomicReference<Duration> duration = new AtomicReference<>(Duration.ZERO);
+    Counter succeeded;
+    Counter failed;
+
+    public ProductWarmup(ReactiveMongoTemplate mongoTemplate,
+                         ProductSearchIndexLoader searchIndexLoader,
+                         ProductCache productCache,
+                         WebClient.Builder webClientBuilder,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.warmup.enabled:true}") boolean enabled,
+                         @Value("${app.warmup.budget:PT60S}") Duration budget,
+                         @Value("${app.warmup.hot-products:2000}") int hotProducts,
+                         @Value("${app.warmup.hot-categories:20}") int hotCategories,
+                         @Value("${app.warmup.sample-size:200}") int sampleSize,
+                         @Value("${app.warmup.rounds:5}") int rounds,
+                         @Value("${app.warmup.concurrency:4}") int concurrency) {
+        this.mongoTemplate = mongoTemplate;
+        this.searchIndexLoader = searchIndexLoader;
+        this.productCache = productCache;
+        this.webClientBuilder = webClientBuilder;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.budget = budget;
+        this.hotProducts = hotProducts;
+        this.hotCategories = hotCategories;
+        this.sampleSize = sampleSize;
+        this.rounds = rounds;
+        this.concurrency = concurrency;
+
+        Gauge.builder("product.warmup.products", preloaded, AtomicInteger::get)
+                .description("Число популярных товаров, загруженных в кэш при прогреве")
+                .register(meterRegistry);
+        Gauge.builder("product.warmup.speedup", speedup, AtomicReference::get)
+                .description("Во сколько раз последний раунд прогрева быстрее первого")
+                .register(meterRegistry);
+        this.succeeded = Counter.builder("product.warmup.requests").tag("outcome", "success")
+                .description("Синтетические запросы прогрева").register(meterRegistry);
+        this.failed = Counter.builder("product.warmup.requests").tag("outcome", "error")
+                .description("Синтетические запросы прогрева").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp(ApplicationReadyEvent event) {
+        long started = System.nanoTime();
+        if (!enabled || !(event.getApplicationContext() instanceof WebServerApplicationContext context)) {
+            finish(Outcome.DISABLED, started, null);
+            return;
+        }
+        start(webClientBuilder.clone()
+                .baseUrl("http://localhost:" + context.getWebServer().getPort())
+                .build(), started);
+    }
+
+    void start(WebClient client, long started) {
+        run(client)
+                .timeout(budget)
+                .subscribe(null,
+                        ex -> finish(ex instanceof TimeoutException ? Outcome.BUDGET_EXCEEDED : Outcome.FAILED, started, ex),
+                        () -> finish(Outcome.COMPLETED, started, null));
+    }
+
+    @Override
+    public Health health() {
+        Outcome current = outcome.get();
+        if (current == null) {
+            return Health.outOfService().withDetail("budget", budget.toString()).build();
+        }
+        return Health.up()
+                .withDetail("outcome", current.tag())
+                .withDetail("durationMs", duration.get().toMillis())
+                .withDetail("products", preloaded.get())
+                .build();
+    }
+
+    private Mono<Void> run(WebClient client) {
+        return mongoTemplate.find(new Query().with(Sort.by(Sort.Direction.DESC, "popularity")).limit(hotProducts), Product.class)
+                .doOnNext(product -> {
+                    productCache.put(ProductMapper.toDto(product));
+                    preloaded.incrementAndGet();
+                })
+                .collectList()
+                .delayUntil(hot -> searchIndexLoader.loaded())
+                .map(hot -> requests(hot, hotCategories, sampleSize))
+                .flatMapMany(requests -> Flux.range(1, rounds).concatMap(round -> round(client, requests)))
+                .collectList()
+                .doOnNext(this::recordSpeedup)
+                .then();
+    }
+
+    /**
+     * Синтетические запросы одного раунда по популярным товарам, от самых популярных.
+     *
+     * @param hot        популярные товары по убыванию популярности
+     * @param categories число самых частых среди них категорий
+     * @param sample     число карточек и префиксов подсказок
+     */
+    static List<WarmupRequest> requests(List<Product> hot, int categories, int sample) {
+        List<WarmupRequest> requests = new ArrayList<>();
+        requests.add(new WarmupRequest("/api/products?size={size}", List.of(String.valueOf(PAGE_SIZE))));
+        requests.add(new WarmupRequest("/api/products?size={size}&fields=id,name,price", List.of(String.valueOf(PAGE_SIZE))));
+
+        hot.stream()
+                .collect(Collectors.groupingBy(Product::getCategory, Collectors.counting()))
+                .entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(categories)
+                .map(Map.Entry::getKey)
+                .forEach(category -> {
+                    requests.add(new WarmupRequest("/api/products/search?category={category}&size={size}",
+                            List.of(category, String.valueOf(PAGE_SIZE))));
+                    requests.add(new WarmupRequest("/api/products/search?category={category}&facets=true&size={size}",
+                            List.of(category, String.valueOf(PAGE_SIZE))));
+                    requests.add(new WarmupRequest("/api/products/scroll?category={category}&sort=PRICE_ASC&limit={limit}",
+                            List.of(category, String.valueOf(PAGE_SIZE))));
+                });
+
+        hot.stream()
+                .limit(sample)
+                .forEach(product -> requests.add(new WarmupRequest("/api/products/{id}", List.of(product.getId()))));
+
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (Product product : hot) {
+            if (prefixes.size() >= sample) {
+                break;
+            }
+            String name = product.getName().strip().toLowerCase(Locale.ROOT);
+            if (name.length() >= PREFIX_LENGTH) {
+                prefixes.add(name.substring(0, PREFIX_LENGTH));
+            }
+        }
+        prefixes.forEach(prefix -> requests.add(new WarmupRequest("/api/products/suggest?prefix={prefix}", List.of(prefix))));
+        return requests;
+    }
+
+    private Mono<Long> round(WebClient client, List<WarmupRequest> requests) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return Flux.fromIterable(requests)
+                    .flatMap(request -> client.get()
+                            .uri(request.uriTemplate(), request.variables().toArray())
+                            .retrieve()
+                            .toBodilessEntity()
+                            .doOnSuccess(response -> succeeded.increment())
+                            .onErrorResume(ex -> {
+                                failed.increment();
+                                log.debug("Запрос прогрева {} {} не выполнен", request.uriTemplate(), request.variables(), ex);
+                                return Mono.empty();
+                            }), concurrency)
+                    .then(Mono.fromCallable(() -> System.nanoTime() - started));
+        });
+    }
+
+    private void recordSpeedup(List<Long> roundNanos) {
+        if (roundNanos.size() > 1 && roundNanos.get(roundNanos.size() - 1) > 0) {
+            speedup.set((double) roundNanos.get(0) / roundNanos.get(roundNanos.size() - 1));
+        }
+        log.info("Раунды прогрева, мс: {}", roundNanos.stream()
+                .map(TimeUnit.NANOSECONDS::toMillis)
+                .map(String::valueOf)
+                .collect(Collectors.joining(", ")));
+    }
+
+    private void finish(Outcome result, long started, Throwable error) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        duration.set(elapsed);
+        Timer.builder("product.warmup.duration")
+                .tag("outcome", result.tag())
+                .description("Длительность прогрева экземпляра после старта")
+                .register(meterRegistry)
+                .record(elapsed);
+        outcome.set(result);
+        if (error == null) {
+            log.info("Прогрев завершён ({}) за {} мс, товаров в кэше: {}", result.tag(), elapsed.toMillis(), preloaded.get());
+        } else {
+            log.warn("Прогрев прерван ({}) через {} мс, экземпляр принимает трафик без него", result.tag(), elapsed.toMillis(), error);
+        }
+    }
+
+    /**
+     * Синтетический GET-запрос: шаблон URI и значения его переменных по порядку.
+     */
+    record WarmupRequest(String uriTemplate, List<String> variables) {
+    }
+
+    enum Outcome {
+        COMPLETED, BUDGET_EXCEEDED, FAILED, DISABLED;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
\ No newline at end of file
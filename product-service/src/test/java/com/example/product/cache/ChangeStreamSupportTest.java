@@ -0,0 +1,31 @@
+package com.example.product.cache;
+
+import com.mongodb.MongoException;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeStreamSupportTest {
+
+    @Test
+    void supported_ShouldAcceptReplicaSetAndMongos() {
+        assertThat(ChangeStreamSupport.supported(new Document("isWritablePrimary", true).append("setName", "rs0")))
+            .isTrue();
+        assertThat(ChangeStreamSupport.supported(new Document("isWritablePrimary", true).append("msg", "isdbgrid")))
+            .isTrue();
+        assertThat(ChangeStreamSupport.supported(new Document("isWritablePrimary", true))).isFalse();
+    }
+
+    @Test
+    void unsupported_ShouldRecognizeWrappedServerError() {
+        MongoException notReplicaSet = new MongoException(ChangeStreamSupport.NOT_SUPPORTED_CODE,
+            "The $changeStream stage is only supported on replica sets");
+
+        assertThat(ChangeStreamSupport.unsupported(new UncategorizedMongoDbException("wrapped", notReplicaSet)))
+            .isTrue();
+        assertThat(ChangeStreamSupport.unsupported(new MongoException(286, "history lost"))).isFalse();
+        assertThat(ChangeStreamSupport.unsupported(new IllegalStateException("closed"))).isFalse();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.example.product.cache;
+
+import com.example.product.dto.ProductDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTest {
+
+    SimpleMeterRegistry meterRegistry;
+    ProductCache cache;
+
+    // Хранилище вместо MongoDB: товары по id и число загрузок каждого.
+    ConcurrentHashMap<String, ProductDto> store;
+    ConcurrentHashMap<String, AtomicInteger> loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductCache(meterRegistry, 1 << 20, Duration.ofMinutes(10));
+        store = new ConcurrentHashMap<>();
+        loads = new ConcurrentHashMap<>();
+        store.put("1", product("1", "Смартфон Alfa", 300.0));
+    }
+
+    @Test
+    void get_ShouldLoadMissingKeyOnceForConcurrentReaders() {
+        Sinks.One<ProductDto> slowLoad = Sinks.one();
+        List<CompletableFuture<ProductDto>> readers = IntStream.range(0, 10)
+            .mapToObj(i -> cache.get("1", id -> {
+                loads.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+                return slowLoad.asMono();
+            }).toFuture())
+            .toList();
+        assertThat(readers).noneMatch(CompletableFuture::isDone);
+
+        slowLoad.tryEmitValue(store.get("1"));
+
+        assertThat(readers).allSatisfy(reader -> assertThat(reader.join()).isEqualTo(store.get("1")));
+        assertThat(loads.get("1")).hasValue(1);
+    }
+
+    @Test
+    void invalidate_ShouldDropStaleEntryWrittenElsewhere() {
+        assertThat(read("1").getPrice()).isEqualByComparingTo("300");
+        assertThat(read("1").getPrice()).isEqualByComparingTo("300");
+
+        // Запись на другом экземпляре: хранилище изменилось, кэш этого экземпляра — нет.
+        store.put("1", product("1", "Смартфон Alfa", 250.0));
+        assertThat(read("1").getPrice()).isEqualByComparingTo("300");
+
+        cache.invalidate("1");
+
+        assertThat(read("1").getPrice()).isEqualByComparingTo("250");
+        assertThat(loads.get("1")).hasValue(2);
+    }
+
+    @Test
+    void get_ShouldNotCacheMissingProductAndReportHitRatio() {
+        assertThat(read("404")).isNull();
+        store.put("404", product("404", "Куртка Polar", 90.0));
+        assertThat(read("404")).isNotNull();
+        read("404");
+        read("404");
+
+        assertThat(loads.get("404")).hasValue(2);
+        assertThat(meterRegistry.get("product.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit")
+            .functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void getAll_ShouldLoadOnlyMissesInOneCall() {
+        store.put("2", product("2", "Куртка Polar", 90.0));
+        read("1");
+        List<Set<String>> batches = new ArrayList<>();
+
+        Map<String, ProductDto> found = cache.getAll(List.of("1", "2", "404"), ids -> {
+            batches.add(ids);
+            Map<String, ProductDto> loaded = new HashMap<>();
+            ids.forEach(id -> Optional.ofNullable(store.get(id)).ifPresent(product -> loaded.put(id, product)));
+            return Mono.just(loaded);
+        }).block();
+
+        assertThat(batches).containsExactly(Set.of("2", "404"));
+        assertThat(found).containsOnlyKeys("1", "2");
+        assertThat(read("2").getName()).isEqualTo("Куртка Polar");
+        assertThat(loads).doesNotContainKey("2");
+    }
+
+    private ProductDto read(String id) {
+        return cache.get(id, key -> {
+            loads.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            return Mono.justOrEmpty(store.get(key));
+        }).block();
+    }
+
+    private static ProductDto product(String id, String name, double price) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(price));
+        product.setCategory("Электроника");
+        product.setActive(true);
+        return product;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.example.product.cdc;
+
+import com.example.product.avro.AvroSingleObjectSerializer;
+import com.example.product.avro.ClasspathSchemaStore;
+import com.example.product.event.ProductChangeType;
+import com.example.product.event.ProductChanged;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductChangeEventsTest {
+
+    static final Instant AT = Instant.parse("2026-10-19T10:15:30Z");
+
+    @Test
+    void of_ShouldCarryOnlyChangedFieldsForUpdate() {
+        BsonDocument updated = new BsonDocument("active", BsonBoolean.FALSE)
+            .append("popularity", new BsonInt32(7))
+            .append("description", new BsonString("не публикуется"));
+
+        ProductChanged event = ProductChangeEvents.of(OperationType.UPDATE, "1", null, updated, AT);
+
+        assertThat(event.getChangeType()).isEqualTo(ProductChangeType.UPDATED);
+        assertThat(event.getProductId()).isEqualTo("1");
+        assertThat(event.getChangedAt()).isEqualTo(AT);
+        assertThat(event.getActive()).isFalse();
+        assertThat(event.getPopularity()).isEqualTo(7L);
+        assertThat(event.getName()).isNull();
+        assertThat(event.getPrice()).isNull();
+        assertThat(event.getCategory()).isNull();
+    }
+
+    @Test
+    void of_ShouldPreferLegacyPriceWrittenByPreviousVersion() {
+        ProductChanged updated = ProductChangeEvents.of(OperationType.UPDATE, "1", null,
+            new BsonDocument("price", new BsonDouble(249.99)), AT);
+        ProductChanged replaced = ProductChangeEvents.of(OperationType.REPLACE, "1",
+            new Document("name", "Смартфон Alfa").append("priceMinor", 30_000L).append("price", 249.99), null, AT);
+
+        assertThat(updated.getPriceMinor()).isEqualTo(24_999L);
+        assertThat(replaced.getPriceMinor()).isEqualTo(24_999L);
+    }
+
+    @Test
+    void of_ShouldSkipUpdateWithoutPublishedFieldsAndMapInsertAndDelete() {
+        Document inserted = new Document("_id", new ObjectId())
+            .append("name", "Смартфон Alfa")
+            .append("priceMinor", 30_000L)
+            .append("currency", "RUB")
+            .append("category", "Электроника")
+            .append("active", true)
+            .append("popularity", 12L);
+
+        assertThat(ProductChangeEvents.of(OperationType.UPDATE, "1", null,
+            new BsonDocument("description", new BsonString("x")), AT)).isNull();
+        assertThat(ProductChangeEvents.of(OperationType.INSERT, "1", inserted, null, AT))
+            .satisfies(event -> {
+                assertThat(event.getChangeType()).isEqualTo(ProductChangeType.CREATED);
+                assertThat(event.getName()).isEqualTo("Смартфон Alfa");
+                assertThat(event.getPrice()).isEqualTo(300.0);
+                assertThat(event.getPriceMinor()).isEqualTo(30_000L);
+                assertThat(event.getCurrency()).isEqualTo("RUB");
+                assertThat(event.getCategory()).isEqualTo("Электроника");
+                assertThat(event.getActive()).isTrue();
+                assertThat(event.getPopularity()).isEqualTo(12L);
+            });
+        assertThat(ProductChangeEvents.of(OperationType.DELETE, "1", null, null, AT))
+            .satisfies(event -> {
+                assertThat(event.getChangeType()).isEqualTo(ProductChangeType.DELETED);
+                assertThat(event.getName()).isNull();
+            });
+        assertThat(ProductChangeEvents.of(OperationType.DROP, "1", null, null, AT)).isNull();
+    }
+
+    @Test
+    void serializer_ShouldEncodeEventAsSingleObject() throws Exception {
+        ProductChanged event = ProductChangeEvents.of(OperationType.UPDATE, "665f1c2e8a3b4d2f9c0e1a7b", null,
+            new BsonDocument("active", BsonBoolean.FALSE), AT);
+        AvroSingleObjectSerializer serializer = new AvroSingleObjectSerializer();
+        serializer.configure(Map.of(ClasspathSchemaStore.CLASSES_CONFIG, List.of(ProductChanged.class)), false);
+
+        byte[] bytes = serializer.serialize("product.changed", event);
+
+        assertThat(bytes[0]).isEqualTo((byte) 0xC3);
+        assertThat(bytes[1]).isEqualTo((byte) 0x01);
+        // Маркер и fingerprint — 10 байт, id — 25, тип и время — 7, семь объединений с null — по байту, active — 1.
+        assertThat(bytes).hasSizeLessThan(52);
+        assertThat(ProductChanged.getDecoder().decode(bytes)).isEqualTo(event);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.product.cdc;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductChangeOffsetsTest {
+
+    static final Duration LEASE = Duration.ofSeconds(30);
+
+    ReactiveMongoTemplate mongoTemplate;
+    ProductChangeOffsets offsets;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        offsets = new ProductChangeOffsets(mongoTemplate);
+    }
+
+    @Test
+    void acquire_ShouldReturnSavedToken_OrNothingWhileAnotherInstanceHoldsLease() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(ProductChangeOffsets.COLLECTION)))
+                .thenReturn(Mono.just(new Document("_id", "s").append("resumeToken", "{\"_data\": \"1\"}")))
+                // Документ есть, но аренда у другого и не истекла: upsert упирается в тот же _id.
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+
+        assertThat(offsets.acquire("s", "a", LEASE).block())
+                .isEqualTo(new ProductChangeOffsets.Offset(new BsonDocument("_data", new BsonString("1"))));
+        assertThat(offsets.acquire("s", "b", LEASE).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void acquire_ShouldQueryAgainWithCurrentTime_OnEachSubscription() {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.findAndModify(queries.capture(), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(ProductChangeOffsets.COLLECTION)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+
+        // Публикатор повторяет один и тот же Mono, пока аренда у другого экземпляра.
+        Mono<ProductChangeOffsets.Offset> acquire = offsets.acquire("s", "b", LEASE);
+        acquire.block();
+        acquire.block();
+
+        assertThat(queries.getAllValues()).hasSize(2);
+    }
+
+    @Test
+    void save_ShouldFail_WhenLeaseWasTakenOver() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(ProductChangeOffsets.COLLECTION)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+
+        assertThatThrownBy(() -> offsets.save("s", "a", new BsonDocument("_data", new BsonString("2")), LEASE).block())
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> offsets.renew("s", "a", LEASE).block())
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
\ No newline at end of file
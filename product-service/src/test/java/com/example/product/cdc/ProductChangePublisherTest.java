@@ -0,0 +1,184 @@
+package com.example.product.cdc;
+
+import com.example.product.entity.Product;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveChangeStreamOperation.ChangeStreamWithFilterAndProjection;
+import org.springframework.data.mongodb.core.ReactiveChangeStreamOperation.ReactiveChangeStream;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Аренда потока и порядок «сначала брокер, потом позиция» при публикации изменений товаров.
+ */
+class ProductChangePublisherTest {
+
+    static final BsonDocument SAVED_TOKEN = new BsonDocument("_data", new BsonString("saved"));
+
+    ReactiveMongoTemplate mongoTemplate;
+    ChangeStreamWithFilterAndProjection<Document> stream;
+    KafkaSender<String, Object> kafkaSender;
+    ProductChangeOffsets offsets;
+    ProductChangePublisher publisher;
+
+    // Поток изменений и признак отмены подписки на него.
+    Sinks.Many<ChangeStreamEvent<Document>> changes;
+    AtomicBoolean cancelled;
+
+    // Отправленные в Kafka пачки; брокер подтверждает их, когда завершается acks.
+    List<List<String>> sent;
+    Sinks.Empty<Void> acks;
+
+    // Токены, записанные в ProductChangeOffsets: запись происходит при подписке на save.
+    List<BsonDocument> saved;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        ReactiveChangeStream<Document> changeStream = mock(ReactiveChangeStream.class);
+        stream = mock(ChangeStreamWithFilterAndProjection.class);
+        when(mongoTemplate.changeStream(Document.class)).thenReturn(changeStream);
+        when(changeStream.watchCollection(Product.class)).thenReturn(stream);
+        when(stream.resumeAfter(any())).thenReturn(stream);
+        changes = Sinks.many().multicast().directBestEffort();
+        cancelled = new AtomicBoolean();
+        when(stream.listen()).thenReturn(changes.asFlux().doOnCancel(() -> cancelled.set(true)));
+
+        kafkaSender = mock(KafkaSender.class);
+        sent = new CopyOnWriteArrayList<>();
+        acks = Sinks.empty();
+        when(kafkaSender.send(any())).thenAnswer(invocation -> {
+            Publisher<SenderRecord<String, Object, Void>> records = invocation.getArgument(0);
+            return Flux.from(records)
+                    .map(record -> record.key())
+                    .collectList()
+                    .doOnNext(sent::add)
+                    .flatMapMany(keys -> acks.asMono().thenMany(Flux.<SenderResult<Void>>empty()));
+        });
+
+        offsets = mock(ProductChangeOffsets.class);
+        saved = new CopyOnWriteArrayList<>();
+        when(offsets.save(anyString(), anyString(), any(), any())).thenAnswer(invocation ->
+                Mono.fromRunnable(() -> saved.add(invocation.getArgument(2))));
+        when(offsets.renew(anyString(), anyString(), any())).thenReturn(Mono.empty());
+        when(offsets.release(anyString(), anyString())).thenReturn(Mono.empty());
+
+        publisher = new ProductChangePublisher(mongoTemplate, kafkaSender, offsets,
+                "product.changed", 1, Duration.ofMillis(10), Duration.ofMillis(300));
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.destroy();
+    }
+
+    @Test
+    void publish_ShouldSaveToken_OnlyAfterKafkaAcknowledgesBatch() throws InterruptedException {
+        when(offsets.acquire(anyString(), anyString(), any())).thenReturn(Mono.just(new ProductChangeOffsets.Offset(null)));
+        publisher.afterPropertiesSet();
+        verify(stream, timeout(1000)).listen();
+
+        ObjectId id = new ObjectId();
+        BsonDocument token = new BsonDocument("_data", new BsonString("1"));
+        changes.tryEmitNext(deleted(id, token));
+
+        verify(kafkaSender, timeout(1000)).send(any());
+        verify(kafkaSender, after(300)).send(any());
+        assertThat(sent).containsExactly(List.of(id.toHexString()));
+        assertThat(saved).isEmpty();
+
+        acks.tryEmitEmpty();
+
+        verify(offsets, timeout(1000)).save(eq(ProductChangePublisher.STREAM), anyString(), eq(token), any());
+        awaitUntil(() -> !saved.isEmpty());
+        assertThat(saved).containsExactly(token);
+    }
+
+    @Test
+    void publish_ShouldWaitForLease_HeldByAnotherInstance() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(offsets.acquire(anyString(), anyString(), any())).thenAnswer(invocation -> Mono.defer(() ->
+                attempts.incrementAndGet() < 3
+                        ? Mono.empty()
+                        : Mono.just(new ProductChangeOffsets.Offset(SAVED_TOKEN))));
+
+        publisher.afterPropertiesSet();
+
+        verify(stream, timeout(2000)).resumeAfter(SAVED_TOKEN);
+        verify(stream).listen();
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void publish_ShouldStop_WhenLeaseRenewalFails() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        when(offsets.acquire(anyString(), anyString(), any())).thenAnswer(invocation -> Mono.defer(() ->
+                attempts.incrementAndGet() == 1
+                        ? Mono.just(new ProductChangeOffsets.Offset(null))
+                        : Mono.empty()));
+        // Аренду перехватил другой экземпляр: продление отклонено.
+        when(offsets.renew(anyString(), anyString(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("Аренда перешла другому экземпляру")));
+
+        publisher.afterPropertiesSet();
+
+        verify(offsets, timeout(1000)).renew(anyString(), anyString(), any());
+        awaitUntil(() -> attempts.get() > 1);
+        assertThat(cancelled).isTrue();
+        changes.tryEmitNext(deleted(new ObjectId(), new BsonDocument("_data", new BsonString("2"))));
+        verify(kafkaSender, after(300).never()).send(any());
+        verify(stream).listen();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("условие не выполнилось").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static ChangeStreamEvent<Document> deleted(ObjectId id, BsonDocument token) {
+        ChangeStreamDocument<Document> raw = new ChangeStreamDocument<>("delete", token,
+                null, null, null, null, new BsonDocument("_id", new BsonObjectId(id)),
+                null, null, null, null, null, null, null);
+        return new ChangeStreamEvent<>(raw, Document.class,
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+    }
+}
\ No newline at end of file
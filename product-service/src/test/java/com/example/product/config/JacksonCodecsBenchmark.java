@@ -0,0 +1,102 @@
+package com.example.product.config;
+
+import com.example.product.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование и декодирование страницы каталога в JSON, CBOR и Smile (op = страница).
+ * <p>
+ * {@link ObjectMapper} строятся так же, как в {@link JacksonCodecsConfig}. Страница —
+ * {@code size} товаров {@link ProductDto}; конверт страницы одинаков для всех форматов и не учитывается.
+ * Размер страницы в байтах печатается при подготовке; сжатие транспорта не учитывается.
+ * </p>
+ * <p>
+ * Запуск: {@code mvn -pl product-service test-compile}, затем {@link #main(String[])} с test-classpath модуля.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonCodecsBenchmark {
+
+    static final List<String> CATEGORIES = List.of("Электроника", "Книги", "Одежда", "Дом", "Спорт");
+    static final TypeReference<List<ProductDto>> DTO_LIST = new TypeReference<>() {
+    };
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    String format;
+
+    @Param({"20", "1000"})
+    int size;
+
+    ObjectMapper mapper;
+    List<ProductDto> page;
+    byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "CBOR" -> new CBORFactory();
+            case "SMILE" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        mapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+        SplittableRandom random = new SplittableRandom(42);
+        page = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ProductDto dto = new ProductDto();
+            dto.setId(String.format("%024x", i));
+            dto.setName("Товар " + random.nextInt(1_000_000) + " модель " + i);
+            dto.setPriceMinor(random.nextLong(10_000, 20_000_000));
+            dto.setCategory(CATEGORIES.get(random.nextInt(CATEGORIES.size())));
+            dto.setActive(random.nextInt(10) > 0);
+            dto.setPopularity(random.nextInt(100_000));
+            page.add(dto);
+        }
+        encoded = encode();
+        System.out.printf("%n%s, %d товаров: %d байт, %.1f байт на товар%n",
+                format, size, encoded.length, (double) encoded.length / size);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<ProductDto> decode() throws Exception {
+        return mapper.readValue(encoded, DTO_LIST);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JacksonCodecsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
\ No newline at end of file
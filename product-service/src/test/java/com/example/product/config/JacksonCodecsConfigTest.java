@@ -0,0 +1,119 @@
+package com.example.product.config;
+
+import com.example.product.dto.ProductDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JacksonCodecsConfigTest {
+
+    static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        CodecCustomizer customizer = new JacksonCodecsConfig()
+            .binaryJacksonCodecs(Jackson2ObjectMapperBuilder.json().build(), Jackson2ObjectMapperBuilder.json());
+        client = WebTestClient.bindToController(new EchoController())
+            .httpMessageCodecs(customizer::customize)
+            .build();
+    }
+
+    @Test
+    void shouldKeepJsonAsDefaultForBrowsers() {
+        client.get().uri("/product")
+            .header("Accept", "text/html,application/xhtml+xml,*/*;q=0.8")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+            .expectBody().jsonPath("$.name").isEqualTo("Смартфон Alfa");
+    }
+
+    @Test
+    void shouldNegotiateCborAndSmileByAcceptAndContentType() throws Exception {
+        byte[] cbor = client.post().uri("/echo")
+            .contentType(MediaType.APPLICATION_CBOR)
+            .accept(MediaType.APPLICATION_CBOR)
+            .bodyValue(new ObjectMapper(new CBORFactory()).writeValueAsBytes(product()))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+            .expectBody().returnResult().getResponseBody();
+        byte[] smile = client.get().uri("/product")
+            .accept(SMILE)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(SMILE)
+            .expectBody().returnResult().getResponseBody();
+
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(cbor, ProductDto.class)).isEqualTo(product());
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(smile, ProductDto.class)).isEqualTo(product());
+    }
+
+    @Test
+    void shouldBufferBoundedFluxIntoCborArrayAndRejectLongerOnes() throws Exception {
+        byte[] cbor = client.get().uri("/products?count=2")
+            .accept(MediaType.APPLICATION_CBOR)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().returnResult().getResponseBody();
+
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(cbor, new TypeReference<List<ProductDto>>() { }))
+            .containsExactly(product(), product());
+
+        client.get().uri("/products?count=" + (JacksonCodecsConfig.CborEncoder.MAX_BUFFERED_ELEMENTS + 1))
+            .accept(MediaType.APPLICATION_CBOR)
+            .exchange()
+            .expectStatus().is5xxServerError();
+    }
+
+    @RestController
+    static class EchoController {
+
+        @GetMapping("/products")
+        Flux<ProductDto> products(@RequestParam int count) {
+            return Flux.range(0, count).map(i -> JacksonCodecsConfigTest.product());
+        }
+
+        @GetMapping("/product")
+        Mono<ProductDto> product() {
+            return Mono.just(JacksonCodecsConfigTest.product());
+        }
+
+        @PostMapping("/echo")
+        Mono<ProductDto> echo(@RequestBody ProductDto body) {
+            return Mono.just(body);
+        }
+    }
+
+    static ProductDto product() {
+        ProductDto dto = new ProductDto();
+        dto.setId("665f1c2e8a3b4d2f9c0e1a7b");
+        dto.setName("Смартфон Alfa");
+        dto.setPrice(new BigDecimal("299.99"));
+        dto.setCategory("Электроника");
+        dto.setActive(true);
+        dto.setPopularity(120);
+        return dto;
+    }
+}
\ No newline at end of file
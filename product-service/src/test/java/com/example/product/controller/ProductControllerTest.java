@@ -0,0 +1,94 @@
+package com.example.product.controller;
+
+import com.example.product.dto.ProductDto;
+import com.example.product.importer.ProductImportService;
+import com.example.product.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Коды ответа контроллера товаров, когда товар не найден.
+ */
+class ProductControllerTest {
+
+    static final String MISSING_ID = "64b000000000000000000000";
+
+    ProductService productService;
+    WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        client = WebTestClient.bindToController(new ProductController(productService, mock(ProductImportService.class)))
+                .build();
+    }
+
+    @Test
+    void getById_ShouldReturnNotFound_WhenProductIsMissing() {
+        when(productService.findById(MISSING_ID)).thenReturn(Mono.empty());
+
+        client.get().uri("/api/products/{id}", MISSING_ID)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getById_ShouldReturnProduct_WhenProductExists() {
+        ProductDto product = product();
+        product.setId(MISSING_ID);
+        when(productService.findById(MISSING_ID)).thenReturn(Mono.just(product));
+
+        client.get().uri("/api/products/{id}", MISSING_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.name").isEqualTo("Смартфон");
+    }
+
+    @Test
+    void update_ShouldReturnNotFound_WhenProductIsMissing() {
+        when(productService.update(eq(MISSING_ID), any())).thenReturn(Mono.empty());
+
+        client.put().uri("/api/products/{id}", MISSING_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(product())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void deactivate_ShouldReturnNotFound_WhenProductIsMissing() {
+        when(productService.deactivate(MISSING_ID)).thenReturn(Mono.just(false));
+
+        client.delete().uri("/api/products/{id}", MISSING_ID)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void activate_ShouldReturnNotFound_WhenProductIsMissing() {
+        when(productService.activate(MISSING_ID)).thenReturn(Mono.just(false));
+
+        client.patch().uri("/api/products/{id}/activate", MISSING_ID)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static ProductDto product() {
+        ProductDto product = new ProductDto();
+        product.setName("Смартфон");
+        product.setPrice(new BigDecimal("100.00"));
+        product.setCategory("phones");
+        return product;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.example.product.dto;
+
+import com.example.product.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    static final String ID = "665f1c2e8a3b4d2f9c0e1a7b";
+
+    @Test
+    void encode_ShouldRoundTrip_ForEverySortOrder() {
+        Product product = new Product("Смартфон Alfa", 299_99L, "phones");
+        product.setId(ID);
+
+        for (ProductSort sort : ProductSort.values()) {
+            ProductCursor cursor = ProductCursor.after(sort, product);
+
+            assertThat(ProductCursor.decode(cursor.encode(), sort)).isEqualTo(cursor);
+        }
+        assertThat(ProductCursor.after(ProductSort.PRICE_DESC, product).value()).isEqualTo(299_99L);
+        assertThat(ProductCursor.after(ProductSort.NAME_ASC, product).value()).isEqualTo("Смартфон Alfa");
+        assertThat(ProductCursor.after(ProductSort.ID_ASC, product).value()).isEqualTo(ID);
+    }
+
+    @Test
+    void decode_ShouldReject_CursorOfAnotherSortOrder() {
+        String token = new ProductCursor(ProductSort.PRICE_ASC, 100L, ID).encode();
+
+        assertThatThrownBy(() -> ProductCursor.decode(token, ProductSort.PRICE_DESC))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("другого порядка");
+    }
+
+    @Test
+    void decode_ShouldReject_TamperedCursor() {
+        String token = new ProductCursor(ProductSort.NAME_ASC, "Смартфон", ID).encode();
+        byte[] bytes = Base64.getUrlDecoder().decode(token);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        bytes[0] = 42;
+
+        assertThatThrownBy(() -> ProductCursor.decode("не base64!", ProductSort.NAME_ASC))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(encode(truncated), ProductSort.NAME_ASC))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Некорректный курсор");
+        assertThatThrownBy(() -> ProductCursor.decode(encode(bytes), ProductSort.NAME_ASC))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("версия");
+    }
+
+    @Test
+    void decode_ShouldConvertDoublePriceOfFirstVersion_ToMinorUnits() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(1);
+            out.writeByte(ProductSort.PRICE_ASC.ordinal());
+            out.writeDouble(299.99);
+            out.writeUTF(ID);
+        }
+
+        assertThat(ProductCursor.decode(encode(bytes.toByteArray()), ProductSort.PRICE_ASC))
+                .isEqualTo(new ProductCursor(ProductSort.PRICE_ASC, 299_99L, ID));
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.example.product.dto;
+
+import com.example.product.mapper.ProductMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductPageTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldSerializeLeanEnvelopeWithRequestedFieldsOnly() {
+        Set<ProductField> fields = ProductField.parse(List.of("id", " name", "PRICE"));
+        ProductPage page = ProductPage.of(new PageImpl<>(List.of(product()), PageRequest.of(2, 10), 21), fields);
+
+        JsonNode json = objectMapper.valueToTree(page);
+
+        assertThat(json.fieldNames()).toIterable()
+            .containsExactly("content", "number", "size", "totalElements", "totalPages");
+        assertThat(json.get("number").asInt()).isEqualTo(2);
+        assertThat(json.get("totalPages").asInt()).isEqualTo(3);
+        assertThat(json.get("content").get(0).fieldNames()).toIterable().containsExactly("id", "name", "price", "currency");
+    }
+
+    @Test
+    void shouldKeepAllFieldsByDefaultAndRejectUnknownField() {
+        JsonNode full = objectMapper.valueToTree(ProductView.of(product(), ProductField.parse(null)));
+
+        assertThat(full).isEqualTo(objectMapper.valueToTree(product()));
+        assertThatThrownBy(() -> ProductField.parse(List.of("id", "description")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("description");
+    }
+
+    @Test
+    void toView_ShouldMapProjectedDocument() {
+        ObjectId id = new ObjectId();
+        Document projected = new Document("_id", id).append("priceMinor", 30_000L).append("currency", "RUB").append("popularity", 7);
+
+        ProductView view = ProductMapper.toView(projected, ProductField.parse(List.of("id", "price", "popularity")));
+
+        assertThat(view).isEqualTo(new ProductView(id.toHexString(), null, new BigDecimal("300.00"), "RUB", null, null, 7L));
+    }
+
+    private static ProductDto product() {
+        ProductDto dto = new ProductDto();
+        dto.setId("665f1c2e8a3b4d2f9c0e1a7b");
+        dto.setName("Смартфон Alfa");
+        dto.setPrice(new BigDecimal("299.99"));
+        dto.setCategory("Электроника");
+        dto.setActive(true);
+        dto.setPopularity(120);
+        return dto;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+package com.example.product.grpc;
+
+import com.example.product.dto.BatchGetProductsResponse;
+import com.example.product.dto.ProductDto;
+import com.example.product.entity.Product;
+import com.example.product.service.ProductService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductGrpcServiceTest {
+
+    ProductService productService;
+    Server server;
+    ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        productService = mock(ProductService.class);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+            .directExecutor()
+            .addService(new ProductGrpcService(productService, 500, 5000))
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void getProduct_ShouldMapFoundProductAndReportMissingAsNotFound() {
+        when(productService.findById("1")).thenReturn(Mono.just(dto("1", "Смартфон Alfa", 300.0)));
+        when(productService.findById("2")).thenReturn(Mono.empty());
+        ProductServiceGrpc.ProductServiceBlockingStub stub = ProductServiceGrpc.newBlockingStub(channel);
+
+        ProductResponse found = stub.getProduct(GetProductRequest.newBuilder().setId("1").build());
+
+        assertThat(found.getName()).isEqualTo("Смартфон Alfa");
+        assertThat(found.getPrice()).isEqualTo(300.0);
+        assertThat(found.getPriceMinor()).isEqualTo(30_000);
+        assertThat(found.getCurrency()).isEqualTo("RUB");
+        assertThat(found.getActive()).isTrue();
+        assertThatThrownBy(() -> stub.getProduct(GetProductRequest.newBuilder().setId("2").build()))
+            .isInstanceOfSatisfying(StatusRuntimeException.class,
+                ex -> assertThat(ex.getStatus().getCode()).isEqualTo(Status.Code.NOT_FOUND));
+    }
+
+    @Test
+    void getProducts_ShouldKeepRequestOrderAndReturnMissingIds() {
+        Map<String, ProductDto> products = new LinkedHashMap<>();
+        products.put("3", dto("3", "Чехол", 10.0));
+        products.put("1", dto("1", "Смартфон Alfa", 300.0));
+        when(productService.findAllById(anyList()))
+            .thenReturn(Mono.just(new BatchGetProductsResponse(products, List.of("2"))));
+        ProductServiceGrpc.ProductServiceBlockingStub stub = ProductServiceGrpc.newBlockingStub(channel);
+
+        GetProductsResponse response = stub.getProducts(
+            GetProductsRequest.newBuilder().addIds("3").addIds("2").addIds("1").build());
+
+        assertThat(response.getProductsList()).extracting(ProductResponse::getId).containsExactly("3", "1");
+        assertThat(response.getMissingIdsList()).containsExactly("2");
+        assertThatThrownBy(() -> stub.getProducts(GetProductsRequest.getDefaultInstance()))
+            .isInstanceOfSatisfying(StatusRuntimeException.class,
+                ex -> assertThat(ex.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT));
+    }
+
+    @Test
+    void streamCatalog_ShouldSendCatalogInChunksOfRequestedSize() {
+        when(productService.streamCatalog(eq("Электроника"), eq(true), eq(4)))
+            .thenReturn(Flux.range(0, 10).map(i -> product(String.valueOf(i))));
+        ProductServiceGrpc.ProductServiceBlockingStub stub = ProductServiceGrpc.newBlockingStub(channel);
+
+        Iterator<ProductChunk> chunks = stub.streamCatalog(StreamCatalogRequest.newBuilder()
+            .setCategory("Электроника").setActiveOnly(true).setChunkSize(4).build());
+        List<Integer> sizes = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        chunks.forEachRemaining(chunk -> {
+            sizes.add(chunk.getProductsCount());
+            chunk.getProductsList().forEach(product -> ids.add(product.getId()));
+        });
+
+        assertThat(sizes).containsExactly(4, 4, 2);
+        assertThat(ids).containsExactly("0", "1", "2", "3", "4", "5", "6", "7", "8", "9");
+    }
+
+    @Test
+    void streamCatalog_ShouldCancelCatalogQueryWhenClientCancels() throws Exception {
+        CountDownLatch upstreamCancelled = new CountDownLatch(1);
+        when(productService.streamCatalog(eq(""), eq(false), anyInt()))
+            .thenReturn(Flux.<Product, Integer>generate(() -> 0, (i, sink) -> {
+                    sink.next(product(String.valueOf(i)));
+                    return i + 1;
+                })
+                .doOnCancel(upstreamCancelled::countDown));
+
+        ProductServiceGrpc.newStub(channel).streamCatalog(
+            StreamCatalogRequest.newBuilder().setChunkSize(100).build(),
+            new ClientResponseObserver<StreamCatalogRequest, ProductChunk>() {
+                ClientCallStreamObserver<StreamCatalogRequest> call;
+
+                @Override
+                public void beforeStart(ClientCallStreamObserver<StreamCatalogRequest> requestStream) {
+                    call = requestStream;
+                }
+
+                @Override
+                public void onNext(ProductChunk chunk) {
+                    call.cancel("достаточно", null);
+                }
+
+                @Override
+                public void onError(Throwable ex) {
+                }
+
+                @Override
+                public void onCompleted() {
+                }
+            });
+
+        assertThat(upstreamCancelled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static ProductDto dto(String id, String name, double price) {
+        ProductDto dto = new ProductDto();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setPrice(BigDecimal.valueOf(price));
+        dto.setCategory("Электроника");
+        dto.setActive(true);
+        return dto;
+    }
+
+    private static Product product(String id) {
+        Product product = new Product("Товар " + id, 10_000, "Электроника");
+        product.setId(id);
+        product.setActive(true);
+        return product;
+    }
+}
\ No newline at end of file
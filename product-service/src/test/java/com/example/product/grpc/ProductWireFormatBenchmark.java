@@ -0,0 +1,116 @@
+package com.example.product.grpc;
+
+import com.example.product.dto.ProductDto;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.mapper.ProductProtoMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость передачи товара по gRPC и по REST JSON: наносекунды CPU на товар (op = товар).
+ * <p>
+ * Кодируется пачка из {@value #CHUNK} товаров, как одна пачка {@code StreamCatalog}.
+ * gRPC — {@link ProductChunk} из сущностей через {@link ProductProtoMapper};
+ * REST — массив {@link ProductDto} через {@link ProductMapper} и Jackson, как в ответах контроллера
+ * (конверт страницы добавляет к JSON постоянную величину и не учитывается).
+ * Размер в байтах на товар печатается при подготовке; сжатие транспорта не учитывается.
+ * </p>
+ * <p>
+ * Запуск: {@code mvn -pl product-service test-compile}, затем {@link #main(String[])} с test-classpath модуля.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductWireFormatBenchmark {
+
+    static final int CHUNK = 500;
+    static final List<String> CATEGORIES = List.of("Электроника", "Книги", "Одежда", "Дом", "Спорт");
+    static final TypeReference<List<ProductDto>> DTO_LIST = new TypeReference<>() {
+    };
+
+    ObjectMapper objectMapper;
+    List<Product> products;
+    byte[] protoBytes;
+    byte[] jsonBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        SplittableRandom random = new SplittableRandom(42);
+        products = new ArrayList<>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+            Product product = new Product("Товар " + random.nextInt(1_000_000) + " модель " + i,
+                    random.nextLong(10_000, 20_000_000),
+                    CATEGORIES.get(random.nextInt(CATEGORIES.size())));
+            product.setId(String.format("%024x", i));
+            product.setActive(random.nextInt(10) > 0);
+            product.setPopularity(random.nextInt(100_000));
+            products.add(product);
+        }
+        protoBytes = encodeProto();
+        jsonBytes = encodeJson();
+        System.out.printf("%nБайт на товар: protobuf %.1f, JSON %.1f%n",
+                (double) protoBytes.length / CHUNK, (double) jsonBytes.length / CHUNK);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public byte[] encodeProto() {
+        ProductChunk.Builder chunk = ProductChunk.newBuilder();
+        for (Product product : products) {
+            chunk.addProducts(ProductProtoMapper.toProto(product));
+        }
+        return chunk.build().toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public byte[] encodeJson() throws Exception {
+        List<ProductDto> dtos = new ArrayList<>(products.size());
+        for (Product product : products) {
+            dtos.add(ProductMapper.toDto(product));
+        }
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public ProductChunk decodeProto() throws Exception {
+        return ProductChunk.parseFrom(protoBytes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public List<ProductDto> decodeJson() throws Exception {
+        return objectMapper.readValue(jsonBytes, DTO_LIST);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ProductWireFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
\ No newline at end of file
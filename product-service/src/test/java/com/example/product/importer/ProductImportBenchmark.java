@@ -0,0 +1,181 @@
+package com.example.product.importer;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.entity.Product;
+import com.example.product.search.ProductSearchIndex;
+import com.example.product.service.ProductReadModels;
+import com.example.product.suggest.ProductSuggester;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность импорта товаров в строках в секунду (op = строка файла).
+ * <p>
+ * {@code parse} измеряет только разбор и проверку {@link ProductImportParser} и не требует MongoDB.
+ * {@code importProducts} — весь импорт через {@link ProductImportService} с записью {@code bulkWrite};
+ * нужен запущенный MongoDB, адрес задаётся системным свойством {@code mongodb.uri}
+ * (по умолчанию {@code mongodb://localhost:27017/product-benchmark}). Коллекция очищается перед каждой итерацией.
+ * </p>
+ * <p>
+ * Файл — {@value #ROWS} строк, каждая сотая некорректна; тело запроса подаётся кусками по 64 КБ,
+ * как из сети.
+ * </p>
+ * <p>
+ * Запуск: {@code mvn -pl product-service test-compile}, затем {@link #main(String[])} с test-classpath модуля.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductImportBenchmark {
+
+    static final int ROWS = 50_000;
+    static final int CHUNK = 64 * 1024;
+    static final List<String> CATEGORIES = List.of("Электроника", "Книги", "Одежда", "Дом", "Спорт");
+
+    @Param({"NDJSON", "CSV"})
+    ProductImportFormat format;
+
+    @Param({"100", "1000", "5000"})
+    int batchSize;
+
+    ObjectMapper objectMapper;
+    Validator validator;
+    ProductImportParser parser;
+    byte[] file;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        parser = new ProductImportParser(objectMapper, validator);
+        file = file(format);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object parse() {
+        return parser.parse(body(), format, batchSize, 4).count().block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object importProducts(MongoState mongo) {
+        return mongo.importService.importProducts(body(), mediaType()).last().block();
+    }
+
+    @State(Scope.Benchmark)
+    public static class MongoState {
+
+        MongoClient client;
+        ReactiveMongoTemplate template;
+        ProductImportService importService;
+
+        @Setup(Level.Trial)
+        public void setUp(ProductImportBenchmark benchmark) {
+            ConnectionString uri = new ConnectionString(
+                System.getProperty("mongodb.uri", "mongodb://localhost:27017/product-benchmark"));
+            client = MongoClients.create(uri);
+            template = new ReactiveMongoTemplate(client, uri.getDatabase() != null ? uri.getDatabase() : "product-benchmark");
+            ProductSearchIndex searchIndex = new ProductSearchIndex(4096);
+            ProductSuggester suggester = new ProductSuggester(10, Duration.ofSeconds(5), 1024);
+            ProductCache cache = new ProductCache(new SimpleMeterRegistry(), 64L << 20, Duration.ofMinutes(10));
+            importService = new ProductImportService(template, new ProductReadModels(searchIndex, suggester, cache),
+                benchmark.objectMapper, benchmark.validator, benchmark.batchSize, 4, 2);
+        }
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            template.dropCollection(Product.class).block();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            template.dropCollection(Product.class).block();
+            client.close();
+        }
+    }
+
+    private Flux<DataBuffer> body() {
+        List<DataBuffer> chunks = new ArrayList<>(file.length / CHUNK + 1);
+        for (int offset = 0; offset < file.length; offset += CHUNK) {
+            byte[] chunk = new byte[Math.min(CHUNK, file.length - offset)];
+            System.arraycopy(file, offset, chunk, 0, chunk.length);
+            chunks.add(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+        }
+        return Flux.fromIterable(chunks);
+    }
+
+    private MediaType mediaType() {
+        return format == ProductImportFormat.CSV
+            ? MediaType.parseMediaType(ProductImportFormat.TEXT_CSV_VALUE)
+            : MediaType.APPLICATION_NDJSON;
+    }
+
+    private static byte[] file(ProductImportFormat format) {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder file = new StringBuilder(ROWS * 96);
+        if (format == ProductImportFormat.CSV) {
+            file.append("name,price,category,active,popularity\n");
+        }
+        for (int i = 0; i < ROWS; i++) {
+            String name = "Товар \"Серия " + random.nextInt(1_000) + "\" " + i;
+            // Каждая сотая строка отклоняется проверкой: цена отрицательная.
+            double price = i % 100 == 0 ? -1 : Math.round(random.nextDouble(1, 20_000)) / 100.0;
+            String category = CATEGORIES.get(random.nextInt(CATEGORIES.size()));
+            long popularity = random.nextInt(10_000);
+            if (format == ProductImportFormat.CSV) {
+                file.append('"').append(name.replace("\"", "\"\"")).append("\",").append(price).append(',')
+                    .append(category).append(",true,").append(popularity).append('\n');
+            } else {
+                file.append("{\"name\":\"").append(name.replace("\"", "\\\"")).append("\",\"price\":").append(price)
+                    .append(",\"category\":\"").append(category).append("\",\"popularity\":").append(popularity)
+                    .append("}\n");
+            }
+        }
+        return file.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(ProductImportBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.example.product.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductImportParserTest {
+
+    ProductImportParser parser = new ProductImportParser(new ObjectMapper(),
+        Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void parse_ShouldReadNdjsonSplitAcrossChunksAndReportRowErrors() {
+        String file = """
+            {"name":"Смартфон Alfa","price":300.0,"category":"Электроника"}
+
+            {"id":"665f1c2e8a3b4d2f9c0e1a7b","name":"Куртка","price":90,"category":"Одежда","active":false}
+            {"name":"Чехол","price":-1,"category":""}
+            {"name":
+            """;
+
+        // Куски по 7 байт режут и строки, и двухбайтовые символы кириллицы.
+        List<ProductImportParser.Row> rows = parse(chunks(file, 7), ProductImportFormat.NDJSON);
+
+        assertThat(rows).extracting(ProductImportParser.Row::line).containsExactly(1L, 3L, 4L, 5L);
+        assertThat(rows.get(0).error()).isNull();
+        assertThat(rows.get(0).product().getName()).isEqualTo("Смартфон Alfa");
+        assertThat(rows.get(0).product().isActive()).isTrue();
+        assertThat(rows.get(1).id()).isEqualTo("665f1c2e8a3b4d2f9c0e1a7b");
+        assertThat(rows.get(1).product().isActive()).isFalse();
+        assertThat(rows.get(2).error()).isEqualTo("category: Категория обязательна; price: Цена должна быть положительной");
+        assertThat(rows.get(3).error()).startsWith("Некорректный JSON");
+    }
+
+    @Test
+    void parse_ShouldMapCsvColumnsByHeaderWithQuotedValues() {
+        String file = "\uFEFFCategory,Name,Price,popularity\r\n"
+            + "Электроника,\"Смартфон \"\"Alfa\"\", 128 ГБ\",300.5,12\r\n"
+            + "Одежда,Куртка,дорого,\r\n"
+            + "Дом,Чайник,25\r\n";
+
+        List<ProductImportParser.Row> rows = parse(chunks(file, 16), ProductImportFormat.CSV);
+
+        assertThat(rows).extracting(ProductImportParser.Row::line).containsExactly(2L, 3L, 4L);
+        assertThat(rows.get(0).error()).isNull();
+        assertThat(rows.get(0).product().getName()).isEqualTo("Смартфон \"Alfa\", 128 ГБ");
+        assertThat(rows.get(0).product().getPrice()).isEqualByComparingTo("300.5");
+        assertThat(rows.get(0).product().getCategory()).isEqualTo("Электроника");
+        assertThat(rows.get(0).product().getPopularity()).isEqualTo(12);
+        assertThat(rows.get(0).product().isActive()).isTrue();
+        assertThat(rows.get(1).error()).startsWith("Некорректное число");
+        assertThat(rows.get(2).error()).isNull();
+        assertThat(rows.get(2).product().getPopularity()).isZero();
+    }
+
+    private List<ProductImportParser.Row> parse(Flux<DataBuffer> body, ProductImportFormat format) {
+        return parser.parse(body, format, 2, 4)
+            .flatMapIterable(batch -> batch)
+            .collectList()
+            .block();
+    }
+
+    private static Flux<DataBuffer> chunks(String file, int size) {
+        byte[] bytes = file.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> chunks = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += size) {
+            byte[] chunk = new byte[Math.min(size, bytes.length - offset)];
+            System.arraycopy(bytes, offset, chunk, 0, chunk.length);
+            chunks.add(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+        }
+        return Flux.fromIterable(chunks);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.product.migration;
+
+import com.example.product.entity.Product;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Цены, записанные экземплярами прежней версии во время выкладки.
+ */
+class ProductPriceMigrationTest {
+
+    ProductPriceMigration migration = new ProductPriceMigration(mock(ReactiveMongoTemplate.class), false, null);
+
+    @Test
+    void legacyFilter_ShouldMatchLegacyPrice_EvenInMigratedDocument() {
+        assertThat(ProductPriceMigration.LEGACY_FILTER)
+                .isEqualTo(new Document("price", new Document("$type", "number")));
+        assertThat(ProductPriceMigration.MIGRATION.get(1)).isEqualTo(new Document("$unset", "price"));
+    }
+
+    @Test
+    void onAfterConvert_ShouldPreferLegacyPrice() {
+        assertThat(convert(new Document("priceMinor", 300_00L).append("price", 249.99))).isEqualTo(249_99L);
+        assertThat(convert(new Document("price", 0.125))).isEqualTo(12L);
+        assertThat(convert(new Document("priceMinor", 300_00L))).isEqualTo(300_00L);
+    }
+
+    private long convert(Document document) {
+        Product product = new Product("Смартфон Alfa", document.get("priceMinor") instanceof Long minor ? minor : 0, "Электроника");
+        return Mono.from(migration.onAfterConvert(product, document, "products")).block().getPrice();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.example.product.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void toMinor_ShouldConvertExactAmountsAndRejectFractionsOfKopeck() {
+        assertThat(Money.toMinor(new BigDecimal("299.99"))).isEqualTo(29_999L);
+        assertThat(Money.toMinor(new BigDecimal("300"))).isEqualTo(30_000L);
+        assertThat(Money.toMinor(new BigDecimal("0.10"))).isEqualTo(10L);
+        assertThatThrownBy(() -> Money.toMinor(new BigDecimal("0.105")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.toMinor(new BigDecimal("1e20")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void toMinor_ShouldRoundFilterBoundsAndLegacyDoubles() {
+        assertThat(Money.toMinor(new BigDecimal("99.991"), RoundingMode.CEILING)).isEqualTo(10_000L);
+        assertThat(Money.toMinor(new BigDecimal("99.999"), RoundingMode.FLOOR)).isEqualTo(9_999L);
+        // 0.1 + 0.2 в double — 0.30000000000000004.
+        assertThat(Money.toMinor(0.1 + 0.2)).isEqualTo(30L);
+        assertThat(Money.toMinor(299.99)).isEqualTo(29_999L);
+        assertThat(Money.toMinor(0.125)).isEqualTo(12L);
+    }
+
+    @Test
+    void toMajor_ShouldKeepKopecksScale() {
+        assertThat(Money.toMajor(30_000L)).isEqualTo(new BigDecimal("300.00"));
+        assertThat(Money.toMajor(5L)).isEqualTo(new BigDecimal("0.05"));
+        assertThat(Money.toDouble(29_999L)).isEqualTo(299.99);
+    }
+}
\ No newline at end of file
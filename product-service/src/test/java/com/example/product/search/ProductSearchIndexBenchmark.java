@@ -0,0 +1,136 @@
+package com.example.product.search;
+
+import com.example.product.entity.Product;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка запросов к {@link ProductSearchIndex} на каталоге из {@value #PRODUCTS} товаров.
+ * <p>
+ * Названия собираются из словарей «тип + бренд + модель», поэтому триграммы распределены
+ * как в реальном каталоге: частые (тип товара) и редкие (модель).
+ * </p>
+ * <p>
+ * Запуск: {@code mvn -pl product-service test-compile}, затем {@link #main(String[])} с test-classpath модуля.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchIndexBenchmark {
+
+    static final int PRODUCTS = 1_000_000;
+    static final List<String> TYPES = List.of("Смартфон", "Ноутбук", "Наушники", "Кофеварка", "Пылесос",
+        "Кроссовки", "Куртка", "Рюкзак", "Монитор", "Планшет", "Чайник", "Футболка");
+    static final List<String> BRANDS = List.of("Alfa", "Nova", "Orion", "Vega", "Zenit", "Polar", "Sigma", "Terra");
+    static final List<String> CATEGORIES = List.of("Электроника", "Бытовая техника", "Одежда", "Обувь", "Спорт",
+        "Книги", "Дом", "Игрушки", "Авто", "Сад");
+
+    static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+    static final Pageable BY_PRICE = PageRequest.of(0, 20, Sort.by("price"));
+    static final long[] PRICE_BOUNDS = {10_000, 25_000, 50_000, 100_000, 150_000};
+
+    ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new ProductSearchIndex(4096);
+        SplittableRandom random = new SplittableRandom(42);
+        List<Product> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product(
+                TYPES.get(random.nextInt(TYPES.size())) + " " + BRANDS.get(random.nextInt(BRANDS.size()))
+                    + " X" + random.nextInt(10_000),
+                random.nextLong(1, 200_000),
+                CATEGORIES.get(random.nextInt(CATEGORIES.size())));
+            product.setId(new ObjectId().toHexString());
+            product.setActive(random.nextInt(10) != 0);
+            batch.add(product);
+            if (batch.size() == 10_000) {
+                index.load(batch);
+                batch.clear();
+            }
+        }
+        index.load(batch);
+        index.markReady();
+    }
+
+    /** Частое слово названия: длинный список кандидатов. */
+    @Benchmark
+    public Object nameCommon() {
+        return index.search("ноутбук", null, null, null, true, FIRST_PAGE);
+    }
+
+    /** Редкая подстрока: триграммы модели отсекают почти всё. */
+    @Benchmark
+    public Object nameRare() {
+        return index.search("vega x123", null, null, null, true, FIRST_PAGE);
+    }
+
+    /** Короткая подстрока без триграмм: проверка по всем кандидатам. */
+    @Benchmark
+    public Object nameShort() {
+        return index.search("x7", "Спорт", null, null, true, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Object categoryAndPrice() {
+        return index.search(null, "Электроника", 10_000L, 50_000L, true, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Object allFilters() {
+        return index.search("смартфон nova", "Электроника", 10_000L, 150_000L, true, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Object categorySortedByPrice() {
+        return index.search(null, "Одежда", null, null, true, BY_PRICE);
+    }
+
+    /** Фасеты по частому слову: счётчики по всем категориям и диапазонам цен. */
+    @Benchmark
+    public Object nameCommonWithFacets() {
+        return index.searchWithFacets("ноутбук", null, null, null, true, PRICE_BOUNDS, FIRST_PAGE);
+    }
+
+    /** Фасеты без фильтров: диапазоны цен считаются по всему каталогу. */
+    @Benchmark
+    public Object catalogWithFacets() {
+        return index.searchWithFacets(null, null, null, null, true, PRICE_BOUNDS, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Object allFiltersWithFacets() {
+        return index.searchWithFacets("смартфон nova", "Электроника", 10_000L, 150_000L, true, PRICE_BOUNDS, FIRST_PAGE);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(ProductSearchIndexBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
\ No newline at end of file
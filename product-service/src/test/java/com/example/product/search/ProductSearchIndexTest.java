@@ -0,0 +1,163 @@
+package com.example.product.search;
+
+import com.example.product.dto.ProductDto;
+import com.example.product.dto.ProductFacets;
+import com.example.product.dto.ProductSearchPage;
+import com.example.product.entity.Product;
+import com.example.product.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(2);
+        index.load(List.of(
+            product("1", "Смартфон Alfa X10", 300.0, "Электроника", true),
+            product("2", "Смартфон Nova X20", 150.0, "Электроника", true),
+            product("3", "Куртка Polar", 90.0, "Одежда", true),
+            product("4", "Смартфон Vega", 500.0, "Электроника", false)));
+        index.markReady();
+    }
+
+    @Test
+    void search_ShouldMatchSubstringIgnoringCase() {
+        assertThat(ids(index.search("СМАРТФОН", null, null, null, true, PageRequest.of(0, 10)).orElseThrow()))
+            .containsExactly("1", "2");
+        assertThat(ids(index.search("x2", null, null, null, false, PageRequest.of(0, 10)).orElseThrow()))
+            .containsExactly("2");
+        // Все триграммы есть в названиях, но подстроки нет ни в одном.
+        assertThat(index.search("alfa x20", null, null, null, true, PageRequest.of(0, 10)).orElseThrow())
+            .isEmpty();
+    }
+
+    @Test
+    void search_ShouldIntersectCategoryPriceAndActive() {
+        Page<ProductDto> page = index.search(null, "Электроника", 10_000L, 40_000L, true,
+            PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price"))).orElseThrow();
+
+        assertThat(ids(page)).containsExactly("1", "2");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void upsert_ShouldReindexChangedFields() {
+        index.upsert(product("3", "Куртка Zenit", 1000.0, "Спорт", true));
+        index.upsert(product("5", "Смартфон Orion", 120.0, "Электроника", true));
+        index.upsert(product("2", "Смартфон Nova X20", 50.0, "Электроника", true));
+        index.setActive("1", false);
+
+        assertThat(ids(index.search("polar", null, null, null, true, PageRequest.of(0, 10)).orElseThrow())).isEmpty();
+        assertThat(ids(index.search("zenit", "Спорт", 90_000L, null, true, PageRequest.of(0, 10)).orElseThrow()))
+            .containsExactly("3");
+        assertThat(ids(index.search(null, "Электроника", null, 13_000L, true,
+            PageRequest.of(0, 10, Sort.by("price"))).orElseThrow()))
+            .containsExactly("2", "5");
+    }
+
+    @Test
+    void search_ShouldOrderByPriceAcrossSortedArrayAndDelta() {
+        ProductSearchIndex delta = new ProductSearchIndex(100);
+        delta.load(List.of(
+            product("1", "Смартфон Alfa X10", 300.0, "Электроника", true),
+            product("2", "Смартфон Nova X20", 150.0, "Электроника", true),
+            product("3", "Куртка Polar", 90.0, "Одежда", true),
+            product("4", "Смартфон Vega", 500.0, "Электроника", false)));
+        delta.markReady();
+        delta.upsert(product("2", "Смартфон Nova X20", 500.0, "Электроника", true));
+        delta.upsert(product("5", "Чехол", 10.0, "Электроника", true));
+
+        assertThat(ids(delta.search(null, null, null, null, false,
+            PageRequest.of(0, 3, Sort.by("price"))).orElseThrow()))
+            .containsExactly("5", "3", "1");
+        assertThat(ids(delta.search(null, null, null, null, false,
+            PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "price"))).orElseThrow()))
+            .containsExactly("4", "2", "1");
+        assertThat(ids(delta.search(null, null, 10_000L, 40_000L, false, PageRequest.of(0, 10)).orElseThrow()))
+            .containsExactly("1");
+    }
+
+    @Test
+    void search_ShouldOrderById_WhenUpsertArrivesMidLoad() {
+        ProductSearchIndex loading = new ProductSearchIndex(100);
+        // Запись с этого экземпляра пришла раньше пачки загрузки и получила меньший порядковый номер.
+        loading.upsert(product("665f1c2e8a3b4d2f9c0e1a7f", "Чехол", 10.0, "Электроника", true));
+        loading.load(List.of(
+            product("665f1c2e8a3b4d2f9c0e1a7b", "Смартфон Alfa X10", 300.0, "Электроника", true),
+            product("665f1c2e8a3b4d2f9c0e1a7d", "Смартфон Nova X20", 150.0, "Электроника", true)));
+        loading.upsert(product("665f1c2e8a3b4d2f9c0e1a7a", "Куртка Polar", 90.0, "Одежда", true));
+        loading.markReady();
+        // После перестройки — в дельту; импорт принимает и строковые id, MongoDB ставит их перед ObjectId.
+        loading.upsert(product("665f1c2e8a3b4d2f9c0e1a7c", "Смартфон Vega", 500.0, "Электроника", true));
+        loading.upsert(product("sku-1", "Зарядка", 20.0, "Электроника", true));
+
+        assertThat(ids(loading.search(null, null, null, null, true, PageRequest.of(0, 3)).orElseThrow()))
+            .containsExactly("sku-1", "665f1c2e8a3b4d2f9c0e1a7a", "665f1c2e8a3b4d2f9c0e1a7b");
+        assertThat(ids(loading.search(null, null, null, null, true, PageRequest.of(1, 3)).orElseThrow()))
+            .containsExactly("665f1c2e8a3b4d2f9c0e1a7c", "665f1c2e8a3b4d2f9c0e1a7d", "665f1c2e8a3b4d2f9c0e1a7f");
+        assertThat(ids(loading.search(null, null, null, null, true,
+            PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"))).orElseThrow()))
+            .containsExactly("665f1c2e8a3b4d2f9c0e1a7f", "665f1c2e8a3b4d2f9c0e1a7d");
+        // Узкий фильтр — частичная сортировка совпадений вместо обхода массива.
+        assertThat(ids(loading.search("смартфон", null, null, null, true, PageRequest.of(0, 10)).orElseThrow()))
+            .containsExactly("665f1c2e8a3b4d2f9c0e1a7b", "665f1c2e8a3b4d2f9c0e1a7c", "665f1c2e8a3b4d2f9c0e1a7d");
+    }
+
+    @Test
+    void delete_ShouldHideProduct_EvenWithInactiveOnes() {
+        index.delete("2");
+
+        assertThat(ids(index.search("смартфон", null, null, null, false, PageRequest.of(0, 10)).orElseThrow()))
+            .containsExactly("1", "4");
+        assertThat(ids(index.search(null, null, null, null, false, PageRequest.of(0, 10)).orElseThrow()))
+            .containsExactly("1", "3", "4");
+
+        index.upsert(product("2", "Смартфон Nova X20", 150.0, "Электроника", true));
+        assertThat(ids(index.search("смартфон", null, null, null, true, PageRequest.of(0, 10)).orElseThrow()))
+            .containsExactly("1", "2");
+    }
+
+    @Test
+    void searchWithFacets_ShouldCountEachFacetWithoutItsOwnFilter() {
+        ProductSearchPage page = index.searchWithFacets(null, "Электроника", 10_000L, null, false,
+            new long[] {10_000, 30_000}, PageRequest.of(0, 10)).orElseThrow();
+
+        assertThat(ids(page)).containsExactly("1", "2", "4");
+        // Категории — по фильтру цены: куртка за 90 не учитывается.
+        assertThat(page.getFacets().categories())
+            .containsExactly(new ProductFacets.CategoryCount("Электроника", 3));
+        // Цены — по фильтру категории, без фильтра цены; граница относится к диапазону, который с неё начинается.
+        assertThat(page.getFacets().priceBuckets()).containsExactly(
+            new ProductFacets.PriceBucket(null, new BigDecimal("100.00"), 0),
+            new ProductFacets.PriceBucket(new BigDecimal("100.00"), new BigDecimal("300.00"), 1),
+            new ProductFacets.PriceBucket(new BigDecimal("300.00"), null, 2));
+    }
+
+    @Test
+    void search_ShouldFallBackForUnsupportedSortOrBeforeLoad() {
+        assertThat(index.search(null, null, null, null, true, PageRequest.of(0, 10, Sort.by("category")))).isEmpty();
+        assertThat(new ProductSearchIndex(2).search(null, null, null, null, true, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    private static Product product(String id, String name, double price, String category, boolean active) {
+        Product product = new Product(name, Money.toMinor(price), category);
+        product.setId(id);
+        product.setActive(active);
+        return product;
+    }
+
+    private static List<String> ids(Page<ProductDto> page) {
+        return page.getContent().stream().map(ProductDto::getId).toList();
+    }
+}
\ No newline at end of file
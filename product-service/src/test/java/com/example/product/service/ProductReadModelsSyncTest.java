@@ -0,0 +1,175 @@
+package com.example.product.service;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.ProductDto;
+import com.example.product.dto.ProductSuggestion;
+import com.example.product.search.ProductSearchIndex;
+import com.example.product.suggest.ProductSuggester;
+import com.mongodb.MongoException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Применение событий change stream к моделям чтения: запись на другом экземпляре
+ * должна попасть в индекс этого.
+ */
+class ProductReadModelsSyncTest {
+
+    static final ObjectId ID = new ObjectId("665f1c2e8a3b4d2f9c0e1a7b");
+
+    ProductSearchIndex searchIndex;
+    ProductSuggester suggester;
+    ProductCache cache;
+    ReactiveMongoTemplate mongoTemplate;
+    ProductReadModelsSync sync;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        searchIndex = new ProductSearchIndex(2);
+        searchIndex.markReady();
+        suggester = new ProductSuggester(10, Duration.ofHours(1), 1024);
+        cache = new ProductCache(new SimpleMeterRegistry(), 1 << 20, Duration.ofMinutes(10));
+        sync = new ProductReadModelsSync(mongoTemplate, searchIndex, suggester, cache);
+    }
+
+    @Test
+    void apply_ShouldIndexFullDocument_OfInsertAndUpdate() {
+        sync.apply(change("insert", document("Смартфон Alfa", 300_00L, true)));
+        assertThat(names("смартфон")).containsExactly("Смартфон Alfa");
+        assertThat(suggestions("смарт")).containsExactly("Смартфон Alfa");
+
+        sync.apply(change("update", document("Смартфон Alfa Pro", 350_00L, true)));
+        assertThat(names("смартфон")).containsExactly("Смартфон Alfa Pro");
+        assertThat(suggestions("смарт")).containsExactly("Смартфон Alfa Pro");
+
+        sync.apply(change("update", document("Смартфон Alfa Pro", 350_00L, false)));
+        assertThat(names("смартфон")).isEmpty();
+        assertThat(suggestions("смарт")).isEmpty();
+    }
+
+    @Test
+    void apply_ShouldHideDeletedProduct() {
+        sync.apply(change("insert", document("Смартфон Alfa", 300_00L, true)));
+
+        sync.apply(change("delete", null));
+
+        assertThat(names("смартфон")).isEmpty();
+        assertThat(suggestions("смарт")).isEmpty();
+        assertThat(searchIndex.search("смартфон", null, null, null, false, PageRequest.of(0, 10)).orElseThrow())
+                .isEmpty();
+    }
+
+    @Test
+    void apply_ShouldDropCachedProduct_ChangedOrDeletedElsewhere() {
+        cache.put(dto("Смартфон Alfa"));
+
+        sync.apply(change("update", document("Смартфон Alfa Pro", 350_00L, true)));
+        assertThat(cached()).isNull();
+
+        cache.put(dto("Смартфон Alfa Pro"));
+        sync.apply(change("delete", null));
+        assertThat(cached()).isNull();
+    }
+
+    @Test
+    void sync_ShouldStopWhenServerHasNoChangeStreams() throws InterruptedException {
+        AtomicInteger subscriptions = new AtomicInteger();
+        when(mongoTemplate.changeStream(Document.class)).thenAnswer(invocation -> {
+            subscriptions.incrementAndGet();
+            // Ответ одиночного сервера: 40573 — change stream не поддерживается.
+            throw new UncategorizedMongoDbException("changeStream", new MongoException(
+                40573, "The $changeStream stage is only supported on replica sets"));
+        });
+
+        sync.afterPropertiesSet();
+        Thread.sleep(1500);
+        sync.destroy();
+
+        assertThat(subscriptions).hasValue(1);
+    }
+
+    @Test
+    void apply_ShouldSkipUpdate_WhenDocumentIsGoneByLookup() {
+        sync.apply(change("insert", document("Смартфон Alfa", 300_00L, true)));
+
+        sync.apply(change("update", null));
+
+        assertThat(names("смартфон")).containsExactly("Смартфон Alfa");
+    }
+
+    @Test
+    void apply_ShouldPreferLegacyPrice_WrittenByPreviousVersion() {
+        // Экземпляр прежней версии записал цену в рублях в уже переведённый документ.
+        sync.apply(change("update", document("Смартфон Alfa", 300_00L, true).append("price", 249.99)));
+
+        assertThat(searchIndex.search(null, null, 249_99L, 249_99L, true, PageRequest.of(0, 10)).orElseThrow()
+                .map(ProductDto::getName))
+                .containsExactly("Смартфон Alfa");
+    }
+
+    private List<String> names(String query) {
+        return searchIndex.search(query, null, null, null, true, PageRequest.of(0, 10)).orElseThrow()
+                .map(ProductDto::getName)
+                .toList();
+    }
+
+    private List<String> suggestions(String prefix) {
+        return suggester.suggest(prefix, 10).stream().map(ProductSuggestion::name).toList();
+    }
+
+    private ProductDto cached() {
+        return cache.get(ID.toHexString(), id -> Mono.empty()).block();
+    }
+
+    private static ProductDto dto(String name) {
+        ProductDto product = new ProductDto();
+        product.setId(ID.toHexString());
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(300));
+        product.setCategory("Электроника");
+        product.setActive(true);
+        return product;
+    }
+
+    private static Document document(String name, long priceMinor, boolean active) {
+        return new Document("_id", ID)
+                .append("name", name)
+                .append("priceMinor", priceMinor)
+                .append("currency", "RUB")
+                .append("category", "Электроника")
+                .append("active", active)
+                .append("popularity", 1L);
+    }
+
+    private static ChangeStreamDocument<Document> change(String operation, Document fullDocument) {
+        return new ChangeStreamDocument<>(operation, new BsonDocument("_data", new BsonString(operation)),
+                null, null, fullDocument, null, new BsonDocument("_id", new BsonObjectId(ID)),
+                null, null, null, null, null, null, null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.example.product.service;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.ProductField;
+import com.example.product.dto.ProductSort;
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.product.search.ProductSearchIndex;
+import com.example.product.suggest.ProductSuggester;
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Пропускная способность {@link ProductServiceImpl} под конкурентной нагрузкой.
+ * <p>
+ * Требует запущенный MongoDB: адрес задаётся системным свойством {@code mongodb.uri}
+ * (по умолчанию {@code mongodb://localhost:27017/product-benchmark}). Коллекция заполняется
+ * {@value #PRODUCTS} товарами и удаляется после прогона.
+ * </p>
+ * <p>
+ * Методы {@code *Threads} нагружают сервис 16 потоками JMH, каждый из которых ждёт свой ответ;
+ * {@code searchFanOut} отправляет {@value #FAN_OUT} запросов из одного потока без ожидания,
+ * как это делает event-loop WebFlux.
+ * </p>
+ * <p>
+ * {@code deepPageByOffset} и {@code deepPageByCursor} читают одну и ту же страницу на глубине
+ * {@value #DEEP_OFFSET} товаров: через skip + count и через курсор по составному индексу.
+ * </p>
+ * <p>
+ * {@code pageAllFields} и {@code pageIdNamePrice} читают одну страницу из 100 товаров со всеми полями
+ * и с проекцией {@code fields=id,name,price}.
+ * </p>
+ * <p>
+ * Запуск: {@code mvn -pl product-service test-compile}, затем {@link #main(String[])} с test-classpath модуля.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    static final int PRODUCTS = 10_000;
+    static final int FAN_OUT = 64;
+    static final int DEEP_OFFSET = 1_500;
+    static final List<String> CATEGORIES = List.of("Электроника", "Книги", "Одежда", "Дом", "Спорт");
+    static final PageRequest PAGE = PageRequest.of(0, 100, Sort.by("_id"));
+    static final Set<ProductField> ID_NAME_PRICE = ProductField.parse(List.of("id", "name", "price"));
+
+    MongoClient client;
+    ReactiveMongoTemplate template;
+    ProductServiceImpl productService;
+    List<String> ids;
+    String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConnectionString uri = new ConnectionString(
+            System.getProperty("mongodb.uri", "mongodb://localhost:27017/product-benchmark"));
+        client = MongoClients.create(uri);
+        template = new ReactiveMongoTemplate(client, uri.getDatabase() != null ? uri.getDatabase() : "product-benchmark");
+        ProductRepository repository = new ReactiveMongoRepositoryFactory(template).getRepository(ProductRepository.class);
+        // Индекс не загружен: поиск идёт в MongoDB. Индекс измеряется в ProductSearchIndexBenchmark.
+        ProductSearchIndex searchIndex = new ProductSearchIndex(4096);
+        ProductSuggester suggester = new ProductSuggester(10, Duration.ofSeconds(5), 1024);
+        ProductCache cache = new ProductCache(new SimpleMeterRegistry(), 64L << 20, Duration.ofMinutes(10));
+        productService = new ProductServiceImpl(repository, template, searchIndex, suggester, cache,
+            new ProductReadModels(searchIndex, suggester, cache));
+
+        template.dropCollection(Product.class).block();
+        IndexResolver.create(template.getConverter().getMappingContext())
+            .resolveIndexFor(Product.class)
+            .forEach(index -> template.indexOps(Product.class).createIndex(index).block());
+        ids = template.insertAll(IntStream.range(0, PRODUCTS)
+                .mapToObj(i -> {
+                    Product product = new Product("Товар " + i, (10 + i % 1000) * 100L,
+                        CATEGORIES.get(i % CATEGORIES.size()));
+                    product.setActive(i % 10 != 0);
+                    return product;
+                })
+                .toList())
+            .map(Product::getId)
+            .collectList()
+            .block();
+        deepCursor = productService.scroll(null, "Книги", null, null, true, ProductSort.PRICE_ASC, null, DEEP_OFFSET, false)
+            .block()
+            .nextCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        template.dropCollection(Product.class).block();
+        client.close();
+    }
+
+    /** После прогрева все товары в {@link ProductCache}: измеряется чтение из кэша. */
+    @Benchmark
+    @Threads(16)
+    public Object findByIdThreads() {
+        return productService.findById(randomId()).block();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Object searchThreads() {
+        return search().block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FAN_OUT)
+    public Object searchFanOut() {
+        return Flux.range(0, FAN_OUT)
+            .flatMap(i -> search(), FAN_OUT)
+            .blockLast();
+    }
+
+    @Benchmark
+    public Object deepPageByOffset() {
+        return productService.search(null, "Книги", null, null, true, ProductField.ALL,
+            PageRequest.of(DEEP_OFFSET / 20, 20, Sort.by("price", "_id"))).block();
+    }
+
+    @Benchmark
+    public Object pageAllFields() {
+        return productService.findAll(ProductField.ALL, PAGE).block();
+    }
+
+    @Benchmark
+    public Object pageIdNamePrice() {
+        return productService.findAll(ID_NAME_PRICE, PAGE).block();
+    }
+
+    @Benchmark
+    public Object deepPageByCursor() {
+        return productService.scroll(null, "Книги", null, null, true, ProductSort.PRICE_ASC, deepCursor, 20, false).block();
+    }
+
+    private Mono<?> search() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BigDecimal minPrice = BigDecimal.valueOf(random.nextInt(900));
+        return productService.search("товар 1", CATEGORIES.get(random.nextInt(CATEGORIES.size())),
+            minPrice, minPrice.add(BigDecimal.valueOf(100)), true, ProductField.ALL, PageRequest.of(0, 20));
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(ProductServiceBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+package com.example.product.service;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.ProductCursor;
+import com.example.product.dto.ProductDto;
+import com.example.product.dto.ProductField;
+import com.example.product.dto.ProductSort;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.repository.ProductRepository;
+import com.example.product.search.ProductSearchIndex;
+import com.example.product.suggest.ProductSuggester;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Фильтры поиска, выборки по курсору и обновление товара в MongoDB.
+ */
+class ProductServiceImplTest {
+
+    @Test
+    void searchCriteria_ShouldQuoteName_AndMatchCaseInsensitively() {
+        Document criteria = ProductServiceImpl.searchCriteria("  a.b*(c  ", null, null, null, false).getCriteriaObject();
+
+        Pattern pattern = (Pattern) filters(criteria).get(0).get("name");
+        assertThat(pattern.flags() & Pattern.CASE_INSENSITIVE).isNotZero();
+        assertThat(pattern.pattern()).isEqualTo(Pattern.quote("a.b*(c"));
+        assertThat(pattern.matcher("Товар A.B*(C плюс").find()).isTrue();
+        assertThat(pattern.matcher("aXb*(c").find()).isFalse();
+    }
+
+    @Test
+    void searchCriteria_ShouldSkipBlankAndNullParameters() {
+        Document criteria = ProductServiceImpl.searchCriteria(" ", " ", null, null, false).getCriteriaObject();
+
+        assertThat(criteria).isEmpty();
+    }
+
+    @Test
+    void filterCriteria_ShouldFilterActiveOnly_ByDefault() {
+        assertThat(ProductServiceImpl.filterCriteria(null, null, null, null))
+                .extracting(Criteria::getCriteriaObject)
+                .containsExactly(new Document("active", true));
+        assertThat(ProductServiceImpl.filterCriteria(null, null, null, true))
+                .extracting(Criteria::getCriteriaObject)
+                .containsExactly(new Document("active", true));
+        assertThat(ProductServiceImpl.filterCriteria(null, null, null, false)).isEmpty();
+    }
+
+    @Test
+    void filterCriteria_ShouldFollowIndexFieldOrder_AndBoundPriceInMinorUnits() {
+        List<Document> filters = ProductServiceImpl.filterCriteria("phones", 100_00L, 500_00L, true).stream()
+                .map(Criteria::getCriteriaObject)
+                .toList();
+
+        assertThat(filters).containsExactly(
+                new Document("category", "phones"),
+                new Document("active", true),
+                new Document("price", new Document("$gte", 100_00L).append("$lte", 500_00L)));
+    }
+
+    @Test
+    void filterCriteria_ShouldUseOneSidedPriceRange_WhenOnlyOneBoundIsSet() {
+        assertThat(ProductServiceImpl.filterCriteria(null, 100_00L, null, false))
+                .extracting(Criteria::getCriteriaObject)
+                .containsExactly(new Document("price", new Document("$gte", 100_00L)));
+        assertThat(ProductServiceImpl.filterCriteria(null, null, 500_00L, false))
+                .extracting(Criteria::getCriteriaObject)
+                .containsExactly(new Document("price", new Document("$lte", 500_00L)));
+    }
+
+    @Test
+    void scrollCriteria_ShouldBoundStatusToBothValues_WhenInactiveProductsAreIncluded() {
+        assertThat(ProductServiceImpl.scrollCriteria(null, "phones", null, 500_00L, false))
+                .extracting(Criteria::getCriteriaObject)
+                .containsExactly(
+                        new Document("category", "phones"),
+                        new Document("active", new Document("$in", List.of(true, false))),
+                        new Document("price", new Document("$lte", 500_00L)));
+        assertThat(ProductServiceImpl.scrollCriteria(null, null, null, null, false))
+                .extracting(Criteria::getCriteriaObject)
+                .containsExactly(new Document("active", new Document("$in", List.of(true, false))));
+        assertThat(ProductServiceImpl.scrollCriteria(null, null, null, null, true))
+                .extracting(Criteria::getCriteriaObject)
+                .containsExactly(new Document("active", true));
+    }
+
+    @Test
+    void scrollCriteria_ShouldMatchNameLikeSearch_AfterIndexedFilters() {
+        Document name = ProductServiceImpl.scrollCriteria(" a.b ", "phones", null, null, true).get(2).getCriteriaObject();
+
+        assertThat(ProductServiceImpl.searchCriteria(" a.b ", null, null, null, false).getCriteriaObject().toJson())
+                .isEqualTo(new Document("$and", List.of(name)).toJson());
+        Pattern pattern = (Pattern) name.get("name");
+        assertThat(pattern.flags() & Pattern.CASE_INSENSITIVE).isNotZero();
+        assertThat(pattern.matcher("Чехол A.B для смартфона").find()).isTrue();
+        assertThat(pattern.matcher("Чехол AxB").find()).isFalse();
+        assertThat(ProductServiceImpl.scrollCriteria("  ", "phones", null, null, true)).hasSize(2);
+    }
+
+    @Test
+    void seekCriteria_ShouldBreakTiesById_InSortDirection() {
+        ObjectId id = new ObjectId("665f1c2e8a3b4d2f9c0e1a7b");
+
+        Document ascending = ProductServiceImpl.seekCriteria(
+                new ProductCursor(ProductSort.PRICE_ASC, 100L, id.toHexString())).getCriteriaObject();
+        Document descending = ProductServiceImpl.seekCriteria(
+                new ProductCursor(ProductSort.NAME_DESC, "Смартфон", id.toHexString())).getCriteriaObject();
+
+        assertThat(ascending).isEqualTo(new Document("$or", List.of(
+                new Document("price", new Document("$gt", 100L)),
+                new Document("$and", List.of(
+                        new Document("price", 100L),
+                        new Document("_id", new Document("$gt", id)))))));
+        assertThat(descending).isEqualTo(new Document("$or", List.of(
+                new Document("name", new Document("$lt", "Смартфон")),
+                new Document("$and", List.of(
+                        new Document("name", "Смартфон"),
+                        new Document("_id", new Document("$lt", id)))))));
+    }
+
+    @Test
+    void seekCriteria_ShouldCompareOnlyId_WhenSortedById() {
+        ObjectId id = new ObjectId("665f1c2e8a3b4d2f9c0e1a7b");
+
+        Document criteria = ProductServiceImpl.seekCriteria(
+                new ProductCursor(ProductSort.ID_ASC, id.toHexString(), id.toHexString())).getCriteriaObject();
+
+        assertThat(criteria).isEqualTo(new Document("_id", new Document("$gt", id)));
+    }
+
+    @Test
+    void viewQuery_ShouldMapFilterAndSort_AndProjectLegacyPrice() {
+        Query query = new Query(ProductServiceImpl.searchCriteria(null, null, 100_00L, null, true))
+                .with(PageRequest.of(2, 20, Sort.by(Sort.Direction.DESC, "price")));
+
+        Query mapped = ProductServiceImpl.viewQuery(query, EnumSet.of(ProductField.NAME, ProductField.PRICE), converter());
+
+        assertThat(mapped.getQueryObject()).isEqualTo(new Document("$and", List.of(
+                new Document("active", true),
+                new Document("priceMinor", new Document("$gte", 100_00L)))));
+        assertThat(mapped.getSortObject()).isEqualTo(new Document("priceMinor", -1));
+        assertThat(mapped.getFieldsObject()).isEqualTo(new Document("_id", 0)
+                .append("name", 1).append("priceMinor", 1).append("currency", 1).append("price", 1));
+        assertThat(mapped.getSkip()).isEqualTo(40);
+        assertThat(mapped.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void priceBuckets_ShouldGroupByLegacyPriceFirst_AndKeepUnpricedInDefaultBucket() {
+        MappingMongoConverter converter = converter();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.facet(ProductServiceImpl.priceBuckets(new long[] {100_00})).as("prices"));
+
+        Document bucket = aggregation.toPipeline(new TypeBasedAggregationOperationContext(
+                        Product.class, converter.getMappingContext(), new QueryMapper(converter)))
+                .get(0).get("$facet", Document.class).getList("prices", Document.class).get(0)
+                .get("$bucket", Document.class);
+
+        assertThat(bucket.get("groupBy", Document.class).getList("$cond", Object.class))
+                .startsWith(new Document("$isNumber", "$price"))
+                .endsWith("$priceMinor");
+        assertThat(bucket.getList("boundaries", Object.class))
+                .containsExactly(Double.NEGATIVE_INFINITY, 100_00L, Double.POSITIVE_INFINITY);
+        assertThat(bucket.get("default")).isEqualTo(ProductServiceImpl.NO_PRICE_BUCKET);
+    }
+
+    @Test
+    void update_ShouldReplaceLegacyPrice_WrittenByPreviousVersion() {
+        ObjectId id = new ObjectId("665f1c2e8a3b4d2f9c0e1a7b");
+        // Экземпляр прежней версии записал цену в рублях в уже переведённый документ.
+        Document stored = new Document("_id", id)
+                .append("name", "Смартфон Alfa")
+                .append("priceMinor", 300_00L)
+                .append("price", 249.99)
+                .append("category", "Электроника")
+                .append("active", true);
+        assertThat(ProductMapper.priceMinor(stored)).isEqualTo(249_99L);
+
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter());
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("products")))
+                .thenAnswer(invocation -> Mono.just(modify(stored, invocation.getArgument(1))));
+        ProductCache cache = new ProductCache(new SimpleMeterRegistry(), 1 << 20, Duration.ofMinutes(10));
+        ProductSearchIndex searchIndex = new ProductSearchIndex(2);
+        ProductSuggester suggester = new ProductSuggester(10, Duration.ofHours(1), 1024);
+        ProductServiceImpl service = new ProductServiceImpl(mock(ProductRepository.class), mongoTemplate,
+                searchIndex, suggester, cache, new ProductReadModels(searchIndex, suggester, cache));
+
+        ProductDto change = new ProductDto();
+        change.setName("Смартфон Alfa");
+        change.setPrice(new BigDecimal("350.00"));
+        change.setCategory("Электроника");
+        change.setActive(true);
+        ProductDto updated = service.update(id.toHexString(), change).block();
+
+        assertThat(stored).doesNotContainKey("price");
+        assertThat(ProductMapper.priceMinor(stored)).isEqualTo(350_00L);
+        assertThat(updated.getPrice()).isEqualByComparingTo("350.00");
+        assertThat(service.findById(id.toHexString()).block().getPrice()).isEqualByComparingTo("350.00");
+    }
+
+    /**
+     * Применяет {@code $set} и {@code $unset} к документу, как это сделал бы сервер.
+     */
+    private static Document modify(Document document, UpdateDefinition update) {
+        Document operations = update.getUpdateObject();
+        document.putAll(operations.get("$set", Document.class));
+        operations.get("$unset", Document.class).keySet().forEach(document::remove);
+        return document;
+    }
+
+    private static MappingMongoConverter converter() {
+        return new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Document> filters(Document criteria) {
+        return (List<Document>) criteria.get("$and");
+    }
+}
\ No newline at end of file
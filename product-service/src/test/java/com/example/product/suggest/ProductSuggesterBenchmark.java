@@ -0,0 +1,102 @@
+package com.example.product.suggest;
+
+import com.example.product.entity.Product;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка подсказок {@link ProductSuggester} на каталоге из {@value #PRODUCTS} товаров.
+ * <p>
+ * Режим {@link Mode#SampleTime} даёт распределение задержки, включая p99 и p99.9.
+ * Префиксы имитируют набор в строке поиска: от одного символа до почти полного названия.
+ * Параметр {@code delta} — число изменений, накопленных с последней перестройки дерева.
+ * </p>
+ * <p>
+ * Запуск: {@code mvn -pl product-service test-compile}, затем {@link #main(String[])} с test-classpath модуля.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSuggesterBenchmark {
+
+    static final int PRODUCTS = 1_000_000;
+    static final List<String> TYPES = List.of("Смартфон", "Ноутбук", "Наушники", "Кофеварка", "Пылесос",
+        "Кроссовки", "Куртка", "Рюкзак", "Монитор", "Планшет", "Чайник", "Футболка");
+    static final List<String> BRANDS = List.of("Alfa", "Nova", "Orion", "Vega", "Zenit", "Polar", "Sigma", "Terra");
+    static final List<String> PREFIXES = List.of("с", "см", "смар", "смартфон n", "смартфон nova x12",
+        "no", "nova", "x1", "x123", "пыл", "пылесос z", "к", "ку", "кур");
+
+    @Param({"0", "1000"})
+    int delta;
+
+    ProductSuggester suggester;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        suggester = new ProductSuggester(10, Duration.ofHours(1), 1024);
+        SplittableRandom random = new SplittableRandom(42);
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(product(random));
+        }
+        suggester.load(products);
+        suggester.rebuild();
+        for (int i = 0; i < delta; i++) {
+            suggester.upsert(product(random));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        suggester.destroy();
+    }
+
+    @Benchmark
+    public Object suggest() {
+        return suggester.suggest(PREFIXES.get(ThreadLocalRandom.current().nextInt(PREFIXES.size())), 10);
+    }
+
+    private static Product product(SplittableRandom random) {
+        Product product = new Product(
+            TYPES.get(random.nextInt(TYPES.size())) + " " + BRANDS.get(random.nextInt(BRANDS.size()))
+                + " X" + random.nextInt(10_000),
+            100,
+            "Электроника");
+        product.setId(new ObjectId().toHexString());
+        product.setPopularity(random.nextInt(1_000_000));
+        product.setActive(true);
+        return product;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(ProductSuggesterBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.example.product.suggest;
+
+import com.example.product.dto.ProductSuggestion;
+import com.example.product.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSuggesterTest {
+
+    ProductSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new ProductSuggester(2, Duration.ofHours(1), 3);
+        suggester.load(List.of(
+            product("1", "Смартфон Alfa X10", 50, true),
+            product("2", "Смартфон Nova", 300, true),
+            product("3", "Чехол для смартфона", 200, true),
+            product("4", "Смарт-часы Vega", 100, true),
+            product("5", "Смартфон Ёлка", 400, false)));
+        suggester.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        suggester.destroy();
+    }
+
+    @Test
+    void suggest_ShouldRankByPopularityAndMatchWordStarts() {
+        assertThat(ids(suggester.suggest("  СМАРТ ", 10))).containsExactly("2", "3");
+        assertThat(ids(suggester.suggest("смартф", 1))).containsExactly("2");
+        assertThat(ids(suggester.suggest("nova", 10))).containsExactly("2");
+        assertThat(ids(suggester.suggest("смарт-", 10))).containsExactly("4");
+        assertThat(suggester.suggest("планшет", 10)).isEmpty();
+        assertThat(suggester.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_ShouldApplyChangesBeforeAndAfterRebuild() {
+        suggester.setActive("5", true);
+        suggester.upsert(product("2", "Смартфон Nova", 10, true));
+        suggester.setActive("3", false);
+
+        List<String> beforeRebuild = ids(suggester.suggest("смарт", 2));
+        suggester.rebuild();
+
+        assertThat(beforeRebuild).containsExactly("5", "4");
+        assertThat(ids(suggester.suggest("смарт", 2))).isEqualTo(beforeRebuild);
+        assertThat(ids(suggester.suggest("елка", 2))).containsExactly("5");
+    }
+
+    @Test
+    void upsert_ShouldRebuildWithoutWaitingForInterval_WhenDeltaExceedsThreshold() throws InterruptedException {
+        for (int i = 6; i <= 9; i++) {
+            suggester.upsert(product(String.valueOf(i), "Смартфон " + i, 1_000 + i, true));
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (suggester.deltaSize() > 0) {
+            assertThat(System.nanoTime()).as("дерево не перестроилось").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        assertThat(ids(suggester.suggest("смартфон", 2))).containsExactly("9", "8");
+    }
+
+    @Test
+    void trie_ShouldKeepTopKForLargeSubtrees() {
+        List<SuggestTrie.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String name = "товар " + i;
+            entries.add(new SuggestTrie.Entry(String.valueOf(i), name, SuggestTrie.normalize(name), i));
+        }
+        SuggestTrie trie = SuggestTrie.build(entries, 3);
+
+        assertThat(trie.lookup("то", 3)).extracting(SuggestTrie.Entry::id).containsExactly("999", "998", "997");
+        assertThat(trie.lookup("5", 3)).extracting(SuggestTrie.Entry::id).containsExactly("599", "598", "597");
+        assertThat(trie.lookup("77", 3)).extracting(SuggestTrie.Entry::id).containsExactly("779", "778", "777");
+        assertThat(trie.lookup("товар 12", 3)).extracting(SuggestTrie.Entry::id).containsExactly("129", "128", "127");
+    }
+
+    private static Product product(String id, String name, long popularity, boolean active) {
+        Product product = new Product(name, 100, "Электроника");
+        product.setId(id);
+        product.setPopularity(popularity);
+        product.setActive(active);
+        return product;
+    }
+
+    private static List<String> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::id).toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.example.product.warmup;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.entity.Product;
+import com.example.product.search.ProductSearchIndexLoader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductWarmupTest {
+
+    SimpleMeterRegistry meterRegistry;
+    ProductCache cache;
+    ReactiveMongoTemplate mongoTemplate;
+    ProductSearchIndexLoader searchIndexLoader;
+    List<Product> hot;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductCache(meterRegistry, 1 << 20, Duration.ofMinutes(10));
+        hot = IntStream.range(0, 6)
+                .mapToObj(i -> product("p" + i, i < 2 ? "Книга " + i : "Смартфон " + i, i < 2 ? "Книги" : "Электроника"))
+                .toList();
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(Flux.fromIterable(hot));
+        searchIndexLoader = mock(ProductSearchIndexLoader.class);
+        when(searchIndexLoader.loaded()).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void requests_ShouldCoverMostFrequentCategoriesAndSampledProducts() {
+        List<ProductWarmup.WarmupRequest> requests = ProductWarmup.requests(hot, 1, 3);
+
+        assertThat(requests).filteredOn(request -> request.uriTemplate().startsWith("/api/products/search")
+                        || request.uriTemplate().startsWith("/api/products/scroll"))
+                .hasSize(3)
+                .allSatisfy(request -> assertThat(request.variables()).startsWith("Электроника"));
+        assertThat(requests).filteredOn(request -> request.uriTemplate().equals("/api/products/{id}"))
+                .extracting(request -> request.variables().get(0))
+                .containsExactly("p0", "p1", "p2");
+        assertThat(requests).filteredOn(request -> request.uriTemplate().startsWith("/api/products/suggest"))
+                .extracting(request -> request.variables().get(0))
+                .containsExactly("кни", "сма");
+    }
+
+    @Test
+    void shouldHoldReadinessUntilRoundsCompleteAndReportMetrics() throws InterruptedException {
+        Queue<String> paths = new ConcurrentLinkedQueue<>();
+        ProductWarmup warmup = warmup(Duration.ofSeconds(10));
+
+        assertThat(warmup.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        warmup.start(client(request -> {
+            paths.add(request.url().getRawPath());
+            return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        }), System.nanoTime());
+
+        awaitReady(warmup);
+        assertThat(warmup.health().getDetails()).containsEntry("outcome", "completed").containsEntry("products", 6);
+        assertThat(cache.get("p5", id -> Mono.empty()).block()).isNotNull();
+        assertThat(paths).hasSize(2 * ProductWarmup.requests(hot, 20, 200).size());
+        assertThat(meterRegistry.get("product.warmup.requests").tag("outcome", "success").counter().count())
+                .isEqualTo(paths.size());
+        assertThat(meterRegistry.get("product.warmup.duration").tag("outcome", "completed").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("product.warmup.speedup").gauge().value()).isPositive();
+    }
+
+    @Test
+    void shouldBecomeReadyWhenBudgetIsExceeded() throws InterruptedException {
+        ProductWarmup warmup = warmup(Duration.ofMillis(200));
+
+        warmup.start(client(request -> Mono.never()), System.nanoTime());
+
+        awaitReady(warmup);
+        assertThat(warmup.health().getDetails()).containsEntry("outcome", "budget_exceeded");
+        assertThat(meterRegistry.get("product.warmup.duration").tag("outcome", "budget_exceeded").timer().count()).isEqualTo(1);
+    }
+
+    private ProductWarmup warmup(Duration budget) {
+        return new ProductWarmup(mongoTemplate, searchIndexLoader, cache, WebClient.builder(), meterRegistry,
+                true, budget, 100, 20, 200, 2, 2);
+    }
+
+    private static WebClient client(ExchangeFunction exchange) {
+        return WebClient.builder().baseUrl("http://localhost").exchangeFunction(exchange).build();
+    }
+
+    private static void awaitReady(ProductWarmup warmup) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!warmup.health().getStatus().equals(Status.UP)) {
+            assertThat(System.nanoTime()).as("прогрев не завершился").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static Product product(String id, String name, String category) {
+        Product product = new Product(name, 10_000, category);
+        product.setId(id);
+        product.setActive(true);
+        return product;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.example.routing;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Менеджер транзакций, направляющий транзакции {@code @Transactional(readOnly = true)} на реплики.
+ * <p>
+ * Соединение для транзакции берётся внутри {@link #doBegin}, ещё до того как признак
+ * read-only становится доступен через {@link TransactionSynchronizationManager}.
+ * Поэтому признак переносится в реактивный контекст получения соединения явно.
+ * </p>
+ */
+public class ReadOnlyRoutingTransactionManager extends R2dbcTransactionManager {
+
+    public ReadOnlyRoutingTransactionManager(ConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    @Override
+    protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager,
+                                 Object transaction,
+                                 TransactionDefinition definition) {
+        Mono<Void> begin = super.doBegin(synchronizationManager, transaction, definition);
+        return definition.isReadOnly() ? begin.contextWrite(ReadRoute::markReadOnly) : begin;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.example.routing;
+
+import lombok.experimental.UtilityClass;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Пометки реактивного контекста, по которым {@link ReadWriteRoutingConnectionFactory}
+ * выбирает между primary и репликами.
+ * <p>
+ * По умолчанию все операции идут на primary. Запрос, обёрнутый в {@code readOnly(...)},
+ * может быть выполнен на реплике. Если передан ключ согласованности (например, id или email пользователя)
+ * и по этому ключу недавно была запись, чтение всё равно уйдёт на primary —
+ * так пользователь сразу видит свои изменения, несмотря на отставание реплик.
+ * </p>
+ * <p>
+ * Для транзакций ту же пометку ставит {@link ReadOnlyRoutingTransactionManager}
+ * по атрибуту {@code @Transactional(readOnly = true)}.
+ * </p>
+ */
+@UtilityClass
+public class ReadRoute {
+
+    static final String READ_ONLY = ReadRoute.class.getName() + ".READ_ONLY";
+    static final String CONSISTENCY_KEY = ReadRoute.class.getName() + ".CONSISTENCY_KEY";
+
+    /**
+     * Разрешает выполнить запрос на реплике.
+     */
+    public static <T> Mono<T> readOnly(Mono<T> query) {
+        return query.contextWrite(ReadRoute::markReadOnly);
+    }
+
+    /**
+     * Разрешает выполнить запрос на реплике, если по ключу не было недавней записи.
+     */
+    public static <T> Mono<T> readOnly(Mono<T> query, String consistencyKey) {
+        return query.contextWrite(context -> markReadOnly(context, consistencyKey));
+    }
+
+    /**
+     * Разрешает выполнить запрос на реплике.
+     */
+    public static <T> Flux<T> readOnly(Flux<T> query) {
+        return query.contextWrite(ReadRoute::markReadOnly);
+    }
+
+    /**
+     * Разрешает выполнить запрос на реплике, если по ключу не было недавней записи.
+     */
+    public static <T> Flux<T> readOnly(Flux<T> query, String consistencyKey) {
+        return query.contextWrite(context -> markReadOnly(context, consistencyKey));
+    }
+
+    static Context markReadOnly(Context context) {
+        return context.put(READ_ONLY, Boolean.TRUE);
+    }
+
+    static Context markReadOnly(Context context, String consistencyKey) {
+        Context readOnly = markReadOnly(context);
+        return consistencyKey == null ? readOnly : readOnly.put(CONSISTENCY_KEY, consistencyKey);
+    }
+
+    static boolean isReadOnly(ContextView context) {
+        return context.getOrDefault(READ_ONLY, Boolean.FALSE);
+    }
+}
\ No newline at end of file
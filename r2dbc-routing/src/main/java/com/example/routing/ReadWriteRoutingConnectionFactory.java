@@ -0,0 +1,147 @@
+package com.example.routing;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ValidationDepth;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Фабрика соединений R2DBC, распределяющая чтения по репликам PostgreSQL.
+ * <p>
+ * Записи и все операции без пометки {@link ReadRoute} выполняются на primary.
+ * Помеченные чтения распределяются по здоровым репликам по кругу; чтения по ключу,
+ * который недавно записывался ({@link ReadYourWritesTracker}), остаются на primary.
+ * </p>
+ * <p>
+ * Реплика, к которой не удалось подключиться, исключается из ротации, а запрос
+ * повторяется на primary. Периодическая проверка {@link ValidationDepth#REMOTE}
+ * возвращает реплику в ротацию, когда она снова отвечает.
+ * </p>
+ * <p>
+ * Без настроенных реплик фабрика прозрачно работает только с primary.
+ * </p>
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReadWriteRoutingConnectionFactory implements ConnectionFactory, InitializingBean, DisposableBean {
+
+    ConnectionPool primary;
+    List<Replica> replicas;
+    ReadYourWritesTracker readYourWritesTracker;
+    Duration healthCheckInterval;
+    AtomicInteger nextReplica = new AtomicInteger();
+
+    Disposable.Swap healthCheck = Disposables.swap();
+
+    public ReadWriteRoutingConnectionFactory(ConnectionPool primary,
+                                             List<ConnectionPool> replicaPools,
+                                             ReadYourWritesTracker readYourWritesTracker,
+                                             Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = IntStream.range(0, replicaPools.size())
+            .mapToObj(i -> new Replica("replica-" + i, replicaPools.get(i), new AtomicBoolean(true)))
+            .toList();
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            Replica replica = selectReplica(context);
+            if (replica == null) {
+                return primary.create();
+            }
+            return replica.pool().create()
+                .onErrorResume(ex -> {
+                    markDown(replica, ex);
+                    return primary.create();
+                });
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        healthCheck.update(Flux.interval(healthCheckInterval)
+            .concatMap(tick -> Flux.fromIterable(replicas).flatMap(this::checkHealth))
+            .subscribe());
+    }
+
+    @Override
+    public void destroy() {
+        healthCheck.dispose();
+        replicas.forEach(replica -> replica.pool().dispose());
+        primary.dispose();
+    }
+
+    private Replica selectReplica(ContextView context) {
+        if (replicas.isEmpty() || !ReadRoute.isReadOnly(context)) {
+            return null;
+        }
+        String consistencyKey = context.getOrDefault(ReadRoute.CONSISTENCY_KEY, null);
+        if (consistencyKey != null && readYourWritesTracker.isRecentlyWritten(consistencyKey)) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica candidate = replicas.get((start + i) % replicas.size());
+            if (candidate.healthy().get()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Mono<Void> checkHealth(Replica replica) {
+        return Mono.usingWhen(replica.pool().create(),
+                connection -> Mono.from(connection.validate(ValidationDepth.REMOTE)),
+                Connection::close)
+            .timeout(healthCheckInterval)
+            .onErrorResume(ex -> {
+                markDown(replica, ex);
+                return Mono.just(false);
+            })
+            .doOnNext(valid -> {
+                if (!valid) {
+                    markDown(replica, null);
+                } else if (replica.healthy().compareAndSet(false, true)) {
+                    log.info("R2DBC replica {} is back in rotation", replica.name());
+                }
+            })
+            .then();
+    }
+
+    private void markDown(Replica replica, Throwable cause) {
+        if (replica.healthy().compareAndSet(true, false)) {
+            log.warn("R2DBC replica {} removed from rotation, reads fall back to primary", replica.name(), cause);
+        }
+    }
+
+    private record Replica(String name, ConnectionPool pool, AtomicBoolean healthy) {
+    }
+}
\ No newline at end of file
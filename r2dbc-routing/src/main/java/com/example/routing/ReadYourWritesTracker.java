@@ -0,0 +1,61 @@
+package com.example.routing;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Помнит ключи, по которым недавно была запись, чтобы чтения по ним шли на primary.
+ * <p>
+ * Окно должно покрывать типичное отставание реплик. Таблица ограничена по размеру:
+ * при переполнении из неё удаляются ключи, окно которых уже истекло.
+ * </p>
+ * <p>
+ * Журнал хранится в памяти экземпляра и не разделяется между репликами сервиса. Чтение «своей» записи
+ * защищено, только пока запросы клиента попадают на тот же экземпляр; чем это грозит конкретному сервису,
+ * описано в его конфигурации маршрутизации.
+ * </p>
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReadYourWritesTracker {
+
+    static final int MAX_TRACKED_KEYS = 100_000;
+
+    Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    long windowMillis;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    /**
+     * Отмечает запись по ключу после успешного завершения операции.
+     *
+     * @param consistencyKey ключ согласованности
+     * @param write          операция записи
+     * @return та же операция
+     */
+    public <T> Mono<T> tracked(String consistencyKey, Mono<T> write) {
+        return write.doOnSuccess(ignored -> recordWrite(consistencyKey));
+    }
+
+    public void recordWrite(String consistencyKey) {
+        if (windowMillis <= 0 || consistencyKey == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (lastWrites.size() >= MAX_TRACKED_KEYS) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt > windowMillis);
+        }
+        lastWrites.put(consistencyKey, now);
+    }
+
+    public boolean isRecentlyWritten(String consistencyKey) {
+        Long writtenAt = lastWrites.get(consistencyKey);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt <= windowMillis;
+    }
+}
\ No newline at end of file
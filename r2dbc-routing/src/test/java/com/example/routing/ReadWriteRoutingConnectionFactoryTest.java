@@ -0,0 +1,125 @@
+package com.example.routing;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingConnectionFactoryTest {
+
+    Connection primaryConnection = connection();
+    Connection firstReplicaConnection = connection();
+    Connection secondReplicaConnection = connection();
+
+    ConnectionPool primary = mock(ConnectionPool.class);
+    ConnectionPool firstReplica = mock(ConnectionPool.class);
+    ConnectionPool secondReplica = mock(ConnectionPool.class);
+
+    ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+    ReadWriteRoutingConnectionFactory factory =
+        new ReadWriteRoutingConnectionFactory(primary, List.of(firstReplica, secondReplica), tracker, Duration.ofHours(1));
+
+    @BeforeEach
+    void setUp() {
+        when(primary.create()).thenReturn(Mono.just(primaryConnection));
+        when(firstReplica.create()).thenReturn(Mono.just(firstReplicaConnection));
+        when(secondReplica.create()).thenReturn(Mono.just(secondReplicaConnection));
+    }
+
+    @Test
+    void create_ShouldUsePrimaryUnlessReadOnly() {
+        assertThat(factory.create().block()).isSameAs(primaryConnection);
+        assertThat(ReadRoute.readOnly(factory.create()).block()).isIn(firstReplicaConnection, secondReplicaConnection);
+    }
+
+    @Test
+    void create_ShouldRotateReadsAcrossReplicas() {
+        Connection first = ReadRoute.readOnly(factory.create()).block();
+        Connection second = ReadRoute.readOnly(factory.create()).block();
+        Connection third = ReadRoute.readOnly(factory.create()).block();
+
+        assertThat(List.of(first, second)).containsExactlyInAnyOrder(firstReplicaConnection, secondReplicaConnection);
+        assertThat(third).isSameAs(first);
+    }
+
+    @Test
+    void create_ShouldReadRecentlyWrittenKeyFromPrimary() {
+        tracker.recordWrite("42");
+
+        assertThat(ReadRoute.readOnly(factory.create(), "42").block()).isSameAs(primaryConnection);
+        assertThat(ReadRoute.readOnly(factory.create(), "43").block())
+            .isIn(firstReplicaConnection, secondReplicaConnection);
+    }
+
+    @Test
+    void create_ShouldFallBackToPrimaryAndDropFailedReplicaFromRotation() {
+        when(firstReplica.create()).thenReturn(Mono.error(new IllegalStateException("connection refused")));
+        when(secondReplica.create()).thenReturn(Mono.error(new IllegalStateException("connection refused")));
+
+        assertThat(ReadRoute.readOnly(factory.create()).block()).isSameAs(primaryConnection);
+        assertThat(ReadRoute.readOnly(factory.create()).block()).isSameAs(primaryConnection);
+        assertThat(ReadRoute.readOnly(factory.create()).block()).isSameAs(primaryConnection);
+
+        // Обе реплики исключены после первой ошибки и больше не опрашиваются до проверки здоровья.
+        verify(firstReplica, times(1)).create();
+        verify(secondReplica, times(1)).create();
+    }
+
+    @Test
+    void create_ShouldUsePrimaryOnlyWithoutReplicas() {
+        ReadWriteRoutingConnectionFactory primaryOnly =
+            new ReadWriteRoutingConnectionFactory(primary, List.of(), tracker, Duration.ofHours(1));
+
+        assertThat(ReadRoute.readOnly(primaryOnly.create()).block()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void transactionManager_ShouldRouteReadOnlyTransactionsToReplicas() {
+        ReadOnlyRoutingTransactionManager transactionManager = new ReadOnlyRoutingTransactionManager(factory);
+        DefaultTransactionDefinition readOnly = new DefaultTransactionDefinition();
+        readOnly.setReadOnly(true);
+
+        TransactionalOperator.create(transactionManager).transactional(Mono.just(1)).block();
+        verify(primary).create();
+        verify(firstReplica, never()).create();
+        verify(secondReplica, never()).create();
+
+        TransactionalOperator.create(transactionManager, readOnly).transactional(Mono.just(1)).block();
+        verify(primary).create();
+        verify(firstReplica).create();
+    }
+
+    @Test
+    void tracker_ShouldForgetWritesAfterWindow() throws InterruptedException {
+        ReadYourWritesTracker shortWindow = new ReadYourWritesTracker(Duration.ofMillis(50));
+        shortWindow.recordWrite("42");
+
+        assertThat(shortWindow.isRecentlyWritten("42")).isTrue();
+        assertThat(shortWindow.isRecentlyWritten("43")).isFalse();
+        Thread.sleep(100);
+        assertThat(shortWindow.isRecentlyWritten("42")).isFalse();
+    }
+
+    /**
+     * Соединение, все операции которого сразу завершаются.
+     */
+    private static Connection connection() {
+        return mock(Connection.class, invocation -> Publisher.class.isAssignableFrom(invocation.getMethod().getReturnType())
+            ? Mono.empty()
+            : null);
+    }
+}
\ No newline at end of file
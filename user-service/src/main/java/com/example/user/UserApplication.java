@@ -4,9 +4,11 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ImportAutoConfiguration(LiquibaseAutoConfiguration.class)
+@EnableScheduling
 public class UserApplication {
     public static void main(String[] args) {
         SpringApplication.run(UserApplication.class, args);
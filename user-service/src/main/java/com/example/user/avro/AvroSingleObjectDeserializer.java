@@ -0,0 +1,66 @@
+package com.example.user.avro;
+
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+/**
+ * Десериализатор Kafka для значений, записанных {@link AvroSingleObjectSerializer}.
+ * <p>
+ * Схема писателя определяется по fingerprint'у из заголовка значения через {@link ClasspathSchemaStore}.
+ * Значения в формате Confluent (первый байт {@code 0x00}), записанные до перехода на этот кодек,
+ * передаются {@link KafkaAvroDeserializer}, если задан {@code schema.registry.url}.
+ * </p>
+ */
+public class AvroSingleObjectDeserializer implements Deserializer<Object> {
+
+    static final byte CONFLUENT_MAGIC_BYTE = 0x00;
+    static final int FINGERPRINT_OFFSET = 2;
+    static final int HEADER_LENGTH = 10;
+
+    private ClasspathSchemaStore schemaStore;
+    private KafkaAvroDeserializer confluentDeserializer;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        schemaStore = ClasspathSchemaStore.fromConfigs(configs);
+        Object registryUrl = configs.get(ClasspathSchemaStore.REGISTRY_URL_CONFIG);
+        if (registryUrl != null && !registryUrl.toString().isBlank()) {
+            confluentDeserializer = new KafkaAvroDeserializer();
+            confluentDeserializer.configure(configs, isKey);
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length >= HEADER_LENGTH && data[0] == (byte) 0xC3 && data[1] == (byte) 0x01) {
+            long fingerprint = ByteBuffer.wrap(data, FINGERPRINT_OFFSET, Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .getLong();
+            try {
+                return schemaStore.decoder(topic, fingerprint).decode(data);
+            } catch (IOException ex) {
+                throw new SerializationException("Ошибка Avro-десериализации значения из " + topic, ex);
+            }
+        }
+        if (data.length > 0 && data[0] == CONFLUENT_MAGIC_BYTE && confluentDeserializer != null) {
+            return confluentDeserializer.deserialize(topic, data);
+        }
+        throw new SerializationException("Неизвестный формат Avro-значения в " + topic);
+    }
+
+    @Override
+    public void close() {
+        if (confluentDeserializer != null) {
+            confluentDeserializer.close();
+        }
+    }
+}
\ No newline at end of file
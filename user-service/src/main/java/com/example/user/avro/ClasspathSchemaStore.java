@@ -0,0 +1,125 @@
+package com.example.user.avro;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.message.SchemaStore;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш Avro-схем сгенерированных классов для single-object encoding.
+ * <p>
+ * Схемы известных классов ({@link #CLASSES_CONFIG}) индексируются по fingerprint'у
+ * (CRC-64-AVRO канонической формы) при создании, поэтому кодирование и декодирование
+ * не обращаются к Schema Registry. Кодировщики и декодировщики создаются один раз на класс
+ * и переиспользуют буферы между вызовами.
+ * </p>
+ * <p>
+ * Неизвестный fingerprint (событие записано другой версией схемы) при декодировании разрешается
+ * через {@link SchemaRegistryFallback} по subject'у топика, если задан {@link #REGISTRY_URL_CONFIG};
+ * найденная схема используется как схема писателя, а чтение идёт в локальный класс с тем же полным именем.
+ * </p>
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ClasspathSchemaStore implements SchemaStore {
+
+    /**
+     * Сгенерированные Avro-классы: список {@link Class} или имён классов через запятую.
+     */
+    public static final String CLASSES_CONFIG = "avro.codec.classes";
+
+    public static final String REGISTRY_URL_CONFIG = "schema.registry.url";
+
+    Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+    Map<String, BinaryMessageDecoder<SpecificRecord>> decoders = new ConcurrentHashMap<>();
+    Map<Class<?>, BinaryMessageEncoder<SpecificRecord>> encoders = new ConcurrentHashMap<>();
+    SchemaRegistryFallback registryFallback;
+
+    public ClasspathSchemaStore(Collection<Class<? extends SpecificRecord>> classes, SchemaRegistryFallback registryFallback) {
+        this.registryFallback = registryFallback;
+        for (Class<? extends SpecificRecord> type : classes) {
+            SpecificData model = SpecificData.getForClass(type);
+            Schema schema = model.getSchema(type);
+            schemas.put(SchemaNormalization.parsingFingerprint64(schema), schema);
+            decoders.put(schema.getFullName(), new BinaryMessageDecoder<>(model, schema, this));
+            encoders.put(type, new BinaryMessageEncoder<>(model, schema));
+        }
+    }
+
+    /**
+     * Создаёт кэш по настройкам сериализатора или десериализатора Kafka.
+     */
+    public static ClasspathSchemaStore fromConfigs(Map<String, ?> configs) {
+        Object registryUrl = configs.get(REGISTRY_URL_CONFIG);
+        SchemaRegistryFallback fallback = registryUrl == null || registryUrl.toString().isBlank()
+            ? null
+            : new SchemaRegistryFallback(registryUrl.toString());
+        return new ClasspathSchemaStore(classes(configs.get(CLASSES_CONFIG)), fallback);
+    }
+
+    /**
+     * Только уже известные схемы: {@link BinaryMessageDecoder} обращается сюда после {@link #decoder(String, long)},
+     * который при необходимости подгружает схему из Schema Registry.
+     */
+    @Override
+    public Schema findByFingerprint(long fingerprint) {
+        return schemas.get(fingerprint);
+    }
+
+    public BinaryMessageEncoder<SpecificRecord> encoder(Class<?> type) {
+        BinaryMessageEncoder<SpecificRecord> encoder = encoders.get(type);
+        if (encoder == null) {
+            throw new SerializationException("Avro-класс не зарегистрирован в " + CLASSES_CONFIG + ": " + type.getName());
+        }
+        return encoder;
+    }
+
+    /**
+     * @param topic       топик значения, по нему выбирается subject в Schema Registry
+     * @param fingerprint fingerprint схемы писателя из заголовка значения
+     */
+    public BinaryMessageDecoder<SpecificRecord> decoder(String topic, long fingerprint) {
+        Schema schema = schemas.get(fingerprint);
+        if (schema == null && registryFallback != null) {
+            schema = registryFallback.findByFingerprint(topic, fingerprint);
+            if (schema != null) {
+                schemas.put(fingerprint, schema);
+            }
+        }
+        if (schema == null) {
+            throw new SerializationException("Неизвестный fingerprint Avro-схемы: " + Long.toHexString(fingerprint));
+        }
+        BinaryMessageDecoder<SpecificRecord> decoder = decoders.get(schema.getFullName());
+        if (decoder == null) {
+            throw new SerializationException("Нет локального Avro-класса для схемы " + schema.getFullName());
+        }
+        return decoder;
+    }
+
+    private static List<Class<? extends SpecificRecord>> classes(Object value) {
+        if (value == null) {
+            throw new ConfigException(CLASSES_CONFIG, null, "Не заданы Avro-классы");
+        }
+        Collection<?> items = value instanceof Collection<?> collection
+            ? collection
+            : List.of(value.toString().split(","));
+        return items.stream()
+            .map(item -> item instanceof Class<?> type
+                ? type
+                : ClassUtils.resolveClassName(item.toString().trim(), ClasspathSchemaStore.class.getClassLoader()))
+            .<Class<? extends SpecificRecord>>map(type -> type.asSubclass(SpecificRecord.class))
+            .toList();
+    }
+}
\ No newline at end of file
@@ -1,15 +1,30 @@
 package com.example.user.config;
 
+import com.example.auth.event.TokenRevokedEvent;
+import com.example.auth.event.UserCreatedEvent;
+import com.example.user.avro.AvroSingleObjectDeserializer;
+import com.example.user.avro.ClasspathSchemaStore;
+import com.example.user.event.UsersChangedEvent;
+import com.example.user.service.TokenRevocationPublisher;
+import com.example.user.service.UserChangePublisher;
+import com.example.user.snapshot.UserSnapshotBootstrap;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.MicrometerConsumerListener;
 import reactor.kafka.receiver.ReceiverOptions;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 public class KafkaConsumerConfig {
@@ -20,22 +35,65 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.properties.schema.registry.url}")
     String schemaRegistryUrl;
 
+    @Value("${app.kafka.user-events.commit-interval:PT1S}")
+    Duration commitInterval;
+
+    @Value("${app.kafka.user-events.commit-batch-size:100}")
+    int commitBatchSize;
+
+    @Value("${app.kafka.user-events.max-deferred-commits:5000}")
+    int maxDeferredCommits;
+
     @Bean
-    public ReceiverOptions<String, Object> receiverOptions() {
+    public ReceiverOptions<String, Object> receiverOptions(MeterRegistry meterRegistry) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, io.confluent.kafka.serializers.KafkaAvroDeserializer.class);
+        // Ошибка десериализации не должна останавливать консьюмер: запись приходит с value == null
+        // и отправляется в dead-letter топик.
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        // Читает и single-object encoding, и формат Confluent, независимо от app.kafka.avro-codec:
+        // консьюмеры должны понимать оба формата до того, как продюсеры переключатся.
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, AvroSingleObjectDeserializer.class);
+        props.put(ClasspathSchemaStore.CLASSES_CONFIG, List.of(UserCreatedEvent.class, TokenRevokedEvent.class, UsersChangedEvent.class));
         props.put("schema.registry.url", schemaRegistryUrl);
         props.put("specific.avro.reader", true);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "user-service-group");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
 
-        return ReceiverOptions.create(props);
+        // Записи обрабатываются параллельно и подтверждаются не по порядку:
+        // maxDeferredCommits придерживает коммит, пока не подтверждены все предыдущие offset'ы партиции.
+        return ReceiverOptions.<String, Object>create(props)
+            .commitInterval(commitInterval)
+            .commitBatchSize(commitBatchSize)
+            .maxDeferredCommits(maxDeferredCommits)
+            .consumerListener(new MicrometerConsumerListener(meterRegistry));
+    }
+
+    /**
+     * Основной консьюмер {@code user.created}.
+     * Зависит от {@link UserSnapshotBootstrap}: снимок загружается до начала потребления,
+     * и при первом назначении партиций консьюмер переходит к offset'ам снимка.
+     */
+    @Bean
+    @Primary
+    public KafkaReceiver<String, Object> kafkaReceiver(ReceiverOptions<String, Object> options,
+                                                      UserSnapshotBootstrap snapshotBootstrap) {
+        return KafkaReceiver.create(options
+            .addAssignListener(snapshotBootstrap::seekToSnapshot)
+            .subscription(java.util.Collections.singleton("user.created")));
     }
 
+    /**
+     * Консьюмер {@code user.changed} и {@code token.revoked} для сброса near-кэша пользователей.
+     * Группа уникальна для экземпляра, читаются только новые события, offset'ы не важны.
+     */
     @Bean
-    public KafkaReceiver<String, Object> kafkaReceiver(ReceiverOptions<String, Object> options) {
-        return KafkaReceiver.create(options.subscription(java.util.Collections.singleton("user.created")));
+    public KafkaReceiver<String, Object> userCacheInvalidationReceiver(ReceiverOptions<String, Object> options) {
+        return KafkaReceiver.create(options
+            .consumerProperty(ConsumerConfig.GROUP_ID_CONFIG, "user-service-cache-" + UUID.randomUUID())
+            .consumerProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest")
+            .maxDeferredCommits(0)
+            .subscription(List.of(UserChangePublisher.TOPIC, TokenRevocationPublisher.TOPIC)));
     }
 }
\ No newline at end of file
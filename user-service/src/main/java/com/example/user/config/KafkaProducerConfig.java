@@ -0,0 +1,61 @@
+package com.example.user.config;
+
+import com.example.auth.event.TokenRevokedEvent;
+import com.example.auth.event.UserCreatedEvent;
+import com.example.user.avro.AvroSingleObjectSerializer;
+import com.example.user.avro.ClasspathSchemaStore;
+import com.example.user.event.UsersChangedEvent;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Конфигурация реактивного продюсера Kafka с Avro-сериализацией.
+ * Используется для публикации событий об отзыве токенов при смене роли пользователя,
+ * об изменении пользователей в проекции и для перенаправления событий в топики повторов.
+ * <p>
+ * По умолчанию значения кодируются {@code KafkaAvroSerializer} ({@code app.kafka.avro-codec: confluent}).
+ * {@code single-object} включает Avro single-object encoding без обращения к Schema Registry; переключать
+ * его можно только после того, как все консьюмеры этих топиков читают оба формата
+ * ({@code AvroSingleObjectDeserializer}).
+ * </p>
+ */
+@Configuration
+public class KafkaProducerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    String bootstrapServers;
+
+    @Value("${spring.kafka.properties.schema.registry.url}")
+    String schemaRegistryUrl;
+
+    @Value("${app.kafka.avro-codec:confluent}")
+    String avroCodec;
+
+    @Bean
+    public SenderOptions<String, Object> senderOptions() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "confluent".equals(avroCodec)
+            ? io.confluent.kafka.serializers.KafkaAvroSerializer.class
+            : AvroSingleObjectSerializer.class);
+        props.put(ClasspathSchemaStore.CLASSES_CONFIG, List.of(UserCreatedEvent.class, TokenRevokedEvent.class, UsersChangedEvent.class));
+        props.put("schema.registry.url", schemaRegistryUrl);
+
+        return SenderOptions.create(props);
+    }
+
+    @Bean
+    public KafkaSender<String, Object> kafkaSender(SenderOptions<String, Object> options) {
+        return KafkaSender.create(options);
+    }
+}
\ No newline at end of file
@@ -1,34 +1,109 @@
 package com.example.user.controller;
 
+import com.example.routing.ReadYourWritesTracker;
+import com.example.user.dto.BatchGetUsersRequest;
+import com.example.user.dto.BatchGetUsersResponse;
+import com.example.user.dto.UserDto;
 import com.example.user.entity.User;
 import com.example.user.repository.UserRepository;
+import com.example.user.service.TokenRevocationPublisher;
+import com.example.user.service.UserQueryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
 @RequiredArgsConstructor
-@RequestMapping("/api/users")
+@RequestMapping("/api")
 @SecurityRequirement(name = "bearerAuth")
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Tag(name = "Users", description = "Управление пользователями")
 public class UserController {
 
     UserRepository userRepository;
+    TokenRevocationPublisher tokenRevocationPublisher;
+    ReadYourWritesTracker readYourWritesTracker;
+    UserQueryService userQueryService;
 
-    @PatchMapping("/{id}/role")
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Выгрузить всех пользователей",
+        description = "Потоковая выгрузка в NDJSON в порядке id, доступно только администратору",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Поток пользователей, по одному JSON на строку")
+        }
+    )
+    public Flux<UserDto> exportUsers(@RequestParam(required = false) String role) {
+        return userQueryService.exportAll(role);
+    }
+
+    @GetMapping("/users/{id}")
+    @PreAuthorize("hasRole('ADMIN') or #id == principal.claims['userId']")
+    @Operation(
+        summary = "Получить пользователя по id",
+        description = "Доступно администратору и самому пользователю",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Пользователь найден"),
+            @ApiResponse(responseCode = "403", description = "Чужой пользователь"),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+        }
+    )
+    public Mono<ResponseEntity<UserDto>> getById(@PathVariable Long id) {
+        return userQueryService.findById(id)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/users/by-email")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Получить пользователя по email",
+        description = "Доступно только администратору",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Пользователь найден"),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+        }
+    )
+    public Mono<ResponseEntity<UserDto>> getByEmail(@RequestParam String email) {
+        return userQueryService.findByEmail(email)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/users:batchGet")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Получить пользователей по списку id",
+        description = "Отсутствующие в кэше пользователи загружаются одним запросом, доступно только администратору",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Найденные пользователи и ненайденные id"),
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком длинный список id")
+        }
+    )
+    public Mono<BatchGetUsersResponse> batchGet(@Valid @RequestBody BatchGetUsersRequest request) {
+        return userQueryService.findAllById(request.ids());
+    }
+
+    @PatchMapping("/users/{id}/role")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(
         summary = "Изменить роль пользователя",
@@ -53,6 +128,11 @@ public class UserController {
                 return user;
             })
             .flatMap(userRepository::save)
+            .doOnNext(saved -> {
+                readYourWritesTracker.recordWrite(saved.getId().toString());
+                userQueryService.update(UserDto.from(saved));
+            })
+            .flatMap(saved -> tokenRevocationPublisher.revokeUser(saved.getId()).thenReturn(saved))
             .map(ResponseEntity::ok);
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO для пакетного получения пользователей по идентификаторам.
+ */
+@Schema(description = "Запрос на пакетное получение пользователей")
+public record BatchGetUsersRequest(
+
+    @Schema(description = "Идентификаторы пользователей (не более 500)", example = "[1, 2, 42]")
+    @NotEmpty(message = "Список идентификаторов не должен быть пустым")
+    @Size(max = 500, message = "Не более 500 идентификаторов за запрос")
+    List<@NotNull Long> ids
+) {}
\ No newline at end of file
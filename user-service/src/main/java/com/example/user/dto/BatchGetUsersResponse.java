@@ -0,0 +1,19 @@
+package com.example.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO ответа на пакетное получение пользователей.
+ * Найденные пользователи возвращаются в порядке запроса, без повторов.
+ */
+@Schema(description = "Ответ на пакетное получение пользователей")
+public record BatchGetUsersResponse(
+
+    @Schema(description = "Найденные пользователи в порядке запроса")
+    List<UserDto> users,
+
+    @Schema(description = "Идентификаторы, для которых пользователь не найден", example = "[7]")
+    List<Long> missingIds
+) {}
\ No newline at end of file
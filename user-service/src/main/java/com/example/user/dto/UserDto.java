@@ -0,0 +1,25 @@
+package com.example.user.dto;
+
+import com.example.user.entity.User;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO пользователя для чтения другими сервисами.
+ */
+@Schema(description = "Пользователь")
+public record UserDto(
+
+    @Schema(description = "Идентификатор пользователя", example = "42")
+    Long id,
+
+    @Schema(description = "Email пользователя", example = "user@example.com")
+    String email,
+
+    @Schema(description = "Роль пользователя", example = "ROLE_USER")
+    String role
+) {
+
+    public static UserDto from(User user) {
+        return new UserDto(user.getId(), user.getEmail(), user.getRole());
+    }
+}
\ No newline at end of file
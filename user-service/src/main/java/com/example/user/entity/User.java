@@ -11,6 +11,8 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
+import java.time.Instant;
+
 /**
  * Сущность пользователя, хранящаяся в таблице {@code users}.
  * <p>
@@ -32,4 +34,10 @@ public class User {
 
     @Version
     Integer version;
+
+    /**
+     * Время события {@code user.created}, которое последним записано в строку.
+     * Запись более старого события не применяется (см. {@code UserRepositoryCustom#upsertAll}).
+     */
+    Instant eventTime;
 }
\ No newline at end of file
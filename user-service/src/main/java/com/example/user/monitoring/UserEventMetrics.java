@@ -0,0 +1,83 @@
+package com.example.user.monitoring;
+
+import com.example.auth.event.UserCreatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Метрики обработки событий {@code user.created} основным консьюмером.
+ * <ul>
+ *   <li>{@code user.events.processed} — число записанных событий (rate даёт записи в секунду)</li>
+ *   <li>{@code user.events.batch.processing} — время записи пакета в БД</li>
+ *   <li>{@code user.events.record.processing} — время пакета, делённое на число записей в нём:
+ *       средняя стоимость одной записи, одно значение на пакет</li>
+ *   <li>{@code user.events.batch.size} — размер пакета</li>
+ *   <li>{@code user.events.age} — время от создания события в auth-service до записи проекции</li>
+ * </ul>
+ * Отставание по партициям, скорость чтения и задержка коммитов публикуются клиентом Kafka
+ * ({@code kafka.consumer.*}) через {@code MicrometerConsumerListener}.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserEventMetrics {
+
+    Counter processed;
+    Timer batchProcessing;
+    Timer recordProcessing;
+    DistributionSummary batchSize;
+    Timer eventAge;
+
+    public UserEventMetrics(MeterRegistry meterRegistry) {
+        this.processed = Counter.builder("user.events.processed")
+            .description("Записанные в проекцию события user.created")
+            .register(meterRegistry);
+        this.batchProcessing = Timer.builder("user.events.batch.processing")
+            .description("Время записи пакета событий user.created")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.recordProcessing = Timer.builder("user.events.record.processing")
+            .description("Время обработки пакета событий user.created в пересчёте на одно событие")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("user.events.batch.size")
+            .description("Число событий в пакете")
+            .register(meterRegistry);
+        this.eventAge = Timer.builder("user.events.age")
+            .description("Время от создания события до записи проекции")
+            .publishPercentileHistogram()
+            .maximumExpectedValue(Duration.ofHours(1))
+            .register(meterRegistry);
+    }
+
+    /**
+     * Учитывает записанный пакет.
+     *
+     * @param startedNanos момент начала обработки пакета ({@link System#nanoTime()})
+     * @param records      число записей Kafka в пакете
+     * @param written      записанные события (после схлопывания по пользователю)
+     */
+    public void batchWritten(long startedNanos, int records, Collection<UserCreatedEvent> written) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedNanos);
+        batchProcessing.record(elapsed);
+        if (records > 0) {
+            recordProcessing.record(elapsed.dividedBy(records));
+        }
+        batchSize.record(records);
+        processed.increment(records);
+
+        long now = System.currentTimeMillis();
+        for (UserCreatedEvent event : written) {
+            if (event.getTimestamp() != null) {
+                eventAge.record(Duration.ofMillis(Math.max(0, now - event.getTimestamp().toEpochMilli())));
+            }
+        }
+    }
+}
\ No newline at end of file
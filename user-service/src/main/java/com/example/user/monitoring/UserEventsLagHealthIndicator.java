@@ -0,0 +1,62 @@
+package com.example.user.monitoring;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Индикатор отставания основного консьюмера {@code user.created}.
+ * <p>
+ * Отставание берётся из последних fetch-ответов клиента Kafka ({@code currentLag}), без запросов
+ * к брокеру. Если суммарное отставание по назначенным партициям превышает
+ * {@code app.kafka.user-events.lag-threshold}, статус становится {@link #DEGRADED}: экземпляр
+ * работоспособен (HTTP 200), но не успевает, и на это могут реагировать автоскейлинг и алерты.
+ * </p>
+ */
+@Component("userEventsLag")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserEventsLagHealthIndicator implements ReactiveHealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Консьюмер user.created отстаёт");
+
+    KafkaReceiver<String, Object> kafkaReceiver;
+    long lagThreshold;
+
+    public UserEventsLagHealthIndicator(KafkaReceiver<String, Object> kafkaReceiver,
+                                        @Value("${app.kafka.user-events.lag-threshold:10000}") long lagThreshold) {
+        this.kafkaReceiver = kafkaReceiver;
+        this.lagThreshold = lagThreshold;
+    }
+
+    @Override
+    public Mono<Health> health() {
+        return kafkaReceiver.doOnConsumer(consumer -> {
+                Map<String, Long> lagByPartition = new TreeMap<>();
+                for (TopicPartition partition : consumer.assignment()) {
+                    consumer.currentLag(partition).ifPresent(lag -> lagByPartition.put(partition.toString(), lag));
+                }
+                return lagByPartition;
+            })
+            .map(lagByPartition -> {
+                long totalLag = lagByPartition.values().stream().mapToLong(Long::longValue).sum();
+                return Health.status(totalLag > lagThreshold ? DEGRADED : Status.UP)
+                    .withDetail("lag", totalLag)
+                    .withDetail("threshold", lagThreshold)
+                    .withDetail("partitions", lagByPartition)
+                    .build();
+            })
+            .timeout(Duration.ofSeconds(3))
+            .onErrorResume(ex -> Mono.just(Health.unknown().withException(ex).build()));
+    }
+}
\ No newline at end of file
@@ -1,11 +1,36 @@
 package com.example.user.repository;
 
 import com.example.user.entity.User;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface UserRepository extends ReactiveCrudRepository<User, Long> {
+public interface UserRepository extends ReactiveCrudRepository<User, Long>, UserRepositoryCustom {
     Mono<User> findByEmail(String email);
+
+    /**
+     * Находит пользователей по списку идентификаторов одним запросом с параметром-массивом.
+     * Текст запроса не зависит от числа идентификаторов, в отличие от {@code IN (...)}.
+     */
+    @Query("SELECT * FROM users WHERE id = ANY(:ids)")
+    Flux<User> findAllByIds(Long[] ids);
+
+    /**
+     * Страница пользователей после заданного id в порядке первичного ключа (keyset-пагинация).
+     * Каждая страница — короткий запрос по индексу PK, без OFFSET и долгих курсоров.
+     *
+     * @param afterId id последнего пользователя предыдущей страницы ({@code 0} для первой)
+     * @param role    роль для фильтрации или {@code null}
+     * @param limit   размер страницы
+     */
+    @Query("""
+        SELECT * FROM users
+        WHERE id > :afterId AND (CAST(:role AS VARCHAR) IS NULL OR role = :role)
+        ORDER BY id
+        LIMIT :limit
+        """)
+    Flux<User> findPageAfter(long afterId, String role, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.user.repository;
+
+import com.example.user.entity.User;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Операции над проекцией пользователей, которые не выражаются через Spring Data.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Вставляет или обновляет пользователей одним запросом.
+     * <p>
+     * Существующие строки получают новые email и роль, версия увеличивается.
+     * Строка не меняется, если в ней записано более позднее событие, чем переданное:
+     * событие, отложенное на ступень повторов, может прийти после более нового события
+     * того же пользователя. Строки без времени события (до миграции, из снимка) принимают любое.
+     * Идентификаторы в коллекции должны быть уникальны.
+     * </p>
+     *
+     * @param users пользователи с заполненными id, email и ролью
+     * @return число затронутых строк, без пропущенных устаревших
+     */
+    Mono<Long> upsertAll(Collection<User> users);
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.example.user.repository;
+
+import com.example.user.entity.User;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Реализация {@link UserRepositoryCustom} на {@link DatabaseClient}.
+ * <p>
+ * Строки передаются массивами и разворачиваются через {@code unnest}, поэтому текст запроса
+ * не зависит от размера пакета и переиспользует подготовленный statement драйвера.
+ * Время события передаётся в миллисекундах и переводится в {@code timestamptz} в самом запросе.
+ * </p>
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    static final String UPSERT_SQL = """
+        INSERT INTO users (id, email, role, version, event_time)
+        SELECT id, email, role, 0, to_timestamp(event_millis / 1000.0)
+        FROM unnest(:ids::bigint[], :emails::varchar[], :roles::varchar[], :eventMillis::bigint[])
+            AS batch(id, email, role, event_millis)
+        ON CONFLICT (id) DO UPDATE
+            SET email = EXCLUDED.email,
+                role = EXCLUDED.role,
+                version = COALESCE(users.version, 0) + 1,
+                event_time = EXCLUDED.event_time
+            WHERE users.event_time IS NULL
+               OR EXCLUDED.event_time IS NULL
+               OR users.event_time <= EXCLUDED.event_time
+        """;
+
+    DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Long> upsertAll(Collection<User> users) {
+        if (users.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.sql(UPSERT_SQL)
+            .bind("ids", users.stream().map(User::getId).toArray(Long[]::new))
+            .bind("emails", users.stream().map(User::getEmail).toArray(String[]::new))
+            .bind("roles", users.stream().map(User::getRole).toArray(String[]::new))
+            .bind("eventMillis", users.stream()
+                .map(user -> user.getEventTime() != null ? user.getEventTime().toEpochMilli() : null)
+                .toArray(Long[]::new))
+            .fetch()
+            .rowsUpdated();
+    }
+}
\ No newline at end of file
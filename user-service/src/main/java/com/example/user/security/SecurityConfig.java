@@ -2,13 +2,26 @@ package com.example.user.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import reactor.core.publisher.Mono;
 
 /**
  * Настройка безопасности для user-service.
  * Использует OAuth2 Resource Server для проверки JWT, выданных auth-service.
+ * <p>
+ * Выгрузка, поиск по email и пакетное чтение доступны только администратору;
+ * пользователя по id может прочитать администратор или сам пользователь
+ * (проверка в {@link com.example.user.controller.UserController}).
+ * </p>
  */
 @Configuration
 @EnableReactiveMethodSecurity
@@ -20,7 +33,8 @@ public class SecurityConfig {
             .authorizeExchange(auth -> auth
                 .pathMatchers("/actuator/**").permitAll()
                 .pathMatchers("/v3/api-docs/**", "/swagger-ui/**").permitAll()
-                .pathMatchers("/api/users").hasRole("ADMIN")
+                .pathMatchers("/api/users", "/api/users:batchGet").hasRole("ADMIN")
+                .pathMatchers(HttpMethod.GET, "/api/users/by-email").hasRole("ADMIN")
                 .pathMatchers("/api/users/**").authenticated()
                 .anyExchange().denyAll()
             )
@@ -28,8 +42,21 @@ public class SecurityConfig {
             .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
             .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
             .oauth2ResourceServer(oauth2 -> oauth2
-                .jwt(jwt -> {}));
+                .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
 
         return http.build();
     }
+
+    /**
+     * Полномочия берутся из claim {@code roles}, где auth-service передаёт роли уже с префиксом {@code ROLE_}.
+     * По умолчанию Spring читает claim {@code scope}, и проверки {@code hasRole} не проходили бы.
+     */
+    static Converter<Jwt, Mono<AbstractAuthenticationToken>> jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName("roles");
+        authorities.setAuthorityPrefix("");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authorities);
+        return new ReactiveJwtAuthenticationConverterAdapter(converter);
+    }
 }
\ No newline at end of file
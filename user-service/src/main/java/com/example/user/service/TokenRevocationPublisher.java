@@ -0,0 +1,66 @@
+package com.example.user.service;
+
+import com.example.auth.event.TokenRevokedEvent;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Публикует в топик {@code token.revoked} отзыв всех токенов пользователя.
+ * <p>
+ * Access-токен несёт роли в claim {@code roles}, поэтому после смены роли ранее выданные
+ * токены должны перестать приниматься шлюзом, не дожидаясь истечения срока действия.
+ * </p>
+ * <p>
+ * Ошибка публикации возвращается вызывающему, а не только пишется в лог: иначе смена роли
+ * завершилась бы успешно, а шлюз продолжил бы принимать токены со старыми ролями.
+ * </p>
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TokenRevocationPublisher {
+
+    public static final String TOPIC = "token.revoked";
+
+    KafkaSender<String, Object> kafkaSender;
+    Duration accessTokenLifetime;
+
+    public TokenRevocationPublisher(KafkaSender<String, Object> kafkaSender,
+                                    @Value("${app.jwt.access-token-lifetime:PT2H}") Duration accessTokenLifetime) {
+        this.kafkaSender = kafkaSender;
+        this.accessTokenLifetime = accessTokenLifetime;
+    }
+
+    /**
+     * @param userId идентификатор пользователя
+     * @return {@link Mono}, завершающийся после подтверждения записи Kafka,
+     *         или {@link IllegalStateException}, если запись не удалась
+     */
+    public Mono<Void> revokeUser(Long userId) {
+        Instant now = Instant.now();
+        TokenRevokedEvent event = TokenRevokedEvent.newBuilder()
+            .setUserId(userId)
+            .setIssuedBefore(now)
+            .setExpiresAt(now.plus(accessTokenLifetime))
+            .build();
+
+        SenderRecord<String, Object, Long> record = SenderRecord.create(TOPIC, null, null, userId.toString(), event, userId);
+
+        return kafkaSender.send(Mono.just(record))
+            .flatMap(result -> result.exception() == null
+                ? Mono.<Void>empty()
+                : Mono.<Void>error(new IllegalStateException("Не удалось опубликовать отзыв токенов", result.exception())))
+            .doOnError(error -> log.error("Ошибка при отправке отзыва токенов в Kafka: userId={}, причина={}",
+                userId, error.getMessage()))
+            .then();
+    }
+}
\ No newline at end of file
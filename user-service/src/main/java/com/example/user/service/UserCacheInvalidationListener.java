@@ -0,0 +1,60 @@
+package com.example.user.service;
+
+import com.example.auth.event.TokenRevokedEvent;
+import com.example.user.event.UsersChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Сбрасывает near-кэш пользователей по событиям {@code user.changed} и {@code token.revoked}.
+ * <p>
+ * Исходное событие {@code user.created} для этого не годится: его видит и писатель проекции,
+ * и сброс по нему мог бы случиться до upsert'а, после чего промах закэшировал бы старое состояние.
+ * {@code user.changed} публикует писатель ({@link UserChangePublisher}) уже после фиксации записи,
+ * а {@code token.revoked} с userId публикуется после смены роли ({@link TokenRevocationPublisher}).
+ * </p>
+ * <p>
+ * Каждое событие нужно каждому экземпляру, поэтому используется отдельная группа на экземпляр
+ * (см. {@code KafkaConsumerConfig#userCacheInvalidationReceiver}), читающая только новые события.
+ * </p>
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserCacheInvalidationListener {
+
+    KafkaReceiver<String, Object> receiver;
+    UserQueryService userQueryService;
+
+    public UserCacheInvalidationListener(@Qualifier("userCacheInvalidationReceiver") KafkaReceiver<String, Object> receiver,
+                                         UserQueryService userQueryService) {
+        this.receiver = receiver;
+        this.userQueryService = userQueryService;
+    }
+
+    @PostConstruct
+    public void listen() {
+        receiver.receiveAutoAck()
+            .concatMap(Function.identity())
+            .doOnNext(record -> {
+                if (record.value() instanceof UsersChangedEvent event) {
+                    event.getUserIds().forEach(userQueryService::evict);
+                } else if (record.value() instanceof TokenRevokedEvent event && event.getUserId() != null) {
+                    userQueryService.evict(event.getUserId());
+                }
+            })
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                .doBeforeRetry(signal -> log.error("Ошибка в стриме сброса кэша пользователей, переподключение",
+                    signal.failure())))
+            .subscribe();
+    }
+}
\ No newline at end of file
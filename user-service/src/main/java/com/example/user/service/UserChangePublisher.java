@@ -0,0 +1,58 @@
+package com.example.user.service;
+
+import com.example.user.event.UsersChangedEvent;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Публикует в топик {@code user.changed} идентификаторы пользователей, записанных в проекцию.
+ * <p>
+ * Вызывается писателем проекции после того, как upsert зафиксирован, поэтому экземпляр,
+ * сбросивший кэш по этому событию ({@link UserCacheInvalidationListener}), при следующем чтении
+ * гарантированно видит новое состояние. Ошибка публикации не останавливает запись проекции:
+ * она пишется в лог, а устаревшая запись кэша доживает до {@code app.user-cache.ttl}.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserChangePublisher {
+
+    public static final String TOPIC = "user.changed";
+
+    KafkaSender<String, Object> kafkaSender;
+
+    /**
+     * @param userIds идентификаторы записанных пользователей
+     * @return {@link Mono}, завершающийся после ответа Kafka; ошибкой не завершается
+     */
+    public Mono<Void> publish(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Mono.empty();
+        }
+        UsersChangedEvent event = UsersChangedEvent.newBuilder()
+            .setUserIds(List.copyOf(userIds))
+            .setTimestamp(Instant.now())
+            .build();
+
+        return kafkaSender.send(Mono.just(SenderRecord.create(TOPIC, null, null, null, (Object) event, userIds.size())))
+            .flatMap(result -> result.exception() == null ? Mono.<Void>empty() : Mono.<Void>error(result.exception()))
+            .then()
+            .onErrorResume(error -> {
+                log.warn("Не удалось опубликовать изменение {} пользователей, кэш других экземпляров "
+                    + "обновится по TTL: {}", userIds.size(), error.getMessage());
+                return Mono.empty();
+            });
+    }
+}
\ No newline at end of file
@@ -2,18 +2,28 @@ package com.example.user.service;
 
 import com.example.auth.event.UserCreatedEvent;
 import com.example.user.entity.User;
+import com.example.user.monitoring.UserEventMetrics;
 import com.example.user.repository.UserRepository;
 import jakarta.annotation.PostConstruct;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.kafka.receiver.KafkaReceiver;
-import reactor.kafka.receiver.ReceiverOffset;
 import reactor.kafka.receiver.ReceiverRecord;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -22,11 +32,48 @@ public class UserEventHandler {
 
     KafkaReceiver<String, Object> kafkaReceiver;
     UserRepository userRepository;
+    UserEventRetryRouter retryRouter;
+    UserChangePublisher changePublisher;
+    UserEventMetrics metrics;
+
+    @NonFinal
+    @Value("${app.kafka.user-events.concurrency:8}")
+    int concurrency;
+
+    @NonFinal
+    @Value("${app.kafka.user-events.batch-size:500}")
+    int batchSize;
 
+    @NonFinal
+    @Value("${app.kafka.user-events.batch-window:PT0.1S}")
+    Duration batchWindow;
+
+    /**
+     * Запускает обработку событий {@code user.created}.
+     * <p>
+     * Записи распределяются по {@code concurrency} группам по ключу (userId): группы обрабатываются
+     * параллельно, внутри группы — строго по порядку, поэтому события одного пользователя
+     * применяются в порядке поступления. Число групп фиксировано, поэтому все они
+     * одновременно подписаны и {@code groupBy} не может зависнуть.
+     * </p>
+     * <p>
+     * Порядок внутри группы не распространяется на ступени повторов: событие, переданное
+     * в {@link UserEventRetryRouter}, записывается позже следующих событий того же пользователя.
+     * Поэтому запись проверяет время события и не затирает строку более старым событием.
+     * </p>
+     * <p>
+     * Внутри группы записи собираются в пакеты до {@code batch-size} штук или {@code batch-window}
+     * по времени; каждый пакет записывается одним upsert'ом. Offset'ы пакета подтверждаются только
+     * после записи и фиксируются пакетно в фоне (см. {@code KafkaConsumerConfig}).
+     * </p>
+     */
     @PostConstruct
     public void consumeUserEvents() {
         kafkaReceiver.receive()
-            .concatMap(this::processMessage)
+            .groupBy(this::lane)
+            .flatMap(lane -> lane
+                .bufferTimeout(batchSize, batchWindow)
+                .concatMap(this::processBatch), concurrency)
             .subscribe(
                 null,
                 error -> log.error("Неожиданная ошибка в стриме Kafka", error),
@@ -34,37 +81,82 @@ public class UserEventHandler {
             );
     }
 
-    private Mono<Void> processMessage(ReceiverRecord<String, Object> receiverRecord) {
-        ReceiverOffset offset = receiverRecord.receiverOffset();
-
-        return Mono.fromCallable(() -> (UserCreatedEvent) receiverRecord.value())
-            .onErrorMap(ex -> new RuntimeException("Ошибка десериализации UserCreatedEvent", ex))
-            .flatMap(event -> {
-                log.info("Получено событие: userId={}, email={}, role={}",
-                    event.getUserId(), event.getEmail(), event.getRole());
+    private int lane(ReceiverRecord<String, Object> receiverRecord) {
+        Object key = receiverRecord.key() != null ? receiverRecord.key() : receiverRecord.partition();
+        return Math.floorMod(key.hashCode(), concurrency);
+    }
 
-                User user = User.builder()
-                    .id(event.getUserId())
-                    .email(event.getEmail())
-                    .role("ROLE_" + event.getRole().name())
-                    .build();
+    /**
+     * Записывает пакет событий одним запросом.
+     * <p>
+     * Несколько событий одного пользователя в пакете схлопываются в последнее.
+     * Если пакет не записался, пользователи записываются по одному, чтобы отделить
+     * проблемные события: они уходят в топики повторов ({@link UserEventRetryRouter}),
+     * а записи, которые не удалось десериализовать, — сразу в dead-letter топик.
+     * Offset'ы пакета подтверждаются, когда каждое событие записано или передано на повтор.
+     * Метрики пакета учитываются на обоих путях.
+     * </p>
+     * <p>
+     * После записи идентификаторы записанных пользователей публикуются через {@link UserChangePublisher},
+     * чтобы экземпляры сбросили near-кэш уже после фиксации, а не по исходному событию.
+     * </p>
+     */
+    private Mono<Void> processBatch(List<ReceiverRecord<String, Object>> batch) {
+        long started = System.nanoTime();
+        Map<Long, ReceiverRecord<String, Object>> latest = new LinkedHashMap<>();
+        List<ReceiverRecord<String, Object>> undeserializable = new ArrayList<>();
+        for (ReceiverRecord<String, Object> receiverRecord : batch) {
+            if (receiverRecord.value() instanceof UserCreatedEvent event) {
+                latest.remove(event.getUserId());
+                latest.put(event.getUserId(), receiverRecord);
+            } else {
+                undeserializable.add(receiverRecord);
+            }
+        }
+        List<UserCreatedEvent> events = latest.values().stream()
+            .map(receiverRecord -> (UserCreatedEvent) receiverRecord.value())
+            .toList();
+        List<User> users = events.stream().map(UserEventHandler::toUser).toList();
 
-                return userRepository.findById(event.getUserId())
-                    .flatMap(existing -> {
-                        existing.setEmail(user.getEmail());
-                        existing.setRole(user.getRole());
-                        return userRepository.save(existing);
-                    })
-                    .switchIfEmpty(userRepository.save(user))
-                    .doOnSuccess(saved -> log.info(
-                        "Пользователь сохранён: id={}, email={}",
-                        saved.getId(),
-                        saved.getEmail()));
-            })
+        // Запасной путь — только для ошибки пакетной записи: публикация ошибкой не завершается.
+        Mono<Void> write = userRepository.upsertAll(users)
+            .thenReturn(events)
             .onErrorResume(ex -> {
-                log.error("Ошибка при обработке события UserCreatedEvent: {}", ex.getMessage(), ex);
-                return Mono.empty();
+                log.error("Ошибка при сохранении пакета из {} событий UserCreatedEvent, запись по одному: {}",
+                    batch.size(), ex.getMessage());
+                return Flux.fromIterable(latest.values())
+                    .concatMap(this::writeOne)
+                    .collectList();
             })
-            .then(Mono.fromRunnable(offset::acknowledge));
+            .flatMap(written -> {
+                metrics.batchWritten(started, batch.size(), written);
+                log.info("Пакет пользователей сохранён: событий={}, пользователей={}", batch.size(), written.size());
+                return changePublisher.publish(written.stream().map(UserCreatedEvent::getUserId).toList());
+            });
+
+        return Flux.fromIterable(undeserializable)
+            .concatMap(receiverRecord -> retryRouter.deadLetter(receiverRecord,
+                new SerializationException("Не удалось десериализовать UserCreatedEvent")))
+            .then(write)
+            .then(Mono.fromRunnable(() -> batch.forEach(receiverRecord -> receiverRecord.receiverOffset().acknowledge())));
+    }
+
+    /**
+     * Записывает одно событие; при ошибке передаёт его на повтор и завершается пустым.
+     */
+    private Mono<UserCreatedEvent> writeOne(ReceiverRecord<String, Object> receiverRecord) {
+        UserCreatedEvent event = (UserCreatedEvent) receiverRecord.value();
+        return userRepository.upsertAll(List.of(toUser(event)))
+            .thenReturn(event)
+            .onErrorResume(ex -> retryRouter.retry(receiverRecord, ex).then(Mono.empty()));
+    }
+
+    static User toUser(UserCreatedEvent event) {
+        return User.builder()
+            .id(event.getUserId())
+            .email(event.getEmail())
+            .role("ROLE_" + event.getRole().name())
+            .eventTime(event.getTimestamp())
+            .build();
     }
 }
\ No newline at end of file
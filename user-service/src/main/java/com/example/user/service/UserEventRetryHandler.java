@@ -0,0 +1,79 @@
+package com.example.user.service;
+
+import com.example.auth.event.UserCreatedEvent;
+import com.example.user.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Обрабатывает события из топиков отложенных повторов {@code user.created.retry.*}.
+ * <p>
+ * На каждую ступень создаётся отдельный консьюмер. Запись ждёт момента из заголовка
+ * {@link UserEventRetryRouter#NOT_BEFORE_HEADER}; задержка у всех записей ступени одинакова,
+ * поэтому записи созревают в порядке поступления и ожидание головы очереди не задерживает остальные.
+ * Повторная ошибка отправляет запись на следующую ступень или в dead-letter топик.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserEventRetryHandler {
+
+    public static final String GROUP_ID = "user-service-retry";
+
+    ReceiverOptions<String, Object> receiverOptions;
+    UserRepository userRepository;
+    UserEventRetryRouter retryRouter;
+    UserChangePublisher changePublisher;
+
+    @PostConstruct
+    public void consumeRetries() {
+        for (UserEventRetryRouter.RetryTier tier : retryRouter.tiers()) {
+            KafkaReceiver.create(receiverOptions
+                    .consumerProperty(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID)
+                    .subscription(Set.of(tier.topic())))
+                .receive()
+                .concatMap(this::processRetry)
+                .subscribe(
+                    null,
+                    error -> log.error("Неожиданная ошибка в стриме повторов {}", tier.topic(), error),
+                    () -> log.info("Kafka consumer stream {} завершён", tier.topic())
+                );
+        }
+    }
+
+    private Mono<Void> processRetry(ReceiverRecord<String, Object> receiverRecord) {
+        long waitMillis = UserEventRetryRouter.notBefore(receiverRecord) - System.currentTimeMillis();
+
+        return Mono.delay(Duration.ofMillis(Math.max(0, waitMillis)))
+            .then(Mono.defer(() -> process(receiverRecord)))
+            .then(Mono.fromRunnable(receiverRecord.receiverOffset()::acknowledge));
+    }
+
+    private Mono<Void> process(ReceiverRecord<String, Object> receiverRecord) {
+        if (!(receiverRecord.value() instanceof UserCreatedEvent event)) {
+            return retryRouter.deadLetter(receiverRecord,
+                new SerializationException("Не удалось десериализовать UserCreatedEvent"));
+        }
+        return userRepository.upsertAll(List.of(UserEventHandler.toUser(event)))
+            .doOnSuccess(rows -> log.info("Пользователь сохранён после повтора: id={}, попытка={}",
+                event.getUserId(), UserEventRetryRouter.attempt(receiverRecord)))
+            .then(Mono.defer(() -> changePublisher.publish(List.of(event.getUserId()))))
+            .onErrorResume(ex -> retryRouter.retry(receiverRecord, ex));
+    }
+}
\ No newline at end of file
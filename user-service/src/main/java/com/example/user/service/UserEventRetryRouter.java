@@ -0,0 +1,178 @@
+package com.example.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.util.retry.Retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Перенаправляет необработанные события {@code user.created} в топики отложенных повторов
+ * и, после исчерпания попыток, в dead-letter топик.
+ * <p>
+ * Ступени задаются списком задержек {@code app.kafka.user-events.retry.delays} (по умолчанию
+ * {@code 1s,30s,5m}); для каждой ступени используется топик {@code user.created.retry.<задержка>}.
+ * Номер попытки, время, раньше которого запись не обрабатывается, и причина ошибки передаются
+ * в заголовках. Основной консьюмер только публикует запись и идёт дальше, не дожидаясь повтора.
+ * </p>
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserEventRetryRouter {
+
+    public static final String SOURCE_TOPIC = "user.created";
+    public static final String DEAD_LETTER_TOPIC = "user.created.dlt";
+
+    public static final String ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String NOT_BEFORE_HEADER = "x-retry-not-before";
+    public static final String EXCEPTION_HEADER = "x-exception-class";
+    public static final String EXCEPTION_MESSAGE_HEADER = "x-exception-message";
+    public static final String ORIGINAL_TOPIC_HEADER = "x-original-topic";
+    public static final String ORIGINAL_PARTITION_HEADER = "x-original-partition";
+    public static final String ORIGINAL_OFFSET_HEADER = "x-original-offset";
+
+    static final Set<String> ROUTING_HEADERS = Set.of(ATTEMPT_HEADER, NOT_BEFORE_HEADER,
+        EXCEPTION_HEADER, EXCEPTION_MESSAGE_HEADER);
+
+    KafkaSender<String, Object> kafkaSender;
+    MeterRegistry meterRegistry;
+    List<RetryTier> tiers;
+
+    public UserEventRetryRouter(KafkaSender<String, Object> kafkaSender,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.kafka.user-events.retry.delays:1s,30s,5m}") List<String> delays) {
+        this.kafkaSender = kafkaSender;
+        this.meterRegistry = meterRegistry;
+        this.tiers = delays.stream()
+            .map(String::trim)
+            .map(delay -> new RetryTier(SOURCE_TOPIC + ".retry." + delay, DurationStyle.detectAndParse(delay)))
+            .toList();
+    }
+
+    /**
+     * Ступени повторов в порядке возрастания номера попытки.
+     */
+    public List<RetryTier> tiers() {
+        return tiers;
+    }
+
+    /**
+     * Отправляет запись на следующую ступень повтора или в dead-letter топик,
+     * если все ступени пройдены.
+     *
+     * @param record необработанная запись (из основного топика или топика повтора)
+     * @param cause  причина ошибки
+     * @return {@link Mono}, завершающийся после подтверждения записи брокером
+     */
+    public Mono<Void> retry(ConsumerRecord<String, Object> record, Throwable cause) {
+        int attempt = attempt(record);
+        if (attempt >= tiers.size()) {
+            return deadLetter(record, cause);
+        }
+        RetryTier tier = tiers.get(attempt);
+        Headers headers = routingHeaders(record, cause);
+        headers.add(ATTEMPT_HEADER, bytes(attempt + 1));
+        headers.add(NOT_BEFORE_HEADER, bytes(System.currentTimeMillis() + tier.delay().toMillis()));
+
+        log.warn("Событие user.created отправлено на повтор: key={}, попытка={}, топик={}, причина={}",
+            record.key(), attempt + 1, tier.topic(), cause.toString());
+        meterRegistry.counter("user.events.retried", "topic", tier.topic()).increment();
+        return send(tier.topic(), record, headers);
+    }
+
+    /**
+     * Отправляет запись в dead-letter топик без повторов.
+     * Используется для ошибок, которые повтор не исправит (например, ошибка десериализации).
+     */
+    public Mono<Void> deadLetter(ConsumerRecord<String, Object> record, Throwable cause) {
+        Headers headers = routingHeaders(record, cause);
+        headers.add(ATTEMPT_HEADER, bytes(attempt(record)));
+
+        log.error("Событие user.created отправлено в {}: key={}, причина={}",
+            DEAD_LETTER_TOPIC, record.key(), cause.toString());
+        meterRegistry.counter("user.events.dead-lettered", "exception", cause.getClass().getSimpleName()).increment();
+        return send(DEAD_LETTER_TOPIC, record, headers);
+    }
+
+    /**
+     * Номер попытки из заголовка записи; {@code 0} для записи из основного топика.
+     */
+    public static int attempt(ConsumerRecord<String, Object> record) {
+        Header header = record.headers().lastHeader(ATTEMPT_HEADER);
+        return header == null ? 0 : Integer.parseInt(string(header));
+    }
+
+    /**
+     * Момент (epoch millis), раньше которого запись из топика повтора обрабатывать нельзя.
+     */
+    public static long notBefore(ConsumerRecord<String, Object> record) {
+        Header header = record.headers().lastHeader(NOT_BEFORE_HEADER);
+        return header == null ? 0L : Long.parseLong(string(header));
+    }
+
+    private Mono<Void> send(String topic, ConsumerRecord<String, Object> record, Headers headers) {
+        Object value = record.value() instanceof SpecificRecord ? record.value() : null;
+        ProducerRecord<String, Object> producerRecord = new ProducerRecord<>(topic, null, record.key(), value, headers);
+
+        return kafkaSender.send(Mono.just(SenderRecord.create(producerRecord, record.offset())))
+            .next()
+            .flatMap(result -> result.exception() != null ? Mono.error(result.exception()) : Mono.just(result))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                .maxBackoff(Duration.ofSeconds(30))
+                .doBeforeRetry(signal -> log.error("Не удалось отправить событие в {}: {}",
+                    topic, signal.failure().getMessage())))
+            .then();
+    }
+
+    private static Headers routingHeaders(ConsumerRecord<String, Object> record, Throwable cause) {
+        Headers headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!ROUTING_HEADERS.contains(header.key())) {
+                headers.add(header);
+            }
+        }
+        if (headers.lastHeader(ORIGINAL_TOPIC_HEADER) == null) {
+            headers.add(ORIGINAL_TOPIC_HEADER, bytes(record.topic()));
+            headers.add(ORIGINAL_PARTITION_HEADER, bytes(record.partition()));
+            headers.add(ORIGINAL_OFFSET_HEADER, bytes(record.offset()));
+        }
+        headers.add(EXCEPTION_HEADER, bytes(cause.getClass().getName()));
+        headers.add(EXCEPTION_MESSAGE_HEADER, bytes(String.valueOf(cause.getMessage())));
+        return headers;
+    }
+
+    private static byte[] bytes(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(Header header) {
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ступень отложенного повтора.
+     *
+     * @param topic топик ступени
+     * @param delay задержка перед повторной обработкой
+     */
+    public record RetryTier(String topic, Duration delay) {
+    }
+}
\ No newline at end of file
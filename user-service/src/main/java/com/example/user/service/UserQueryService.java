@@ -0,0 +1,172 @@
+package com.example.user.service;
+
+import com.example.routing.ReadRoute;
+import com.example.user.dto.BatchGetUsersResponse;
+import com.example.user.dto.UserDto;
+import com.example.user.entity.User;
+import com.example.user.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Чтение пользователей через ограниченный near-кэш.
+ * <p>
+ * Кэш по id ограничен по памяти ({@code app.user-cache.max-weight-bytes}): вес записи оценивается
+ * по длине строк. Одновременные промахи по одному id объединяются в один запрос к БД,
+ * пакетный промах — в один запрос {@code WHERE id = ANY(:ids)}. Отсутствующие пользователи не кэшируются.
+ * </p>
+ * <p>
+ * Кэш обновляется при смене роли ({@link #update(UserDto)}) и сбрасывается по событиям
+ * {@code user.changed} (запись проекции зафиксирована) и {@code token.revoked} (роль сменена
+ * на другом экземпляре), которые каждый экземпляр читает своей группой
+ * ({@link UserCacheInvalidationListener}). Если событие не опубликовалось, запись устаревает
+ * не позже {@code app.user-cache.ttl}.
+ * </p>
+ * <p>
+ * Индекс email → id хранит только идентификатор и проверяется по email найденного пользователя,
+ * поэтому устаревшая запись индекса не может вернуть чужого пользователя.
+ * </p>
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserQueryService {
+
+    /**
+     * Оценка накладных расходов записи: узел Caffeine, {@link UserDto}, ключ и две строки без содержимого.
+     */
+    static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    UserRepository userRepository;
+    AsyncCache<Long, UserDto> users;
+    Cache<String, Long> idsByEmail;
+    int exportPageSize;
+
+    public UserQueryService(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.users.export.page-size:1000}") int exportPageSize,
+                            @Value("${app.user-cache.max-weight-bytes:33554432}") long maxWeightBytes,
+                            @Value("${app.user-cache.ttl:PT10M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.exportPageSize = exportPageSize;
+        this.users = Caffeine.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .weigher((Long id, UserDto user) -> ENTRY_OVERHEAD_BYTES + user.email().length() + user.role().length())
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+        this.idsByEmail = Caffeine.newBuilder()
+            .maximumWeight(maxWeightBytes / 4)
+            .weigher((String email, Long id) -> ENTRY_OVERHEAD_BYTES / 2 + email.length())
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, users.synchronous(), "users");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users-by-email");
+    }
+
+    public Mono<UserDto> findById(Long id) {
+        return Mono.fromFuture(() -> users.get(id, (key, executor) -> load(key).toFuture()), true);
+    }
+
+    public Mono<UserDto> findByEmail(String email) {
+        Long id = idsByEmail.getIfPresent(email);
+        if (id == null) {
+            return loadByEmail(email);
+        }
+        return findById(id)
+            .filter(user -> user.email().equals(email))
+            .switchIfEmpty(Mono.defer(() -> {
+                idsByEmail.invalidate(email);
+                return loadByEmail(email);
+            }));
+    }
+
+    /**
+     * Находит пользователей по списку id: попадания берутся из кэша, промахи — одним запросом.
+     *
+     * @param ids идентификаторы, возможно с повторами
+     * @return найденные пользователи в порядке запроса и ненайденные id
+     */
+    public Mono<BatchGetUsersResponse> findAllById(List<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        return Mono.fromFuture(() -> users.getAll(distinct, (keys, executor) -> loadAll(keys).toFuture()), true)
+            .map(found -> new BatchGetUsersResponse(
+                distinct.stream().map(found::get).filter(Objects::nonNull).toList(),
+                distinct.stream().filter(id -> !found.containsKey(id)).toList()));
+    }
+
+    /**
+     * Выгружает всех пользователей в порядке id, минуя кэш.
+     * <p>
+     * Таблица читается страницами по {@code app.users.export.page-size} строк по ключу id.
+     * Следующая страница запрашивается только когда подписчик разобрал предыдущую,
+     * поэтому в памяти держится не больше одной страницы независимо от размера таблицы.
+     * </p>
+     *
+     * @param role роль для фильтрации или {@code null}
+     * @return поток пользователей
+     */
+    public Flux<UserDto> exportAll(String role) {
+        return page(0L, role)
+            .expand(page -> page.size() < exportPageSize
+                ? Mono.empty()
+                : page(page.get(page.size() - 1).getId(), role))
+            .concatMapIterable(Function.identity(), 1)
+            .map(UserDto::from);
+    }
+
+    /**
+     * Кладёт в кэш актуальное состояние пользователя после записи на этом экземпляре.
+     */
+    public void update(UserDto user) {
+        users.put(user.id(), CompletableFuture.completedFuture(user));
+        idsByEmail.put(user.email(), user.id());
+    }
+
+    /**
+     * Сбрасывает пользователя из кэша; следующее чтение пойдёт в БД.
+     */
+    public void evict(Long id) {
+        users.synchronous().invalidate(id);
+    }
+
+    private Mono<List<User>> page(long afterId, String role) {
+        return ReadRoute.readOnly(userRepository.findPageAfter(afterId, role, exportPageSize))
+            .collectList();
+    }
+
+    private Mono<UserDto> load(Long id) {
+        return ReadRoute.readOnly(userRepository.findById(id), id.toString())
+            .map(UserDto::from);
+    }
+
+    private Mono<UserDto> loadByEmail(String email) {
+        return ReadRoute.readOnly(userRepository.findByEmail(email))
+            .map(UserDto::from)
+            .doOnNext(this::update);
+    }
+
+    private Mono<Map<Long, UserDto>> loadAll(Set<? extends Long> ids) {
+        return ReadRoute.readOnly(userRepository.findAllByIds(ids.toArray(Long[]::new)))
+            .collectMap(User::getId, UserDto::from);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.example.user.snapshot;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.kafka.common.TopicPartition;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import reactor.kafka.receiver.ReceiverPartition;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Быстрый старт проекции {@code users} из последнего снимка.
+ * <p>
+ * Если после миграций таблица пуста, строки снимка загружаются одним {@code COPY} через JDBC
+ * (пул Liquibase ещё открыт на этапе инициализации), после чего основной консьюмер при первом
+ * назначении партиций переходит к offset'ам снимка вместо чтения топика с начала.
+ * Основной {@code KafkaReceiver} зависит от этого бина, поэтому загрузка всегда завершается
+ * до начала потребления. При ошибке загрузка откатывается и проекция строится, как раньше,
+ * повторным чтением топика.
+ * </p>
+ */
+@Slf4j
+@Component
+@DependsOn("liquibase")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserSnapshotBootstrap {
+
+    static final String COPY_SQL = "COPY users (id, email, role, version) FROM STDIN WITH (FORMAT csv)";
+    static final String RESET_SEQUENCE_SQL =
+        "SELECT setval(pg_get_serial_sequence('users', 'id'), COALESCE(MAX(id), 0) + 1, false) FROM users";
+    static final int COPY_CHUNK_CHARS = 64 * 1024;
+
+    UserSnapshotStore store;
+    DataSource dataSource;
+    boolean enabled;
+    Map<TopicPartition, Long> startOffsets = new ConcurrentHashMap<>();
+
+    public UserSnapshotBootstrap(UserSnapshotStore store,
+                                 DataSource dataSource,
+                                 @Value("${app.snapshot.enabled:true}") boolean enabled) {
+        this.store = store;
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void bootstrap() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Optional<Path> snapshot = store.latest();
+            if (snapshot.isEmpty()) {
+                log.info("Снимков проекции users нет, проекция строится из Kafka");
+                return;
+            }
+            try (Connection connection = dataSource.getConnection()) {
+                if (!isEmpty(connection)) {
+                    log.info("Таблица users не пуста, снимок {} не загружается", snapshot.get());
+                    return;
+                }
+                load(connection, snapshot.get());
+            }
+        } catch (Exception ex) {
+            startOffsets.clear();
+            log.error("Не удалось загрузить снимок проекции users, проекция строится из Kafka: {}",
+                ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Переводит назначенные партиции на offset'ы загруженного снимка.
+     * Срабатывает один раз на партицию: последующие ребалансы продолжают с зафиксированных offset'ов.
+     *
+     * @param partitions назначенные партиции
+     */
+    public void seekToSnapshot(Collection<ReceiverPartition> partitions) {
+        for (ReceiverPartition partition : partitions) {
+            Long offset = startOffsets.remove(partition.topicPartition());
+            if (offset != null) {
+                log.info("Партиция {} начинает с offset'а снимка {}", partition.topicPartition(), offset);
+                partition.seek(offset);
+            }
+        }
+    }
+
+    private void load(Connection connection, Path snapshot) throws Exception {
+        long started = System.currentTimeMillis();
+        connection.setAutoCommit(false);
+        try (DataFileReader<UserSnapshotRow> reader =
+                 new DataFileReader<>(snapshot.toFile(), new SpecificDatumReader<>(UserSnapshotRow.class))) {
+            Map<TopicPartition, Long> offsets =
+                UserSnapshotStore.decodeOffsets(reader.getMetaString(UserSnapshotStore.OFFSETS_METADATA));
+
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            long rows;
+            try {
+                StringBuilder chunk = new StringBuilder(COPY_CHUNK_CHARS + 256);
+                for (UserSnapshotRow row : reader) {
+                    chunk.append(row.getId()).append(',')
+                        .append(csv(row.getEmail())).append(',')
+                        .append(csv(row.getRole())).append(',')
+                        .append(row.getVersion()).append('\n');
+                    if (chunk.length() >= COPY_CHUNK_CHARS) {
+                        write(copyIn, chunk);
+                    }
+                }
+                write(copyIn, chunk);
+                rows = copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(RESET_SEQUENCE_SQL);
+            }
+            connection.commit();
+            startOffsets.putAll(offsets);
+            log.info("Проекция users загружена из снимка {}: строк={}, offsets={}, за {} мс",
+                snapshot, rows, offsets, System.currentTimeMillis() - started);
+        } catch (Exception ex) {
+            connection.rollback();
+            throw ex;
+        }
+    }
+
+    private static boolean isEmpty(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT NOT EXISTS (SELECT 1 FROM users)")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private static String csv(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
\ No newline at end of file
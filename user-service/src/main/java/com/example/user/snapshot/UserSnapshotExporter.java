@@ -0,0 +1,227 @@
+package com.example.user.snapshot;
+
+import com.example.user.service.UserEventRetryHandler;
+import com.example.user.service.UserEventRetryRouter;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.receiver.ReceiverOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Периодически выгружает проекцию {@code users} в снимок {@link UserSnapshotStore}.
+ * <p>
+ * Сначала вычисляются offset'ы снимка, затем читается таблица. Основной консьюмер фиксирует offset
+ * после записи события в БД либо после передачи его в топик повтора ({@link UserEventRetryRouter}) —
+ * во втором случае события в таблице ещё нет. Поэтому к зафиксированным offset'ам группы основного
+ * консьюмера добавляется просмотр топиков повтора: для каждой записи, которую группа повторов ещё
+ * не подтвердила, offset снимка по её исходной партиции опускается до исходного offset'а из заголовка
+ * {@link UserEventRetryRouter#ORIGINAL_OFFSET_HEADER}. Группа повторов подтверждает запись только
+ * после записи в БД или передачи на следующую ступень, а ступени просматриваются после чтения offset'ов,
+ * так что событие, ещё не записанное в таблицу, в выборку попадает. Записи из dead-letter топика
+ * не учитываются: в проекции их нет и на исходном экземпляре.
+ * </p>
+ * <p>
+ * В итоге таблица на момент выгрузки содержит как минимум все события до offset'ов снимка.
+ * Повторное чтение событий после них при восстановлении безопасно: запись проекции идемпотентна (upsert).
+ * Таблица читается с primary, а не с реплики, иначе это свойство не гарантируется.
+ * </p>
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserSnapshotExporter {
+
+    static final String SOURCE_TOPIC = "user.created";
+    static final String SELECT_SQL = "SELECT id, email, role, COALESCE(version, 0) AS version FROM users ORDER BY id";
+
+    static final Duration KAFKA_TIMEOUT = Duration.ofSeconds(30);
+
+    DatabaseClient databaseClient;
+    ReceiverOptions<String, Object> receiverOptions;
+    UserEventRetryRouter retryRouter;
+    UserSnapshotStore store;
+    boolean enabled;
+
+    public UserSnapshotExporter(DatabaseClient databaseClient,
+                                ReceiverOptions<String, Object> receiverOptions,
+                                UserEventRetryRouter retryRouter,
+                                UserSnapshotStore store,
+                                @Value("${app.snapshot.enabled:true}") boolean enabled) {
+        this.databaseClient = databaseClient;
+        this.receiverOptions = receiverOptions;
+        this.retryRouter = retryRouter;
+        this.store = store;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(initialDelayString = "${app.snapshot.interval:PT15M}", fixedDelayString = "${app.snapshot.interval:PT15M}")
+    public void export() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            Map<TopicPartition, Long> offsets = snapshotOffsets();
+            Path tempFile = store.newTempFile();
+            long rows;
+            try (DataFileWriter<UserSnapshotRow> writer = new DataFileWriter<>(new SpecificDatumWriter<>(UserSnapshotRow.class))) {
+                writer.setCodec(CodecFactory.deflateCodec(1));
+                writer.setMeta(UserSnapshotStore.OFFSETS_METADATA, UserSnapshotStore.encodeOffsets(offsets));
+                writer.create(UserSnapshotRow.getClassSchema(), tempFile.toFile());
+
+                rows = databaseClient.sql(SELECT_SQL)
+                    .map(row -> UserSnapshotRow.newBuilder()
+                        .setId(row.get("id", Long.class))
+                        .setEmail(row.get("email", String.class))
+                        .setRole(row.get("role", String.class))
+                        .setVersion(row.get("version", Integer.class))
+                        .build())
+                    .all()
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnNext(row -> append(writer, row))
+                    .count()
+                    .block();
+            } catch (RuntimeException | IOException ex) {
+                Files.deleteIfExists(tempFile);
+                throw ex;
+            }
+            Path snapshot = store.publish(tempFile);
+            log.info("Снимок проекции users сохранён: файл={}, строк={}, offsets={}, за {} мс",
+                snapshot, rows, offsets, System.currentTimeMillis() - started);
+        } catch (Exception ex) {
+            log.error("Не удалось сохранить снимок проекции users: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private Map<TopicPartition, Long> snapshotOffsets() throws Exception {
+        Set<String> retryTopics = retryRouter.tiers().stream()
+            .map(UserEventRetryRouter.RetryTier::topic)
+            .collect(Collectors.toSet());
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, receiverOptions.bootstrapServers()))) {
+            Map<TopicPartition, Long> committed = committedOffsets(admin, receiverOptions.groupId(), Set.of(SOURCE_TOPIC));
+            Map<TopicPartition, Long> retryCommitted = committedOffsets(admin, UserEventRetryHandler.GROUP_ID, retryTopics);
+            return lowerToPendingRetries(committed, pendingRetries(retryTopics, retryCommitted));
+        }
+    }
+
+    private static Map<TopicPartition, Long> committedOffsets(Admin admin, String groupId, Set<String> topics)
+            throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> committed = admin
+            .listConsumerGroupOffsets(groupId)
+            .partitionsToOffsetAndMetadata()
+            .get(KAFKA_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        return committed.entrySet().stream()
+            .filter(entry -> entry.getValue() != null && topics.contains(entry.getKey().topic()))
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().offset()));
+    }
+
+    /**
+     * Читает записи топиков повтора от зафиксированных offset'ов группы повторов до текущего конца.
+     * Значения не десериализуются: нужны только заголовки.
+     */
+    private List<ConsumerRecord<byte[], byte[]>> pendingRetries(Set<String> retryTopics,
+                                                               Map<TopicPartition, Long> retryCommitted) {
+        Map<String, Object> props = Map.of(
+            ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, receiverOptions.bootstrapServers(),
+            ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+            ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class,
+            ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        List<ConsumerRecord<byte[], byte[]>> pending = new ArrayList<>();
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(props)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : retryTopics) {
+                for (PartitionInfo info : consumer.partitionsFor(topic, KAFKA_TIMEOUT)) {
+                    partitions.add(new TopicPartition(topic, info.partition()));
+                }
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> end = new HashMap<>(consumer.endOffsets(partitions, KAFKA_TIMEOUT));
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions, KAFKA_TIMEOUT);
+            for (TopicPartition partition : partitions) {
+                consumer.seek(partition, Math.max(retryCommitted.getOrDefault(partition, 0L), beginning.get(partition)));
+            }
+            long deadline = System.nanoTime() + KAFKA_TIMEOUT.toNanos();
+            end.entrySet().removeIf(entry -> consumer.position(entry.getKey(), KAFKA_TIMEOUT) >= entry.getValue());
+            while (!end.isEmpty()) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Не удалось дочитать топики повтора за " + KAFKA_TIMEOUT);
+                }
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofMillis(500))) {
+                    Long partitionEnd = end.get(new TopicPartition(record.topic(), record.partition()));
+                    if (partitionEnd != null && record.offset() < partitionEnd) {
+                        pending.add(record);
+                    }
+                }
+                end.entrySet().removeIf(entry -> consumer.position(entry.getKey(), KAFKA_TIMEOUT) >= entry.getValue());
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Опускает offset'ы снимка до исходных offset'ов событий, которые ещё ждут повтора.
+     *
+     * @param committed      зафиксированные offset'ы основного консьюмера
+     * @param pendingRetries неподтверждённые записи топиков повтора
+     * @return offset'ы, до которых все события уже записаны в таблицу
+     */
+    static Map<TopicPartition, Long> lowerToPendingRetries(Map<TopicPartition, Long> committed,
+                                                           List<? extends ConsumerRecord<?, ?>> pendingRetries) {
+        Map<TopicPartition, Long> offsets = new HashMap<>(committed);
+        for (ConsumerRecord<?, ?> record : pendingRetries) {
+            Header topic = record.headers().lastHeader(UserEventRetryRouter.ORIGINAL_TOPIC_HEADER);
+            Header partition = record.headers().lastHeader(UserEventRetryRouter.ORIGINAL_PARTITION_HEADER);
+            Header offset = record.headers().lastHeader(UserEventRetryRouter.ORIGINAL_OFFSET_HEADER);
+            if (topic == null || partition == null || offset == null || !SOURCE_TOPIC.equals(string(topic))) {
+                continue;
+            }
+            TopicPartition source = new TopicPartition(SOURCE_TOPIC, Integer.parseInt(string(partition)));
+            offsets.computeIfPresent(source, (key, current) -> Math.min(current, Long.parseLong(string(offset))));
+        }
+        return offsets;
+    }
+
+    private static String string(Header header) {
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static void append(DataFileWriter<UserSnapshotRow> writer, UserSnapshotRow row) {
+        try {
+            writer.append(row);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.example.user.snapshot;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Каталог снимков проекции {@code users}.
+ * <p>
+ * Снимок — Avro container file {@code users-<epochMillis>.avro} со строками {@link UserSnapshotRow}.
+ * В метаданных файла ({@link #OFFSETS_METADATA}) хранятся offset'ы Kafka, которые снимок
+ * гарантированно покрывает. Файл сначала пишется во временный и затем атомарно переименовывается,
+ * поэтому читатели никогда не видят недописанный снимок. Хранятся последние {@code retained} снимков.
+ * </p>
+ * <p>
+ * Каталог {@code app.snapshot.dir} должен быть общим для всех экземпляров (том ReadWriteMany в чарте,
+ * именованный том в docker-compose): снимок выгружает один экземпляр, а восстанавливается из него
+ * новый, у которого своего локального каталога ещё нет. Без общего тома выгрузку нужно отключить
+ * ({@code app.snapshot.enabled=false}), иначе новые экземпляры будут перечитывать топик с начала.
+ * </p>
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UserSnapshotStore {
+
+    public static final String OFFSETS_METADATA = "kafka.offsets";
+
+    static final String PREFIX = "users-";
+    static final String SUFFIX = ".avro";
+
+    Path directory;
+    int retained;
+
+    public UserSnapshotStore(@Value("${app.snapshot.dir:./snapshots}") Path directory,
+                             @Value("${app.snapshot.retained:3}") int retained) {
+        this.directory = directory;
+        this.retained = retained;
+    }
+
+    /**
+     * Последний опубликованный снимок, если он есть.
+     */
+    public Optional<Path> latest() throws IOException {
+        return snapshots().stream().findFirst();
+    }
+
+    /**
+     * Создаёт временный файл для нового снимка в том же каталоге, что и опубликованные.
+     */
+    public Path newTempFile() throws IOException {
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, PREFIX, SUFFIX + ".tmp");
+    }
+
+    /**
+     * Публикует дописанный снимок и удаляет устаревшие.
+     *
+     * @param tempFile файл, созданный {@link #newTempFile()}
+     * @return путь опубликованного снимка
+     */
+    public Path publish(Path tempFile) throws IOException {
+        Path target = directory.resolve(PREFIX + System.currentTimeMillis() + SUFFIX);
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Path> snapshots = snapshots();
+        for (Path stale : snapshots.subList(Math.min(retained, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(stale);
+            log.debug("Удалён устаревший снимок {}", stale);
+        }
+        return target;
+    }
+
+    /**
+     * Кодирует offset'ы в строку метаданных: {@code topic:partition=offset,...}.
+     */
+    public static String encodeOffsets(Map<TopicPartition, Long> offsets) {
+        return offsets.entrySet().stream()
+            .map(entry -> entry.getKey().topic() + ":" + entry.getKey().partition() + "=" + entry.getValue())
+            .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Разбирает строку метаданных, записанную {@link #encodeOffsets(Map)}.
+     */
+    public static Map<TopicPartition, Long> decodeOffsets(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            return Map.of();
+        }
+        return Arrays.stream(encoded.split(","))
+            .collect(Collectors.toMap(
+                entry -> {
+                    String partition = entry.substring(0, entry.indexOf('='));
+                    int separator = partition.lastIndexOf(':');
+                    return new TopicPartition(partition.substring(0, separator),
+                        Integer.parseInt(partition.substring(separator + 1)));
+                },
+                entry -> Long.parseLong(entry.substring(entry.indexOf('=') + 1))));
+    }
+
+    private List<Path> snapshots() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> {
+                    String name = file.getFileName().toString();
+                    return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                })
+                .sorted(Comparator.comparingLong(UserSnapshotStore::timestamp).reversed())
+                .toList();
+        }
+    }
+
+    private static long timestamp(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
\ No newline at end of file
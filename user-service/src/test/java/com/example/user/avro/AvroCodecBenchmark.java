@@ -0,0 +1,112 @@
+package com.example.user.avro;
+
+import com.example.auth.event.TokenRevokedEvent;
+import com.example.auth.event.UserCreatedEvent;
+import com.example.auth.event.UserRole;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение кодека single-object encoding с Confluent-сериализацией для {@link UserCreatedEvent}.
+ * <p>
+ * Confluent-путь работает с in-memory реестром ({@code mock://}), то есть измеряется только
+ * стоимость сериализации и кэшей клиента, без сетевых запросов к Schema Registry.
+ * Аллокации на операцию — метрика {@code gc.alloc.rate.norm} профилировщика GC.
+ * </p>
+ * <p>
+ * Запуск: {@code mvn -pl user-service test-compile}, затем {@link #main(String[])} с test-classpath модуля.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvroCodecBenchmark {
+
+    static final String TOPIC = "user.created";
+
+    UserCreatedEvent event;
+
+    AvroSingleObjectSerializer singleObjectSerializer;
+    AvroSingleObjectDeserializer singleObjectDeserializer;
+    byte[] singleObjectBytes;
+
+    KafkaAvroSerializer confluentSerializer;
+    KafkaAvroDeserializer confluentDeserializer;
+    byte[] confluentBytes;
+
+    @Setup
+    public void setUp() {
+        event = UserCreatedEvent.newBuilder()
+            .setUserId(42L)
+            .setEmail("benchmark.user@example.com")
+            .setRole(UserRole.USER)
+            .setTimestamp(Instant.parse("2026-01-01T00:00:00Z"))
+            .build();
+
+        Map<String, Object> singleObjectConfigs = Map.of(
+            ClasspathSchemaStore.CLASSES_CONFIG, List.of(UserCreatedEvent.class, TokenRevokedEvent.class));
+        singleObjectSerializer = new AvroSingleObjectSerializer();
+        singleObjectSerializer.configure(singleObjectConfigs, false);
+        singleObjectDeserializer = new AvroSingleObjectDeserializer();
+        singleObjectDeserializer.configure(singleObjectConfigs, false);
+        singleObjectBytes = singleObjectSerializer.serialize(TOPIC, event);
+
+        Map<String, Object> confluentConfigs = Map.of(
+            "schema.registry.url", "mock://avro-codec-benchmark",
+            "specific.avro.reader", true);
+        confluentSerializer = new KafkaAvroSerializer();
+        confluentSerializer.configure(confluentConfigs, false);
+        confluentDeserializer = new KafkaAvroDeserializer();
+        confluentDeserializer.configure(confluentConfigs, false);
+        confluentBytes = confluentSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] singleObjectSerialize() {
+        return singleObjectSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public Object singleObjectDeserialize() {
+        return singleObjectDeserializer.deserialize(TOPIC, singleObjectBytes);
+    }
+
+    @Benchmark
+    public byte[] confluentSerialize() {
+        return confluentSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public Object confluentDeserialize() {
+        return confluentDeserializer.deserialize(TOPIC, confluentBytes);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(AvroCodecBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build())
+            .run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.example.user.avro;
+
+import com.example.auth.event.TokenRevokedEvent;
+import com.example.auth.event.UserCreatedEvent;
+import com.example.auth.event.UserRole;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class AvroSingleObjectCodecTest {
+
+    AvroSingleObjectSerializer serializer;
+    AvroSingleObjectDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, Object> configs = Map.of(
+            ClasspathSchemaStore.CLASSES_CONFIG, List.of(UserCreatedEvent.class, TokenRevokedEvent.class));
+        serializer = new AvroSingleObjectSerializer();
+        serializer.configure(configs, false);
+        deserializer = new AvroSingleObjectDeserializer();
+        deserializer.configure(configs, false);
+    }
+
+    @Test
+    void serialize_ShouldWriteSingleObjectHeader_AndRoundTrip() {
+        UserCreatedEvent event = UserCreatedEvent.newBuilder()
+            .setUserId(42L)
+            .setEmail("user@example.com")
+            .setRole(UserRole.ADMIN)
+            .setTimestamp(Instant.now().truncatedTo(ChronoUnit.MILLIS))
+            .build();
+
+        byte[] bytes = serializer.serialize("user.created", event);
+
+        assertThat(bytes[0]).isEqualTo((byte) 0xC3);
+        assertThat(bytes[1]).isEqualTo((byte) 0x01);
+        assertThat(deserializer.deserialize("user.created", bytes)).isEqualTo(event);
+    }
+
+    @Test
+    void deserialize_ShouldResolveRecordTypeByFingerprint() {
+        TokenRevokedEvent event = TokenRevokedEvent.newBuilder()
+            .setUserId(7L)
+            .setIssuedBefore(Instant.ofEpochMilli(1_000))
+            .setExpiresAt(Instant.ofEpochMilli(2_000))
+            .build();
+
+        assertThat(deserializer.deserialize("token.revoked", serializer.serialize("token.revoked", event)))
+            .isEqualTo(event);
+    }
+
+    @Test
+    void deserialize_ShouldFail_WhenFingerprintIsUnknownAndRegistryIsNotConfigured() {
+        byte[] bytes = {(byte) 0xC3, 0x01, 1, 2, 3, 4, 5, 6, 7, 8, 0};
+
+        assertThatThrownBy(() -> deserializer.deserialize("user.created", bytes))
+            .isInstanceOf(SerializationException.class)
+            .hasMessageContaining("fingerprint");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.user.monitoring;
+
+import com.example.auth.event.UserCreatedEvent;
+import com.example.auth.event.UserRole;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class UserEventMetricsTest {
+
+    @Test
+    void batchWritten_ShouldRecordBatchAndPerRecordTime() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserEventMetrics metrics = new UserEventMetrics(meterRegistry);
+        long started = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(40);
+
+        // 4 записи Kafka схлопнулись в 2 события; события из будущего не дают отрицательного возраста.
+        metrics.batchWritten(started, 4, List.of(
+            event(1L, Instant.now().minusSeconds(2)),
+            event(2L, Instant.now().plusSeconds(60))));
+
+        assertThat(meterRegistry.get("user.events.processed").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("user.events.batch.size").summary().mean()).isEqualTo(4);
+        Timer batch = meterRegistry.get("user.events.batch.processing").timer();
+        Timer record = meterRegistry.get("user.events.record.processing").timer();
+        assertThat(batch.count()).isEqualTo(1);
+        assertThat(batch.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(40);
+        assertThat(record.count()).isEqualTo(1);
+        assertThat(record.totalTime(TimeUnit.NANOSECONDS) * 4)
+            .isCloseTo(batch.totalTime(TimeUnit.NANOSECONDS), offset(4.0));
+        Timer age = meterRegistry.get("user.events.age").timer();
+        assertThat(age.count()).isEqualTo(2);
+        assertThat(age.max(TimeUnit.MILLISECONDS)).isBetween(2_000.0, 60_000.0);
+    }
+
+    @Test
+    void batchWritten_ShouldSkipPerRecordTime_ForEmptyBatch() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        new UserEventMetrics(meterRegistry).batchWritten(System.nanoTime(), 0, List.of());
+
+        assertThat(meterRegistry.get("user.events.batch.processing").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("user.events.record.processing").timer().count()).isZero();
+    }
+
+    private static UserCreatedEvent event(long userId, Instant timestamp) {
+        return UserCreatedEvent.newBuilder()
+            .setUserId(userId)
+            .setEmail("user" + userId + "@example.com")
+            .setRole(UserRole.USER)
+            .setTimestamp(timestamp)
+            .build();
+    }
+}
\ No newline at end of file
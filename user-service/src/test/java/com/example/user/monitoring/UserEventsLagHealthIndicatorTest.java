@@ -0,0 +1,93 @@
+package com.example.user.monitoring;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.SimpleHttpCodeStatusMapper;
+import org.springframework.boot.actuate.health.SimpleStatusAggregator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.io.ClassPathResource;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserEventsLagHealthIndicatorTest {
+
+    static final TopicPartition P0 = new TopicPartition("user.created", 0);
+    static final TopicPartition P1 = new TopicPartition("user.created", 1);
+    static final TopicPartition P2 = new TopicPartition("user.created", 2);
+
+    @Test
+    void health_ShouldBeUp_UpToThreshold() {
+        Health health = health(100, Map.of(P0, 60L, P1, 40L)).block();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("lag", 100L).containsEntry("threshold", 100L);
+    }
+
+    @Test
+    void health_ShouldBeDegraded_AboveThreshold_IgnoringPartitionsWithoutFetch() {
+        Health health = health(100, Map.of(P0, 60L, P1, 41L)).block();
+
+        assertThat(health.getStatus()).isEqualTo(UserEventsLagHealthIndicator.DEGRADED);
+        assertThat(health.getDetails()).containsEntry("lag", 101L)
+            .containsEntry("partitions", Map.of("user.created-0", 60L, "user.created-1", 41L));
+    }
+
+    @Test
+    void health_ShouldBeUnknown_WhenConsumerFails() {
+        KafkaReceiver<String, Object> receiver = mock(KafkaReceiver.class);
+        when(receiver.doOnConsumer(any())).thenReturn(Mono.error(new IllegalStateException("consumer closed")));
+
+        assertThat(new UserEventsLagHealthIndicator(receiver, 100).health().block().getStatus())
+            .isEqualTo(Status.UNKNOWN);
+    }
+
+    @Test
+    void degraded_ShouldKeepHttp200_AndWinOverUp() throws IOException {
+        Binder binder = new Binder(ConfigurationPropertySources.from(
+            new YamlPropertySourceLoader().load("application", new ClassPathResource("application.yaml"))));
+        Map<String, Integer> httpMapping = binder.bind("management.endpoint.health.status.http-mapping",
+            Bindable.mapOf(String.class, Integer.class)).get();
+        List<String> order = binder.bind("management.endpoint.health.status.order",
+            Bindable.listOf(String.class)).get();
+
+        SimpleHttpCodeStatusMapper statusMapper = new SimpleHttpCodeStatusMapper(httpMapping);
+        assertThat(statusMapper.getStatusCode(UserEventsLagHealthIndicator.DEGRADED)).isEqualTo(200);
+        // Своя карта заменяет стандартную, поэтому DOWN должен остаться в ней явно.
+        assertThat(statusMapper.getStatusCode(Status.DOWN)).isEqualTo(503);
+        assertThat(statusMapper.getStatusCode(Status.OUT_OF_SERVICE)).isEqualTo(503);
+        assertThat(new SimpleStatusAggregator(order).getAggregateStatus(
+            Set.of(Status.UP, UserEventsLagHealthIndicator.DEGRADED))).isEqualTo(UserEventsLagHealthIndicator.DEGRADED);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mono<Health> health(long threshold, Map<TopicPartition, Long> lags) {
+        Consumer<String, Object> consumer = mock(Consumer.class);
+        when(consumer.assignment()).thenReturn(Set.of(P0, P1, P2));
+        when(consumer.currentLag(any())).thenAnswer(invocation -> {
+            Long lag = lags.get(invocation.<TopicPartition>getArgument(0));
+            return lag != null ? OptionalLong.of(lag) : OptionalLong.empty();
+        });
+        KafkaReceiver<String, Object> receiver = mock(KafkaReceiver.class);
+        when(receiver.doOnConsumer(any())).thenAnswer(invocation -> Mono.fromCallable(() ->
+            invocation.<Function<Consumer<String, Object>, Object>>getArgument(0).apply(consumer)));
+        return new UserEventsLagHealthIndicator(receiver, threshold).health();
+    }
+}
\ No newline at end of file
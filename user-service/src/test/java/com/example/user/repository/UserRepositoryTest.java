@@ -0,0 +1,174 @@
+package com.example.user.repository;
+
+import com.example.user.entity.User;
+import io.r2dbc.spi.ConnectionFactories;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Запросы репозитория пользователей на настоящем PostgreSQL со схемой из миграций Liquibase:
+ * пакетный upsert и страницы выгрузки. Без Docker тест пропускается.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class UserRepositoryTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static UserRepositoryImpl repository;
+    static UserRepository users;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        try (Connection connection = connect()) {
+            new Liquibase("db/changelog/db.changelog-master.yaml", new ClassLoaderResourceAccessor(),
+                new JdbcConnection(connection)).update("");
+        }
+        DatabaseClient databaseClient = DatabaseClient.create(ConnectionFactories.get(String.format(
+            "r2dbc:postgresql://%s:%s@%s:%d/%s", POSTGRES.getUsername(), POSTGRES.getPassword(),
+            POSTGRES.getHost(), POSTGRES.getFirstMappedPort(), POSTGRES.getDatabaseName())));
+        repository = new UserRepositoryImpl(databaseClient);
+        users = new R2dbcRepositoryFactory(new R2dbcEntityTemplate(databaseClient, PostgresDialect.INSTANCE))
+            .getRepository(UserRepository.class, RepositoryComposition.RepositoryFragments.just(repository));
+    }
+
+    @BeforeEach
+    void truncate() throws SQLException {
+        execute("TRUNCATE users");
+    }
+
+    @Test
+    void upsertAll_ShouldInsertNewAndUpdateExisting_IncrementingVersion() throws SQLException {
+        // Строка, записанная до появления версии, не должна остаться с NULL.
+        execute("INSERT INTO users (id, email, role, version) VALUES (2, 'bob@example.com', 'ROLE_USER', NULL)");
+
+        StepVerifier.create(repository.upsertAll(List.of(
+                user(1L, "alice@example.com", "ROLE_USER", 1_000),
+                user(2L, "bob@example.com", "ROLE_ADMIN", 1_000))))
+            .expectNext(2L)
+            .verifyComplete();
+        StepVerifier.create(repository.upsertAll(List.of(user(1L, "alice@new.example.com", "ROLE_MANAGER", 2_000))))
+            .expectNext(1L)
+            .verifyComplete();
+
+        assertThat(rows()).containsExactly(
+            Map.of("id", 1L, "email", "alice@new.example.com", "role", "ROLE_MANAGER", "version", 1),
+            Map.of("id", 2L, "email", "bob@example.com", "role", "ROLE_ADMIN", "version", 1));
+    }
+
+    @Test
+    void upsertAll_ShouldSkipEventOlderThanStoredOne() throws SQLException {
+        repository.upsertAll(List.of(user(1L, "alice@new.example.com", "ROLE_ADMIN", 2_000))).block();
+
+        // Событие с повтора пришло после более нового.
+        StepVerifier.create(repository.upsertAll(List.of(user(1L, "alice@example.com", "ROLE_USER", 1_000))))
+            .expectNext(0L)
+            .verifyComplete();
+
+        assertThat(rows()).containsExactly(
+            Map.of("id", 1L, "email", "alice@new.example.com", "role", "ROLE_ADMIN", "version", 0));
+    }
+
+    @Test
+    void upsertAll_ShouldFailWholeBatch_SoThatHandlerCanWriteOneByOne() throws SQLException {
+        repository.upsertAll(List.of(user(1L, "alice@example.com", "ROLE_USER", 1_000))).block();
+
+        StepVerifier.create(repository.upsertAll(List.of(
+                user(3L, "alice@example.com", "ROLE_USER", 2_000),
+                user(5L, "carol@example.com", "ROLE_USER", 2_000))))
+            .verifyError(DataIntegrityViolationException.class);
+        assertThat(rows()).extracting(row -> row.get("id")).containsExactly(1L);
+
+        // Запасной путь UserEventHandler: по одному записывается всё, кроме проблемной строки.
+        StepVerifier.create(repository.upsertAll(List.of(user(5L, "carol@example.com", "ROLE_USER", 2_000))))
+            .expectNext(1L)
+            .verifyComplete();
+        StepVerifier.create(repository.upsertAll(List.of(user(3L, "alice@example.com", "ROLE_USER", 2_000))))
+            .verifyError(DataIntegrityViolationException.class);
+        assertThat(rows()).extracting(row -> row.get("id")).containsExactly(1L, 5L);
+    }
+
+    @Test
+    void findPageAfter_ShouldContinueAfterLastId_WithAndWithoutRoleFilter() throws SQLException {
+        execute("""
+            INSERT INTO users (id, email, role, version) VALUES
+                (1, 'a@example.com', 'ROLE_USER', 0),
+                (2, 'b@example.com', 'ROLE_ADMIN', 0),
+                (4, 'c@example.com', 'ROLE_USER', 0),
+                (7, 'd@example.com', 'ROLE_USER', 0),
+                (9, 'e@example.com', 'ROLE_ADMIN', 0)
+            """);
+
+        // Без роли срабатывает ветка CAST(:role AS VARCHAR) IS NULL.
+        assertThat(ids(users.findPageAfter(0, null, 2))).containsExactly(1L, 2L);
+        assertThat(ids(users.findPageAfter(2, null, 2))).containsExactly(4L, 7L);
+        assertThat(ids(users.findPageAfter(7, null, 2))).containsExactly(9L);
+        assertThat(ids(users.findPageAfter(9, null, 2))).isEmpty();
+
+        assertThat(ids(users.findPageAfter(0, "ROLE_USER", 2))).containsExactly(1L, 4L);
+        assertThat(ids(users.findPageAfter(4, "ROLE_USER", 2))).containsExactly(7L);
+        assertThat(ids(users.findPageAfter(0, "ROLE_ADMIN", 10))).containsExactly(2L, 9L);
+        assertThat(ids(users.findPageAfter(0, "ROLE_MANAGER", 10))).isEmpty();
+    }
+
+    private static List<Long> ids(Flux<User> page) {
+        return page.map(User::getId).collectList().block();
+    }
+
+    private static User user(Long id, String email, String role, long eventMillis) {
+        return User.builder().id(id).email(email).role(role).eventTime(Instant.ofEpochMilli(eventMillis)).build();
+    }
+
+    private static List<Map<String, Object>> rows() throws SQLException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, email, role, version FROM users ORDER BY id")) {
+            while (resultSet.next()) {
+                rows.add(Map.of(
+                    "id", resultSet.getLong("id"),
+                    "email", resultSet.getString("email"),
+                    "role", resultSet.getString("role"),
+                    "version", resultSet.getInt("version")));
+            }
+        }
+        return rows;
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
\ No newline at end of file
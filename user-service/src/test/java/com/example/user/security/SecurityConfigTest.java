@@ -0,0 +1,116 @@
+package com.example.user.security;
+
+import com.example.routing.ReadYourWritesTracker;
+import com.example.user.controller.UserController;
+import com.example.user.dto.BatchGetUsersRequest;
+import com.example.user.dto.BatchGetUsersResponse;
+import com.example.user.dto.UserDto;
+import com.example.user.repository.UserRepository;
+import com.example.user.service.TokenRevocationPublisher;
+import com.example.user.service.UserQueryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Доступ к чтению пользователей: роли из JWT auth-service и проверки методов {@link UserController}.
+ */
+class SecurityConfigTest {
+
+    static final UserDto ALICE = new UserDto(5L, "alice@example.com", "ROLE_USER");
+
+    AnnotationConfigApplicationContext context;
+    UserController controller;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(MethodSecurity.class);
+        controller = context.getBean(UserController.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void jwtAuthenticationConverter_ShouldTakeRolesClaimAsIs() {
+        Authentication authentication = authentication(1L, "ROLE_ADMIN");
+
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+            .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void getById_ShouldAllowOwnIdOrAdmin() {
+        StepVerifier.create(as(authentication(5L, "ROLE_USER"), controller.getById(5L)))
+            .assertNext(response -> assertThat(response.getBody()).isEqualTo(ALICE))
+            .verifyComplete();
+        StepVerifier.create(as(authentication(1L, "ROLE_ADMIN"), controller.getById(5L)))
+            .assertNext(response -> assertThat(response.getBody()).isEqualTo(ALICE))
+            .verifyComplete();
+        StepVerifier.create(as(authentication(6L, "ROLE_USER"), controller.getById(5L)))
+            .verifyError(AccessDeniedException.class);
+    }
+
+    @Test
+    void lookups_ShouldBeDenied_ForNonAdmin() {
+        Authentication user = authentication(5L, "ROLE_MANAGER");
+
+        StepVerifier.create(as(user, controller.getByEmail("alice@example.com")))
+            .verifyError(AccessDeniedException.class);
+        StepVerifier.create(as(user, controller.batchGet(new BatchGetUsersRequest(List.of(5L)))))
+            .verifyError(AccessDeniedException.class);
+        StepVerifier.create(as(authentication(1L, "ROLE_ADMIN"), controller.getByEmail("alice@example.com")))
+            .assertNext(response -> assertThat(response.getBody()).isEqualTo(ALICE))
+            .verifyComplete();
+    }
+
+    private static <T> Mono<T> as(Authentication authentication, Mono<T> call) {
+        return call.contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    private static Authentication authentication(Long userId, String role) {
+        Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "RS256")
+            .subject("user" + userId)
+            .claim("userId", userId)
+            .claim("roles", List.of(role))
+            .build();
+        return SecurityConfig.jwtAuthenticationConverter().convert(jwt).block();
+    }
+
+    @Configuration
+    @EnableReactiveMethodSecurity
+    static class MethodSecurity {
+
+        @Bean
+        UserController userController() {
+            UserQueryService userQueryService = mock(UserQueryService.class);
+            when(userQueryService.findById(5L)).thenReturn(Mono.just(ALICE));
+            when(userQueryService.findByEmail("alice@example.com")).thenReturn(Mono.just(ALICE));
+            when(userQueryService.findAllById(any()))
+                .thenReturn(Mono.just(new BatchGetUsersResponse(List.of(ALICE), List.of())));
+            return new UserController(mock(UserRepository.class), mock(TokenRevocationPublisher.class),
+                mock(ReadYourWritesTracker.class), userQueryService);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+package com.example.user.service;
+
+import com.example.auth.event.UserCreatedEvent;
+import com.example.auth.event.UserRole;
+import com.example.user.entity.User;
+import com.example.user.monitoring.UserEventMetrics;
+import com.example.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.internals.ConsumerFactory;
+import reactor.kafka.receiver.internals.DefaultKafkaReceiver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Группы по ключу и отложенные коммиты основного консьюмера на in-memory консьюмере Kafka.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class UserEventHandlerTest {
+
+    static final TopicPartition PARTITION = new TopicPartition("user.created", 0);
+
+    MockConsumer<String, Object> consumer;
+    UserRepository userRepository;
+    UserEventRetryRouter retryRouter;
+    UserChangePublisher changePublisher;
+    SimpleMeterRegistry meterRegistry;
+    List<User> written;
+    Sinks.Empty<Void> firstWriteOfUser1;
+    UserEventHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        written = Collections.synchronizedList(new ArrayList<>());
+        firstWriteOfUser1 = Sinks.empty();
+
+        ConsumerFactory consumerFactory = new ConsumerFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Consumer<K, V> createConsumer(ReceiverOptions<K, V> receiverOptions) {
+                return (Consumer<K, V>) consumer;
+            }
+        };
+        ReceiverOptions<String, Object> receiverOptions = ReceiverOptions.<String, Object>create(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "in-memory:9092",
+                ConsumerConfig.GROUP_ID_CONFIG, "user-service-group"))
+            .assignment(List.of(PARTITION))
+            .commitInterval(Duration.ofMillis(10))
+            .maxDeferredCommits(100);
+
+        userRepository = mock(UserRepository.class);
+        when(userRepository.upsertAll(any())).thenAnswer(invocation -> {
+            Collection<User> users = invocation.getArgument(0);
+            // Первая запись пользователя 1 ждёт, пока тест её не отпустит.
+            boolean hold = users.stream().anyMatch(user -> user.getId() == 1L)
+                && written.stream().noneMatch(user -> user.getId() == 1L);
+            return (hold ? firstWriteOfUser1.asMono() : Mono.<Void>empty())
+                .then(Mono.fromRunnable(() -> written.addAll(users)))
+                .thenReturn((long) users.size());
+        });
+        retryRouter = mock(UserEventRetryRouter.class);
+        when(retryRouter.retry(any(), any())).thenReturn(Mono.empty());
+        changePublisher = mock(UserChangePublisher.class);
+        when(changePublisher.publish(any())).thenReturn(Mono.empty());
+        meterRegistry = new SimpleMeterRegistry();
+
+        handler = new UserEventHandler(new DefaultKafkaReceiver<>(consumerFactory, receiverOptions),
+            userRepository, retryRouter, changePublisher, new UserEventMetrics(meterRegistry));
+        ReflectionTestUtils.setField(handler, "concurrency", 2);
+        ReflectionTestUtils.setField(handler, "batchWindow", Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Цикл опроса останавливается ошибкой закрытого консьюмера: KafkaReceiver нельзя закрыть снаружи.
+        consumer.close();
+    }
+
+    @Test
+    void consume_ShouldKeepOrderPerUser_AndCommitOnlyWrittenOffsets() {
+        ReflectionTestUtils.setField(handler, "batchSize", 1);
+        send(record(0, 1L, "alice@example.com"),
+            record(1, 2L, "bob@example.com"),
+            record(2, 1L, "alice@new.example.com"),
+            record(3, 1L, "alice@last.example.com"));
+
+        handler.consumeUserEvents();
+
+        // Пользователь 2 в другой группе: его запись не ждёт пользователя 1.
+        await().atMost(Duration.ofSeconds(5)).until(() -> emails(2L).contains("bob@example.com"));
+        // Offset 1 подтверждён, но offset 0 ещё нет: коммит придерживается.
+        await().during(Duration.ofMillis(200)).atMost(Duration.ofSeconds(1)).until(() -> committed() == null);
+        assertThat(emails(1L)).isEmpty();
+
+        firstWriteOfUser1.tryEmitEmpty();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> committed() != null && committed().offset() == 4);
+        assertThat(emails(1L)).containsExactly("alice@example.com", "alice@new.example.com", "alice@last.example.com");
+    }
+
+    @Test
+    void consume_ShouldWriteLatestEventOfUserPerBatch() {
+        ReflectionTestUtils.setField(handler, "batchSize", 10);
+        firstWriteOfUser1.tryEmitEmpty();
+        send(record(0, 1L, "alice@example.com"),
+            record(1, 1L, "alice@new.example.com"),
+            record(2, 2L, "bob@example.com"),
+            record(3, 1L, "alice@last.example.com"));
+
+        handler.consumeUserEvents();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> committed() != null && committed().offset() == 4);
+        assertThat(emails(1L)).containsExactly("alice@last.example.com");
+        assertThat(emails(2L)).containsExactly("bob@example.com");
+    }
+
+    @Test
+    void consume_ShouldWriteOneByOne_OnlyWhenBatchWriteFails() {
+        ReflectionTestUtils.setField(handler, "batchSize", 10);
+        // Пакет целиком не записывается; по одному не записывается только пользователь 3.
+        doAnswer(invocation -> {
+            Collection<User> users = invocation.getArgument(0);
+            if (users.size() > 1 || users.iterator().next().getId() == 3L) {
+                return Mono.error(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+            }
+            written.addAll(users);
+            return Mono.just(1L);
+        }).when(userRepository).upsertAll(any());
+        send(record(0, 1L, "alice@example.com"),
+            record(1, 3L, "alice@example.com"),
+            record(2, 5L, "carol@example.com"));
+
+        handler.consumeUserEvents();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> committed() != null && committed().offset() == 3);
+        assertThat(emails(1L)).containsExactly("alice@example.com");
+        assertThat(emails(5L)).containsExactly("carol@example.com");
+        verify(retryRouter).retry(argThat(record -> record.offset() == 1), any(DataIntegrityViolationException.class));
+        verify(changePublisher).publish(List.of(1L, 5L));
+        assertThat(meterRegistry.get("user.events.processed").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("user.events.batch.processing").timer().count()).isEqualTo(1);
+    }
+
+    @SafeVarargs
+    private void send(ConsumerRecord<String, Object>... records) {
+        // Записи добавляются в первом poll, когда партиция уже назначена.
+        consumer.schedulePollTask(() -> {
+            for (ConsumerRecord<String, Object> record : records) {
+                consumer.addRecord(record);
+            }
+        });
+    }
+
+    private OffsetAndMetadata committed() {
+        return consumer.committed(Set.of(PARTITION)).get(PARTITION);
+    }
+
+    private List<String> emails(long userId) {
+        synchronized (written) {
+            return written.stream().filter(user -> user.getId() == userId).map(User::getEmail).toList();
+        }
+    }
+
+    private static ConsumerRecord<String, Object> record(long offset, long userId, String email) {
+        UserCreatedEvent event = UserCreatedEvent.newBuilder()
+            .setUserId(userId)
+            .setEmail(email)
+            .setRole(UserRole.USER)
+            .setTimestamp(Instant.ofEpochMilli(1_700_000_000_000L + offset))
+            .build();
+        return new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, String.valueOf(userId), event);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.example.user.service;
+
+import com.example.auth.event.UserCreatedEvent;
+import com.example.auth.event.UserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.internals.DefaultKafkaSender;
+import reactor.kafka.sender.internals.ProducerFactory;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Маршрутизация необработанных событий по ступеням повторов на in-memory продюсере Kafka.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class UserEventRetryRouterTest {
+
+    MockProducer<String, Object> producer;
+    SimpleMeterRegistry meterRegistry;
+    UserEventRetryRouter router;
+
+    @BeforeEach
+    void setUp() {
+        producer = new MockProducer<>(true, new StringSerializer(), (topic, value) -> new byte[0]);
+        meterRegistry = new SimpleMeterRegistry();
+
+        ProducerFactory producerFactory = new ProducerFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Producer<K, V> createProducer(SenderOptions<K, V> senderOptions) {
+                return (Producer<K, V>) producer;
+            }
+        };
+        SenderOptions<String, Object> senderOptions = SenderOptions.create(
+            Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "in-memory:9092"));
+
+        router = new UserEventRetryRouter(new DefaultKafkaSender<>(producerFactory, senderOptions),
+            meterRegistry, List.of("1s", "30s", "5m"));
+    }
+
+    @Test
+    void retry_ShouldSendToFirstTier_WhenRecordComesFromSourceTopic() {
+        ConsumerRecord<String, Object> record = sourceRecord();
+        long before = System.currentTimeMillis();
+
+        StepVerifier.create(router.retry(record, new IllegalStateException("db down")))
+            .verifyComplete();
+
+        ProducerRecord<String, Object> sent = single();
+        assertThat(sent.topic()).isEqualTo("user.created.retry.1s");
+        assertThat(sent.key()).isEqualTo("42");
+        assertThat(sent.value()).isEqualTo(record.value());
+        assertThat(header(sent, UserEventRetryRouter.ATTEMPT_HEADER)).isEqualTo("1");
+        assertThat(Long.parseLong(header(sent, UserEventRetryRouter.NOT_BEFORE_HEADER))).isGreaterThanOrEqualTo(before + 1000);
+        assertThat(header(sent, UserEventRetryRouter.EXCEPTION_HEADER)).isEqualTo(IllegalStateException.class.getName());
+        assertThat(header(sent, UserEventRetryRouter.ORIGINAL_TOPIC_HEADER)).isEqualTo("user.created");
+        assertThat(header(sent, UserEventRetryRouter.ORIGINAL_OFFSET_HEADER)).isEqualTo("7");
+        assertThat(meterRegistry.counter("user.events.retried", "topic", "user.created.retry.1s").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void retry_ShouldSendToNextTier_AndKeepOriginalCoordinates() {
+        ConsumerRecord<String, Object> record = retryRecord("user.created.retry.30s", 2);
+
+        StepVerifier.create(router.retry(record, new IllegalStateException("db down")))
+            .verifyComplete();
+
+        ProducerRecord<String, Object> sent = single();
+        assertThat(sent.topic()).isEqualTo("user.created.retry.5m");
+        assertThat(header(sent, UserEventRetryRouter.ATTEMPT_HEADER)).isEqualTo("3");
+        assertThat(header(sent, UserEventRetryRouter.ORIGINAL_TOPIC_HEADER)).isEqualTo("user.created");
+        assertThat(sent.headers().headers(UserEventRetryRouter.ATTEMPT_HEADER)).hasSize(1);
+    }
+
+    @Test
+    void retry_ShouldSendToDeadLetterTopic_WhenTiersAreExhausted() {
+        ConsumerRecord<String, Object> record = retryRecord("user.created.retry.5m", 3);
+
+        StepVerifier.create(router.retry(record, new IllegalArgumentException("bad email")))
+            .verifyComplete();
+
+        ProducerRecord<String, Object> sent = single();
+        assertThat(sent.topic()).isEqualTo(UserEventRetryRouter.DEAD_LETTER_TOPIC);
+        assertThat(header(sent, UserEventRetryRouter.EXCEPTION_MESSAGE_HEADER)).isEqualTo("bad email");
+        assertThat(sent.headers().lastHeader(UserEventRetryRouter.NOT_BEFORE_HEADER)).isNull();
+        assertThat(meterRegistry.counter("user.events.dead-lettered", "exception", "IllegalArgumentException").count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void deadLetter_ShouldDropValue_WhenRecordIsNotAvro() {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>("user.created", 0, 8L, "43", null);
+
+        StepVerifier.create(router.deadLetter(record, new RuntimeException("deserialization")))
+            .verifyComplete();
+
+        ProducerRecord<String, Object> sent = single();
+        assertThat(sent.topic()).isEqualTo(UserEventRetryRouter.DEAD_LETTER_TOPIC);
+        assertThat(sent.value()).isNull();
+        assertThat(header(sent, UserEventRetryRouter.ATTEMPT_HEADER)).isEqualTo("0");
+    }
+
+    private ConsumerRecord<String, Object> sourceRecord() {
+        UserCreatedEvent event = UserCreatedEvent.newBuilder()
+            .setUserId(42L)
+            .setEmail("user@example.com")
+            .setRole(UserRole.USER)
+            .setTimestamp(Instant.now())
+            .build();
+        return new ConsumerRecord<>("user.created", 1, 7L, "42", event);
+    }
+
+    private ConsumerRecord<String, Object> retryRecord(String topic, int attempt) {
+        ConsumerRecord<String, Object> source = sourceRecord();
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>(topic, 0, 0L, source.key(), source.value());
+        record.headers()
+            .add(UserEventRetryRouter.ORIGINAL_TOPIC_HEADER, bytes("user.created"))
+            .add(UserEventRetryRouter.ATTEMPT_HEADER, bytes(String.valueOf(attempt)))
+            .add(UserEventRetryRouter.NOT_BEFORE_HEADER, bytes("0"));
+        return record;
+    }
+
+    private ProducerRecord<String, Object> single() {
+        assertThat(producer.history()).hasSize(1);
+        return producer.history().get(0);
+    }
+
+    private static String header(ProducerRecord<String, Object> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        assertThat(header).as(key).isNotNull();
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.example.user.service;
+
+import com.example.user.dto.BatchGetUsersResponse;
+import com.example.user.dto.UserDto;
+import com.example.user.entity.User;
+import com.example.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Near-кэш пользователей: попадания, промахи, сброс и пакетное чтение на репозитории-заглушке.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class UserQueryServiceTest {
+
+    UserRepository userRepository;
+    UserQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        service = new UserQueryService(userRepository, new SimpleMeterRegistry(), 2, 1 << 20, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void findById_ShouldReadDatabaseOnce_UntilEvicted() {
+        when(userRepository.findById(1L)).thenReturn(Mono.just(user(1L, "alice@example.com", "ROLE_USER")));
+
+        assertThat(service.findById(1L).block()).isEqualTo(new UserDto(1L, "alice@example.com", "ROLE_USER"));
+        assertThat(service.findById(1L).block()).isEqualTo(new UserDto(1L, "alice@example.com", "ROLE_USER"));
+        verify(userRepository, times(1)).findById(1L);
+
+        when(userRepository.findById(1L)).thenReturn(Mono.just(user(1L, "alice@example.com", "ROLE_ADMIN")));
+        service.evict(1L);
+
+        assertThat(service.findById(1L).block().role()).isEqualTo("ROLE_ADMIN");
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void findById_ShouldNotCacheMissingUser() {
+        when(userRepository.findById(7L)).thenReturn(Mono.empty());
+
+        assertThat(service.findById(7L).block()).isNull();
+        assertThat(service.findById(7L).block()).isNull();
+
+        verify(userRepository, times(2)).findById(7L);
+    }
+
+    @Test
+    void update_ShouldServeNewStateWithoutDatabase() {
+        service.update(new UserDto(1L, "alice@example.com", "ROLE_MANAGER"));
+
+        assertThat(service.findById(1L).block().role()).isEqualTo("ROLE_MANAGER");
+        assertThat(service.findByEmail("alice@example.com").block().id()).isEqualTo(1L);
+        verify(userRepository, never()).findById(any(Long.class));
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void findByEmail_ShouldResolveThroughIdCache_AfterFirstLoad() {
+        when(userRepository.findByEmail("alice@example.com"))
+            .thenReturn(Mono.just(user(1L, "alice@example.com", "ROLE_USER")));
+
+        assertThat(service.findByEmail("alice@example.com").block().id()).isEqualTo(1L);
+        assertThat(service.findByEmail("alice@example.com").block().id()).isEqualTo(1L);
+
+        verify(userRepository, times(1)).findByEmail("alice@example.com");
+        verify(userRepository, never()).findById(any(Long.class));
+    }
+
+    @Test
+    void findByEmail_ShouldReload_WhenIndexPointsToUserWithAnotherEmail() {
+        when(userRepository.findByEmail("alice@example.com"))
+            .thenReturn(Mono.just(user(1L, "alice@example.com", "ROLE_USER")));
+        service.findByEmail("alice@example.com").block();
+        // Email перешёл к другому пользователю, а запись индекса ещё указывает на прежнего.
+        service.update(new UserDto(1L, "alice@old.example.com", "ROLE_USER"));
+        when(userRepository.findByEmail("alice@example.com"))
+            .thenReturn(Mono.just(user(2L, "alice@example.com", "ROLE_USER")));
+
+        assertThat(service.findByEmail("alice@example.com").block().id()).isEqualTo(2L);
+        assertThat(service.findByEmail("alice@example.com").block().id()).isEqualTo(2L);
+        verify(userRepository, times(2)).findByEmail("alice@example.com");
+    }
+
+    @Test
+    void findAllById_ShouldKeepRequestOrder_AndLoadOnlyMisses() {
+        service.update(new UserDto(2L, "bob@example.com", "ROLE_USER"));
+        when(userRepository.findAllByIds(any())).thenReturn(Flux.just(
+            user(1L, "alice@example.com", "ROLE_USER"),
+            user(3L, "carol@example.com", "ROLE_ADMIN")));
+
+        BatchGetUsersResponse response = service.findAllById(List.of(3L, 2L, 9L, 1L, 3L)).block();
+
+        assertThat(response.users()).extracting(UserDto::id).containsExactly(3L, 2L, 1L);
+        assertThat(response.missingIds()).containsExactly(9L);
+        ArgumentCaptor<Long[]> requested = ArgumentCaptor.forClass(Long[].class);
+        verify(userRepository).findAllByIds(requested.capture());
+        assertThat(requested.getValue()).containsExactlyInAnyOrder(3L, 9L, 1L);
+
+        // Найденные закэшированы, ненайденный — нет.
+        when(userRepository.findAllByIds(any())).thenReturn(Flux.empty());
+        assertThat(service.findAllById(List.of(1L, 9L)).block().users()).extracting(UserDto::id).containsExactly(1L);
+        verify(userRepository, times(2)).findAllByIds(requested.capture());
+        assertThat(requested.getValue()).containsExactly(9L);
+    }
+
+    @Test
+    void exportAll_ShouldReadPagesWithoutGapsOrDuplicates() {
+        // Страница по 2 строки: 4 подходящих пользователя — ровно две полные страницы и пустая третья.
+        List<User> table = List.of(
+            user(1L, "a@example.com", "ROLE_USER"),
+            user(2L, "b@example.com", "ROLE_ADMIN"),
+            user(3L, "c@example.com", "ROLE_USER"),
+            user(5L, "d@example.com", "ROLE_USER"),
+            user(8L, "e@example.com", "ROLE_USER"),
+            user(9L, "f@example.com", "ROLE_ADMIN"));
+        when(userRepository.findPageAfter(anyLong(), any(), anyInt())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            String role = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            return Flux.fromIterable(table)
+                .filter(user -> user.getId() > afterId && (role == null || role.equals(user.getRole())))
+                .take(limit);
+        });
+
+        assertThat(service.exportAll(null).map(UserDto::id).collectList().block())
+            .containsExactly(1L, 2L, 3L, 5L, 8L, 9L);
+        assertThat(service.exportAll("ROLE_USER").map(UserDto::id).collectList().block())
+            .containsExactly(1L, 3L, 5L, 8L);
+        assertThat(service.exportAll("ROLE_ADMIN").map(UserDto::id).collectList().block())
+            .containsExactly(2L, 9L);
+
+        verify(userRepository).findPageAfter(0L, "ROLE_USER", 2);
+        verify(userRepository).findPageAfter(3L, "ROLE_USER", 2);
+        verify(userRepository).findPageAfter(8L, "ROLE_USER", 2);
+        verify(userRepository).findPageAfter(9L, "ROLE_ADMIN", 2);
+    }
+
+    private static User user(Long id, String email, String role) {
+        return User.builder().id(id).email(email).role(role).version(0).build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.user.snapshot;
+
+import com.example.user.service.UserEventRetryRouter;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Offset'ы снимка с учётом событий, которые ещё ждут повтора.
+ */
+class UserSnapshotExporterTest {
+
+    static final TopicPartition P0 = new TopicPartition("user.created", 0);
+    static final TopicPartition P1 = new TopicPartition("user.created", 1);
+
+    @Test
+    void lowerToPendingRetries_ShouldKeepCommittedOffsets_WhenNoRetriesPending() {
+        Map<TopicPartition, Long> offsets = UserSnapshotExporter.lowerToPendingRetries(
+            Map.of(P0, 100L, P1, 50L), List.of());
+
+        assertThat(offsets).containsExactlyInAnyOrderEntriesOf(Map.of(P0, 100L, P1, 50L));
+    }
+
+    @Test
+    void lowerToPendingRetries_ShouldLowerToMinimalOriginalOffset_WhenRetriesPending() {
+        Map<TopicPartition, Long> offsets = UserSnapshotExporter.lowerToPendingRetries(
+            Map.of(P0, 100L, P1, 50L),
+            List.of(retryRecord("user.created.retry.1s", "user.created", 0, 90),
+                retryRecord("user.created.retry.30s", "user.created", 0, 42),
+                retryRecord("user.created.retry.1s", "user.created", 1, 49)));
+
+        assertThat(offsets).containsExactlyInAnyOrderEntriesOf(Map.of(P0, 42L, P1, 49L));
+    }
+
+    @Test
+    void lowerToPendingRetries_ShouldIgnoreRecords_WithoutOriginHeadersOrFromOtherTopic() {
+        ConsumerRecord<byte[], byte[]> withoutHeaders = new ConsumerRecord<>("user.created.retry.1s", 0, 0L,
+            new byte[0], new byte[0]);
+
+        Map<TopicPartition, Long> offsets = UserSnapshotExporter.lowerToPendingRetries(
+            Map.of(P0, 100L),
+            List.of(withoutHeaders, retryRecord("user.created.retry.1s", "user.updated", 0, 1)));
+
+        assertThat(offsets).containsExactlyInAnyOrderEntriesOf(Map.of(P0, 100L));
+    }
+
+    @Test
+    void lowerToPendingRetries_ShouldNotAddPartitions_WithoutCommittedOffset() {
+        Map<TopicPartition, Long> offsets = UserSnapshotExporter.lowerToPendingRetries(
+            Map.of(P0, 100L),
+            List.of(retryRecord("user.created.retry.1s", "user.created", 1, 7)));
+
+        assertThat(offsets).containsExactlyInAnyOrderEntriesOf(Map.of(P0, 100L));
+    }
+
+    private static ConsumerRecord<byte[], byte[]> retryRecord(String topic, String originalTopic,
+                                                              int originalPartition, long originalOffset) {
+        ConsumerRecord<byte[], byte[]> record = new ConsumerRecord<>(topic, 0, 0L, new byte[0], new byte[0]);
+        record.headers().add(UserEventRetryRouter.ORIGINAL_TOPIC_HEADER, bytes(originalTopic));
+        record.headers().add(UserEventRetryRouter.ORIGINAL_PARTITION_HEADER, bytes(originalPartition));
+        record.headers().add(UserEventRetryRouter.ORIGINAL_OFFSET_HEADER, bytes(originalOffset));
+        return record;
+    }
+
+    private static byte[] bytes(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file